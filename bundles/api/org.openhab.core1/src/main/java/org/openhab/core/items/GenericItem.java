@@ -12,12 +12,10 @@
  */
 package org.openhab.core.items;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.WeakHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.openhab.core.events.EventPublisher;
 import org.openhab.core.types.Command;
@@ -37,8 +35,17 @@ abstract public class GenericItem implements Item {
 
     protected EventPublisher eventPublisher;
 
-    protected Set<StateChangeListener> listeners = new CopyOnWriteArraySet<>(
-            Collections.newSetFromMap(new WeakHashMap<StateChangeListener, Boolean>()));
+    private static final ListenerReference[] NO_LISTENERS = new ListenerReference[0];
+
+    /**
+     * weakly referenced listeners in the order they have been added; the array is never
+     * modified but replaced as a whole when a listener is added or removed, so that
+     * {@link #setState(State)} can iterate over it without copying or locking
+     */
+    private volatile ListenerReference[] listeners = NO_LISTENERS;
+
+    /** guards the replacement of {@link #listeners} */
+    private final Object listenersLock = new Object();
 
     protected List<String> groupNames = new ArrayList<>();
 
@@ -99,17 +106,32 @@ abstract public class GenericItem implements Item {
     }
 
     private void notifyListeners(State oldState, State newState) {
+        // the array is never modified, so this snapshot is not affected by concurrent (un)registrations
+        ListenerReference[] currentListeners = listeners;
+        if (currentListeners.length == 0) {
+            return;
+        }
+        boolean collected = false;
         // if nothing has changed, we send update notifications
-        Set<StateChangeListener> clonedListeners = null;
-        clonedListeners = new CopyOnWriteArraySet<>(listeners);
-        for (StateChangeListener listener : clonedListeners) {
-            listener.stateUpdated(this, newState);
+        for (ListenerReference reference : currentListeners) {
+            StateChangeListener listener = reference.get();
+            if (listener != null) {
+                listener.stateUpdated(this, newState);
+            } else {
+                collected = true;
+            }
         }
         if (!oldState.equals(newState)) {
-            for (StateChangeListener listener : clonedListeners) {
-                listener.stateChanged(this, oldState, newState);
+            for (ListenerReference reference : currentListeners) {
+                StateChangeListener listener = reference.get();
+                if (listener != null) {
+                    listener.stateChanged(this, oldState, newState);
+                }
             }
         }
+        if (collected) {
+            expungeStaleListeners();
+        }
     }
 
     @Override
@@ -118,15 +140,51 @@ abstract public class GenericItem implements Item {
     }
 
     public void addStateChangeListener(StateChangeListener listener) {
-        synchronized (listeners) {
-            listeners.add(listener);
+        if (listener == null) {
+            return;
+        }
+        synchronized (listenersLock) {
+            List<ListenerReference> references = liveListeners(null);
+            for (ListenerReference reference : references) {
+                if (listener.equals(reference.get())) {
+                    return;
+                }
+            }
+            references.add(new ListenerReference(listener));
+            listeners = references.toArray(new ListenerReference[references.size()]);
         }
     }
 
     public void removeStateChangeListener(StateChangeListener listener) {
-        synchronized (listeners) {
-            listeners.remove(listener);
+        synchronized (listenersLock) {
+            List<ListenerReference> references = liveListeners(listener);
+            if (references.size() != listeners.length) {
+                listeners = references.isEmpty() ? NO_LISTENERS
+                        : references.toArray(new ListenerReference[references.size()]);
+            }
+        }
+    }
+
+    private void expungeStaleListeners() {
+        removeStateChangeListener(null);
+    }
+
+    /**
+     * Returns the references of all listeners which haven't been garbage collected yet.
+     * Must be called while holding {@link #listenersLock}.
+     *
+     * @param excluded a listener to leave out or <code>null</code>
+     * @return a new, modifiable list of references
+     */
+    private List<ListenerReference> liveListeners(StateChangeListener excluded) {
+        List<ListenerReference> references = new ArrayList<>(Arrays.asList(listeners));
+        for (int i = references.size() - 1; i >= 0; i--) {
+            StateChangeListener listener = references.get(i).get();
+            if (listener == null || (excluded != null && excluded.equals(listener))) {
+                references.remove(i);
+            }
         }
+        return references;
     }
 
     @Override
@@ -175,4 +233,15 @@ abstract public class GenericItem implements Item {
         return true;
     }
 
+    /**
+     * A weak reference to a {@link StateChangeListener}, so that the item doesn't keep
+     * its listeners from being garbage collected.
+     */
+    private static final class ListenerReference extends WeakReference<StateChangeListener> {
+
+        ListenerReference(StateChangeListener listener) {
+            super(listener);
+        }
+    }
+
 }
@@ -13,10 +13,12 @@
 package org.openhab.core.items;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.collections.ListUtils;
 import org.openhab.core.types.Command;
@@ -38,6 +40,26 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 
     protected GroupFunction function;
 
+    /**
+     * incremented whenever the members of any group change, so that the cached flattened
+     * members of all (possibly nested) groups are invalidated
+     */
+    private static final AtomicLong membershipVersion = new AtomicLong();
+
+    /** the cached result of {@link #getAllMembers()}, valid for {@link #allMembersVersion} */
+    private volatile List<Item> allMembers;
+
+    private volatile long allMembersVersion = -1;
+
+    /**
+     * maintains the group state for {@link IncrementalGroupFunction}s; created lazily and
+     * guarded by itself
+     */
+    private GroupStateAggregator<?> aggregator;
+
+    /** the function the {@link #aggregator} has been created for */
+    private GroupFunction aggregatorFunction;
+
     public GroupItem(String name) {
         this(name, null);
     }
@@ -82,23 +104,49 @@ public class GroupItem extends GenericItem implements StateChangeListener {
      * @return all members of this and all contained {@link GroupItem}s
      */
     public List<Item> getAllMembers() {
-        Set<Item> allMembers = new HashSet<>();
-        collectMembers(allMembers, members);
-        return new ArrayList<>(allMembers);
+        return new ArrayList<>(getCachedAllMembers());
+    }
+
+    /**
+     * Returns the flattened members of this group. The list is only rebuilt after the
+     * members of any group have changed.
+     *
+     * @return an unmodifiable list of all members of this and all contained {@link GroupItem}s
+     */
+    private List<Item> getCachedAllMembers() {
+        long version = membershipVersion.get();
+        List<Item> cached = allMembers;
+        if (cached == null || allMembersVersion != version) {
+            Map<Item, Boolean> collected = new IdentityHashMap<>();
+            List<Item> flattened = new ArrayList<>();
+            collectMembers(collected, flattened, members);
+            cached = Collections.unmodifiableList(flattened);
+            allMembers = cached;
+            allMembersVersion = version;
+        }
+        return cached;
     }
 
-    private void collectMembers(Set<Item> allMembers, List<Item> members) {
+    private void collectMembers(Map<Item, Boolean> collected, List<Item> allMembers, List<Item> members) {
         for (Item member : members) {
             if (member instanceof GroupItem) {
-                collectMembers(allMembers, ((GroupItem) member).members);
-            } else {
+                collectMembers(collected, allMembers, ((GroupItem) member).members);
+            } else if (collected.put(member, Boolean.TRUE) == null) {
                 allMembers.add(member);
             }
         }
     }
 
     public void addMember(Item item) {
-        members.add(item);
+        // add under the same lock calculate() creates the aggregator from the members with,
+        // so the new member is counted exactly once
+        synchronized (this.members) {
+            members.add(item);
+            if (aggregator != null) {
+                aggregator.memberAdded(item);
+            }
+        }
+        membershipVersion.incrementAndGet();
         if (item instanceof GenericItem) {
             GenericItem genericItem = (GenericItem) item;
             genericItem.addStateChangeListener(this);
@@ -106,8 +154,15 @@ public class GroupItem extends GenericItem implements StateChangeListener {
     }
 
     public void removeMember(Item item) {
-        members.remove(item);
-        if (item instanceof GenericItem) {
+        synchronized (this.members) {
+            boolean removed = members.remove(item);
+            if (aggregator != null && removed) {
+                aggregator.memberRemoved(item);
+            }
+        }
+        membershipVersion.incrementAndGet();
+        // keep listening if the item is still a member because it was added more than once
+        if (item instanceof GenericItem && !members.contains(item)) {
             GenericItem genericItem = (GenericItem) item;
             genericItem.removeStateChangeListener(this);
         }
@@ -192,7 +247,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
      */
     @Override
     public State getStateAs(Class<? extends State> typeClass) {
-        State newState = function.getStateAs(getAllMembers(), typeClass);
+        State newState = function.getStateAs(getCachedAllMembers(), typeClass);
         if (newState == null && baseItem != null) {
             // we use the transformation method from the base item
             baseItem.setState(state);
@@ -219,7 +274,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
      */
     @Override
     public void stateChanged(Item item, State oldState, State newState) {
-        setState(function.calculate(members));
+        setState(calculate(item));
     }
 
     /**
@@ -227,6 +282,33 @@ public class GroupItem extends GenericItem implements StateChangeListener {
      */
     @Override
     public void stateUpdated(Item item, State state) {
-        setState(function.calculate(members));
+        setState(calculate(item));
+    }
+
+    /**
+     * Calculates the group state after the state of a member has been updated. For an
+     * {@link IncrementalGroupFunction} only the contribution of the updated member is
+     * applied, all other functions are calculated over all members.
+     *
+     * @param item the member whose state has been updated
+     * @return the new group state
+     */
+    private State calculate(Item item) {
+        GroupFunction currentFunction = function;
+        if (currentFunction instanceof IncrementalGroupFunction) {
+            synchronized (this.members) {
+                if (aggregator == null || aggregatorFunction != currentFunction) {
+                    aggregator = ((IncrementalGroupFunction) currentFunction).createAggregator();
+                    aggregatorFunction = currentFunction;
+                    for (Item member : members) {
+                        aggregator.memberAdded(member);
+                    }
+                } else {
+                    aggregator.memberUpdated(item);
+                }
+                return aggregator.getState();
+            }
+        }
+        return currentFunction.calculate(members);
     }
 }
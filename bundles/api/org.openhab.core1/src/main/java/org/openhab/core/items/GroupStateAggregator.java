@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.items;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.openhab.core.types.State;
+
+/**
+ * Keeps the state of an {@link IncrementalGroupFunction} up to date while members are
+ * added, removed or updated. Every member contributes a value derived from its state
+ * (e.g. its decimal value) which is remembered, so that an update only has to remove
+ * the old and add the new contribution of a single member.
+ * <p>
+ * Members are tracked by identity, as the {@link GenericItem#hashCode()} depends on the
+ * state of the item. Instances are not thread-safe; callers have to synchronize access.
+ *
+ * @param <C> the type of the contribution of a single member
+ *
+ * @since 1.14.0
+ */
+public abstract class GroupStateAggregator<C> {
+
+    private final Map<Item, Contribution<C>> contributions = new IdentityHashMap<>();
+
+    /** the number of members including duplicates */
+    private int size = 0;
+
+    /**
+     * Adds a member to the aggregation.
+     *
+     * @param item the member to add
+     */
+    public void memberAdded(Item item) {
+        Contribution<C> contribution = contributions.get(item);
+        if (contribution == null) {
+            contribution = new Contribution<>(contributionOf(item));
+            contributions.put(item, contribution);
+        }
+        contribution.count++;
+        size++;
+        include(contribution.value);
+    }
+
+    /**
+     * Removes a member from the aggregation.
+     *
+     * @param item the member to remove
+     */
+    public void memberRemoved(Item item) {
+        Contribution<C> contribution = contributions.get(item);
+        if (contribution != null) {
+            exclude(contribution.value);
+            size--;
+            if (--contribution.count == 0) {
+                contributions.remove(item);
+            }
+        }
+    }
+
+    /**
+     * Replaces the contribution of a member by one derived from its current state.
+     *
+     * @param item the member whose state has been updated
+     * @return <code>false</code> if the item isn't a member of the aggregation
+     */
+    public boolean memberUpdated(Item item) {
+        Contribution<C> contribution = contributions.get(item);
+        if (contribution == null) {
+            return false;
+        }
+        C newValue = contributionOf(item);
+        C oldValue = contribution.value;
+        if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+            for (int i = 0; i < contribution.count; i++) {
+                exclude(oldValue);
+                include(newValue);
+            }
+            contribution.value = newValue;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of members, including duplicates
+     */
+    protected int size() {
+        return size;
+    }
+
+    /**
+     * Derives the contribution of a member from its current state.
+     *
+     * @param item the member
+     * @return the contribution, may be <code>null</code> if the member doesn't contribute
+     */
+    protected abstract C contributionOf(Item item);
+
+    /**
+     * Adds a contribution to the aggregated value.
+     *
+     * @param value the contribution, may be <code>null</code>
+     */
+    protected abstract void include(C value);
+
+    /**
+     * Removes a contribution, which has been included before, from the aggregated value.
+     *
+     * @param value the contribution, may be <code>null</code>
+     */
+    protected abstract void exclude(C value);
+
+    /**
+     * @return the current group state
+     */
+    public abstract State getState();
+
+    private static class Contribution<C> {
+
+        C value;
+
+        int count = 0;
+
+        Contribution(C value) {
+            this.value = value;
+        }
+    }
+
+}
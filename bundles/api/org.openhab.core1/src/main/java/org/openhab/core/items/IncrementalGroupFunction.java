@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.items;
+
+/**
+ * Group functions implementing this interface are able to maintain the group state
+ * incrementally. Instead of recalculating the state over all members whenever a single
+ * member is updated, a {@link GroupItem} then only applies the contribution of the
+ * updated member to a {@link GroupStateAggregator}.
+ * <p>
+ * For every list of items, the state of an aggregator holding these items must be
+ * equal to the result of {@link #calculate(java.util.List)}.
+ *
+ * @since 1.14.0
+ */
+public interface IncrementalGroupFunction extends GroupFunction {
+
+    /**
+     * Creates a new, empty aggregator for this function.
+     *
+     * @return the new aggregator
+     */
+    public GroupStateAggregator<?> createAggregator();
+
+}
@@ -17,6 +17,8 @@ import java.math.RoundingMode;
 import java.util.List;
 
 import org.openhab.core.items.GroupFunction;
+import org.openhab.core.items.GroupStateAggregator;
+import org.openhab.core.items.IncrementalGroupFunction;
 import org.openhab.core.items.Item;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
@@ -42,7 +44,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class And implements GroupFunction {
+    static class And implements IncrementalGroupFunction {
 
         protected final State activeState;
         protected final State passiveState;
@@ -63,16 +65,39 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             if (items != null && items.size() > 0) {
                 for (Item item : items) {
                     if (!activeState.equals(item.getStateAs(activeState.getClass()))) {
-                        return passiveState;
+                        return result(false);
                     }
                 }
-                return activeState;
+                return result(true);
             } else {
                 // if we do not have any items, we return the passive state
-                return passiveState;
+                return result(false);
             }
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupStateAggregator<?> createAggregator() {
+            return new ArithmeticGroupStateAggregators.ActiveCount(activeState) {
+                @Override
+                public State getState() {
+                    return result(size() > 0 && activeCount() == size());
+                }
+            };
+        }
+
+        /**
+         * Maps the result of the 'and' operation to the group state.
+         *
+         * @param allActive <code>true</code> if there are items and all of them are of 'activeState'
+         * @return the group state
+         */
+        protected State result(boolean allActive) {
+            return allActive ? activeState : passiveState;
+        }
+
         /**
          * @{inheritDoc
          */
@@ -119,7 +144,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class Or implements GroupFunction {
+    static class Or implements IncrementalGroupFunction {
 
         protected final State activeState;
         protected final State passiveState;
@@ -140,11 +165,34 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             if (items != null) {
                 for (Item item : items) {
                     if (activeState.equals(item.getStateAs(activeState.getClass()))) {
-                        return activeState;
+                        return result(true);
                     }
                 }
             }
-            return passiveState;
+            return result(false);
+        }
+
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupStateAggregator<?> createAggregator() {
+            return new ArithmeticGroupStateAggregators.ActiveCount(activeState) {
+                @Override
+                public State getState() {
+                    return result(activeCount() > 0);
+                }
+            };
+        }
+
+        /**
+         * Maps the result of the 'or' operation to the group state.
+         *
+         * @param anyActive <code>true</code> if at least one item is of 'activeState'
+         * @return the group state
+         */
+        protected State result(boolean anyActive) {
+            return anyActive ? activeState : passiveState;
         }
 
         /**
@@ -193,10 +241,8 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         }
 
         @Override
-        public State calculate(List<Item> items) {
-            State result = super.calculate(items);
-            State notResult = result.equals(activeState) ? passiveState : activeState;
-            return notResult;
+        protected State result(boolean allActive) {
+            return allActive ? passiveState : activeState;
         }
 
     }
@@ -217,10 +263,8 @@ public interface ArithmeticGroupFunction extends GroupFunction {
         }
 
         @Override
-        public State calculate(List<Item> items) {
-            State result = super.calculate(items);
-            State notResult = result.equals(activeState) ? passiveState : activeState;
-            return notResult;
+        protected State result(boolean anyActive) {
+            return anyActive ? passiveState : activeState;
         }
 
     }
@@ -232,7 +276,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class Avg implements GroupFunction {
+    static class Avg implements IncrementalGroupFunction {
 
         public Avg() {
         }
@@ -260,6 +304,23 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupStateAggregator<?> createAggregator() {
+            return new ArithmeticGroupStateAggregators.RunningSum() {
+                @Override
+                public State getState() {
+                    if (count() > 0) {
+                        return new DecimalType(sum().divide(new BigDecimal(count()), RoundingMode.HALF_UP));
+                    } else {
+                        return UnDefType.UNDEF;
+                    }
+                }
+            };
+        }
+
         /**
          * @{inheritDoc
          */
@@ -281,7 +342,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 1.1.0
      *
      */
-    static class Sum implements GroupFunction {
+    static class Sum implements IncrementalGroupFunction {
 
         public Sum() {
         }
@@ -303,6 +364,19 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return new DecimalType(sum);
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupStateAggregator<?> createAggregator() {
+            return new ArithmeticGroupStateAggregators.RunningSum() {
+                @Override
+                public State getState() {
+                    return new DecimalType(sum());
+                }
+            };
+        }
+
         /**
          * @{inheritDoc
          */
@@ -324,7 +398,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class Min implements GroupFunction {
+    static class Min implements IncrementalGroupFunction {
 
         public Min() {
         }
@@ -351,6 +425,20 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return UnDefType.UNDEF;
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupStateAggregator<?> createAggregator() {
+            return new ArithmeticGroupStateAggregators.OrderedValues() {
+                @Override
+                public State getState() {
+                    BigDecimal min = min();
+                    return min != null ? new DecimalType(min) : UnDefType.UNDEF;
+                }
+            };
+        }
+
         /**
          * @{inheritDoc
          */
@@ -372,7 +460,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class Max implements GroupFunction {
+    static class Max implements IncrementalGroupFunction {
 
         public Max() {
         }
@@ -399,6 +487,20 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return UnDefType.UNDEF;
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupStateAggregator<?> createAggregator() {
+            return new ArithmeticGroupStateAggregators.OrderedValues() {
+                @Override
+                public State getState() {
+                    BigDecimal max = max();
+                    return max != null ? new DecimalType(max) : UnDefType.UNDEF;
+                }
+            };
+        }
+
         /**
          * @{inheritDoc
          */
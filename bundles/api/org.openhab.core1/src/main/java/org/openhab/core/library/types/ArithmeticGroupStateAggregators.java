@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.library.types;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openhab.core.items.GroupStateAggregator;
+import org.openhab.core.items.Item;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link GroupStateAggregator}s used by the {@link ArithmeticGroupFunction}s.
+ *
+ * @since 1.14.0
+ */
+final class ArithmeticGroupStateAggregators {
+
+    private ArithmeticGroupStateAggregators() {
+        // prevent instantiation
+    }
+
+    /**
+     * Counts the members which are in a given active state.
+     */
+    abstract static class ActiveCount extends GroupStateAggregator<Boolean> {
+
+        private final State activeState;
+
+        private int activeCount = 0;
+
+        ActiveCount(State activeState) {
+            this.activeState = activeState;
+        }
+
+        /**
+         * @return the number of members in the active state, including duplicates
+         */
+        int activeCount() {
+            return activeCount;
+        }
+
+        @Override
+        protected Boolean contributionOf(Item item) {
+            return activeState.equals(item.getStateAs(activeState.getClass())) ? Boolean.TRUE : Boolean.FALSE;
+        }
+
+        @Override
+        protected void include(Boolean value) {
+            if (Boolean.TRUE.equals(value)) {
+                activeCount++;
+            }
+        }
+
+        @Override
+        protected void exclude(Boolean value) {
+            if (Boolean.TRUE.equals(value)) {
+                activeCount--;
+            }
+        }
+    }
+
+    /**
+     * Base class for aggregators over the decimal values of the members. Members without
+     * a decimal state don't contribute.
+     */
+    abstract static class Decimal extends GroupStateAggregator<BigDecimal> {
+
+        @Override
+        protected BigDecimal contributionOf(Item item) {
+            DecimalType itemState = (DecimalType) item.getStateAs(DecimalType.class);
+            return itemState != null ? itemState.toBigDecimal() : null;
+        }
+    }
+
+    /**
+     * Keeps a running sum and count of the decimal values of the members.
+     */
+    abstract static class RunningSum extends Decimal {
+
+        private BigDecimal sum = BigDecimal.ZERO;
+
+        private int count = 0;
+
+        /**
+         * the number of contributions per scale; the sum is reported with the largest
+         * scale in use, just as if it was calculated from scratch
+         */
+        private final TreeMap<Integer, Integer> scales = new TreeMap<>();
+
+        /**
+         * @return the number of members with a decimal state, including duplicates
+         */
+        int count() {
+            return count;
+        }
+
+        /**
+         * @return the sum of all decimal states
+         */
+        BigDecimal sum() {
+            int scale = scales.isEmpty() ? 0 : Math.max(0, scales.lastKey());
+            return sum.scale() == scale ? sum : sum.setScale(scale, BigDecimal.ROUND_UNNECESSARY);
+        }
+
+        @Override
+        protected void include(BigDecimal value) {
+            if (value != null) {
+                sum = sum.add(value);
+                count++;
+                Integer scaleCount = scales.get(value.scale());
+                scales.put(value.scale(), scaleCount == null ? 1 : scaleCount + 1);
+            }
+        }
+
+        @Override
+        protected void exclude(BigDecimal value) {
+            if (value != null) {
+                sum = sum.subtract(value);
+                count--;
+                Integer scaleCount = scales.get(value.scale());
+                if (scaleCount != null) {
+                    if (scaleCount > 1) {
+                        scales.put(value.scale(), scaleCount - 1);
+                    } else {
+                        scales.remove(value.scale());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the decimal values of the members in an ordered multiset.
+     */
+    abstract static class OrderedValues extends Decimal {
+
+        private final TreeMap<BigDecimal, Integer> values = new TreeMap<>();
+
+        /**
+         * @return the smallest decimal state or <code>null</code> if there is none
+         */
+        BigDecimal min() {
+            return values.isEmpty() ? null : values.firstKey();
+        }
+
+        /**
+         * @return the largest decimal state or <code>null</code> if there is none
+         */
+        BigDecimal max() {
+            return values.isEmpty() ? null : values.lastKey();
+        }
+
+        @Override
+        protected void include(BigDecimal value) {
+            if (value != null) {
+                Integer count = values.get(value);
+                values.put(value, count == null ? 1 : count + 1);
+            }
+        }
+
+        @Override
+        protected void exclude(BigDecimal value) {
+            if (value != null) {
+                Map.Entry<BigDecimal, Integer> entry = values.ceilingEntry(value);
+                if (entry != null && entry.getKey().compareTo(value) == 0) {
+                    if (entry.getValue() > 1) {
+                        values.put(entry.getKey(), entry.getValue() - 1);
+                    } else {
+                        values.remove(entry.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -12,12 +12,19 @@
  */
 package org.openhab.core.service;
 
+import java.util.concurrent.ScheduledFuture;
+
+import org.openhab.core.service.ActiveServiceScheduler.ScheduledCycle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Base class for services that frequently run some action in a separate thread in the
  * background.
+ * <p>
+ * By default every service gets its own refresh thread. If the shared mode of the
+ * {@link ActiveServiceScheduler} is enabled, the action is run on the bounded pool of
+ * the scheduler instead.
  *
  * @author Kai Kreuzer
  * @since 0.7.0
@@ -41,6 +48,12 @@ public abstract class AbstractActiveService {
      */
     private Thread refreshThread;
 
+    /**
+     * holds the cycle scheduled on the {@link ActiveServiceScheduler} or is
+     * <code>null</code> if the service isn't executed by the shared scheduler
+     */
+    private volatile SharedRefreshCycle refreshCycle;
+
     public AbstractActiveService() {
         super();
     }
@@ -65,8 +78,14 @@ public abstract class AbstractActiveService {
 
         shutdown = false;
         if (!isRunning()) {
-            this.refreshThread = new RefreshThread(getName(), getRefreshInterval());
-            this.refreshThread.start();
+            if (ActiveServiceScheduler.isSharedModeEnabled()) {
+                SharedRefreshCycle cycle = new SharedRefreshCycle(getName(), getRefreshInterval());
+                this.refreshCycle = cycle;
+                cycle.start();
+            } else {
+                this.refreshThread = new RefreshThread(getName(), getRefreshInterval());
+                this.refreshThread.start();
+            }
         } else {
             logger.trace("{} is already started > calling start() changed nothing.", getName());
         }
@@ -85,16 +104,33 @@ public abstract class AbstractActiveService {
      */
     public void interrupt() {
         if (isRunning()) {
-            this.refreshThread.interrupt();
+            Thread thread = this.refreshThread;
+            if (thread != null) {
+                thread.interrupt();
+            }
+            SharedRefreshCycle cycle = this.refreshCycle;
+            if (cycle != null) {
+                cycle.interrupt();
+            }
             logger.trace("{} has been interrupted.", getName());
         }
     }
 
     public boolean isRunning() {
-        if (this.refreshThread != null) {
-            return this.refreshThread.isAlive();
+        Thread thread = this.refreshThread;
+        if (thread != null) {
+            return thread.isAlive();
         }
-        return false;
+        return this.refreshCycle != null;
+    }
+
+    /**
+     * Returns the execution time metrics of this service.
+     *
+     * @return the statistics, never <code>null</code>
+     */
+    public ActiveServiceStatistics getStatistics() {
+        return ActiveServiceScheduler.getStatistics(getName());
     }
 
     /**
@@ -143,6 +179,24 @@ public abstract class AbstractActiveService {
      */
     protected abstract String getName();
 
+    /**
+     * Calls the execute method once and records its execution time.
+     *
+     * @param statistics the statistics to update
+     */
+    private void executeCycle(ActiveServiceStatistics statistics) {
+        long startTimestamp = System.currentTimeMillis();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            execute();
+        } catch (RuntimeException e) {
+            failed = true;
+            logger.error("Error while executing background thread {}", getName(), e);
+        }
+        statistics.recordExecution(startTimestamp, System.nanoTime() - start, failed);
+    }
+
     /**
      * Worker thread which calls the execute method frequently.
      *
@@ -165,12 +219,9 @@ public abstract class AbstractActiveService {
         public void run() {
             logger.info("{} has been started", getName());
 
+            ActiveServiceStatistics statistics = ActiveServiceScheduler.getStatistics(getName());
             while (!shutdown) {
-                try {
-                    execute();
-                } catch (RuntimeException e) {
-                    logger.error("Error while executing background thread {}", getName(), e);
-                }
+                executeCycle(statistics);
                 pause(refreshInterval);
             }
 
@@ -195,4 +246,80 @@ public abstract class AbstractActiveService {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Cycle which calls the execute method frequently on the pool of the
+     * {@link ActiveServiceScheduler}.
+     */
+    class SharedRefreshCycle extends ScheduledCycle {
+
+        private final long refreshInterval;
+
+        /** the handle of the next scheduled execution */
+        private ScheduledFuture<?> future;
+
+        /** the pool thread currently executing this cycle or <code>null</code> */
+        private volatile Thread executingThread;
+
+        public SharedRefreshCycle(String name, long refreshInterval) {
+            super(name);
+            this.refreshInterval = refreshInterval;
+        }
+
+        synchronized void start() {
+            logger.info("{} has been started", name);
+            future = ActiveServiceScheduler.schedule(this, refreshInterval);
+        }
+
+        /**
+         * Triggers the next cycle immediately if no cycle is running at the moment,
+         * otherwise interrupts the thread executing the current cycle.
+         */
+        synchronized void interrupt() {
+            Thread thread = executingThread;
+            if (thread != null) {
+                thread.interrupt();
+            } else if (future != null && future.cancel(false)) {
+                nextDeadline = System.nanoTime();
+                future = ActiveServiceScheduler.schedule(this, 0);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (shutdown || refreshCycle != this) {
+                stop();
+                return;
+            }
+
+            Thread thread = Thread.currentThread();
+            String threadName = thread.getName();
+            thread.setName(name);
+            executingThread = thread;
+            try {
+                executeCycle(statistics);
+            } finally {
+                executingThread = null;
+                // clear a possible interrupt so that it doesn't leak into the next pooled task
+                Thread.interrupted();
+                thread.setName(threadName);
+            }
+
+            synchronized (this) {
+                if (!shutdown && refreshCycle == this) {
+                    future = ActiveServiceScheduler.reschedule(this, refreshInterval);
+                    return;
+                }
+            }
+            stop();
+        }
+
+        private void stop() {
+            if (refreshCycle == this) {
+                refreshCycle = null;
+                logger.info("{} has been shut down", name);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Central scheduler which runs the <code>execute()</code> cycles of all
+ * {@link AbstractActiveService}s on one bounded thread pool instead of starting
+ * a dedicated thread per service.
+ * <p>
+ * Cycles are started at a fixed rate: the interval is measured from the start of a
+ * cycle, not from its end. If a cycle takes longer than the refresh interval, the
+ * missed cycles are skipped (and counted as overruns) instead of being executed
+ * back-to-back. To avoid that all services which are started at the same time
+ * hit the pool together, the first cycle is delayed by a random jitter.
+ * <p>
+ * The scheduler is configured through the following system properties:
+ * <ul>
+ * <li><code>openhab.activeservice.scheduler</code> - <code>shared</code> to run all
+ * active services on the shared pool, <code>thread</code> (the default) to keep a
+ * dedicated refresh thread per service</li>
+ * <li><code>openhab.activeservice.poolsize</code> - the number of pool threads
+ * (defaults to the number of available processors, but at least 4)</li>
+ * <li><code>openhab.activeservice.jitter</code> - the maximum initial delay in
+ * milliseconds (defaults to 5000)</li>
+ * </ul>
+ *
+ * @since 1.14.0
+ */
+public final class ActiveServiceScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveServiceScheduler.class);
+
+    static final String MODE_PROPERTY = "openhab.activeservice.scheduler";
+    static final String POOL_SIZE_PROPERTY = "openhab.activeservice.poolsize";
+    static final String JITTER_PROPERTY = "openhab.activeservice.jitter";
+
+    static final String MODE_SHARED = "shared";
+
+    private static final int DEFAULT_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final long DEFAULT_JITTER = 5000L;
+
+    private static final ConcurrentMap<String, ActiveServiceStatistics> statistics = new ConcurrentHashMap<String, ActiveServiceStatistics>();
+
+    private static final Random random = new Random();
+
+    private ActiveServiceScheduler() {
+        // prevent instantiation
+    }
+
+    /** lazily creates the pool on first use, so that it doesn't exist in the default mode */
+    private static class PoolHolder {
+        static final ScheduledThreadPoolExecutor POOL = createPool();
+    }
+
+    private static ScheduledThreadPoolExecutor createPool() {
+        int poolSize = Integer.getInteger(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE);
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(Math.max(1, poolSize),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "openHAB-active-service-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        pool.setRemoveOnCancelPolicy(true);
+        pool.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        logger.info("Active services are executed by a shared scheduler with {} threads", poolSize);
+        return pool;
+    }
+
+    /**
+     * @return <code>true</code> if active services should be executed by the shared
+     *         scheduler rather than by a dedicated thread
+     */
+    public static boolean isSharedModeEnabled() {
+        return MODE_SHARED.equalsIgnoreCase(System.getProperty(MODE_PROPERTY));
+    }
+
+    /**
+     * Returns the statistics of all active services which have been executed so far,
+     * regardless of the mode they run in.
+     *
+     * @return an unmodifiable view of the statistics
+     */
+    public static Collection<ActiveServiceStatistics> getStatistics() {
+        return Collections.unmodifiableCollection(statistics.values());
+    }
+
+    /**
+     * Returns the statistics of the active service with the given name.
+     *
+     * @param name the name of the active service
+     * @return the statistics, never <code>null</code>
+     */
+    public static ActiveServiceStatistics getStatistics(String name) {
+        ActiveServiceStatistics stats = statistics.get(name);
+        if (stats == null) {
+            ActiveServiceStatistics newStats = new ActiveServiceStatistics(name);
+            stats = statistics.putIfAbsent(name, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Schedules the given cycle on the shared pool.
+     *
+     * @param cycle the cycle to schedule
+     * @param refreshInterval the interval between the start of two cycles in milliseconds
+     * @return the handle of the first scheduled cycle
+     */
+    static ScheduledFuture<?> schedule(ScheduledCycle cycle, long refreshInterval) {
+        long maxJitter = Math.min(Long.getLong(JITTER_PROPERTY, DEFAULT_JITTER), refreshInterval);
+        long jitter = maxJitter > 0 ? (long) (random.nextDouble() * maxJitter) : 0;
+        cycle.nextDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(jitter);
+        return PoolHolder.POOL.schedule(cycle, jitter, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules the next execution of the given cycle at its next deadline. If the
+     * deadline has already passed, the missed cycles are skipped and recorded as
+     * overruns.
+     *
+     * @param cycle the cycle to reschedule
+     * @param refreshInterval the interval between the start of two cycles in milliseconds
+     * @return the handle of the next scheduled cycle
+     */
+    static ScheduledFuture<?> reschedule(ScheduledCycle cycle, long refreshInterval) {
+        long period = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, refreshInterval));
+        long now = System.nanoTime();
+        long deadline = cycle.nextDeadline + period;
+        if (deadline - now < 0) {
+            long skipped = (now - deadline) / period + 1;
+            deadline += skipped * period;
+            cycle.statistics.recordOverrun(skipped);
+            logger.debug("{} took longer than its refresh interval of {}ms, skipping {} cycle(s)", cycle.name,
+                    refreshInterval, skipped);
+        }
+        cycle.nextDeadline = deadline;
+        return PoolHolder.POOL.schedule(cycle, deadline - now, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A single <code>execute()</code> cycle of an active service which reschedules
+     * itself at a fixed rate.
+     */
+    abstract static class ScheduledCycle implements Runnable {
+
+        final String name;
+
+        final ActiveServiceStatistics statistics;
+
+        /** the {@link System#nanoTime()} the current cycle should have been started */
+        volatile long nextDeadline;
+
+        ScheduledCycle(String name) {
+            this.name = name;
+            this.statistics = getStatistics(name);
+        }
+    }
+
+}
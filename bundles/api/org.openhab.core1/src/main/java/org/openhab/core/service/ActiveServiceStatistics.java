@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execution time metrics of a single {@link AbstractActiveService}. The values are
+ * updated by the thread running the <code>execute()</code> cycle and can be read
+ * concurrently from any other thread.
+ *
+ * @since 1.14.0
+ */
+public class ActiveServiceStatistics {
+
+    private final String name;
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong totalExecutionTime = new AtomicLong();
+    private final AtomicLong maxExecutionTime = new AtomicLong();
+
+    private volatile long lastExecutionTime;
+    private volatile long lastStartTimestamp;
+
+    public ActiveServiceStatistics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a finished <code>execute()</code> cycle.
+     *
+     * @param startTimestamp the wall clock time in milliseconds the cycle has been started
+     * @param durationNanos the time the cycle took in nanoseconds
+     * @param failed <code>true</code> if the cycle ended with an exception
+     */
+    void recordExecution(long startTimestamp, long durationNanos, boolean failed) {
+        long duration = durationNanos / 1000000L;
+        lastStartTimestamp = startTimestamp;
+        lastExecutionTime = duration;
+        executions.incrementAndGet();
+        totalExecutionTime.addAndGet(duration);
+        if (failed) {
+            failures.incrementAndGet();
+        }
+        long max = maxExecutionTime.get();
+        while (duration > max && !maxExecutionTime.compareAndSet(max, duration)) {
+            max = maxExecutionTime.get();
+        }
+    }
+
+    /**
+     * Records that a cycle took longer than the refresh interval so that at least one
+     * scheduled cycle had to be skipped.
+     *
+     * @param skippedCycles the number of cycles which have been skipped
+     */
+    void recordOverrun(long skippedCycles) {
+        overruns.addAndGet(skippedCycles);
+    }
+
+    /**
+     * @return the name of the active service these statistics belong to
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of finished <code>execute()</code> cycles
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+
+    /**
+     * @return the number of cycles which ended with an exception
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * @return the number of cycles which have been skipped because a previous cycle
+     *         did not finish within the refresh interval
+     */
+    public long getOverrunCount() {
+        return overruns.get();
+    }
+
+    /**
+     * @return the duration of the last cycle in milliseconds
+     */
+    public long getLastExecutionTime() {
+        return lastExecutionTime;
+    }
+
+    /**
+     * @return the longest duration of a cycle in milliseconds
+     */
+    public long getMaxExecutionTime() {
+        return maxExecutionTime.get();
+    }
+
+    /**
+     * @return the average duration of a cycle in milliseconds or <code>0</code> if
+     *         no cycle has been executed yet
+     */
+    public long getAverageExecutionTime() {
+        long count = executions.get();
+        return count == 0 ? 0 : totalExecutionTime.get() / count;
+    }
+
+    /**
+     * @return the wall clock time in milliseconds the last cycle has been started
+     */
+    public long getLastStartTimestamp() {
+        return lastStartTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [executions=" + getExecutionCount() + ", failures=" + getFailureCount() + ", overruns="
+                + getOverrunCount() + ", last=" + getLastExecutionTime() + "ms, avg=" + getAverageExecutionTime()
+                + "ms, max=" + getMaxExecutionTime() + "ms]";
+    }
+
+}
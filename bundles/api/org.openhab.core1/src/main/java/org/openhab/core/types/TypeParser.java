@@ -12,12 +12,37 @@
  */
 package org.openhab.core.types;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.IncreaseDecreaseType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PointType;
+import org.openhab.core.library.types.StopMoveType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
 
 /**
  * This is a helper class that helps parsing a string into an openHAB type (state or command).
+ * <p>
+ * The types of the core type library are parsed by precompiled parsers which check the
+ * syntax of the string before creating the type, so that rejecting a string doesn't cost
+ * an exception. For all other types the static <code>valueOf(String)</code> method is
+ * looked up once and cached. That cache only references the types weakly, so that it
+ * doesn't keep the class loader of an uninstalled or updated bundle alive.
  *
  * @author Kai Kreuzer
  * @since 0.1.0
@@ -25,6 +50,100 @@ import java.util.List;
  */
 public class TypeParser {
 
+    /**
+     * Parses a string into a type without reflection.
+     */
+    private interface Parser {
+
+        /**
+         * @param s the string to parse, may be <code>null</code>
+         * @return the parsed type or <code>null</code> if the string isn't a valid value
+         */
+        Object parse(String s);
+    }
+
+    /** used for types without a static <code>valueOf(String)</code> method */
+    private static final Parser NO_PARSER = new Parser() {
+        @Override
+        public Object parse(String s) {
+            return null;
+        }
+    };
+
+    /** the parsers of the core types, not modified after the class has been initialized */
+    private static final Map<Class<?>, Parser> parsers = new HashMap<Class<?>, Parser>();
+
+    private static final Map<Class<?>, Parser> reflectiveParsers = Collections
+            .synchronizedMap(new WeakHashMap<Class<?>, Parser>());
+
+    static {
+        parsers.put(OnOffType.class, new EnumParser(OnOffType.class));
+        parsers.put(OpenClosedType.class, new EnumParser(OpenClosedType.class));
+        parsers.put(UpDownType.class, new EnumParser(UpDownType.class));
+        parsers.put(IncreaseDecreaseType.class, new EnumParser(IncreaseDecreaseType.class));
+        parsers.put(StopMoveType.class, new EnumParser(StopMoveType.class));
+        parsers.put(UnDefType.class, new EnumParser(UnDefType.class));
+        parsers.put(StringType.class, new Parser() {
+            @Override
+            public Object parse(String s) {
+                return new StringType(s);
+            }
+        });
+        parsers.put(DecimalType.class, new Parser() {
+            @Override
+            public Object parse(String s) {
+                BigDecimal value = parseDecimal(s);
+                return value != null ? new DecimalType(value) : null;
+            }
+        });
+        parsers.put(PercentType.class, new Parser() {
+            @Override
+            public Object parse(String s) {
+                BigDecimal value = parseDecimal(s);
+                if (value != null && value.signum() >= 0 && value.compareTo(BigDecimal.valueOf(100)) <= 0) {
+                    return new PercentType(value);
+                }
+                return null;
+            }
+        });
+        parsers.put(HSBType.class, new Parser() {
+            @Override
+            public Object parse(String s) {
+                if (s != null) {
+                    String[] constituents = s.split(",");
+                    if (constituents.length == 3 && isDecimal(constituents[0]) && isDecimal(constituents[1])
+                            && isDecimal(constituents[2])) {
+                        return newInstance(HSBType.class, s);
+                    }
+                }
+                return null;
+            }
+        });
+        parsers.put(PointType.class, new Parser() {
+            @Override
+            public Object parse(String s) {
+                if (s != null) {
+                    String[] elements = s.split(",");
+                    if (elements.length >= 2 && isDecimal(elements[0]) && isDecimal(elements[1])
+                            && (elements.length != 3 || isDecimal(elements[2]))) {
+                        return newInstance(PointType.class, s);
+                    }
+                }
+                return null;
+            }
+        });
+        parsers.put(DateTimeType.class, new Parser() {
+            @Override
+            public Object parse(String s) {
+                // both accepted patterns contain these literals
+                if (s != null && s.indexOf('T') > 0 && s.indexOf('-') >= 0 && s.indexOf(':') > 0) {
+                    return newInstance(DateTimeType.class, s);
+                }
+                return null;
+            }
+        });
+    }
+
     /**
      * <p>
      * Determines a state from a string. Possible state types are passed as a parameter.
@@ -43,16 +162,9 @@ public class TypeParser {
      */
     public static State parseState(List<Class<? extends State>> types, String s) {
         for (Class<? extends Type> type : types) {
-            try {
-                Method valueOf = type.getMethod("valueOf", String.class);
-                State state = (State) valueOf.invoke(type, s);
-                if (state != null) {
-                    return state;
-                }
-            } catch (NoSuchMethodException e) {
-            } catch (IllegalArgumentException e) {
-            } catch (IllegalAccessException e) {
-            } catch (InvocationTargetException e) {
+            State state = (State) getParser(type).parse(s);
+            if (state != null) {
+                return state;
             }
         }
         return null;
@@ -77,19 +189,191 @@ public class TypeParser {
     public static Command parseCommand(List<Class<? extends Command>> types, String s) {
         if (s != null) {
             for (Class<? extends Command> type : types) {
-                try {
-                    Method valueOf = type.getMethod("valueOf", String.class);
-                    Command value = (Command) valueOf.invoke(type, s);
-                    if (value != null) {
-                        return value;
-                    }
-                } catch (NoSuchMethodException e) {
-                } catch (IllegalArgumentException e) {
-                } catch (IllegalAccessException e) {
-                } catch (InvocationTargetException e) {
+                Command value = (Command) getParser(type).parse(s);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the parser for the given type. Types which aren't part of the core type
+     * library are parsed by their static <code>valueOf(String)</code> method, which is
+     * looked up only once per type.
+     *
+     * @param type the type to parse
+     * @return the parser, never <code>null</code>
+     */
+    private static Parser getParser(Class<?> type) {
+        Parser parser = parsers.get(type);
+        if (parser == null) {
+            synchronized (reflectiveParsers) {
+                parser = reflectiveParsers.get(type);
+                if (parser == null) {
+                    parser = createReflectiveParser(type);
+                    reflectiveParsers.put(type, parser);
                 }
             }
         }
+        return parser;
+    }
+
+    private static Parser createReflectiveParser(Class<?> type) {
+        Method valueOf = getValueOf(type);
+        return valueOf != null ? new ValueOfParser(type, valueOf) : NO_PARSER;
+    }
+
+    /**
+     * @return the static <code>valueOf(String)</code> method of the type or <code>null</code> if it has none
+     */
+    private static Method getValueOf(Class<?> type) {
+        try {
+            Method valueOf = type.getMethod("valueOf", String.class);
+            return Modifier.isStatic(valueOf.getModifiers()) ? valueOf : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a type through its <code>String</code> constructor, returning
+     * <code>null</code> if the value is rejected.
+     */
+    private static Object newInstance(Class<?> type, String s) {
+        try {
+            if (type == HSBType.class) {
+                return new HSBType(s);
+            } else if (type == PointType.class) {
+                return new PointType(s);
+            } else if (type == DateTimeType.class) {
+                return new DateTimeType(s);
+            }
+        } catch (IllegalArgumentException e) {
+            // thrown if the syntax check above is less strict than the constructor
+        }
         return null;
     }
+
+    /**
+     * Parses a decimal number in the syntax accepted by {@link BigDecimal#BigDecimal(String)}.
+     *
+     * @param s the string to parse, may be <code>null</code>
+     * @return the number or <code>null</code> if the string isn't a valid number
+     */
+    private static BigDecimal parseDecimal(String s) {
+        if (isDecimal(s)) {
+            try {
+                return new BigDecimal(s);
+            } catch (NumberFormatException e) {
+                // exponent out of range
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks the syntax of a decimal number as accepted by {@link BigDecimal#BigDecimal(String)}:
+     * an optional sign, digits with an optional decimal point and an optional exponent.
+     *
+     * @param s the string to check, may be <code>null</code>
+     * @return <code>true</code> if the string is a syntactically valid number
+     */
+    private static boolean isDecimal(String s) {
+        if (s == null) {
+            return false;
+        }
+        int length = s.length();
+        int i = 0;
+        if (i < length && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            i++;
+        }
+        boolean digits = false;
+        while (i < length && Character.isDigit(s.charAt(i))) {
+            i++;
+            digits = true;
+        }
+        if (i < length && s.charAt(i) == '.') {
+            i++;
+            while (i < length && Character.isDigit(s.charAt(i))) {
+                i++;
+                digits = true;
+            }
+        }
+        if (!digits) {
+            return false;
+        }
+        if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                i++;
+            }
+            boolean exponentDigits = false;
+            while (i < length && Character.isDigit(s.charAt(i))) {
+                i++;
+                exponentDigits = true;
+            }
+            if (!exponentDigits) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    /**
+     * Parses a string by the static <code>valueOf(String)</code> method of a type. Neither the
+     * type nor the method are referenced strongly, as the parser is the value of a weak key;
+     * the method is looked up again once it has been collected.
+     */
+    private static class ValueOfParser implements Parser {
+
+        private final WeakReference<Class<?>> type;
+        private volatile WeakReference<Method> valueOf;
+
+        ValueOfParser(Class<?> type, Method valueOf) {
+            this.type = new WeakReference<Class<?>>(type);
+            this.valueOf = new WeakReference<Method>(valueOf);
+        }
+
+        @Override
+        public Object parse(String s) {
+            Method method = valueOf.get();
+            if (method == null) {
+                Class<?> type = this.type.get();
+                method = type != null ? getValueOf(type) : null;
+                if (method == null) {
+                    return null;
+                }
+                valueOf = new WeakReference<Method>(method);
+            }
+            try {
+                return method.invoke(null, s);
+            } catch (IllegalArgumentException e) {
+            } catch (IllegalAccessException e) {
+            } catch (InvocationTargetException e) {
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Parses the constants of an enum type by their name.
+     */
+    private static class EnumParser implements Parser {
+
+        private final Map<String, Object> constants = new HashMap<String, Object>();
+
+        EnumParser(Class<? extends Enum<?>> type) {
+            for (Enum<?> constant : type.getEnumConstants()) {
+                constants.put(constant.name(), constant);
+            }
+        }
+
+        @Override
+        public Object parse(String s) {
+            return s != null ? constants.get(s) : null;
+        }
+    }
+
 }
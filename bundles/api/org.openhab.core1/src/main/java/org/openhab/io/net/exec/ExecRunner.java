@@ -0,0 +1,392 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.net.exec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.exec.ExecuteException;
+import org.apache.commons.exec.ExecuteResultHandler;
+import org.apache.commons.exec.ExecuteWatchdog;
+import org.apache.commons.exec.Executor;
+import org.apache.commons.exec.LogOutputStream;
+import org.apache.commons.exec.PumpStreamHandler;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes command lines and collects their output.
+ * <p>
+ * Command lines are either executed on the calling thread, submitted to a pool
+ * of worker threads whose size limits the number of processes running at the same
+ * time, or started without waiting for them at all. A submitted command line carries
+ * a key (usually the name of an item), and it is skipped while a command line with the
+ * same key is still queued or running, so that slow commands don't pile up. The
+ * output of every process is read while it is running, so a process never blocks on
+ * a full pipe.
+ * <p>
+ * Sometimes (especially observed on MacOS) the command line isn't executed
+ * properly. In that cases the special delimiter '<code>@@</code>' can be used to
+ * split the command line into its arguments, which are passed to the process as
+ * they are. Otherwise command lines which are waited for are split by
+ * {@link CommandLine#parse(String)}, and command lines which are started without
+ * waiting are split at whitespace like {@link Runtime#exec(String)} does, as
+ * they have always been.
+ *
+ * @since 1.14.0
+ */
+public class ExecRunner {
+
+    /**
+     * Receives the output of a submitted command line.
+     */
+    public interface ResponseHandler {
+
+        /**
+         * @param response the output of the command line or <code>null</code> if it
+         *            couldn't be executed
+         */
+        void handleResponse(String response);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecRunner.class);
+
+    private static final String CMD_LINE_DELIMITER = "@@";
+
+    private final ThreadPoolExecutor executor;
+
+    private final Set<String> inFlight = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong waitedCount = new AtomicLong();
+    private final AtomicLong totalRuntime = new AtomicLong();
+    private final AtomicLong maxRuntime = new AtomicLong();
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong totalQueueWait = new AtomicLong();
+    private final AtomicLong maxQueueWait = new AtomicLong();
+
+    /**
+     * @param name the name of the worker threads
+     * @param maxConcurrent the maximum number of submitted command lines running at
+     *            the same time
+     */
+    public ExecRunner(final String name, int maxConcurrent) {
+        int threads = Math.max(1, maxConcurrent);
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Changes the maximum number of submitted command lines running at the same time.
+     *
+     * @param maxConcurrent the new limit
+     */
+    public void setMaxConcurrent(int maxConcurrent) {
+        int threads = Math.max(1, maxConcurrent);
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Stops the worker threads. Queued command lines are discarded, running
+     * processes are finished.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        inFlight.clear();
+    }
+
+    /**
+     * Queues <code>commandLine</code> for execution on a worker thread, unless a
+     * command line with the same key is still queued or running.
+     *
+     * @param key the key of the command line
+     * @param commandLine the command line to execute
+     * @param timeout timeout for execution in milliseconds
+     * @param handler receives the output once the process has terminated
+     * @return <code>true</code> if the command line has been queued,
+     *         <code>false</code> if it has been skipped
+     */
+    public boolean submit(final String key, final String commandLine, final int timeout,
+            final ResponseHandler handler) {
+        if (!inFlight.add(key)) {
+            skippedCount.incrementAndGet();
+            logger.trace("skipping commandLine '{}', the previous execution for '{}' hasn't finished yet", commandLine,
+                    key);
+            return false;
+        }
+
+        final long queued = System.nanoTime();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        recordQueueWait(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queued));
+                        handler.handleResponse(executeAndWaitResponse(commandLine, timeout));
+                    } catch (RuntimeException e) {
+                        logger.error("Error while handling the response of commandLine '{}'", commandLine, e);
+                    } finally {
+                        inFlight.remove(key);
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            logger.debug("couldn't queue commandLine '{}', the runner has been shut down", commandLine);
+            return false;
+        }
+    }
+
+    /**
+     * Executes <code>commandLine</code> on the calling thread and waits until the
+     * process has terminated or the timeout has elapsed.
+     *
+     * @param commandLine the command line to execute
+     * @param timeout timeout for execution in milliseconds
+     * @return the output (stdout and stderr) of the process or <code>null</code> if
+     *         it couldn't be executed
+     */
+    public String executeAndWaitResponse(String commandLine, int timeout) {
+        ExecuteWatchdog watchdog = new ExecuteWatchdog(timeout);
+        Executor executor = new DefaultExecutor();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        executor.setStreamHandler(new PumpStreamHandler(output));
+        executor.setWatchdog(watchdog);
+        // the output is of interest whatever the exit code is
+        executor.setExitValues(null);
+
+        long start = System.nanoTime();
+        try {
+            int exitCode = executor.execute(createCommandLine(commandLine));
+            executedCount.incrementAndGet();
+            String response = StringUtils.chomp(output.toString());
+            logger.debug("executed commandLine '{}', exit code '{}', result '{}'", commandLine, exitCode, response);
+            return response;
+        } catch (IOException e) {
+            failedCount.incrementAndGet();
+            logger.error("couldn't execute commandLine '{}'", commandLine, e);
+            return null;
+        } finally {
+            recordRuntime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            if (watchdog.killedProcess()) {
+                timeoutCount.incrementAndGet();
+                logger.warn("Timeout occurred when executing commandLine '{}'", commandLine);
+            }
+        }
+    }
+
+    /**
+     * Starts <code>commandLine</code> without waiting for the process. Its output
+     * is written to the debug log. Unless it contains '<code>@@</code>', the
+     * command line is split at whitespace, quotes are passed on as they are.
+     *
+     * @param commandLine the command line to execute
+     */
+    public void execute(final String commandLine) {
+        Executor executor = new DefaultExecutor();
+        executor.setStreamHandler(new PumpStreamHandler(new LogOutputStream() {
+            @Override
+            protected void processLine(String line, int level) {
+                logger.debug("commandLine '{}': {}", commandLine, line);
+            }
+        }));
+        executor.setExitValues(null);
+
+        try {
+            executor.execute(splitCommandLine(commandLine), new ExecuteResultHandler() {
+                @Override
+                public void onProcessComplete(int exitValue) {
+                    executedCount.incrementAndGet();
+                    logger.debug("commandLine '{}' terminated with exit code '{}'", commandLine, exitValue);
+                }
+
+                @Override
+                public void onProcessFailed(ExecuteException e) {
+                    failedCount.incrementAndGet();
+                    logger.error("couldn't execute commandLine '{}'", commandLine, e);
+                }
+            });
+            logger.info("executed commandLine '{}'", commandLine);
+        } catch (IOException e) {
+            failedCount.incrementAndGet();
+            logger.error("couldn't execute commandLine '{}'", commandLine, e);
+        }
+    }
+
+    private static CommandLine createCommandLine(String commandLine) {
+        if (commandLine.contains(CMD_LINE_DELIMITER)) {
+            return createCommandLine(commandLine.split(CMD_LINE_DELIMITER));
+        }
+        return CommandLine.parse(commandLine);
+    }
+
+    /**
+     * Splits <code>commandLine</code> the way {@link Runtime#exec(String)} does,
+     * which the fire-and-forget execution has always used.
+     */
+    private static CommandLine splitCommandLine(String commandLine) {
+        if (commandLine.contains(CMD_LINE_DELIMITER)) {
+            return createCommandLine(commandLine.split(CMD_LINE_DELIMITER));
+        }
+        StringTokenizer tokenizer = new StringTokenizer(commandLine);
+        String[] cmdArray = new String[tokenizer.countTokens()];
+        for (int i = 0; i < cmdArray.length; i++) {
+            cmdArray[i] = tokenizer.nextToken();
+        }
+        return createCommandLine(cmdArray);
+    }
+
+    private static CommandLine createCommandLine(String[] cmdArray) {
+        if (cmdArray.length == 0) {
+            throw new IllegalArgumentException("Empty command");
+        }
+        CommandLine cmdLine = new CommandLine(cmdArray[0]);
+        for (int i = 1; i < cmdArray.length; i++) {
+            cmdLine.addArgument(cmdArray[i], false);
+        }
+        return cmdLine;
+    }
+
+    private void recordRuntime(long runtime) {
+        waitedCount.incrementAndGet();
+        totalRuntime.addAndGet(runtime);
+        updateMax(maxRuntime, runtime);
+    }
+
+    private void recordQueueWait(long wait) {
+        submittedCount.incrementAndGet();
+        totalQueueWait.addAndGet(wait);
+        updateMax(maxQueueWait, wait);
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * @return the number of command lines which are queued or running on a worker
+     *         thread
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return the number of processes which have been executed
+     */
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * @return the number of command lines which couldn't be executed
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return the number of processes which have been killed after their timeout
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * @return the number of submitted command lines which have been skipped because
+     *         the previous one with the same key hadn't finished yet
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * @return the average runtime in milliseconds of the processes which have been
+     *         waited for
+     */
+    public long getAverageRuntime() {
+        long count = waitedCount.get();
+        return count == 0 ? 0 : totalRuntime.get() / count;
+    }
+
+    /**
+     * @return the longest runtime in milliseconds of the processes which have been
+     *         waited for
+     */
+    public long getMaxRuntime() {
+        return maxRuntime.get();
+    }
+
+    /**
+     * @return the average time in milliseconds a submitted command line has waited
+     *         for a worker thread
+     */
+    public long getAverageQueueWait() {
+        long count = submittedCount.get();
+        return count == 0 ? 0 : totalQueueWait.get() / count;
+    }
+
+    /**
+     * @return the longest time in milliseconds a submitted command line has waited
+     *         for a worker thread
+     */
+    public long getMaxQueueWait() {
+        return maxQueueWait.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ExecRunner [inFlight=" + getInFlightCount() + ", executed=" + getExecutedCount() + ", failed="
+                + getFailedCount() + ", timeouts=" + getTimeoutCount() + ", skipped=" + getSkippedCount()
+                + ", avgRuntime=" + getAverageRuntime() + "ms, maxRuntime=" + getMaxRuntime() + "ms, avgQueueWait="
+                + getAverageQueueWait() + "ms, maxQueueWait=" + getMaxQueueWait() + "ms]";
+    }
+}
@@ -12,19 +12,7 @@
  */
 package org.openhab.io.net.exec;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Arrays;
-
-import org.apache.commons.exec.CommandLine;
-import org.apache.commons.exec.DefaultExecuteResultHandler;
-import org.apache.commons.exec.DefaultExecutor;
-import org.apache.commons.exec.ExecuteWatchdog;
-import org.apache.commons.exec.Executor;
-import org.apache.commons.exec.PumpStreamHandler;
-import org.apache.commons.lang.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Some common methods to execute commands on command line.
@@ -34,9 +22,8 @@ import org.slf4j.LoggerFactory;
  */
 public class ExecUtil {
 
-    private static final Logger logger = LoggerFactory.getLogger(ExecUtil.class);
-
-    private static final String CMD_LINE_DELIMITER = "@@";
+    /** nothing is submitted to its worker threads, so their number doesn't matter */
+    private static final ExecRunner runner = new ExecRunner("Exec", 1);
 
     /**
      * <p>
@@ -57,18 +44,7 @@ public class ExecUtil {
      * @see http://www.peterfriese.de/running-applescript-from-java/
      */
     public static void executeCommandLine(String commandLine) {
-        try {
-            if (commandLine.contains(CMD_LINE_DELIMITER)) {
-                String[] cmdArray = commandLine.split(CMD_LINE_DELIMITER);
-                Runtime.getRuntime().exec(cmdArray);
-                logger.info("executed commandLine '{}'", Arrays.asList(cmdArray));
-            } else {
-                Runtime.getRuntime().exec(commandLine);
-                logger.info("executed commandLine '{}'", commandLine);
-            }
-        } catch (IOException e) {
-            logger.error("couldn't execute commandLine '{}'", commandLine, e);
-        }
+        runner.execute(commandLine);
     }
 
     /**
@@ -89,59 +65,12 @@ public class ExecUtil {
      *            the command line to execute
      * @param timeout
      *            timeout for execution in milliseconds
-     * @return response data from executed command line
+     * @return response data from executed command line or an empty string if
+     *         it couldn't be executed
      */
     public static String executeCommandLineAndWaitResponse(String commandLine, int timeout) {
-        String retval = null;
-
-        CommandLine cmdLine = null;
-
-        if (commandLine.contains(CMD_LINE_DELIMITER)) {
-            String[] cmdArray = commandLine.split(CMD_LINE_DELIMITER);
-            cmdLine = new CommandLine(cmdArray[0]);
-
-            for (int i = 1; i < cmdArray.length; i++) {
-                cmdLine.addArgument(cmdArray[i], false);
-            }
-        } else {
-            cmdLine = CommandLine.parse(commandLine);
-        }
-
-        DefaultExecuteResultHandler resultHandler = new DefaultExecuteResultHandler();
-
-        ExecuteWatchdog watchdog = new ExecuteWatchdog(timeout);
-        Executor executor = new DefaultExecutor();
-
-        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
-        PumpStreamHandler streamHandler = new PumpStreamHandler(stdout);
-
-        executor.setExitValue(1);
-        executor.setStreamHandler(streamHandler);
-        executor.setWatchdog(watchdog);
-
-        try {
-            executor.execute(cmdLine, resultHandler);
-            logger.debug("executed commandLine '{}'", commandLine);
-        } catch (IOException e) {
-            logger.error("couldn't execute commandLine '{}'", commandLine, e);
-        }
-
-        // some time later the result handler callback was invoked so we
-        // can safely request the exit code
-        try {
-            resultHandler.waitFor();
-            int exitCode = resultHandler.getExitValue();
-            retval = StringUtils.chomp(stdout.toString());
-            if (resultHandler.getException() != null) {
-                logger.warn("{}", resultHandler.getException().getMessage());
-            } else {
-                logger.debug("exit code '{}', result '{}'", exitCode, retval);
-            }
-        } catch (InterruptedException e) {
-            logger.error("Timeout occurred when executing commandLine '{}'", commandLine, e);
-        }
-
-        return retval;
+        String response = runner.executeAndWaitResponse(commandLine, timeout);
+        return response != null ? response : "";
     }
 
 }
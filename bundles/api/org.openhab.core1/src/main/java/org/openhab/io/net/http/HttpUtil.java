@@ -12,21 +12,33 @@
  */
 package org.openhab.io.net.http;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.httpclient.Credentials;
 import org.apache.commons.httpclient.DefaultHttpMethodRetryHandler;
 import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpState;
 import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.URIException;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
@@ -36,7 +48,10 @@ import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.InputStreamRequestEntity;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.PutMethod;
+import org.apache.commons.httpclient.params.HttpClientParams;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 import org.apache.commons.httpclient.params.HttpMethodParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -44,6 +59,21 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Some common methods to be used in both HTTP-In-Binding and HTTP-Out-Binding
+ * <p>
+ * All requests are executed by one shared {@link HttpClient} with a pooled connection
+ * manager, so that connections to the same host are kept alive and reused. Responses are
+ * requested gzip compressed and decompressed transparently. The pool can be configured
+ * through the following system properties:
+ * <ul>
+ * <li><code>openhab.http.maxConnectionsPerHost</code> - the maximum number of connections
+ * to a single host (defaults to 4)</li>
+ * <li><code>openhab.http.maxConnections</code> - the maximum number of connections in total
+ * (defaults to 40)</li>
+ * <li><code>openhab.http.idleTimeout</code> - the time in milliseconds after which an idle
+ * connection is closed (defaults to 60000)</li>
+ * <li><code>openhab.http.asyncThreads</code> - the number of threads executing the requests
+ * started by the <code>executeUrlAsync</code> methods (defaults to 10)</li>
+ * </ul>
  *
  * @author Thomas.Eichstaedt-Engelen
  * @author Kai Kreuzer
@@ -56,6 +86,90 @@ public class HttpUtil {
     /** {@link Pattern} which matches the credentials out of an URL */
     private static final Pattern URL_CREDENTIALS_PATTERN = Pattern.compile("http://(.*?):(.*?)@.*");
 
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    /**
+     * Handles the response of a request executed by
+     * {@link HttpUtil#executeUrl(String, String, Properties, InputStream, String, int, ResponseHandler)}.
+     *
+     * @param <T> the type of the result
+     */
+    public interface ResponseHandler<T> {
+
+        /**
+         * Handles the response of a request. The connection is released after this method
+         * returns, so the body must not be accessed afterwards.
+         *
+         * @param method the executed method, giving access to the status and the response headers
+         * @param body the (already decompressed) response body, never <code>null</code>
+         * @return the result of the request
+         * @throws IOException if reading the response body fails
+         */
+        T handleResponse(HttpMethod method, InputStream body) throws IOException;
+    }
+
+    /** reads the whole response body into a String */
+    private static final ResponseHandler<String> STRING_RESPONSE_HANDLER = new ResponseHandler<String>() {
+        @Override
+        public String handleResponse(HttpMethod method, InputStream body) throws IOException {
+            if (method.getStatusCode() != HttpStatus.SC_OK) {
+                logger.debug("Method failed: {}", method.getStatusLine());
+            }
+
+            String responseBody = IOUtils.toString(body);
+            if (!responseBody.isEmpty()) {
+                logger.debug("{}", responseBody);
+            }
+
+            return responseBody;
+        }
+    };
+
+    /** lazily creates the shared clients on first use */
+    private static class SharedClient {
+
+        static final MultiThreadedHttpConnectionManager CONNECTION_MANAGER = new MultiThreadedHttpConnectionManager();
+
+        /** the client for all requests without credentials */
+        static final HttpClient CLIENT;
+
+        /** the client for requests with credentials, which are sent preemptively */
+        static final HttpClient PREEMPTIVE_CLIENT;
+
+        static final ExecutorService ASYNC_EXECUTOR;
+
+        static {
+            HttpConnectionManagerParams params = CONNECTION_MANAGER.getParams();
+            params.setDefaultMaxConnectionsPerHost(Integer.getInteger("openhab.http.maxConnectionsPerHost", 4));
+            params.setMaxTotalConnections(Integer.getInteger("openhab.http.maxConnections", 40));
+
+            IdleConnectionTimeoutThread idleConnectionTimeoutThread = new IdleConnectionTimeoutThread();
+            idleConnectionTimeoutThread.setName("openHAB-http-idle-connections");
+            idleConnectionTimeoutThread.setConnectionTimeout(Long.getLong("openhab.http.idleTimeout", 60000L));
+            idleConnectionTimeoutThread.addConnectionManager(CONNECTION_MANAGER);
+            idleConnectionTimeoutThread.start();
+
+            CLIENT = new HttpClient(new HttpClientParams(), CONNECTION_MANAGER);
+            HttpClientParams preemptiveParams = new HttpClientParams();
+            preemptiveParams.setAuthenticationPreemptive(true);
+            PREEMPTIVE_CLIENT = new HttpClient(preemptiveParams, CONNECTION_MANAGER);
+
+            ASYNC_EXECUTOR = Executors.newFixedThreadPool(Integer.getInteger("openhab.http.asyncThreads", 10),
+                    new ThreadFactory() {
+                        private final AtomicInteger count = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "openHAB-http-async-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+    }
+
     /**
      * Executes the given <code>url</code> with the given <code>httpMethod</code>.
      * Furthermore the <code>http.proxyXXX</code> System variables are read and
@@ -108,6 +222,30 @@ public class HttpUtil {
      */
     public static String executeUrl(String httpMethod, String url, Properties httpHeaders, InputStream content,
             String contentType, int timeout) {
+        return executeUrl(httpMethod, url, httpHeaders, content, contentType, timeout, STRING_RESPONSE_HANDLER);
+    }
+
+    /**
+     * Executes the given <code>url</code> with the given <code>httpMethod</code> and
+     * passes the response to the given <code>responseHandler</code>, which allows to
+     * stream the response body instead of reading it into a String. Furthermore the
+     * <code>http.proxyXXX</code> System variables are read and set into the
+     * {@link HttpClient}.
+     *
+     * @param httpMethod the HTTP method to use
+     * @param url the url to execute
+     * @param httpHeaders optional http request headers which has to be sent within request
+     * @param content the content to be send to the given <code>url</code> or
+     *            <code>null</code> if no content should be send.
+     * @param contentType the content type of the given <code>content</code>
+     * @param timeout the socket timeout to wait for data
+     * @param responseHandler the handler to process the response
+     *
+     * @return the result of the <code>responseHandler</code> or <code>NULL</code> when the
+     *         request went wrong
+     */
+    public static <T> T executeUrl(String httpMethod, String url, Properties httpHeaders, InputStream content,
+            String contentType, int timeout, ResponseHandler<T> responseHandler) {
         String proxySet = System.getProperty("http.proxySet");
 
         String proxyHost = null;
@@ -132,8 +270,54 @@ public class HttpUtil {
         }
 
         return executeUrl(httpMethod, url, httpHeaders, content, contentType, timeout, proxyHost, proxyPort, proxyUser,
-                proxyPassword, nonProxyHosts);
+                proxyPassword, nonProxyHosts, responseHandler);
+
+    }
+
+    /**
+     * Executes the given <code>url</code> with the given <code>httpMethod</code> on a
+     * separate thread, so that several requests can be executed concurrently.
+     * Furthermore the <code>http.proxyXXX</code> System variables are read and set into
+     * the {@link HttpClient}.
+     *
+     * @param httpMethod the HTTP method to use
+     * @param url the url to execute
+     * @param timeout the socket timeout to wait for data
+     *
+     * @return a future for the response body, which is <code>NULL</code> when the request went wrong
+     */
+    public static Future<String> executeUrlAsync(String httpMethod, String url, int timeout) {
+        return executeUrlAsync(httpMethod, url, null, null, null, timeout, STRING_RESPONSE_HANDLER);
+    }
 
+    /**
+     * Executes the given <code>url</code> with the given <code>httpMethod</code> on a
+     * separate thread, so that several requests can be executed concurrently, and passes
+     * the response to the given <code>responseHandler</code>. Furthermore the
+     * <code>http.proxyXXX</code> System variables are read and set into the
+     * {@link HttpClient}.
+     *
+     * @param httpMethod the HTTP method to use
+     * @param url the url to execute
+     * @param httpHeaders optional http request headers which has to be sent within request
+     * @param content the content to be send to the given <code>url</code> or
+     *            <code>null</code> if no content should be send.
+     * @param contentType the content type of the given <code>content</code>
+     * @param timeout the socket timeout to wait for data
+     * @param responseHandler the handler to process the response
+     *
+     * @return a future for the result of the <code>responseHandler</code>, which is
+     *         <code>NULL</code> when the request went wrong
+     */
+    public static <T> Future<T> executeUrlAsync(final String httpMethod, final String url,
+            final Properties httpHeaders, final InputStream content, final String contentType, final int timeout,
+            final ResponseHandler<T> responseHandler) {
+        return SharedClient.ASYNC_EXECUTOR.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return executeUrl(httpMethod, url, httpHeaders, content, contentType, timeout, responseHandler);
+            }
+        });
     }
 
     /**
@@ -156,15 +340,43 @@ public class HttpUtil {
     public static String executeUrl(String httpMethod, String url, Properties httpHeaders, InputStream content,
             String contentType, int timeout, String proxyHost, Integer proxyPort, String proxyUser,
             String proxyPassword, String nonProxyHosts) {
+        return executeUrl(httpMethod, url, httpHeaders, content, contentType, timeout, proxyHost, proxyPort, proxyUser,
+                proxyPassword, nonProxyHosts, STRING_RESPONSE_HANDLER);
+    }
 
-        HttpClient client = new HttpClient();
+    /**
+     * Executes the given <code>url</code> with the given <code>httpMethod</code> and
+     * passes the response to the given <code>responseHandler</code>.
+     *
+     * @param httpMethod the HTTP method to use
+     * @param url the url to execute
+     * @param httpHeaders optional HTTP headers which has to be set on request
+     * @param content the content to be send to the given <code>url</code> or
+     *            <code>null</code> if no content should be send.
+     * @param contentType the content type of the given <code>content</code>
+     * @param timeout the socket timeout to wait for data
+     * @param proxyHost the hostname of the proxy
+     * @param proxyPort the port of the proxy
+     * @param proxyUser the username to authenticate with the proxy
+     * @param proxyPassword the password to authenticate with the proxy
+     * @param nonProxyHosts the hosts that won't be routed through the proxy
+     * @param responseHandler the handler to process the response
+     * @return the result of the <code>responseHandler</code> or <code>NULL</code> when the
+     *         request went wrong
+     */
+    public static <T> T executeUrl(String httpMethod, String url, Properties httpHeaders, InputStream content,
+            String contentType, int timeout, String proxyHost, Integer proxyPort, String proxyUser,
+            String proxyPassword, String nonProxyHosts, ResponseHandler<T> responseHandler) {
+
+        // the client is shared, so the request specific settings are kept in a separate configuration and state
+        HostConfiguration hostConfiguration = new HostConfiguration();
+        HttpState state = new HttpState();
 
         // only configure a proxy if a host is provided
         if (StringUtils.isNotBlank(proxyHost) && proxyPort != null && shouldUseProxy(url, nonProxyHosts)) {
-            client.getHostConfiguration().setProxy(proxyHost, proxyPort);
+            hostConfiguration.setProxy(proxyHost, proxyPort);
             if (StringUtils.isNotBlank(proxyUser)) {
-                client.getState().setProxyCredentials(AuthScope.ANY,
-                        new UsernamePasswordCredentials(proxyUser, proxyPassword));
+                state.setProxyCredentials(AuthScope.ANY, new UsernamePasswordCredentials(proxyUser, proxyPassword));
             }
         }
 
@@ -176,16 +388,20 @@ public class HttpUtil {
                 method.addRequestHeader(new Header(httpHeaderKey, httpHeaders.getProperty(httpHeaderKey)));
             }
         }
+        if (method.getRequestHeader(ACCEPT_ENCODING) == null) {
+            method.addRequestHeader(ACCEPT_ENCODING, "gzip");
+        }
         // add content if a valid method is given ...
         if (method instanceof EntityEnclosingMethod && content != null) {
             EntityEnclosingMethod eeMethod = (EntityEnclosingMethod) method;
             eeMethod.setRequestEntity(new InputStreamRequestEntity(content, contentType));
         }
 
+        HttpClient client = SharedClient.CLIENT;
         Credentials credentials = extractCredentials(url);
         if (credentials != null) {
-            client.getParams().setAuthenticationPreemptive(true);
-            client.getState().setCredentials(AuthScope.ANY, credentials);
+            client = SharedClient.PREEMPTIVE_CLIENT;
+            state.setCredentials(AuthScope.ANY, credentials);
         }
 
         if (logger.isDebugEnabled()) {
@@ -197,18 +413,13 @@ public class HttpUtil {
         }
 
         try {
-
-            int statusCode = client.executeMethod(method);
-            if (statusCode != HttpStatus.SC_OK) {
-                logger.debug("Method failed: {}", method.getStatusLine());
-            }
-
-            String responseBody = IOUtils.toString(method.getResponseBodyAsStream());
-            if (!responseBody.isEmpty()) {
-                logger.debug("{}", responseBody);
+            client.executeMethod(hostConfiguration, method, state);
+            InputStream body = getResponseBody(method);
+            try {
+                return responseHandler.handleResponse(method, body);
+            } finally {
+                IOUtils.closeQuietly(body);
             }
-
-            return responseBody;
         } catch (HttpException he) {
             logger.error("Fatal protocol violation: {}", he.toString());
         } catch (IOException ioe) {
@@ -220,6 +431,33 @@ public class HttpUtil {
         return null;
     }
 
+    /**
+     * Returns the response body of the given <code>method</code>, decompressing it if
+     * the server sent it gzip compressed.
+     *
+     * @param method the executed method
+     * @return the response body, which is empty if the response has no body
+     * @throws IOException if reading the response fails
+     */
+    private static InputStream getResponseBody(HttpMethod method) throws IOException {
+        InputStream body = method.getResponseBodyAsStream();
+        if (body == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        Header contentEncoding = method.getResponseHeader(CONTENT_ENCODING);
+        if (contentEncoding != null && contentEncoding.getValue().toLowerCase().contains("gzip")) {
+            // responses without content (e.g. to HEAD requests) may carry the header as well
+            PushbackInputStream pushbackBody = new PushbackInputStream(body);
+            int first = pushbackBody.read();
+            if (first == -1) {
+                return pushbackBody;
+            }
+            pushbackBody.unread(first);
+            return new GZIPInputStream(pushbackBody);
+        }
+        return body;
+    }
+
     /**
      * Determines whether the list of <code>nonProxyHosts</code> contains the
      * host (which is part of the given <code>urlString</code> or not.
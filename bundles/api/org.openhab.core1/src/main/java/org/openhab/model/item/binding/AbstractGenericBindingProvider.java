@@ -14,6 +14,7 @@ package org.openhab.model.item.binding;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -57,6 +58,13 @@ public abstract class AbstractGenericBindingProvider implements BindingConfigRea
      */
     protected Map<String, Set<Item>> contextMap = new ConcurrentHashMap<>();
 
+    /**
+     * indexes the binding configurations by the addresses returned by
+     * {@link #getBindingAddresses(BindingConfig)}. The map has this content
+     * structure: address -> Set of itemNames
+     */
+    private final Map<Object, Set<String>> addressIndex = new ConcurrentHashMap<>();
+
     public AbstractGenericBindingProvider() {
         super();
     }
@@ -99,17 +107,79 @@ public abstract class AbstractGenericBindingProvider implements BindingConfigRea
         if (items != null) {
             for (Item item : items) {
                 // we remove all binding configurations for all items
-                bindingConfigs.remove(item.getName());
+                BindingConfig config = bindingConfigs.remove(item.getName());
+                if (config != null) {
+                    unindex(item.getName(), config);
+                }
                 notifyListeners(item);
             }
         }
     }
 
     protected void addBindingConfig(Item item, BindingConfig config) {
-        bindingConfigs.put(item.getName(), config);
+        BindingConfig previous = bindingConfigs.put(item.getName(), config);
+        if (previous != null) {
+            unindex(item.getName(), previous);
+        }
+        index(item.getName(), config);
         notifyListeners(item);
     }
 
+    /**
+     * Returns the addresses a binding configuration is found by in
+     * {@link #getItemNamesForAddress(Object)}, e.g. the device address inbound
+     * events are received from. Addresses are used as keys of a hash map, so
+     * they have to implement <code>equals</code> and <code>hashCode</code>.
+     * <p>
+     * Bindings which resolve inbound events to items override this method,
+     * by default no address is indexed.
+     *
+     * @param config the binding configuration to index
+     * @return the addresses of the binding configuration, never <code>null</code>
+     */
+    protected Collection<?> getBindingAddresses(BindingConfig config) {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns the names of all items whose binding configuration has the given
+     * address, without iterating over all binding configurations.
+     *
+     * @param address the address as returned by {@link #getBindingAddresses(BindingConfig)}
+     * @return the names of the bound items, never <code>null</code>
+     */
+    protected Set<String> getItemNamesForAddress(Object address) {
+        Set<String> itemNames = addressIndex.get(address);
+        return itemNames != null ? Collections.unmodifiableSet(itemNames) : Collections.<String> emptySet();
+    }
+
+    private void index(String itemName, BindingConfig config) {
+        synchronized (addressIndex) {
+            for (Object address : getBindingAddresses(config)) {
+                Set<String> itemNames = addressIndex.get(address);
+                if (itemNames == null) {
+                    itemNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                    addressIndex.put(address, itemNames);
+                }
+                itemNames.add(itemName);
+            }
+        }
+    }
+
+    private void unindex(String itemName, BindingConfig config) {
+        synchronized (addressIndex) {
+            for (Object address : getBindingAddresses(config)) {
+                Set<String> itemNames = addressIndex.get(address);
+                if (itemNames != null) {
+                    itemNames.remove(itemName);
+                    if (itemNames.isEmpty()) {
+                        addressIndex.remove(address);
+                    }
+                }
+            }
+        }
+    }
+
     private void notifyListeners(Item item) {
         for (BindingChangeListener listener : listeners) {
             try {
@@ -16,7 +16,8 @@ import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.openhab.binding.dmx.DmxConnection;
+import org.openhab.binding.dmx.DmxService;
+import org.openhab.binding.dmx.DmxUniverseConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,17 +27,25 @@ import artnet4j.ArtNetNode;
 import artnet4j.packets.ArtDmxPacket;
 
 /**
- * DMX Connection Implementation using ArtNet as the DMX target.
+ * DMX Connection Implementation using ArtNet as the DMX target. DMX universes
+ * are mapped to the ArtNet subnets and universes in ascending order, universe
+ * 16 is sent to subnet 1, universe 0.
  *
  * @author Rainer Ostendorf
  * @since 1.4.0
  */
-public class ArtnetConnection implements DmxConnection {
+public class ArtnetConnection implements DmxUniverseConnection {
 
     private static final Logger logger = LoggerFactory.getLogger(ArtnetConnection.class);
 
-    /** sequence ID, used for enumerating the artnet packets send */
-    private int sequenceID;
+    /** number of ArtNet universes in a subnet */
+    private static final int SUBNET_SIZE = 16;
+
+    /** sequence IDs per universe, used for enumerating the artnet packets send */
+    private int[] sequenceIDs = new int[DmxService.MAX_UNIVERSES];
+
+    /** packets per universe, reused for every frame */
+    private ArtDmxPacket[] packets = new ArtDmxPacket[DmxService.MAX_UNIVERSES];
 
     /** the Artnet4J server */
     private ArtNet artnet = new ArtNet();
@@ -104,28 +113,42 @@ public class ArtnetConnection implements DmxConnection {
      */
     @Override
     public void sendDmx(byte[] buffer) throws Exception {
+        sendDmx(0, buffer);
+    }
 
-        if (!isConnectionClosed) {
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.openhab.binding.dmx.DmxUniverseConnection#sendDmx(int, byte[])
+     */
+    @Override
+    public void sendDmx(int universe, byte[] buffer) throws Exception {
 
-            ArtDmxPacket dmx = new ArtDmxPacket();
+        if (!isConnectionClosed) {
 
-            // Default to universe 0. May need to be changed later to support
-            // multiple universes.
-            dmx.setUniverse(0, 0);
-            dmx.setSequenceID(sequenceID % 255);
+            ArtDmxPacket dmx = packets[universe];
+            if (dmx == null) {
+                dmx = new ArtDmxPacket();
+                dmx.setUniverse(universe / SUBNET_SIZE, universe % SUBNET_SIZE);
+                packets[universe] = dmx;
+            }
+            dmx.setSequenceID(sequenceIDs[universe] % 255);
             dmx.setDMX(buffer, buffer.length);
 
             if (!receiverNodes.isEmpty()) {
 
                 for (ArtNetNode receiver : receiverNodes) {
-                    logger.trace("Sending " + buffer.length + " Bytes to " + receiver.getIPAddress().toString());
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("Sending {} Bytes of universe {} to {}", buffer.length, universe,
+                                receiver.getIPAddress());
+                    }
                     artnet.unicastPacket(dmx, receiver);
                 }
 
             } else {
                 artnet.broadcastPacket(dmx);
             }
-            sequenceID++;
+            sequenceIDs[universe]++;
         }
     }
 }
@@ -15,7 +15,7 @@ package org.openhab.binding.dmx.ola;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
-import org.openhab.binding.dmx.DmxConnection;
+import org.openhab.binding.dmx.DmxUniverseConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,9 +26,11 @@ import ola.proto.Ola.PatchAction;
 
 /**
  * DMX Connection Implementation using OLA as the DMX target. This class wraps
- * the OLA Client. It defaults to universe 0 and autobinds to all devices.
+ * the OLA Client. DMX universes are sent to the OLA universes with the same
+ * number. Universe 0 is autobound to all devices, further universes have to be
+ * patched in OLA.
  */
-public class OlaConnection implements DmxConnection {
+public class OlaConnection implements DmxUniverseConnection {
 
     private static final Logger logger = LoggerFactory.getLogger(OlaConnection.class);
 
@@ -75,7 +77,12 @@ public class OlaConnection implements DmxConnection {
 
     @Override
     public void sendDmx(byte[] arg0) throws Exception {
-        client.streamDmx(0, arg0);
+        sendDmx(0, arg0);
+    }
+
+    @Override
+    public void sendDmx(int universe, byte[] buffer) throws Exception {
+        client.streamDmx(universe, buffer);
     }
 
     /**
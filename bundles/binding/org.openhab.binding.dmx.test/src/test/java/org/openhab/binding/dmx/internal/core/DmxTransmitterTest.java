@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dmx.internal.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.openhab.binding.dmx.DmxConnection;
+import org.openhab.binding.dmx.DmxService;
+import org.openhab.binding.dmx.DmxUniverseConnection;
+
+/**
+ * DmxTransmitter multi universe tests.
+ *
+ * @since 1.14.0
+ */
+public class DmxTransmitterTest {
+
+    private DmxTransmitter createTransmitter(DmxConnection connection) {
+        DmxService service = Mockito.mock(DmxService.class);
+        Mockito.when(service.getConnection()).thenReturn(connection);
+        return new DmxTransmitter(service);
+    }
+
+    @Test
+    public void sendsAllUniversesInOneRun() throws Exception {
+
+        DmxUniverseConnection connection = Mockito.mock(DmxUniverseConnection.class);
+        DmxTransmitter transmitter = createTransmitter(connection);
+        transmitter.getChannel(1).setValue(10);
+        transmitter.getChannel(1025).setValue(30);
+
+        transmitter.run();
+
+        ArgumentCaptor<byte[]> buffer = ArgumentCaptor.forClass(byte[].class);
+        Mockito.verify(connection).sendDmx(Matchers.eq(0), buffer.capture());
+        assertEquals(10, buffer.getValue()[0]);
+        Mockito.verify(connection).sendDmx(Matchers.eq(2), buffer.capture());
+        assertEquals(30, buffer.getValue()[0]);
+        Mockito.verify(connection, Mockito.never()).sendDmx(Matchers.eq(1), Matchers.any(byte[].class));
+        Mockito.verify(connection, Mockito.never()).sendDmx(Matchers.any(byte[].class));
+    }
+
+    @Test
+    public void sendsFirstUniverseOnlyToSimpleConnection() throws Exception {
+
+        DmxConnection connection = Mockito.mock(DmxConnection.class);
+        DmxTransmitter transmitter = createTransmitter(connection);
+        transmitter.getChannel(1).setValue(10);
+        transmitter.getChannel(513).setValue(20);
+
+        transmitter.run();
+
+        ArgumentCaptor<byte[]> buffer = ArgumentCaptor.forClass(byte[].class);
+        Mockito.verify(connection).sendDmx(buffer.capture());
+        assertEquals(10, buffer.getValue()[0]);
+    }
+
+    @Test
+    public void suppressesUnchangedUniverses() throws Exception {
+
+        DmxUniverseConnection connection = Mockito.mock(DmxUniverseConnection.class);
+        DmxTransmitter transmitter = createTransmitter(connection);
+        transmitter.setRepeatMode(DmxTransmitter.DmxRepeatMode.NEVER);
+        transmitter.getChannel(1).setValue(10);
+        transmitter.getChannel(513).setValue(20);
+
+        transmitter.run();
+        transmitter.getChannel(513).setValue(40);
+        transmitter.run();
+
+        Mockito.verify(connection, Mockito.times(1)).sendDmx(Matchers.eq(0), Matchers.any(byte[].class));
+        Mockito.verify(connection, Mockito.times(2)).sendDmx(Matchers.eq(1), Matchers.any(byte[].class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsChannelsBeyondLastUniverse() {
+        createTransmitter(null).getChannel(DmxService.MAX_CHANNEL + 1);
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dmx.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.openhab.binding.dmx.internal.action.FadeAction;
+
+/**
+ * DmxUniverse frame calculation tests.
+ *
+ * @since 1.14.0
+ */
+public class DmxUniverseTest {
+
+    @Test
+    public void unchangedFrameIsNotRecalculated() {
+
+        DmxUniverse universe = new DmxUniverse();
+        universe.getChannel(3).setValue(100);
+
+        byte[] frame = universe.calculateBuffer(1000);
+        assertTrue(universe.getBufferChanged());
+        assertEquals(100, frame[2]);
+
+        assertSame(frame, universe.calculateBuffer(1035));
+        assertFalse(universe.getBufferChanged());
+    }
+
+    @Test
+    public void changedFrameIsRenderedIntoSecondBuffer() {
+
+        DmxUniverse universe = new DmxUniverse();
+        universe.getChannel(3).setValue(100);
+        byte[] first = universe.calculateBuffer(1000);
+
+        universe.getChannel(3).setValue(50);
+        byte[] second = universe.calculateBuffer(1035);
+        assertTrue(universe.getBufferChanged());
+        assertNotSame(first, second);
+        assertEquals(50, second[2]);
+
+        universe.getChannel(3).setValue(100);
+        assertSame(first, universe.calculateBuffer(1070));
+        assertEquals(100, first[2]);
+    }
+
+    @Test
+    public void switchedOffChannelIsSentAsZero() {
+
+        DmxUniverse universe = new DmxUniverse();
+        DmxChannel channel = universe.getChannel(1);
+        channel.setValue(200);
+        universe.calculateBuffer(1000);
+
+        channel.switchOff();
+        assertEquals(0, universe.calculateBuffer(1035)[0]);
+        assertTrue(universe.getBufferChanged());
+
+        channel.switchOn();
+        assertEquals((byte) 200, universe.calculateBuffer(1070)[0]);
+    }
+
+    @Test
+    public void fadeIsRecalculatedEveryFrame() {
+
+        DmxUniverse universe = new DmxUniverse();
+        universe.getChannel(5).setChannelAction(new FadeAction(1000, 250, -1));
+
+        assertEquals(0, universe.calculateBuffer(1000)[4]);
+        assertEquals(100, universe.calculateBuffer(1400)[4]);
+        assertTrue(universe.getBufferChanged());
+        assertEquals((byte) 250, universe.calculateBuffer(2000)[4]);
+        assertEquals(250, universe.getChannel(5).getValue());
+    }
+
+    @Test
+    public void bufferGrowsWithHighestChannel() {
+
+        DmxUniverse universe = new DmxUniverse();
+        assertEquals(32, universe.calculateBuffer(1000).length);
+
+        universe.getChannel(40).setValue(1);
+        assertEquals(40, universe.calculateBuffer(1035).length);
+    }
+
+    @Test
+    public void channelsAreNumberedAcrossUniverses() {
+
+        DmxUniverse universe = new DmxUniverse(1);
+        universe.getChannel(513).setValue(10);
+        universe.getChannel(1024).setValue(20);
+
+        byte[] frame = universe.calculateBuffer(1000);
+        assertEquals(512, frame.length);
+        assertEquals(10, frame[0]);
+        assertEquals(20, frame[511]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void channelOfOtherUniverseIsRejected() {
+        new DmxUniverse(1).getChannel(512);
+    }
+
+}
@@ -30,6 +30,18 @@ public interface DmxService {
 
     public static final int CHANNEL_MIN_VALUE = 0;
 
+    /** Number of channels in a DMX universe */
+    public static final int UNIVERSE_SIZE = 512;
+
+    /**
+     * Number of DMX universes which can be addressed. Channel numbers above
+     * {@link #UNIVERSE_SIZE} continue in the next universe.
+     */
+    public static final int MAX_UNIVERSES = 256;
+
+    /** Highest channel number which can be addressed */
+    public static final int MAX_CHANNEL = UNIVERSE_SIZE * MAX_UNIVERSES;
+
     /**
      * Start DMX Transmission
      * 
@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dmx;
+
+/**
+ * DmxUniverseConnection. A {@link DmxConnection} which can address more than
+ * one DMX universe. Channels 1-512 belong to universe 0, channels 513-1024 to
+ * universe 1 and so on. Connections which only implement {@link DmxConnection}
+ * receive universe 0 only.
+ *
+ * @since 1.14.0
+ */
+public interface DmxUniverseConnection extends DmxConnection {
+
+    /**
+     * Send the given buffer to a DMX universe. The buffer is reused for later
+     * frames, so its content has to be sent or copied before returning.
+     *
+     * @param universe
+     *            universe number, starting at 0
+     * @param buffer
+     *            buffer containing max 512 DMX values
+     * @throws Exception
+     */
+    public void sendDmx(int universe, byte[] buffer) throws Exception;
+
+}
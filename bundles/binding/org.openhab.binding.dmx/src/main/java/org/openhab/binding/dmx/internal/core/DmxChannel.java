@@ -26,6 +26,9 @@ import org.slf4j.LoggerFactory;
  *
  * When the channel is switched on, it will switch on to the last know state.
  *
+ * Every change publishes the resulting output value, so that the value of a
+ * channel without running actions can be read without locking the channel.
+ *
  * @author Davy Vanherbergen
  * @since 1.2.0
  */
@@ -35,9 +38,18 @@ public class DmxChannel implements Comparable<DmxChannel> {
 
     private int channelId;
 
+    /** Universe which is notified when the output changes **/
+    private final DmxUniverse universe;
+
     /** Current channel value in the range from 0-255 **/
     private int value;
 
+    /** Published output value, 0 when the channel is switched off **/
+    private volatile int output;
+
+    /** Published state of the actions, true if they determine the output **/
+    private volatile boolean animated;
+
     /** Channel is alive or not.. **/
     private boolean switchedOn = false;
 
@@ -60,7 +72,38 @@ public class DmxChannel implements Comparable<DmxChannel> {
      *            DMX channel id.
      */
     public DmxChannel(int channelId) {
+        this(channelId, null);
+    }
+
+    /**
+     * Create new DMX channel.
+     *
+     * @param channelId
+     *            DMX channel id.
+     * @param universe
+     *            universe to notify when the output changes.
+     */
+    DmxChannel(int channelId, DmxUniverse universe) {
         this.channelId = channelId;
+        this.universe = universe;
+    }
+
+    /**
+     * Publish the output value and notify the universe.
+     */
+    private void changed() {
+        publish();
+        if (universe != null) {
+            universe.markChanged();
+        }
+    }
+
+    /**
+     * Publish the output value and the state of the actions.
+     */
+    private void publish() {
+        output = switchedOn ? value : DMX_MIN_VALUE;
+        animated = switchedOn && !actions.isEmpty();
     }
 
     /**
@@ -79,6 +122,7 @@ public class DmxChannel implements Comparable<DmxChannel> {
 
         // set value
         this.value = DmxUtil.capDmxValue(value);
+        changed();
     }
 
     /**
@@ -105,7 +149,7 @@ public class DmxChannel implements Comparable<DmxChannel> {
         } else {
             value = DmxUtil.getOutputValue(value, outputlevel.intValue());
         }
-
+        changed();
     }
 
     /**
@@ -113,13 +157,8 @@ public class DmxChannel implements Comparable<DmxChannel> {
      * 
      * @return value 0 - 255.
      */
-    public synchronized int getValue() {
-
-        if (!switchedOn) {
-            return DMX_MIN_VALUE;
-        }
-
-        return value;
+    public int getValue() {
+        return output;
     }
 
     /**
@@ -129,6 +168,7 @@ public class DmxChannel implements Comparable<DmxChannel> {
      */
     public synchronized void switchOn() {
         switchedOn = true;
+        changed();
     }
 
     /**
@@ -138,31 +178,47 @@ public class DmxChannel implements Comparable<DmxChannel> {
     public synchronized void switchOff() {
         switchedOn = false;
         actions.clear();
+        changed();
     }
 
     /**
      * Get the new value for this channel as determined by active actions or the
-     * current value.
+     * current value. Channels without running actions are not locked.
      * 
      * @param calculationTime
      * 
      * @return value 0-255
      */
-    public synchronized Integer getNextValue(long calculationTime) {
+    public int getNextValue(long calculationTime) {
 
-        if (!switchedOn) {
-            return DMX_MIN_VALUE;
+        if (!animated) {
+            return output;
         }
 
-        if (hasRunningActions()) {
-            BaseAction action = actions.get(0);
-            value = action.getNewValue(this, calculationTime);
-            if (action.isCompleted()) {
-                switchToNextAction();
+        synchronized (this) {
+            if (!switchedOn) {
+                return DMX_MIN_VALUE;
+            }
+
+            if (hasRunningActions()) {
+                BaseAction action = actions.get(0);
+                value = action.getNewValue(this, calculationTime);
+                if (action.isCompleted()) {
+                    switchToNextAction();
+                }
+                publish();
             }
+
+            return value;
         }
+    }
 
-        return value;
+    /**
+     * @return true if the output is determined by running actions and changes
+     *         over time.
+     */
+    public boolean isAnimated() {
+        return animated;
     }
 
     /**
@@ -194,6 +250,7 @@ public class DmxChannel implements Comparable<DmxChannel> {
         switchedOn = true;
         actions.clear();
         actions.add(channelAction);
+        changed();
     }
 
     /**
@@ -204,6 +261,7 @@ public class DmxChannel implements Comparable<DmxChannel> {
      */
     public synchronized void addChannelAction(BaseAction channelAction) {
         actions.add(channelAction);
+        changed();
     }
 
     /**
@@ -247,6 +305,7 @@ public class DmxChannel implements Comparable<DmxChannel> {
                 a.increase(increment);
             }
         }
+        changed();
     }
 
     /**
@@ -270,6 +329,7 @@ public class DmxChannel implements Comparable<DmxChannel> {
                 a.decrease(decrement);
             }
         }
+        changed();
     }
 
     /**
@@ -283,7 +343,7 @@ public class DmxChannel implements Comparable<DmxChannel> {
      * Suspend the current actions and value. This will store the values for
      * later resume.
      */
-    public void suspend() {
+    public synchronized void suspend() {
         suspendedValue = value;
         suspendedActions.clear();
         suspendedActions.addAll(actions);
@@ -293,11 +353,12 @@ public class DmxChannel implements Comparable<DmxChannel> {
      * Resume previously suspended actions. If no actions were suspended, the
      * suspended value will be restored.
      */
-    public void resume() {
+    public synchronized void resume() {
         actions.clear();
         if (!suspendedActions.isEmpty()) {
             actions.addAll(suspendedActions);
             suspendedActions.clear();
+            changed();
         } else {
             setValue(suspendedValue);
         }
@@ -307,8 +368,9 @@ public class DmxChannel implements Comparable<DmxChannel> {
      * Add a resume action to the end of the action list to trigger a resume of previously
      * suspended actions.
      */
-    public void addResumeAction() {
+    public synchronized void addResumeAction() {
         actions.add(new ResumeAction());
+        changed();
     }
 
 }
\ No newline at end of file
@@ -119,7 +119,7 @@ public class DmxController implements DmxService, ManagedService {
     @Override
     public void registerStatusListener(DmxStatusUpdateListener listener) {
         logger.trace("Registering listener for channel {}", listener.getChannel());
-        transmitter.getUniverse().addStatusListener(listener);
+        transmitter.addStatusListener(listener);
     }
 
     /**
@@ -128,7 +128,7 @@ public class DmxController implements DmxService, ManagedService {
     @Override
     public void unregisterStatusListener(DmxStatusUpdateListener listener) {
         logger.trace("Unregistering listener for channel {}", listener.getChannel());
-        transmitter.getUniverse().removeStatusListener(listener);
+        transmitter.removeStatusListener(listener);
     }
 
     /**
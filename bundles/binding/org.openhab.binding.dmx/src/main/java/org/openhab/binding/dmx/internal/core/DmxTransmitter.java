@@ -12,10 +12,15 @@
  */
 package org.openhab.binding.dmx.internal.core;
 
+import java.util.List;
 import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.openhab.binding.dmx.DmxConnection;
 import org.openhab.binding.dmx.DmxService;
+import org.openhab.binding.dmx.DmxStatusUpdateListener;
+import org.openhab.binding.dmx.DmxUniverseConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,7 +29,7 @@ import org.slf4j.LoggerFactory;
  * changes to the DMX connection.
  *
  * This transmitter should always run in a separate thread to allow for smooth
- * transmissions.
+ * transmissions. All universes are calculated and sent by the same thread.
  *
  * @author Davy Vanherbergen
  * @since 1.2.0
@@ -32,8 +37,8 @@ import org.slf4j.LoggerFactory;
 public final class DmxTransmitter extends TimerTask {
 
     /* REPEAT_INTERVAL is 750 ms (results in 800-1000ms) repetition time */
-    private static final int REPEAT_INTERVAL = 750;
-    private static final int REPEAT_COUNT = 3;
+    static final int REPEAT_INTERVAL = 750;
+    static final int REPEAT_COUNT = 3;
 
     public enum DmxRepeatMode {
         ALWAYS("always"),
@@ -65,23 +70,29 @@ public final class DmxTransmitter extends TimerTask {
 
     private static Logger logger = LoggerFactory.getLogger(DmxTransmitter.class);
 
-    private DmxUniverse universe = new DmxUniverse();
+    private final AtomicReferenceArray<DmxUniverse> universes = new AtomicReferenceArray<DmxUniverse>(
+            DmxService.MAX_UNIVERSES);
+
+    /** Number of universes up to the highest one in use **/
+    private volatile int universeCount = 0;
+
+    private List<DmxStatusUpdateListener> updateListeners = new CopyOnWriteArrayList<DmxStatusUpdateListener>();
 
     private DmxService service;
 
-    private boolean running;
-    private DmxRepeatMode repeatMode = DmxRepeatMode.ALWAYS;
+    private volatile boolean running;
+    private volatile DmxRepeatMode repeatMode = DmxRepeatMode.ALWAYS;
 
-    private boolean suspended;
+    private volatile boolean suspended;
 
-    private long lastTransmit = 0;
-    private int packetRepeatCount = 0;
+    private boolean universesIgnored = false;
 
     /**
      * Default constructor.
      */
     public DmxTransmitter(DmxService service) {
         this.service = service;
+        getUniverse(0);
     }
 
     /**
@@ -97,31 +108,35 @@ public final class DmxTransmitter extends TimerTask {
         running = true;
         try {
             long now = System.currentTimeMillis();
-            byte[] b = universe.calculateBuffer();
             DmxConnection conn = service.getConnection();
-            if (conn != null) {
-                if (universe.getBufferChanged()) {
-                    logger.trace("DMX Buffer changed, also sending status updates");
-                    conn.sendDmx(b);
-                    universe.notifyStatusListeners();
-                    lastTransmit = now;
-                    packetRepeatCount = 0;
-                } else if (repeatMode == DmxRepeatMode.ALWAYS) {
-                    logger.trace("repeat mode always, sending DMX only");
-                    conn.sendDmx(b);
-                    lastTransmit = now;
-                } else if ((repeatMode == DmxRepeatMode.REDUCED)
-                        && ((packetRepeatCount < REPEAT_COUNT) || ((now - lastTransmit) > REPEAT_INTERVAL))) {
-                    logger.trace("output needs refresh, sending DMX only");
+            boolean bufferChanged = false;
+            int count = universeCount;
+            for (int i = 0; i < count; i++) {
+                DmxUniverse universe = universes.get(i);
+                if (universe == null) {
+                    continue;
+                }
+                byte[] b = universe.calculateBuffer(now);
+                bufferChanged |= universe.getBufferChanged();
+                if (conn == null) {
+                    continue;
+                }
+                if (!universe.isTransmitRequired(repeatMode, now)) {
+                    logger.trace("DMX output suppressed for universe {}", i);
+                } else if (conn instanceof DmxUniverseConnection) {
+                    ((DmxUniverseConnection) conn).sendDmx(i, b);
+                } else if (i == 0) {
                     conn.sendDmx(b);
-                    if (packetRepeatCount < REPEAT_COUNT) {
-                        packetRepeatCount++;
-                    }
-                    lastTransmit = now;
-                } else {
-                    logger.trace("DMX output suppressed");
+                } else if (!universesIgnored) {
+                    logger.warn("The DMX connection supports universe 0 only, channels above {} are not sent.",
+                            DmxService.UNIVERSE_SIZE);
+                    universesIgnored = true;
                 }
             }
+            if (conn != null && bufferChanged) {
+                logger.trace("DMX Buffer changed, also sending status updates");
+                notifyStatusListeners();
+            }
         } catch (Exception e) {
             logger.error("Error sending dmx values.", e);
         } finally {
@@ -157,20 +172,89 @@ public final class DmxTransmitter extends TimerTask {
     }
 
     /**
-     * Get the DMX channel in the current universe.
+     * Get the DMX channel. Channels 1-512 belong to universe 0, channels
+     * 513-1024 to universe 1 and so on.
      *
      * @param channel
      *            number
      * @return DMX channel
      */
     public DmxChannel getChannel(int channel) {
-        return universe.getChannel(channel);
+        if (channel < 1 || channel > DmxService.MAX_CHANNEL) {
+            throw new IllegalArgumentException("Channel " + channel + " is not a valid DMX channel");
+        }
+        return getUniverse((channel - 1) / DmxService.UNIVERSE_SIZE).getChannel(channel);
     }
 
     /**
-     * @return DMX universe
+     * @return first DMX universe
      */
     public DmxUniverse getUniverse() {
-        return universe;
+        return getUniverse(0);
+    }
+
+    /**
+     * Get a DMX universe. If it doesn't exist, it is created.
+     *
+     * @param universeId
+     *            universe number, starting at 0
+     * @return DMX universe
+     */
+    public DmxUniverse getUniverse(int universeId) {
+        DmxUniverse universe = universes.get(universeId);
+        if (universe != null) {
+            return universe;
+        }
+        synchronized (universes) {
+            universe = universes.get(universeId);
+            if (universe == null) {
+                logger.trace("Adding universe {}", universeId);
+                universe = new DmxUniverse(universeId);
+                universes.set(universeId, universe);
+                if (universeId >= universeCount) {
+                    universeCount = universeId + 1;
+                }
+            }
+            return universe;
+        }
+    }
+
+    /**
+     * Add a new status update listener, which can receive values when a channel
+     * is changed.
+     *
+     * @param listener
+     *            status listener to add.
+     */
+    public void addStatusListener(DmxStatusUpdateListener listener) {
+        updateListeners.add(listener);
+    }
+
+    /**
+     * Stop a given status update listener from receiving updates.
+     *
+     * @param listener
+     *            status listener to remove.
+     */
+    public void removeStatusListener(DmxStatusUpdateListener listener) {
+        updateListeners.remove(listener);
+    }
+
+    /**
+     * Broadcast status update to all listeners.
+     */
+    public void notifyStatusListeners() {
+
+        for (DmxStatusUpdateListener listener : updateListeners) {
+
+            if (System.currentTimeMillis() > listener.getLastUpdateTime() + listener.getUpdateDelay()) {
+
+                int values[] = new int[listener.getFootPrint()];
+                for (int i = 0; i < listener.getFootPrint(); i++) {
+                    values[i] = getChannel(listener.getChannel() + i).getValue();
+                }
+                listener.processStatusUpdate(values);
+            }
+        }
     }
 }
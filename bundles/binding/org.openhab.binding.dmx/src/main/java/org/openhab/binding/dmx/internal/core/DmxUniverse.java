@@ -12,18 +12,20 @@
  */
 package org.openhab.binding.dmx.internal.core;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Vector;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-import org.openhab.binding.dmx.DmxStatusUpdateListener;
+import org.openhab.binding.dmx.DmxService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * DMX Universe. Can contain up to 512 DMX channels.
  *
+ * The output is rendered into two reusable frames, which are swapped when the
+ * output has changed. A frame is only rendered again when one of its channels
+ * has been changed or has running actions.
+ *
  * @author Davy Vanherbergen
  * @since 1.2.0
  */
@@ -31,93 +33,201 @@ public class DmxUniverse {
 
     private static final Logger logger = LoggerFactory.getLogger(DmxUniverse.class);
 
-    private Vector<DmxChannel> channels = new Vector<DmxChannel>();
+    private final int universeId;
+
+    /** Channel id of the first channel of this universe minus 1 **/
+    private final int offset;
+
+    private final AtomicReferenceArray<DmxChannel> channelsById = new AtomicReferenceArray<DmxChannel>(
+            DmxService.UNIVERSE_SIZE);
+
+    private volatile DmxChannel[] channels = new DmxChannel[0];
+
+    private volatile int minimumBufferSize = 32;
+
+    /** Frame which was rendered last **/
+    private byte[] frame = new byte[minimumBufferSize];
+
+    /** Frame the next output is rendered into **/
+    private byte[] nextFrame = new byte[minimumBufferSize];
+
+    /** Set when a channel was changed since the last rendering **/
+    private volatile boolean changed = true;
 
-    private short[] buffer = new short[512];
+    /** True if a channel had running actions during the last rendering **/
+    private boolean animated = false;
 
     private boolean bufferChanged = false;
 
-    private int minimumBufferSize = 32;
+    private long lastTransmit = 0;
 
-    private List<DmxStatusUpdateListener> updateListeners = new ArrayList<DmxStatusUpdateListener>();
+    private int packetRepeatCount = 0;
 
     /**
-     * Change the buffer value at the given index.
-     * 
-     * @param index
-     * @param value
+     * Create the first universe.
      */
-    private void setBufferValue(int index, short value) {
+    public DmxUniverse() {
+        this(0);
+    }
 
-        if (buffer[index] == value) {
-            return;
-        } else {
-            buffer[index] = value;
-            bufferChanged = true;
-        }
+    /**
+     * Create a new universe.
+     *
+     * @param universeId
+     *            universe number, starting at 0.
+     */
+    public DmxUniverse(int universeId) {
+        this.universeId = universeId;
+        this.offset = universeId * DmxService.UNIVERSE_SIZE;
     }
 
     /**
-     * Calculate the current DMX buffer state.
-     * 
+     * @return universe number, starting at 0.
+     */
+    public int getUniverseId() {
+        return universeId;
+    }
+
+    /**
+     * Calculate the current DMX buffer state. The returned buffer is reused, it
+     * is only valid until the next calculation.
+     *
      * @return DMX buffer.
      */
     public byte[] calculateBuffer() {
+        return calculateBuffer(System.currentTimeMillis());
+    }
+
+    /**
+     * Calculate the DMX buffer state at the given time. The returned buffer is
+     * reused, it is only valid until the next calculation.
+     *
+     * @param calculationTime
+     *            time to calculate the channel values for
+     * @return DMX buffer.
+     */
+    byte[] calculateBuffer(long calculationTime) {
 
         bufferChanged = false;
-        long calculationTime = System.currentTimeMillis();
+        if (!changed && !animated) {
+            return frame;
+        }
+        // changes which are made from now on are picked up by the next calculation
+        changed = false;
+
+        DmxChannel[] channels = this.channels;
+        int size = minimumBufferSize;
+        if (nextFrame.length != size) {
+            frame = Arrays.copyOf(frame, size);
+            nextFrame = new byte[size];
+        }
 
+        byte[] buffer = nextFrame;
+        boolean channelsAnimated = false;
         for (DmxChannel channel : channels) {
-            setBufferValue(channel.getChannelId() - 1, channel.getNextValue(calculationTime).shortValue());
+            buffer[channel.getChannelId() - 1 - offset] = (byte) channel.getNextValue(calculationTime);
+            channelsAnimated |= channel.isAnimated();
         }
+        animated = channelsAnimated;
 
-        byte[] b = new byte[minimumBufferSize];
-        for (int i = 0; i < minimumBufferSize; i++) {
-            b[i] = (byte) (buffer[i]);
+        if (!Arrays.equals(buffer, frame)) {
+            nextFrame = frame;
+            frame = buffer;
+            bufferChanged = true;
         }
-        return b;
+        return frame;
+    }
+
+    /**
+     * Mark the output as changed, so that the next calculation renders a new
+     * frame.
+     */
+    void markChanged() {
+        changed = true;
     }
 
     /**
      * Add a new DMX channel.
-     * 
+     *
      * @param channel
      *            to add.
      */
-    private synchronized void addChannel(DmxChannel channel) {
+    private void addChannel(DmxChannel channel) {
 
         logger.trace("Adding channel {}", channel.getChannelId());
-        channels.add(channel);
-        Collections.sort(channels);
-
-        if (channel.getChannelId() > minimumBufferSize) {
-            minimumBufferSize = channel.getChannelId();
+        // the buffer size is published before the channel, so that a calculation
+        // which sees the channel also sees a buffer size which can hold it
+        if (channel.getChannelId() - offset > minimumBufferSize) {
+            minimumBufferSize = channel.getChannelId() - offset;
         }
+        DmxChannel[] newChannels = Arrays.copyOf(channels, channels.length + 1);
+        newChannels[channels.length] = channel;
+        channels = newChannels;
+        markChanged();
     }
 
     /**
-     * @return true if the buffer was changed since the last calculation.
+     * @return true if the buffer was changed by the last calculation.
      */
     public boolean getBufferChanged() {
         return bufferChanged;
     }
 
+    /**
+     * Decide whether the last calculated buffer has to be sent, depending on
+     * the repeat mode.
+     *
+     * @param repeatMode
+     *            repeat mode of the transmitter
+     * @param now
+     *            current time
+     * @return true if the buffer has to be sent
+     */
+    boolean isTransmitRequired(DmxTransmitter.DmxRepeatMode repeatMode, long now) {
+        if (bufferChanged) {
+            packetRepeatCount = 0;
+        } else if (repeatMode == DmxTransmitter.DmxRepeatMode.ALWAYS) {
+            logger.trace("repeat mode always, sending DMX only");
+        } else if ((repeatMode == DmxTransmitter.DmxRepeatMode.REDUCED)
+                && ((packetRepeatCount < DmxTransmitter.REPEAT_COUNT)
+                        || ((now - lastTransmit) > DmxTransmitter.REPEAT_INTERVAL))) {
+            logger.trace("output needs refresh, sending DMX only");
+            if (packetRepeatCount < DmxTransmitter.REPEAT_COUNT) {
+                packetRepeatCount++;
+            }
+        } else {
+            return false;
+        }
+        lastTransmit = now;
+        return true;
+    }
+
     /**
      * Find a channel by id. If it doesn't exist, it is created.
-     * 
+     *
      * @param channelId
      *            int
      * @return channel
      */
     public DmxChannel getChannel(int channelId) {
-        for (DmxChannel c : channels) {
-            if (c.getChannelId() == channelId) {
-                return c;
+        int index = channelId - 1 - offset;
+        if (index < 0 || index >= DmxService.UNIVERSE_SIZE) {
+            throw new IllegalArgumentException(
+                    "Channel " + channelId + " doesn't belong to DMX universe " + universeId);
+        }
+        DmxChannel c = channelsById.get(index);
+        if (c != null) {
+            return c;
+        }
+        synchronized (this) {
+            c = channelsById.get(index);
+            if (c == null) {
+                c = new DmxChannel(channelId, this);
+                addChannel(c);
+                channelsById.set(index, c);
             }
+            return c;
         }
-        DmxChannel c = new DmxChannel(channelId);
-        addChannel(c);
-        return c;
     }
 
     /**
@@ -130,43 +240,4 @@ public class DmxUniverse {
         }
     }
 
-    /**
-     * Add a new status update listener, which can receive values when a channel
-     * is changed.
-     * 
-     * @param listener
-     *            status listener to add.
-     */
-    public void addStatusListener(DmxStatusUpdateListener listener) {
-        updateListeners.add(listener);
-    }
-
-    /**
-     * Stop a given status update listener from receiving updates.
-     * 
-     * @param listener
-     *            status listener to remove.
-     */
-    public void removeStatusListener(DmxStatusUpdateListener listener) {
-        updateListeners.remove(listener);
-    }
-
-    /**
-     * Broadcast status update to all listeners.
-     */
-    public void notifyStatusListeners() {
-
-        for (DmxStatusUpdateListener listener : updateListeners) {
-
-            if (System.currentTimeMillis() > listener.getLastUpdateTime() + listener.getUpdateDelay()) {
-
-                int values[] = new int[listener.getFootPrint()];
-                for (int i = 0; i < listener.getFootPrint(); i++) {
-                    values[i] = getChannel(listener.getChannel() + i).getValue();
-                }
-                listener.processStatusUpdate(values);
-            }
-        }
-    }
-
 }
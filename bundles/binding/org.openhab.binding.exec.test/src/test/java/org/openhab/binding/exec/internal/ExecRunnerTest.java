@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.exec.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.net.exec.ExecRunner;
+import org.openhab.io.net.exec.ExecUtil;
+
+/**
+ * Testcases for the {@link ExecRunner} the binding executes its command lines with.
+ * The command lines need a POSIX shell.
+ *
+ * @since 1.14.0
+ */
+public class ExecRunnerTest {
+
+    private ExecRunner runner;
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        runner = new ExecRunner("ExecRunnerTest", 2);
+        directory = File.createTempFile("exec", "test");
+        directory.delete();
+        directory.mkdir();
+    }
+
+    @After
+    public void tearDown() {
+        runner.shutdown();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void returnsChompedOutputOfStdoutAndStderr() {
+        assertEquals("out\nerr", runner.executeAndWaitResponse("sh@@-c@@echo out; echo err >&2", 5000));
+        assertEquals(1, runner.getExecutedCount());
+    }
+
+    @Test
+    public void returnsOutputWhateverTheExitCodeIs() {
+        assertEquals("failed", runner.executeAndWaitResponse("sh@@-c@@echo failed; exit 3", 5000));
+    }
+
+    @Test
+    public void returnsNullIfCommandLineCannotBeStarted() {
+        assertNull(runner.executeAndWaitResponse("/nonexistent/command", 5000));
+        assertEquals(1, runner.getFailedCount());
+    }
+
+    @Test
+    public void returnsEmptyStringToRulesIfCommandLineCannotBeStarted() {
+        assertEquals("", ExecUtil.executeCommandLineAndWaitResponse("/nonexistent/command", 5000));
+    }
+
+    @Test
+    public void killsProcessAfterTimeout() {
+        long start = System.nanoTime();
+        runner.executeAndWaitResponse("sleep 10", 200);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        assertEquals(1, runner.getTimeoutCount());
+    }
+
+    @Test
+    public void skipsSubmissionWhileSameKeyIsRunning() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(2);
+        ExecRunner.ResponseHandler handler = new ExecRunner.ResponseHandler() {
+            @Override
+            public void handleResponse(String output) {
+                done.countDown();
+            }
+        };
+
+        assertTrue(runner.submit("item", "sh@@-c@@sleep 0.5; echo slow", 5000, handler));
+        assertFalse(runner.submit("item", "echo skipped", 5000, handler));
+        assertTrue(runner.submit("other", "sleep 0.5", 5000, handler));
+        assertEquals(1, runner.getSkippedCount());
+        assertEquals(2, runner.getInFlightCount());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        waitForInFlight(0);
+        assertTrue(runner.submit("item", "echo again", 5000, handler));
+    }
+
+    @Test
+    public void splitsFireAndForgetCommandLineAtWhitespace() throws InterruptedException {
+        // quotes are passed on as they are, like Runtime.exec(String) did
+        runner.execute("touch " + directory.getPath() + "/\"quoted\"");
+
+        File file = new File(directory, "\"quoted\"");
+        for (int i = 0; i < 50 && !file.exists(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(file.exists());
+    }
+
+    private void waitForInFlight(int expected) throws InterruptedException {
+        for (int i = 0; i < 50 && runner.getInFlightCount() != expected; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(expected, runner.getInFlightCount());
+    }
+}
@@ -12,24 +12,14 @@
  */
 package org.openhab.binding.exec.internal;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Dictionary;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.exec.CommandLine;
-import org.apache.commons.exec.DefaultExecuteResultHandler;
-import org.apache.commons.exec.DefaultExecutor;
-import org.apache.commons.exec.ExecuteException;
-import org.apache.commons.exec.ExecuteWatchdog;
-import org.apache.commons.exec.Executor;
-import org.apache.commons.exec.PumpStreamHandler;
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.exec.ExecBindingProvider;
 import org.openhab.core.binding.AbstractActiveBinding;
@@ -40,6 +30,7 @@ import org.openhab.core.transform.TransformationService;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.openhab.core.types.TypeParser;
+import org.openhab.io.net.exec.ExecRunner;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
 import org.slf4j.Logger;
@@ -65,15 +56,18 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
 
     protected static final Command WILDCARD_COMMAND_KEY = StringType.valueOf("*");
 
-    private static final String CMD_LINE_DELIMITER = "@@";
-
     /** the timeout for executing command (defaults to 60000 milliseconds) */
     private int timeout = 60000;
 
     /** the interval to find new refresh candidates (defaults to 1000 milliseconds) */
     private int granularity = 1000;
 
-    private Map<String, Long> lastUpdateMap = new HashMap<String, Long>();
+    /** the maximum number of refresh commands executed at the same time (defaults to 4) */
+    private int maxConcurrent = 4;
+
+    private volatile ExecRunner runner;
+
+    private Map<String, Long> lastUpdateMap = new ConcurrentHashMap<String, Long>();
 
     /** RegEx to extract a parse a function String <code>'(.*?)\((.*)\)'</code> */
     private static final Pattern EXTRACT_FUNCTION_PATTERN = Pattern.compile("(.*?)\\((.*)\\)");
@@ -90,19 +84,40 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
 
     @Override
     public void activate() {
+        runner = new ExecRunner("Exec Refresh Worker", maxConcurrent);
         super.activate();
         setProperlyConfigured(true);
     }
 
+    @Override
+    public void deactivate() {
+        super.deactivate();
+        ExecRunner runner = this.runner;
+        this.runner = null;
+        if (runner != null) {
+            logger.debug("stopping {}", runner);
+            runner.shutdown();
+        }
+    }
+
+    /**
+     * Submits the command lines of all items which are due to the runner. An item
+     * whose previous command line is still running is refreshed as soon as it is due
+     * after that command line has terminated.
+     */
     @Override
     public void execute() {
-        for (ExecBindingProvider provider : providers) {
-            for (String itemName : provider.getInBindingItemNames()) {
+        ExecRunner runner = this.runner;
+        if (runner == null) {
+            return;
+        }
+
+        for (final ExecBindingProvider provider : providers) {
+            for (final String itemName : provider.getInBindingItemNames()) {
 
                 String commandLine = provider.getCommandLine(itemName);
 
                 int refreshInterval = provider.getRefreshInterval(itemName);
-                String transformation = provider.getTransformation(itemName);
 
                 Long lastUpdateTimeStamp = lastUpdateMap.get(itemName);
                 if (lastUpdateTimeStamp == null) {
@@ -114,39 +129,48 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
 
                 if (needsUpdate) {
 
-                    logger.debug("item '{}' is about to be refreshed now", itemName);
-
-                    commandLine = String.format(commandLine, Calendar.getInstance().getTime(), "", itemName);
+                    final String formattedCommandLine = String.format(commandLine, Calendar.getInstance().getTime(),
+                            "", itemName);
 
-                    String response = executeCommandAndWaitResponse(commandLine);
-
-                    if (response == null) {
-                        logger.error("No response received from command '{}'", commandLine);
-                        lastUpdateMap.put(itemName, System.currentTimeMillis());
-                        continue;
+                    if (runner.submit(itemName, formattedCommandLine, timeout, new ExecRunner.ResponseHandler() {
+                        @Override
+                        public void handleResponse(String response) {
+                            updateItem(provider, itemName, formattedCommandLine, response);
+                        }
+                    })) {
+                        logger.debug("item '{}' is about to be refreshed now", itemName);
                     }
+                }
+            }
+        }
+    }
 
-                    String transformedResponse = response;
-                    // If transformation is needed
-                    if (transformation.length() > 0) {
-                        transformedResponse = transformResponse(response, transformation);
-                    }
+    private void updateItem(ExecBindingProvider provider, String itemName, String commandLine, String response) {
+        if (response == null) {
+            logger.error("No response received from command '{}'", commandLine);
+            lastUpdateMap.put(itemName, System.currentTimeMillis());
+            return;
+        }
 
-                    List<Class<? extends State>> acceptedDataTypes = provider.getAcceptedDataTypes(itemName);
-                    State state = null;
-                    if (acceptedDataTypes != null) {
-                        state = TypeParser.parseState(acceptedDataTypes, transformedResponse);
-                    }
-                    if (state != null) {
-                        eventPublisher.postUpdate(itemName, state);
-                    } else {
-                        logger.debug("Couldn't create state for value '{}'", transformedResponse);
-                    }
+        String transformation = provider.getTransformation(itemName);
+        String transformedResponse = response;
+        // If transformation is needed
+        if (transformation.length() > 0) {
+            transformedResponse = transformResponse(response, transformation);
+        }
 
-                    lastUpdateMap.put(itemName, System.currentTimeMillis());
-                }
-            }
+        List<Class<? extends State>> acceptedDataTypes = provider.getAcceptedDataTypes(itemName);
+        State state = null;
+        if (acceptedDataTypes != null) {
+            state = TypeParser.parseState(acceptedDataTypes, transformedResponse);
+        }
+        if (state != null) {
+            eventPublisher.postUpdate(itemName, state);
+        } else {
+            logger.debug("Couldn't create state for value '{}'", transformedResponse);
         }
+
+        lastUpdateMap.put(itemName, System.currentTimeMillis());
     }
 
     protected String transformResponse(String response, String transformation) {
@@ -225,7 +249,10 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
 
             commandLine = String.format(commandLine, Calendar.getInstance().getTime(), command, itemName);
 
-            executeCommand(commandLine);
+            ExecRunner runner = this.runner;
+            if (runner != null) {
+                runner.execute(commandLine);
+            }
         }
     }
 
@@ -270,107 +297,6 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
         return firstMatchingProvider;
     }
 
-    /**
-     * <p>
-     * Executes <code>commandLine</code>. Sometimes (especially observed on
-     * MacOS) the commandLine isn't executed properly. In that cases another
-     * exec-method is to be used. To accomplish this please use the special
-     * delimiter '<code>@@</code>'. If <code>commandLine</code> contains this
-     * delimiter it is split into a String[] array and the special exec-method
-     * is used.
-     * </p>
-     * <p>
-     * A possible {@link IOException} gets logged but no further processing is
-     * done.
-     * </p>
-     *
-     * @param commandLine the command line to execute
-     * @see http://www.peterfriese.de/running-applescript-from-java/
-     */
-    private void executeCommand(String commandLine) {
-        try {
-            if (commandLine.contains(CMD_LINE_DELIMITER)) {
-                String[] cmdArray = commandLine.split(CMD_LINE_DELIMITER);
-                Runtime.getRuntime().exec(cmdArray);
-                logger.info("executed commandLine '{}'", Arrays.asList(cmdArray));
-            } else {
-                Runtime.getRuntime().exec(commandLine);
-                logger.info("executed commandLine '{}'", commandLine);
-            }
-        } catch (IOException e) {
-            logger.error("couldn't execute commandLine '" + commandLine + "'", e);
-        }
-    }
-
-    /**
-     * <p>
-     * Executes <code>commandLine</code>. Sometimes (especially observed on
-     * MacOS) the commandLine isn't executed properly. In that cases another
-     * exec-method is to be used. To accomplish this please use the special
-     * delimiter '<code>@@</code>'. If <code>commandLine</code> contains this
-     * delimiter it is split into a String[] array and the special exec-method
-     * is used.
-     * </p>
-     * <p>
-     * A possible {@link IOException} gets logged but no further processing is
-     * done.
-     * </p>
-     *
-     * @param commandLine the command line to execute
-     * @return response data from executed command line
-     */
-    private String executeCommandAndWaitResponse(String commandLine) {
-        String retval = null;
-
-        CommandLine cmdLine = null;
-
-        if (commandLine.contains(CMD_LINE_DELIMITER)) {
-            String[] cmdArray = commandLine.split(CMD_LINE_DELIMITER);
-            cmdLine = new CommandLine(cmdArray[0]);
-
-            for (int i = 1; i < cmdArray.length; i++) {
-                cmdLine.addArgument(cmdArray[i], false);
-            }
-        } else {
-            cmdLine = CommandLine.parse(commandLine);
-        }
-
-        DefaultExecuteResultHandler resultHandler = new DefaultExecuteResultHandler();
-
-        ExecuteWatchdog watchdog = new ExecuteWatchdog(timeout);
-        Executor executor = new DefaultExecutor();
-
-        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
-        PumpStreamHandler streamHandler = new PumpStreamHandler(stdout);
-
-        executor.setExitValue(1);
-        executor.setStreamHandler(streamHandler);
-        executor.setWatchdog(watchdog);
-
-        try {
-            executor.execute(cmdLine, resultHandler);
-            logger.debug("executed commandLine '{}'", commandLine);
-        } catch (ExecuteException e) {
-            logger.error("couldn't execute commandLine '" + commandLine + "'", e);
-        } catch (IOException e) {
-            logger.error("couldn't execute commandLine '" + commandLine + "'", e);
-        }
-
-        // some time later the result handler callback was invoked so we
-        // can safely request the exit code
-        try {
-            resultHandler.waitFor();
-            int exitCode = resultHandler.getExitValue();
-            retval = StringUtils.chomp(stdout.toString());
-            logger.debug("exit code '{}', result '{}'", exitCode, retval);
-
-        } catch (InterruptedException e) {
-            logger.error("Timeout occurred when executing commandLine '" + commandLine + "'", e);
-        }
-
-        return retval;
-    }
-
     @Override
     @SuppressWarnings("rawtypes")
     public void updated(Dictionary config) throws ConfigurationException {
@@ -385,6 +311,15 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
             if (StringUtils.isNotBlank(granularityString)) {
                 granularity = Integer.parseInt(granularityString);
             }
+
+            String maxConcurrentString = (String) config.get("maxConcurrent");
+            if (StringUtils.isNotBlank(maxConcurrentString)) {
+                maxConcurrent = Math.max(1, Integer.parseInt(maxConcurrentString));
+                ExecRunner runner = this.runner;
+                if (runner != null) {
+                    runner.setMaxConcurrent(maxConcurrent);
+                }
+            }
         }
 
     }
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.expire.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.events.EventPublisher;
+import org.openhab.core.library.items.StringItem;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * Testcases for the {@link ExpireBinding}, bound to an item through the generic
+ * binding provider like an items file does.
+ *
+ * @since 1.14.0
+ */
+public class ExpireBindingTest {
+
+    private static final String ITEMS_FILE = "test.items";
+
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<String>();
+
+    private final StringItem item = new StringItem("Item");
+
+    private ExpireBinding binding;
+    private ExpireGenericBindingProvider provider;
+
+    @Before
+    public void setUp() throws Exception {
+        binding = new ExpireBinding();
+        binding.setEventPublisher(new EventPublisher() {
+            @Override
+            public void sendCommand(String itemName, Command command) {
+                events.add(itemName + " command " + command);
+            }
+
+            @Override
+            public void postCommand(String itemName, Command command) {
+                events.add(itemName + " command " + command);
+            }
+
+            @Override
+            public void postUpdate(String itemName, State newState) {
+                events.add(itemName + " update " + newState);
+            }
+        });
+        binding.activate(null, new HashMap<String, Object>());
+
+        provider = new ExpireGenericBindingProvider();
+        provider.processBindingConfiguration(ITEMS_FILE, item, "1s");
+        binding.addBindingProvider(provider);
+    }
+
+    @After
+    public void tearDown() {
+        binding.deactivate(1);
+    }
+
+    @Test
+    public void expiresItemWithoutUpdate() throws InterruptedException {
+        binding.internalReceiveUpdate("Item", new StringType("value"));
+
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+        assertEquals("Item update " + UnDefType.UNDEF, events.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void doesNotExpireItemUpdatedWithExpireState() throws InterruptedException {
+        binding.internalReceiveUpdate("Item", new StringType("value"));
+        binding.internalReceiveUpdate("Item", UnDefType.UNDEF);
+
+        assertNull(events.poll(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void keepsPendingExpirationWhenItemsFileIsReloaded() throws Exception {
+        binding.internalReceiveUpdate("Item", new StringType("value"));
+
+        // the model removes and re-adds the bindings of all items of a reloaded file
+        provider.removeConfigurations(ITEMS_FILE);
+        provider.processBindingConfiguration(ITEMS_FILE, item, "1s");
+
+        assertEquals("Item update " + UnDefType.UNDEF, events.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void doesNotExpireItemWhoseBindingHasBeenRemoved() throws InterruptedException {
+        binding.internalReceiveUpdate("Item", new StringType("value"));
+
+        provider.removeConfigurations(ITEMS_FILE);
+
+        assertNull(events.poll(2, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.expire.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Testcases for the {@link ExpireScheduler}.
+ *
+ * @since 1.14.0
+ */
+public class ExpireSchedulerTest {
+
+    private final BlockingQueue<String> expired = new LinkedBlockingQueue<String>();
+
+    private ExpireScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new ExpireScheduler(new ExpireScheduler.Listener() {
+            @Override
+            public void expired(String itemName) {
+                expired.add(itemName);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void expiresArmedItemAtItsDeadline() throws InterruptedException {
+        long start = System.nanoTime();
+        scheduler.arm("item", 100);
+        assertEquals(1, scheduler.getArmedCount());
+
+        assertEquals("item", expired.poll(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+        assertEquals(0, scheduler.getArmedCount());
+        assertEquals(1, scheduler.getExpiredCount());
+    }
+
+    @Test
+    public void movesDeadlineOfArmedItem() throws InterruptedException {
+        long start = System.nanoTime();
+        scheduler.arm("item", 100);
+        Thread.sleep(50);
+        scheduler.arm("item", 200);
+
+        assertEquals("item", expired.poll(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 250);
+        assertEquals(1, scheduler.getExpiredCount());
+    }
+
+    @Test
+    public void doesNotExpireDisarmedItem() throws InterruptedException {
+        scheduler.arm("item", 100);
+        scheduler.arm("other", 150);
+        scheduler.disarm("item");
+
+        assertEquals("other", expired.poll(5, TimeUnit.SECONDS));
+        assertEquals(null, expired.poll(100, TimeUnit.MILLISECONDS));
+    }
+}
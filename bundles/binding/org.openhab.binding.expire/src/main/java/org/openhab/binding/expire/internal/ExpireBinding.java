@@ -13,10 +13,9 @@
 package org.openhab.binding.expire.internal;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.openhab.binding.expire.ExpireBindingProvider;
-import org.openhab.core.binding.AbstractActiveBinding;
+import org.openhab.core.binding.AbstractBinding;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.osgi.framework.BundleContext;
@@ -31,20 +30,14 @@ import org.slf4j.LoggerFactory;
  * @author John Cocula - minor refactoring
  * @since 1.9.0
  */
-public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider> {
+public class ExpireBinding extends AbstractBinding<ExpireBindingProvider> implements ExpireScheduler.Listener {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpireBinding.class);
 
     /**
-     * The refresh interval is used to check if any of the bound items is expired.
-     * One second should be fine for all use cases, so it's final and cannot be configured.
+     * Expires the items when they are due.
      */
-    private static final long refreshInterval = 1000;
-
-    /**
-     * Mapping of item names to future timestamps (in milliseconds) to expire them.
-     */
-    private Map<String, Long> itemExpireMap = new ConcurrentHashMap<String, Long>();
+    private volatile ExpireScheduler scheduler;
 
     public ExpireBinding() {
     }
@@ -64,7 +57,7 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
      * @param configuration Configuration properties for this component obtained from the ConfigAdmin service
      */
     public void activate(final BundleContext bundleContext, final Map<String, Object> configuration) {
-        setProperlyConfigured(true);
+        scheduler = new ExpireScheduler(this);
     }
 
     /**
@@ -94,33 +87,31 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
     public void deactivate(final int reason) {
         // deallocate resources here that are no longer needed and
         // should be reset when activating this binding again
-        itemExpireMap.clear();
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    protected long getRefreshInterval() {
-        return refreshInterval;
+        ExpireScheduler scheduler = this.scheduler;
+        this.scheduler = null;
+        if (scheduler != null) {
+            logger.debug("Stopping {}", scheduler);
+            scheduler.shutdown();
+        }
     }
 
     /**
      * {@inheritDoc}
+     *
+     * An item whose expire binding has been removed meanwhile isn't expired. The timer of an item is kept when its
+     * binding changes, as reloading an items file removes and re-adds the bindings of all its items.
      */
     @Override
-    protected String getName() {
-        return "Expire Refresh Service";
-    }
-
-    private boolean isReadyToExpire(String itemName) {
-        Long nextExpireTs = itemExpireMap.get(itemName);
-        return (nextExpireTs != null) && (nextExpireTs <= System.currentTimeMillis());
+    public void expired(String itemName) {
+        for (ExpireBindingProvider provider : providers) {
+            if (provider.providesBindingFor(itemName)) {
+                expire(itemName, provider);
+                break;
+            }
+        }
     }
 
     private void expire(String itemName, ExpireBindingProvider provider) {
-        itemExpireMap.remove(itemName); // disable expire trigger until next update or command
-
         Command expireCommand = provider.getExpireCommand(itemName);
         State expireState = provider.getExpireState(itemName);
 
@@ -133,25 +124,20 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
                     provider.getDurationString(itemName), expireState);
             eventPublisher.postUpdate(itemName, expireState);
         }
+        logger.trace("{}", scheduler);
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    protected void execute() {
-        logger.trace("Executing...");
-
-        // only bother to iterate if there is any possible work to do
-        if (!itemExpireMap.isEmpty()) {
+    private void arm(String itemName, long duration) {
+        ExpireScheduler scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.arm(itemName, duration);
+        }
+    }
 
-            for (ExpireBindingProvider provider : providers) {
-                for (String itemName : provider.getItemNames()) {
-                    if (isReadyToExpire(itemName)) {
-                        expire(itemName, provider);
-                    }
-                }
-            }
+    private void disarm(String itemName) {
+        ExpireScheduler scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.disarm(itemName);
         }
     }
 
@@ -170,13 +156,13 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
                 if ((expireCommand != null && expireCommand.equals(newCommand))
                         || (expireState != null && expireState.equals(newCommand))) {
                     // New command is expired command or state -> no further action needed
-                    itemExpireMap.remove(itemName); // remove expire trigger until next update or command
+                    disarm(itemName); // remove expire trigger until next update or command
                     logger.debug("Item {} received command '{}'; stopping any future expiration.", itemName,
                             newCommand);
                 } else {
-                    // New command is not the expired command or state, so add the trigger to the map
+                    // New command is not the expired command or state, so (re-)arm the trigger
                     long duration = provider.getDuration(itemName);
-                    itemExpireMap.put(itemName, System.currentTimeMillis() + duration);
+                    arm(itemName, duration);
                     logger.debug("Item {} will expire (with '{}' {}) in {} ms", itemName,
                             expireCommand == null ? expireState : expireCommand,
                             expireCommand == null ? "state" : "command", duration);
@@ -201,12 +187,12 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
                 if ((expireCommand != null && expireCommand.equals(newState))
                         || (expireState != null && expireState.equals(newState))) {
                     // New state is expired command or state -> no further action needed
-                    itemExpireMap.remove(itemName); // remove expire trigger until next update or command
+                    disarm(itemName); // remove expire trigger until next update or command
                     logger.debug("Item {} received update '{}'; stopping any future expiration.", itemName, newState);
                 } else {
-                    // New state is not the expired command or state, so add the trigger to the map
+                    // New state is not the expired command or state, so (re-)arm the trigger
                     long duration = provider.getDuration(itemName);
-                    itemExpireMap.put(itemName, System.currentTimeMillis() + duration);
+                    arm(itemName, duration);
                     logger.debug("Item {} will expire (with '{}' {}) in {} ms", itemName,
                             expireCommand == null ? expireState : expireCommand,
                             expireCommand == null ? "state" : "command", duration);
@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.expire.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedules the expiration of items. Every armed item has exactly one task in a
+ * {@link ScheduledThreadPoolExecutor}, which fires when the item is due. Re-arming an
+ * item that is updated before its expiration only moves its deadline, so frequent
+ * updates don't touch the executor's queue at all. When the task fires before the
+ * moved deadline, it schedules itself again for the remaining time.
+ * <p>
+ * No work is done while no item is due.
+ *
+ * @since 1.14.0
+ */
+class ExpireScheduler {
+
+    /**
+     * Called when an item is due.
+     */
+    interface Listener {
+        void expired(String itemName);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpireScheduler.class);
+
+    private final Listener listener;
+    private final ScheduledThreadPoolExecutor executor;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong totalLag = new AtomicLong();
+    private final AtomicLong maxLag = new AtomicLong();
+
+    ExpireScheduler(Listener listener) {
+        this.listener = listener;
+        this.executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Expire Scheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Arms the expiration of an item or moves its deadline if it is armed already.
+     *
+     * @param itemName the item to expire
+     * @param duration the time from now in milliseconds after which the item expires
+     */
+    void arm(String itemName, long duration) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duration);
+        while (true) {
+            Timer timer = timers.get(itemName);
+            if (timer == null) {
+                timer = new Timer(itemName);
+                Timer existing = timers.putIfAbsent(itemName, timer);
+                if (existing != null) {
+                    timer = existing;
+                }
+            }
+            synchronized (timer) {
+                if (timer.disarmed) {
+                    // removed concurrently, try again with a new timer
+                    continue;
+                }
+                timer.deadline = deadline;
+                if (timer.future == null || deadline < timer.scheduledFor) {
+                    // only an earlier deadline needs the task to be scheduled again
+                    if (timer.future != null) {
+                        timer.future.cancel(false);
+                    }
+                    schedule(timer, deadline);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Disarms the expiration of an item.
+     *
+     * @param itemName the item not to expire
+     */
+    void disarm(String itemName) {
+        Timer timer = timers.remove(itemName);
+        if (timer != null) {
+            synchronized (timer) {
+                timer.disarmed = true;
+                if (timer.future != null) {
+                    timer.future.cancel(false);
+                    timer.future = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Disarms all items and stops the scheduler.
+     */
+    void shutdown() {
+        for (String itemName : timers.keySet()) {
+            disarm(itemName);
+        }
+        executor.shutdownNow();
+    }
+
+    private void schedule(Timer timer, long deadline) {
+        timer.scheduledFor = deadline;
+        timer.future = executor.schedule(timer, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private void fire(Timer timer) {
+        long lag;
+        synchronized (timer) {
+            if (timer.disarmed) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (timer.deadline > now) {
+                // the item has been re-armed meanwhile
+                schedule(timer, timer.deadline);
+                return;
+            }
+            lag = TimeUnit.NANOSECONDS.toMillis(now - timer.deadline);
+            timer.disarmed = true;
+            timer.future = null;
+            timers.remove(timer.itemName, timer);
+        }
+
+        recordLag(lag);
+        logger.trace("Item {} expired {} ms after its deadline", timer.itemName, lag);
+        try {
+            listener.expired(timer.itemName);
+        } catch (RuntimeException e) {
+            logger.error("Error expiring item {}: {}", timer.itemName, e.getMessage(), e);
+        }
+    }
+
+    private void recordLag(long lag) {
+        expiredCount.incrementAndGet();
+        totalLag.addAndGet(lag);
+        long max = maxLag.get();
+        while (lag > max && !maxLag.compareAndSet(max, lag)) {
+            max = maxLag.get();
+        }
+    }
+
+    /**
+     * @return the number of items which are going to expire
+     */
+    int getArmedCount() {
+        return timers.size();
+    }
+
+    /**
+     * @return the number of items which have expired
+     */
+    long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * @return the average time in milliseconds from the deadline of an item until it
+     *         actually expired
+     */
+    long getAverageLag() {
+        long count = expiredCount.get();
+        return count == 0 ? 0 : totalLag.get() / count;
+    }
+
+    /**
+     * @return the longest time in milliseconds from the deadline of an item until it
+     *         actually expired
+     */
+    long getMaxLag() {
+        return maxLag.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ExpireScheduler [armed=" + getArmedCount() + ", expired=" + getExpiredCount() + ", avgLag="
+                + getAverageLag() + "ms, maxLag=" + getMaxLag() + "ms]";
+    }
+
+    private class Timer implements Runnable {
+        final String itemName;
+        long deadline;
+        long scheduledFor;
+        ScheduledFuture<?> future;
+        boolean disarmed;
+
+        Timer(String itemName) {
+            this.itemName = itemName;
+        }
+
+        @Override
+        public void run() {
+            fire(this);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.test.binrpc;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.binrpc.BinRpcRequest;
+import org.openhab.binding.homematic.internal.binrpc.BinRpcResponse;
+
+import junit.framework.Assert;
+
+/**
+ * Testcases for encoding and decoding BIN-RPC messages.
+ *
+ * @since 1.14.0
+ */
+public class BinRpcCodecTest {
+
+    private byte[] createMulticall(int events) {
+        List<Object> calls = new ArrayList<Object>();
+        for (int i = 0; i < events; i++) {
+            Map<String, Object> call = new HashMap<String, Object>();
+            call.put("methodName", "event");
+            call.put("params", Arrays.<Object> asList("BidCos-RF", "KEQ000000" + i + ":1", "LEVEL", 0.5d + i));
+            calls.add(call);
+        }
+        BinRpcRequest request = new BinRpcRequest("system.multicall");
+        request.addArg(calls);
+        return request.createMessage();
+    }
+
+    @Test
+    public void testDecodeMulticall() throws Exception {
+        BinRpcResponse response = new BinRpcResponse(ByteBuffer.wrap(createMulticall(3)), true);
+        Assert.assertEquals("system.multicall", response.getMethodName());
+
+        Object[] calls = (Object[]) response.getResponseData()[0];
+        Assert.assertEquals(3, calls.length);
+        for (int i = 0; i < calls.length; i++) {
+            Map<?, ?> call = (Map<?, ?>) calls[i];
+            Assert.assertEquals("event", call.get("methodName"));
+            Object[] params = (Object[]) call.get("params");
+            Assert.assertEquals("BidCos-RF", params[0]);
+            Assert.assertEquals("KEQ000000" + i + ":1", params[1]);
+            Assert.assertEquals("LEVEL", params[2]);
+            Assert.assertEquals(0.5d + i, params[3]);
+        }
+    }
+
+    @Test
+    public void testDecodeFromStream() throws Exception {
+        BinRpcRequest request = new BinRpcRequest("event");
+        request.addArg("BidCos-RF");
+        request.addArg("KEQ0000001:1");
+        request.addArg("STATE");
+        request.addArg(Boolean.TRUE);
+        request.addArg(Integer.valueOf(-42));
+
+        BinRpcResponse response = new BinRpcResponse(new ByteArrayInputStream(request.createMessage()), true);
+        Assert.assertEquals("event", response.getMethodName());
+        Object[] params = response.getResponseData();
+        Assert.assertEquals(5, params.length);
+        Assert.assertEquals("KEQ0000001:1", params[1]);
+        Assert.assertEquals(Boolean.TRUE, params[3]);
+        Assert.assertEquals(Integer.valueOf(-42), params[4]);
+    }
+
+    @Test
+    public void testNamesAreShared() throws Exception {
+        byte[] message = createMulticall(2);
+        Map<?, ?> first = (Map<?, ?>) ((Object[]) new BinRpcResponse(ByteBuffer.wrap(message), true)
+                .getResponseData()[0])[0];
+        Map<?, ?> second = (Map<?, ?>) ((Object[]) new BinRpcResponse(ByteBuffer.wrap(message), true)
+                .getResponseData()[0])[1];
+        Assert.assertSame(first.get("methodName"), second.get("methodName"));
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedMessage() throws Exception {
+        byte[] message = createMulticall(2);
+        new BinRpcResponse(ByteBuffer.wrap(Arrays.copyOf(message, message.length - 10)), true);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.test.bus;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.bus.HomematicGenericBindingProvider;
+import org.openhab.binding.homematic.internal.config.binding.DatapointConfig;
+import org.openhab.binding.homematic.internal.config.binding.VariableConfig;
+import org.openhab.core.items.Item;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.SwitchItem;
+
+import junit.framework.Assert;
+
+/**
+ * Testcases for resolving the items of a Homematic binding config.
+ *
+ * @since 1.14.0
+ */
+public class HomematicGenericBindingProviderTest {
+    private HomematicGenericBindingProvider provider;
+
+    @Before
+    public void setUp() throws Exception {
+        provider = new HomematicGenericBindingProvider();
+        provider.processBindingConfiguration("test.items", new SwitchItem("Light"),
+                "address=KEQ0000001, channel=1, parameter=STATE");
+        provider.processBindingConfiguration("test.items", new SwitchItem("LightCopy"),
+                "address=KEQ0000001, channel=1, parameter=STATE");
+        provider.processBindingConfiguration("test.items", new NumberItem("Temperature"),
+                "address=KEQ0000002, channel=1, parameter=TEMPERATURE");
+        provider.processBindingConfiguration("other.items", new NumberItem("Variable"), "variable=Presence");
+    }
+
+    @Test
+    public void testGetItemsForDatapoint() {
+        List<Item> items = provider.getItemsFor(new DatapointConfig("KEQ0000001", "1", "STATE"));
+        Assert.assertEquals(2, items.size());
+
+        items = provider.getItemsFor(new DatapointConfig("KEQ0000002", "1", "TEMPERATURE"));
+        Assert.assertEquals(1, items.size());
+        Assert.assertEquals("Temperature", items.get(0).getName());
+
+        Assert.assertTrue(provider.getItemsFor(new DatapointConfig("KEQ0000002", "1", "HUMIDITY")).isEmpty());
+    }
+
+    @Test
+    public void testGetItemsForVariable() {
+        List<Item> items = provider.getItemsFor(new VariableConfig("Presence"));
+        Assert.assertEquals(1, items.size());
+        Assert.assertEquals("Variable", items.get(0).getName());
+    }
+
+    @Test
+    public void testRemoveConfigurations() {
+        provider.removeConfigurations("test.items");
+        Assert.assertTrue(provider.getItemsFor(new DatapointConfig("KEQ0000001", "1", "STATE")).isEmpty());
+        Assert.assertEquals(1, provider.getItemsFor(new VariableConfig("Presence")).size());
+    }
+
+    @Test
+    public void testReplaceConfiguration() throws Exception {
+        provider.processBindingConfiguration("test.items", new SwitchItem("LightCopy"),
+                "address=KEQ0000003, channel=1, parameter=STATE");
+        Assert.assertEquals(1, provider.getItemsFor(new DatapointConfig("KEQ0000001", "1", "STATE")).size());
+        Assert.assertEquals(1, provider.getItemsFor(new DatapointConfig("KEQ0000003", "1", "STATE")).size());
+    }
+}
@@ -12,9 +12,10 @@
  */
 package org.openhab.binding.homematic.internal.binrpc;
 
-import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -30,8 +31,9 @@ import org.apache.commons.lang.builder.ToStringStyle;
  * @since 1.5.0
  */
 public class BinRpcRequest {
-    private byte data[];
-    private int dataoffset;
+    private static final int HEADER_LENGTH = 8;
+
+    private ByteBuffer data;
     private String methodName;
     private Collection<Object> args = new ArrayList<Object>();
 
@@ -57,7 +59,9 @@ public class BinRpcRequest {
      * Generates the binrpc data.
      */
     public byte[] createMessage() {
-        data = new byte[256];
+        data = ByteBuffer.allocate(256);
+        // the header is written when the length of the message is known
+        data.position(HEADER_LENGTH);
         if (methodName != null) {
             addInt(methodName.length());
             addString(methodName);
@@ -66,33 +70,33 @@ public class BinRpcRequest {
 
         addList(args);
 
-        byte fullreq[] = new byte[dataoffset + 8];
-        System.arraycopy(data, 0, fullreq, 8, dataoffset);
-        fullreq[0] = 'B';
-        fullreq[1] = 'i';
-        fullreq[2] = 'n';
-        addInt(dataoffset);
-        System.arraycopy(data, dataoffset - 4, fullreq, 4, 4);
+        int length = data.position();
+        data.put(0, (byte) 'B');
+        data.put(1, (byte) 'i');
+        data.put(2, (byte) 'n');
+        data.putInt(4, length - HEADER_LENGTH);
+        byte fullreq[] = Arrays.copyOf(data.array(), length);
+        data = null;
         return fullreq;
     }
 
-    private void addByte(byte b) {
-        if (dataoffset == data.length) {
-            byte newdata[] = new byte[data.length * 2];
-            System.arraycopy(data, 0, newdata, 0, data.length);
+    private void ensureCapacity(int length) {
+        if (data.remaining() < length) {
+            ByteBuffer newdata = ByteBuffer.allocate(Math.max(data.capacity() * 2, data.position() + length));
+            data.flip();
+            newdata.put(data);
             data = newdata;
         }
-        data[dataoffset++] = b;
+    }
+
+    private void addByte(byte b) {
+        ensureCapacity(1);
+        data.put(b);
     }
 
     private void addInt(int n) {
-        byte d[] = BigInteger.valueOf(n).toByteArray();
-        for (int c = 0; c < 4 - d.length; c++) {
-            addByte(n < 0 ? (byte) 0xFF : (byte) 0);
-        }
-        for (byte s : d) {
-            addByte(s);
-        }
+        ensureCapacity(4);
+        data.putInt(n);
     }
 
     private void addDouble(double v) {
@@ -118,15 +122,12 @@ public class BinRpcRequest {
     }
 
     private void addString(String s) {
-        byte sd[];
-        try {
-            sd = s.getBytes("ISO-8859-1");
-        } catch (UnsupportedEncodingException use) {
-            // Really shouldn't happen, fall back silently to platform encoding
-            sd = s.getBytes();
-        }
-        for (byte ch : sd) {
-            addByte(ch);
+        int length = s.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char ch = s.charAt(i);
+            // ISO-8859-1, unmappable characters are replaced like String.getBytes() does
+            data.put(ch <= 0xff ? (byte) ch : (byte) '?');
         }
     }
 
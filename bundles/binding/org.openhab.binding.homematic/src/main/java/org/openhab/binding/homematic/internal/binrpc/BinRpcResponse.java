@@ -17,11 +17,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -39,8 +39,10 @@ import org.slf4j.LoggerFactory;
 public class BinRpcResponse {
     private final static Logger logger = LoggerFactory.getLogger(BinRpcResponse.class);
 
-    private byte data[];
-    private int dataoffset = 0;
+    private static final int HEADER_LENGTH = 8;
+    private static final BinRpcStringCache stringCache = new BinRpcStringCache();
+
+    private ByteBuffer data;
     private String methodName;
     private Object[] responseData;
 
@@ -48,44 +50,75 @@ public class BinRpcResponse {
      * Decodes a BIN-RPC message from the given InputStream.
      */
     public BinRpcResponse(InputStream is, boolean methodHeader) throws IOException, ParseException {
-        byte sig[] = new byte[4];
-        int l = is.read(sig);
-        if (l != sig.length) {
-            throw new EOFException("Only " + l + " bytes received reading signature");
+        this(readMessage(is), methodHeader);
+    }
+
+    /**
+     * Decodes a complete BIN-RPC message, including its header, from the
+     * remaining bytes of the given buffer. The message is decoded in place
+     * without copying it.
+     */
+    public BinRpcResponse(ByteBuffer message, boolean methodHeader) throws IOException, ParseException {
+        data = message;
+        try {
+            if (data.get() != 'B' || data.get() != 'i' || data.get() != 'n') {
+                throw new UnsupportedEncodingException("No BinX signature");
+            }
+            data.get();
+            int datasize = data.getInt();
+            if (datasize > data.remaining()) {
+                throw new EOFException("Only " + data.remaining() + " of " + datasize + " bytes received");
+            }
+            data.limit(data.position() + datasize);
+
+            if (methodHeader) {
+                methodName = readString();
+                data.getInt();
+            }
+
+            List<Object> values = new ArrayList<Object>();
+            while (data.hasRemaining()) {
+                values.add(readRpcValue());
+            }
+            responseData = values.toArray();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Unexpected end of message");
+        } finally {
+            data = null;
         }
-        if (sig[0] != 'B' || sig[1] != 'i' || sig[2] != 'n') {
+    }
+
+    /**
+     * Reads the header and the data of a message into a single buffer.
+     */
+    private static ByteBuffer readMessage(InputStream is) throws IOException {
+        byte header[] = new byte[HEADER_LENGTH];
+        readFully(is, header, 0, 4, "signature");
+        if (header[0] != 'B' || header[1] != 'i' || header[2] != 'n') {
             throw new UnsupportedEncodingException("No BinX signature");
         }
-        l = is.read(sig);
-        if (l != sig.length) {
-            throw new EOFException("Only " + l + " bytes received reading length");
-        }
-        int datasize = (new BigInteger(sig)).intValue();
-        data = new byte[datasize];
-        int offset = 0;
-        while (datasize > 0) {
-            int r = is.read(data, offset, datasize);
-            if (r < 1) {
-                throw new EOFException("EOF while reading data");
-            }
-            datasize -= r;
-            offset += r;
+        readFully(is, header, 4, 4, "length");
+        int datasize = ByteBuffer.wrap(header, 4, 4).getInt();
+        if (datasize < 0) {
+            throw new UnsupportedEncodingException("Invalid message length " + datasize);
         }
 
-        if (methodHeader) {
-            int slen = readInt();
-            methodName = new String(data, dataoffset, slen, "ISO-8859-1");
-            dataoffset += slen;
-            readInt();
-        }
+        byte message[] = new byte[HEADER_LENGTH + datasize];
+        System.arraycopy(header, 0, message, 0, HEADER_LENGTH);
+        readFully(is, message, HEADER_LENGTH, datasize, "data");
+        return ByteBuffer.wrap(message);
+    }
 
-        List<Object> values = new ArrayList<Object>();
-        while (dataoffset < data.length) {
-            values.add(readRpcValue());
+    private static void readFully(InputStream is, byte[] buffer, int offset, int length, String part)
+            throws IOException {
+        int read = 0;
+        while (read < length) {
+            int r = is.read(buffer, offset + read, length - read);
+            if (r < 1) {
+                throw new EOFException("Only " + read + " bytes received reading " + part);
+            }
+            read += r;
         }
-        responseData = values.toArray();
-        values.clear();
-        data = null;
     }
 
     /**
@@ -102,59 +135,68 @@ public class BinRpcResponse {
         return responseData;
     }
 
-    private int readInt() {
-        byte bi[] = new byte[4];
-        System.arraycopy(data, dataoffset, bi, 0, 4);
-        dataoffset += 4;
-        return (new BigInteger(bi)).intValue();
-    }
-
-    private Object readRpcValue() throws UnsupportedEncodingException, ParseException {
-        int type = readInt();
+    private Object readRpcValue() throws ParseException {
+        int type = data.getInt();
         switch (type) {
             case 1:
-                return new Integer(readInt());
+                return Integer.valueOf(data.getInt());
             case 2:
-                return data[dataoffset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
+                return data.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
             case 3:
-                int len = readInt();
-                dataoffset += len;
-                return new String(data, dataoffset - len, len, "ISO-8859-1");
+                return readString();
             case 4:
-                int mantissa = readInt();
-                int exponent = readInt();
+                int mantissa = data.getInt();
+                int exponent = data.getInt();
                 BigDecimal bd = new BigDecimal((double) mantissa / (double) (1 << 30) * Math.pow(2, exponent));
                 return bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
             case 5:
-                return new Date(readInt() * 1000);
+                return new Date(data.getInt() * 1000);
             case 0x100:
                 // Array
-                int numElements = readInt();
-                Collection<Object> array = new ArrayList<Object>();
-                while (numElements-- > 0) {
-                    array.add(readRpcValue());
+                int numElements = readElementCount();
+                Object[] array = new Object[numElements];
+                for (int i = 0; i < numElements; i++) {
+                    array[i] = readRpcValue();
                 }
-                return array.toArray();
+                return array;
             case 0x101:
                 // Struct
-                numElements = readInt();
+                numElements = readElementCount();
                 Map<String, Object> struct = new TreeMap<String, Object>();
                 while (numElements-- > 0) {
-                    int slen = readInt();
-                    String name = new String(data, dataoffset, slen, "ISO-8859-1");
-                    dataoffset += slen;
+                    String name = readString();
                     struct.put(name, readRpcValue());
                 }
                 return struct;
 
             default:
-                for (int x = 0; x < data.length; x++) {
-                    logger.info(Integer.toHexString(data[x]) + " " + (char) data[x]);
+                for (int x = 0; x < data.limit(); x++) {
+                    logger.info(Integer.toHexString(data.get(x)) + " " + (char) data.get(x));
                 }
                 throw new ParseException("Unknown data type " + type, type);
         }
     }
 
+    private String readString() throws ParseException {
+        int length = data.getInt();
+        if (length < 0 || length > data.remaining()) {
+            throw new ParseException("Invalid string length " + length, data.position());
+        }
+        return stringCache.get(data, length);
+    }
+
+    /**
+     * Reads the number of elements of an array or struct, every element takes at
+     * least four bytes.
+     */
+    private int readElementCount() throws ParseException {
+        int numElements = data.getInt();
+        if (numElements < 0 || numElements > data.remaining() / 4) {
+            throw new ParseException("Invalid number of elements " + numElements, data.position());
+        }
+        return numElements;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
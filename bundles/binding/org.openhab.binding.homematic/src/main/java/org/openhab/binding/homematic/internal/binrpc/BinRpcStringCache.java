@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.binrpc;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cache of the short ISO-8859-1 strings of BIN-RPC messages, like method names,
+ * struct keys, addresses and parameter names. The same few hundred strings are
+ * received over and over again, decoding them through the cache returns the
+ * already existing String instance instead of allocating a new one.
+ * <p>
+ * The cache is a fixed size table indexed by the hash of the bytes, a colliding
+ * string replaces the cached one. It doesn't lock, racing threads at worst
+ * create a string which would have been found otherwise.
+ *
+ * @since 1.14.0
+ */
+class BinRpcStringCache {
+    private static final int SIZE = 2048;
+    private static final int MAX_LENGTH = 64;
+
+    private final String[] strings = new String[SIZE];
+
+    /**
+     * Decodes a string of the given length at the current position of the buffer
+     * and advances the position behind it.
+     */
+    String get(ByteBuffer buffer, int length) {
+        if (length > MAX_LENGTH) {
+            return decode(buffer, length);
+        }
+
+        int start = buffer.position();
+        // for ISO-8859-1 this is the same as String.hashCode()
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + (buffer.get(start + i) & 0xff);
+        }
+        int index = (hash ^ (hash >>> 16)) & (SIZE - 1);
+
+        String cached = strings[index];
+        if (cached != null && matches(cached, buffer, start, length)) {
+            buffer.position(start + length);
+            return cached;
+        }
+
+        String s = decode(buffer, length);
+        strings[index] = s;
+        return s;
+    }
+
+    private static boolean matches(String s, ByteBuffer buffer, int start, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) != (char) (buffer.get(start + i) & 0xff)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(ByteBuffer buffer, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer.get() & 0xff);
+        }
+        return new String(chars);
+    }
+}
@@ -13,12 +13,15 @@
 package org.openhab.binding.homematic.internal.bus;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openhab.binding.homematic.HomematicBindingProvider;
 import org.openhab.binding.homematic.internal.config.binding.HomematicBindingConfig;
+import org.openhab.core.binding.BindingConfig;
 import org.openhab.core.items.Item;
 import org.openhab.model.item.binding.AbstractGenericBindingProvider;
 import org.openhab.model.item.binding.BindingConfigParseException;
@@ -38,7 +41,7 @@ public class HomematicGenericBindingProvider extends AbstractGenericBindingProvi
 
     private BindingConfigParser parser = new BindingConfigParser();
 
-    private Map<String, Item> items = new HashMap<String, Item>();
+    private Map<String, Item> items = new ConcurrentHashMap<String, Item>();
 
     /**
      * {@inheritDoc}
@@ -76,15 +79,24 @@ public class HomematicGenericBindingProvider extends AbstractGenericBindingProvi
     @Override
     public List<Item> getItemsFor(HomematicBindingConfig bindingConfig) {
         List<Item> result = new ArrayList<Item>();
-        for (String itemName : getItemNames()) {
-            HomematicBindingConfig bc = (HomematicBindingConfig) bindingConfigs.get(itemName);
-            if (bc.equals(bindingConfig)) {
-                result.add(items.get(itemName));
+        for (String itemName : getItemNamesForAddress(bindingConfig)) {
+            Item item = items.get(itemName);
+            if (item != null) {
+                result.add(item);
             }
         }
         return result;
     }
 
+    /**
+     * Indexes a binding by itself, events from the CCU are resolved with a
+     * binding config which equals the config of the items.
+     */
+    @Override
+    protected Collection<?> getBindingAddresses(BindingConfig config) {
+        return Collections.singleton(config);
+    }
+
     /**
      * {@inheritDoc}
      */
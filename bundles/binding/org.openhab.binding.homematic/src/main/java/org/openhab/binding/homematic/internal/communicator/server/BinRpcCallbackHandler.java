@@ -42,10 +42,13 @@ public class BinRpcCallbackHandler implements Runnable {
 
     private Socket socket;
     private HomematicCallbackReceiver callbackReceiver;
+    private BinRpcEventDispatcher eventDispatcher;
 
-    public BinRpcCallbackHandler(Socket socket, HomematicCallbackReceiver callbackReceiver) {
+    public BinRpcCallbackHandler(Socket socket, HomematicCallbackReceiver callbackReceiver,
+            BinRpcEventDispatcher eventDispatcher) {
         this.socket = socket;
         this.callbackReceiver = callbackReceiver;
+        this.eventDispatcher = eventDispatcher;
     }
 
     /**
@@ -105,15 +108,16 @@ public class BinRpcCallbackHandler implements Runnable {
     }
 
     /**
-     * Populates the extracted event to the callbackReceiver.
+     * Populates the extracted event to the callbackReceiver, events are handled in
+     * the order of their device by the eventDispatcher.
      */
-    private void handleEvent(Object[] parms) {
+    private void handleEvent(Object[] parms) throws InterruptedException {
         String interfaceId = parms[0].toString();
         String address = parms[1].toString();
         String attribute = parms[2].toString();
         Object value = parms[3];
 
-        callbackReceiver.event(interfaceId, address, attribute, value);
+        eventDispatcher.dispatch(interfaceId, address, attribute, value);
     }
 
 }
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.openhab.binding.homematic.internal.communicator.HomematicCallbackReceiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands over the events received from the Homematic server to the
+ * callbackReceiver on a fixed number of worker threads. All events of a device
+ * are handled by the same worker, so they keep the order they have been received
+ * in, while events of different devices are handled in parallel. Each worker has a
+ * bounded queue, if it is full the receiving connection waits until there is room
+ * again.
+ *
+ * @since 1.14.0
+ */
+public class BinRpcEventDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(BinRpcEventDispatcher.class);
+
+    private static final int QUEUE_SIZE = 1000;
+
+    private final HomematicCallbackReceiver callbackReceiver;
+    private final Worker[] workers;
+
+    public BinRpcEventDispatcher(HomematicCallbackReceiver callbackReceiver, int workerCount) {
+        this.callbackReceiver = callbackReceiver;
+        this.workers = new Worker[Math.max(1, workerCount)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker("Homematic Event Dispatcher " + i);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Queues an event, waiting if the queue of the device is full.
+     */
+    public void dispatch(String interfaceId, String address, String parameter, Object value)
+            throws InterruptedException {
+        Event event = new Event(interfaceId, address, parameter, value);
+        workers[(event.getDeviceHash() & Integer.MAX_VALUE) % workers.length].queue.put(event);
+    }
+
+    /**
+     * Stops the workers, queued events are discarded.
+     */
+    public void shutdown() {
+        for (Worker worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private class Worker extends Thread {
+        private final BlockingQueue<Event> queue = new ArrayBlockingQueue<Event>(QUEUE_SIZE);
+
+        Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!isInterrupted()) {
+                    Event event = queue.take();
+                    try {
+                        callbackReceiver.event(event.interfaceId, event.address, event.parameter, event.value);
+                    } catch (RuntimeException e) {
+                        logger.error("Error handling event {}: {}", event, e.getMessage(), e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // shutdown
+            }
+        }
+    }
+
+    private static class Event {
+        final String interfaceId;
+        final String address;
+        final String parameter;
+        final Object value;
+
+        Event(String interfaceId, String address, String parameter, Object value) {
+            this.interfaceId = interfaceId;
+            this.address = address;
+            this.parameter = parameter;
+            this.value = value;
+        }
+
+        /**
+         * Returns the hash of the device address without the channel, variables
+         * are ordered by their name.
+         */
+        int getDeviceHash() {
+            String key = address.isEmpty() ? parameter : address;
+            int hash = 0;
+            for (int i = 0; i < key.length(); i++) {
+                char ch = key.charAt(i);
+                if (ch == ':') {
+                    break;
+                }
+                hash = 31 * hash + ch;
+            }
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return interfaceId + " " + address + " " + parameter + "=" + value;
+        }
+    }
+}
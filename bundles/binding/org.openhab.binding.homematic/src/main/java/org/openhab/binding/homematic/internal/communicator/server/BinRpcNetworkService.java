@@ -16,7 +16,9 @@ import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.common.HomematicContext;
@@ -35,7 +37,14 @@ public class BinRpcNetworkService implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
 
     private ServerSocket serverSocket;
-    private final ExecutorService pool = Executors.newCachedThreadPool();
+    private static final int MAX_CONNECTIONS = 8;
+    private static final int EVENT_WORKERS = 4;
+
+    // when all handlers are busy, the accepting thread handles the connection itself and
+    // doesn't accept further connections meanwhile
+    private final ExecutorService pool = new ThreadPoolExecutor(1, MAX_CONNECTIONS, 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), new ThreadPoolExecutor.CallerRunsPolicy());
+    private final BinRpcEventDispatcher eventDispatcher;
     private boolean accept = true;
     private HomematicCallbackReceiver callbackReceiver;
 
@@ -44,6 +53,7 @@ public class BinRpcNetworkService implements Runnable {
      */
     public BinRpcNetworkService(HomematicCallbackReceiver callbackReceiver) throws Exception {
         this.callbackReceiver = callbackReceiver;
+        this.eventDispatcher = new BinRpcEventDispatcher(callbackReceiver, EVENT_WORKERS);
 
         HomematicConfig config = HomematicContext.getInstance().getConfig();
         serverSocket = new ServerSocket(config.getCallbackPort());
@@ -58,7 +68,7 @@ public class BinRpcNetworkService implements Runnable {
         while (accept) {
             try {
                 Socket cs = serverSocket.accept();
-                BinRpcCallbackHandler rpcHandler = new BinRpcCallbackHandler(cs, callbackReceiver);
+                BinRpcCallbackHandler rpcHandler = new BinRpcCallbackHandler(cs, callbackReceiver, eventDispatcher);
                 pool.execute(rpcHandler);
             } catch (IOException ex) {
                 // ignore
@@ -78,6 +88,7 @@ public class BinRpcNetworkService implements Runnable {
             // ignore
         }
         pool.shutdownNow();
+        eventDispatcher.shutdown();
     }
 
 }
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.http.internal.HttpFetcher.Request;
+import org.openhab.binding.http.internal.HttpFetcher.Response;
+import org.openhab.io.net.http.HttpUtil.ResponseHandler;
+
+/**
+ * Testcases for the {@link HttpFetcher}, run against a fake server which answers
+ * the requests with the status, body and headers set by the test.
+ *
+ * @since 1.14.0
+ */
+public class HttpFetcherTest {
+
+    /**
+     * Answers the requests of the fetcher and records how many of them have been
+     * running at the same time.
+     */
+    private static class FakeServerFetcher extends HttpFetcher {
+
+        private int status = HttpStatus.SC_OK;
+        private String body = "body";
+        private String etag;
+        private boolean failing;
+        private long delay;
+
+        private final List<Properties> requestHeaders = new ArrayList<Properties>();
+        private final Map<String, Integer> running = new HashMap<String, Integer>();
+        private int runningTotal;
+        private int maxRunningTotal;
+        private int maxRunningPerHost;
+
+        FakeServerFetcher(int maxRequests, int maxRequestsPerHost) {
+            super(maxRequests, maxRequestsPerHost);
+        }
+
+        @Override
+        Response executeUrl(String url, Properties headers, int timeout, ResponseHandler<Response> handler) {
+            String host = URI.create(url).getHost();
+            synchronized (this) {
+                requestHeaders.add(headers);
+                Integer hostRunning = running.get(host);
+                hostRunning = hostRunning == null ? 1 : hostRunning + 1;
+                running.put(host, hostRunning);
+                maxRunningPerHost = Math.max(maxRunningPerHost, hostRunning);
+                maxRunningTotal = Math.max(maxRunningTotal, ++runningTotal);
+            }
+            try {
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                if (failing) {
+                    return null;
+                }
+                return handler.handleResponse(method(status, etag), new ByteArrayInputStream(body.getBytes()));
+            } catch (IOException e) {
+                return null;
+            } catch (InterruptedException e) {
+                return null;
+            } finally {
+                synchronized (this) {
+                    running.put(host, running.get(host) - 1);
+                    runningTotal--;
+                }
+            }
+        }
+
+        private static HttpMethod method(final int status, final String etag) {
+            return (HttpMethod) Proxy.newProxyInstance(HttpMethod.class.getClassLoader(),
+                    new Class<?>[] { HttpMethod.class }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            if (method.getName().equals("getStatusCode")) {
+                                return status;
+                            }
+                            if (method.getName().equals("getResponseHeader") && args[0].equals("ETag")
+                                    && etag != null) {
+                                return new Header("ETag", etag);
+                            }
+                            return null;
+                        }
+                    });
+        }
+    }
+
+    private FakeServerFetcher fetcher;
+
+    @Before
+    public void setUp() {
+        fetcher = new FakeServerFetcher(3, 2);
+    }
+
+    @After
+    public void tearDown() {
+        fetcher.shutdown();
+    }
+
+    private Response fetch(String url, long maxAge) {
+        Map<String, Request> requests = new LinkedHashMap<String, Request>();
+        Request request = HttpFetcher.getRequest(requests, url, null, maxAge);
+        fetcher.fetch(requests.values(), 5000);
+        return request.getResponse();
+    }
+
+    @Test
+    public void limitsRequestsRunningAtTheSameTime() {
+        fetcher.delay = 100;
+        Map<String, Request> requests = new LinkedHashMap<String, Request>();
+        for (int i = 0; i < 6; i++) {
+            HttpFetcher.getRequest(requests, "http://host" + i + "/", null, 0);
+        }
+
+        fetcher.fetch(requests.values(), 5000);
+
+        assertEquals(6, fetcher.requestHeaders.size());
+        assertEquals(3, fetcher.maxRunningTotal);
+        for (Request request : requests.values()) {
+            assertEquals("body", request.getResponse().body);
+        }
+    }
+
+    @Test
+    public void limitsRequestsRunningAtTheSameTimeAgainstOneHost() {
+        fetcher.delay = 100;
+        Map<String, Request> requests = new LinkedHashMap<String, Request>();
+        for (int i = 0; i < 6; i++) {
+            HttpFetcher.getRequest(requests, "http://host/" + i, null, 0);
+        }
+        HttpFetcher.getRequest(requests, "http://host/0", null, 0);
+
+        fetcher.fetch(requests.values(), 5000);
+
+        assertEquals(6, fetcher.requestHeaders.size());
+        assertEquals(2, fetcher.maxRunningPerHost);
+    }
+
+    @Test
+    public void keepsVersionOfResponseWhichHasNotBeenModified() {
+        fetcher.etag = "\"1\"";
+        Response first = fetch("http://host/", 0);
+
+        fetcher.status = HttpStatus.SC_NOT_MODIFIED;
+        fetcher.body = "";
+        Response second = fetch("http://host/", 0);
+
+        assertEquals("\"1\"", fetcher.requestHeaders.get(1).getProperty("If-None-Match"));
+        assertEquals("body", second.body);
+        assertEquals(first.version, second.version);
+    }
+
+    @Test
+    public void changesVersionOfModifiedResponse() {
+        fetcher.etag = "\"1\"";
+        Response first = fetch("http://host/", 0);
+
+        fetcher.etag = "\"2\"";
+        fetcher.body = "changed";
+        Response second = fetch("http://host/", 0);
+
+        assertEquals("changed", second.body);
+        assertFalse(first.version == second.version);
+    }
+
+    @Test
+    public void reusesCacheResponseUntilItIsOutdated() {
+        Response first = fetch("http://host/", 60000);
+        Response second = fetch("http://host/", 60000);
+
+        assertEquals(1, fetcher.requestHeaders.size());
+        assertEquals(first.version, second.version);
+    }
+
+    @Test
+    public void returnsNoResponseIfRequestFails() {
+        fetcher.etag = "\"1\"";
+        fetch("http://host/", 0);
+
+        fetcher.failing = true;
+        assertNull(fetch("http://host/", 0));
+
+        // the validators of the failed request are gone
+        fetcher.failing = false;
+        fetch("http://host/", 0);
+        assertNull(fetcher.requestHeaders.get(2).getProperty("If-None-Match"));
+    }
+
+    @Test
+    public void keepsServingCacheResponseIfRequestFails() throws InterruptedException {
+        Response first = fetch("http://host/", 10);
+
+        fetcher.failing = true;
+        Thread.sleep(20);
+        Response second = fetch("http://host/", 10);
+        Thread.sleep(20);
+        Response third = fetch("http://host/", 10);
+
+        // the last good response is served, but requested again every time
+        assertEquals(3, fetcher.requestHeaders.size());
+        assertEquals("body", third.body);
+        assertEquals(first.version, second.version);
+        assertEquals(first.version, third.version);
+    }
+}
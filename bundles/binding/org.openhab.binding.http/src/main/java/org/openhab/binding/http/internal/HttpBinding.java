@@ -16,13 +16,18 @@ import static org.openhab.binding.http.internal.HttpGenericBindingProvider.CHANG
 
 import java.io.InputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +36,7 @@ import org.apache.commons.lang.StringUtils;
 
 import org.openhab.binding.http.HttpBindingProvider;
 import org.openhab.core.binding.AbstractActiveBinding;
+import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationHelper;
 import org.openhab.core.transform.TransformationService;
@@ -63,6 +69,8 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
     protected static final String CONFIG_TIMEOUT = "timeout";
     protected static final String CONFIG_GRANULARITY = "granularity";
     protected static final String CONFIG_FORMAT = "format";
+    protected static final String CONFIG_MAX_REQUESTS = "maxRequests";
+    protected static final String CONFIG_MAX_REQUESTS_PER_HOST = "maxRequestsPerHost";
 
     /** the timeout to use for connecting to a given host (defaults to 5000 milliseconds) */
     private int timeout = 5000;
@@ -73,8 +81,20 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
     /** whether to substitute time and/or state into the URL */
     private boolean format = true;
 
+    /** the maximum number of requests executed at the same time (defaults to 10) */
+    private int maxRequests = 10;
+
+    /** the maximum number of requests executed at the same time against one host (defaults to 2) */
+    private int maxRequestsPerHost = 2;
+
     private Map<String, Long> lastUpdateMap = new HashMap<String, Long>();
 
+    /** the version of the response each item has been updated from the last time */
+    private Map<String, Long> appliedVersionMap = new ConcurrentHashMap<String, Long>();
+
+    /** executes the requests of a refresh cycle, only available while the binding is active */
+    private volatile HttpFetcher fetcher;
+
     /** RegEx to extract a parse a function String <code>'(.*?)\((.*)\)'</code> */
     private static final Pattern EXTRACT_FUNCTION_PATTERN = Pattern.compile("(.*?)\\((.*)\\)");
 
@@ -84,9 +104,8 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
     /** RegEx to extract and parse a cache config url with headers <code>'(.*?)(\\{.*\\})?'</code> */
     private static final Pattern EXTRACT_CACHE_CONFIG_URL = Pattern.compile("(.*?)(\\{.*\\})?");
 
-    /** Map table to store cache data */
-    private Map<String, CacheConfig> itemCache = new HashMap<String, CacheConfig>();
-    private Object itemCacheLock = new Object();
+    /** Map table of the cache configs, replaced as a whole on configuration updates */
+    private volatile Map<String, CacheConfig> itemCache = Collections.emptyMap();
 
     public HttpBinding() {
     }
@@ -106,10 +125,22 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
 
     @Override
     public void activate() {
+        fetcher = new HttpFetcher(maxRequests, maxRequestsPerHost);
         super.activate();
         setProperlyConfigured(true);
     }
 
+    @Override
+    public void deactivate() {
+        super.deactivate();
+        HttpFetcher fetcher = this.fetcher;
+        this.fetcher = null;
+        if (fetcher != null) {
+            fetcher.shutdown();
+        }
+        appliedVersionMap.clear();
+    }
+
     protected void addBindingProvider(HttpBindingProvider bindingProvider) {
         super.addBindingProvider(bindingProvider);
     }
@@ -118,6 +149,17 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
         super.removeBindingProvider(bindingProvider);
     }
 
+    /**
+     * @{inheritDoc}
+     */
+    @Override
+    public void bindingChanged(BindingProvider provider, String itemName) {
+        // the transformation might have changed, so the next response has to be
+        // applied even if it is unchanged
+        appliedVersionMap.remove(itemName);
+        super.bindingChanged(provider, itemName);
+    }
+
     /**
      * @{inheritDoc}
      */
@@ -139,6 +181,14 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
      */
     @Override
     public void execute() {
+        HttpFetcher fetcher = this.fetcher;
+        if (fetcher == null) {
+            return;
+        }
+
+        Map<String, CacheConfig> itemCache = this.itemCache;
+        Map<String, HttpFetcher.Request> requests = new LinkedHashMap<String, HttpFetcher.Request>();
+        List<PendingUpdate> pendingUpdates = new ArrayList<PendingUpdate>();
 
         for (HttpBindingProvider provider : providers) {
             for (String itemName : provider.getInBindingItemNames()) {
@@ -150,7 +200,6 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
 
                 Properties headers = provider.getHttpHeaders(itemName);
                 int refreshInterval = provider.getRefreshInterval(itemName);
-                String transformation = provider.getTransformation(itemName);
 
                 Long lastUpdateTimeStamp = lastUpdateMap.get(itemName);
                 if (lastUpdateTimeStamp == null) {
@@ -164,63 +213,95 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
                     continue;
                 }
 
-                String response = null;
+                HttpFetcher.Request request;
 
                 // check if special URL is used and data should get from
                 // cache rather than directly from server
-                if (isCacheConfig(url)) {
+                CacheConfig cacheConfig = itemCache.get(url);
+                if (cacheConfig != null && cacheConfig.url != null) {
                     logger.debug("item '{}' is fetched from cache", itemName);
-                    response = getCacheData(url);
-                } else if (isValidUrl(url)) {
+                    request = HttpFetcher.getRequest(requests, cacheConfig.url, cacheConfig.headers,
+                            cacheConfig.updateInterval);
+                } else if (cacheConfig == null && isValidUrl(url)) {
                     logger.debug("item '{}' is about to be refreshed now", itemName);
-                    response = HttpUtil.executeUrl("GET", url, headers, null, null, timeout);
+                    request = HttpFetcher.getRequest(requests, url, headers, 0);
                 } else {
                     logger.debug("item '{}' is not a valid URL or is a cache id yet to be initialised ({})", itemName,
                             url);
                     continue;
                 }
 
-                if (response == null) {
-                    logger.error("No response received from '{}'", url);
-                    lastUpdateMap.put(itemName, System.currentTimeMillis());
-                    continue;
-                }
+                pendingUpdates.add(new PendingUpdate(provider, itemName, url, request));
+            }
+        }
 
-                String transformedResponse;
-                try {
-                    String[] parts = splitTransformationConfig(transformation);
-                    String transformationType = parts[0];
-                    String transformationFunction = parts[1];
-
-                    TransformationService transformationService = TransformationHelper
-                            .getTransformationService(HttpActivator.getContext(), transformationType);
-                    if (transformationService != null) {
-                        transformedResponse = transformationService.transform(transformationFunction, response);
-                    } else {
-                        transformedResponse = response;
-                        logger.warn(
-                                "Couldn't transform response because transformationService of type '{}' is unavailable",
-                                transformationType);
-                    }
-                } catch (TransformationException te) {
-                    logger.warn("Transformation '{}' threw an exception. [response={}]", transformation, response, te);
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
 
-                    // in case of an error we return the response without any
-                    // transformation
-                    transformedResponse = response;
-                }
+        // all distinct requests of this cycle are executed in parallel, the
+        // responses are processed afterwards on this thread
+        fetcher.fetch(requests.values(), timeout);
 
-                logger.debug("transformed response is '{}'", transformedResponse);
+        for (PendingUpdate pendingUpdate : pendingUpdates) {
+            String itemName = pendingUpdate.itemName;
+            HttpFetcher.Response response = pendingUpdate.request.getResponse();
 
-                State state = provider.getState(itemName, transformedResponse);
-                if (state != null) {
-                    eventPublisher.postUpdate(itemName, state);
-                } else {
-                    logger.debug("Couldn't create state for item '{}' from string '{}'", itemName, transformedResponse);
-                }
+            if (response == null) {
+                logger.error("No response received from '{}'", pendingUpdate.url);
+                lastUpdateMap.put(itemName, System.currentTimeMillis());
+                continue;
+            }
 
+            // skip the transformation and the state update if the item has already
+            // been updated from exactly this response
+            Long appliedVersion = appliedVersionMap.get(itemName);
+            if (appliedVersion != null && appliedVersion == response.version) {
+                logger.debug("response for item '{}' is unchanged", itemName);
                 lastUpdateMap.put(itemName, System.currentTimeMillis());
+                continue;
             }
+
+            updateItem(pendingUpdate.provider, itemName, response.body);
+
+            appliedVersionMap.put(itemName, response.version);
+            lastUpdateMap.put(itemName, System.currentTimeMillis());
+        }
+    }
+
+    private void updateItem(HttpBindingProvider provider, String itemName, String response) {
+        String transformation = provider.getTransformation(itemName);
+
+        String transformedResponse;
+        try {
+            String[] parts = splitTransformationConfig(transformation);
+            String transformationType = parts[0];
+            String transformationFunction = parts[1];
+
+            TransformationService transformationService = TransformationHelper
+                    .getTransformationService(HttpActivator.getContext(), transformationType);
+            if (transformationService != null) {
+                transformedResponse = transformationService.transform(transformationFunction, response);
+            } else {
+                transformedResponse = response;
+                logger.warn("Couldn't transform response because transformationService of type '{}' is unavailable",
+                        transformationType);
+            }
+        } catch (TransformationException te) {
+            logger.warn("Transformation '{}' threw an exception. [response={}]", transformation, response, te);
+
+            // in case of an error we return the response without any
+            // transformation
+            transformedResponse = response;
+        }
+
+        logger.debug("transformed response is '{}'", transformedResponse);
+
+        State state = provider.getState(itemName, transformedResponse);
+        if (state != null) {
+            eventPublisher.postUpdate(itemName, state);
+        } else {
+            logger.debug("Couldn't create state for item '{}' from string '{}'", itemName, transformedResponse);
         }
     }
 
@@ -386,136 +467,103 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
     }
 
     /**
-     * Synchronized access to the item cache. Do a quick check to see if this
-     * <code>cacheId</code> references a cached item.
-     *
-     * @param cacheId
-     * @return true if this <code>cacheId</code> is a cached item, false
-     *         otherwise
+     * {@inheritDoc}
      */
-    private boolean isCacheConfig(String cacheId) {
-        synchronized (itemCacheLock) {
-            return itemCache.containsKey(cacheId);
-        }
-    }
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void updated(Dictionary config) throws ConfigurationException {
+        // the cache configs are collected in a new map which replaces the current
+        // one as a whole, so that execute() can read it without locking
+        Map<String, CacheConfig> itemCache = new HashMap<String, CacheConfig>();
+
+        if (config != null) {
+            String timeoutString = Objects.toString(config.get(CONFIG_TIMEOUT), null);
+            if (StringUtils.isNotBlank(timeoutString)) {
+                timeout = Integer.parseInt(timeoutString);
+            }
 
-    /**
-     * Synchronized access to the item cache. Checks the <code>cacheId</code>
-     * is a cached item and returns the cached value. If the cache has
-     * expired, refresh the cache value by making a new HTTP request.
-     *
-     * @param cacheId
-     * @return the cached (or refreshed) dats
-     */
-    private String getCacheData(String cacheId) {
-        synchronized (itemCacheLock) {
-            // check again in case the cache was cleared in between taking
-            // the lock when checking in isCacheConfig() and now
-            if (!itemCache.containsKey(cacheId)) {
-                return null;
+            String granularityString = Objects.toString(config.get(CONFIG_GRANULARITY), null);
+            if (StringUtils.isNotBlank(granularityString)) {
+                granularity = Integer.parseInt(granularityString);
             }
 
-            CacheConfig cacheConfig = itemCache.get(cacheId);
+            String formatString = Objects.toString(config.get(CONFIG_FORMAT), null);
+            if (StringUtils.isNotBlank(formatString)) {
+                format = formatString.equalsIgnoreCase("true");
+            }
 
-            long cacheAge = System.currentTimeMillis() - cacheConfig.lastUpdate;
-            boolean cacheNeedsUpdate = cacheAge >= cacheConfig.updateInterval;
+            String maxRequestsString = Objects.toString(config.get(CONFIG_MAX_REQUESTS), null);
+            if (StringUtils.isNotBlank(maxRequestsString)) {
+                maxRequests = Math.max(1, Integer.parseInt(maxRequestsString));
+            }
 
-            if (cacheNeedsUpdate) {
+            String maxRequestsPerHostString = Objects.toString(config.get(CONFIG_MAX_REQUESTS_PER_HOST), null);
+            if (StringUtils.isNotBlank(maxRequestsPerHostString)) {
+                maxRequestsPerHost = Math.max(1, Integer.parseInt(maxRequestsPerHostString));
+            }
 
-                // update and store data on cache
-                logger.debug("updating cache for '{}' ('{}')", cacheId, cacheConfig.url);
-                cacheConfig.data = HttpUtil.executeUrl("GET", cacheConfig.url, cacheConfig.headers, null, null,
-                        timeout);
+            // Parse page cache config
 
-                if (cacheConfig.data != null) {
-                    cacheConfig.lastUpdate = System.currentTimeMillis();
-                }
-            }
+            @SuppressWarnings("unchecked")
+            Enumeration<String> keys = config.keys();
+            while (keys.hasMoreElements()) {
 
-            return cacheConfig.data;
-        }
-    }
+                String key = keys.nextElement();
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    @SuppressWarnings("rawtypes")
-    public void updated(Dictionary config) throws ConfigurationException {
-        synchronized (itemCacheLock) {
-            // clear any existing cache item configs
-            itemCache.clear();
-
-            if (config != null) {
-                String timeoutString = Objects.toString(config.get(CONFIG_TIMEOUT), null);
-                if (StringUtils.isNotBlank(timeoutString)) {
-                    timeout = Integer.parseInt(timeoutString);
+                // the config-key enumeration contains additional keys that we
+                // don't want to process here ...
+                if (CONFIG_TIMEOUT.equals(key) || CONFIG_GRANULARITY.equals(key) || CONFIG_FORMAT.equals(key)
+                        || CONFIG_MAX_REQUESTS.equals(key) || CONFIG_MAX_REQUESTS_PER_HOST.equals(key)
+                        || "service.pid".equals(key)) {
+                    continue;
                 }
 
-                String granularityString = Objects.toString(config.get(CONFIG_GRANULARITY), null);
-                if (StringUtils.isNotBlank(granularityString)) {
-                    granularity = Integer.parseInt(granularityString);
-                }
+                Matcher matcher = EXTRACT_CACHE_CONFIG_PATTERN.matcher(key);
 
-                String formatString = Objects.toString(config.get(CONFIG_FORMAT), null);
-                if (StringUtils.isNotBlank(formatString)) {
-                    format = formatString.equalsIgnoreCase("true");
+                if (!matcher.matches()) {
+                    logger.warn("given config key '{}' does not follow the"
+                            + " expected pattern '<id>.<url|updateInterval>'", key);
+                    continue;
                 }
 
-                // Parse page cache config
+                matcher.reset();
+                matcher.find();
 
-                @SuppressWarnings("unchecked")
-                Enumeration<String> keys = config.keys();
-                while (keys.hasMoreElements()) {
+                String cacheId = matcher.group(1);
 
-                    String key = keys.nextElement();
+                CacheConfig cacheConfig = itemCache.get(cacheId);
 
-                    // the config-key enumeration contains additional keys that we
-                    // don't want to process here ...
-                    if (CONFIG_TIMEOUT.equals(key) || CONFIG_GRANULARITY.equals(key) || CONFIG_FORMAT.equals(key) || "service.pid".equals(key)) {
-                        continue;
-                    }
+                if (cacheConfig == null) {
+                    cacheConfig = new CacheConfig(cacheId);
+                    itemCache.put(cacheId, cacheConfig);
+                }
 
-                    Matcher matcher = EXTRACT_CACHE_CONFIG_PATTERN.matcher(key);
+                String configKey = matcher.group(2);
+                String value = Objects.toString(config.get(key), null);
 
+                if ("url".equals(configKey)) {
+                    matcher = EXTRACT_CACHE_CONFIG_URL.matcher(value);
                     if (!matcher.matches()) {
-                        logger.warn("given config key '{}' does not follow the"
-                                + " expected pattern '<id>.<url|updateInterval>'", key);
-                        continue;
-                    }
-
-                    matcher.reset();
-                    matcher.find();
-
-                    String cacheId = matcher.group(1);
-
-                    CacheConfig cacheConfig = itemCache.get(cacheId);
-
-                    if (cacheConfig == null) {
-                        cacheConfig = new CacheConfig(cacheId);
-                        itemCache.put(cacheId, cacheConfig);
-                    }
-
-                    String configKey = matcher.group(2);
-                    String value = Objects.toString(config.get(key), null);
-
-                    if ("url".equals(configKey)) {
-                        matcher = EXTRACT_CACHE_CONFIG_URL.matcher(value);
-                        if (!matcher.matches()) {
-                            throw new ConfigurationException(configKey, "given config url '" + configKey
-                                    + "' does not follow the expected pattern '<id>.url[{<headers>}]'");
-                        }
-                        cacheConfig.url = matcher.group(1);
-                        cacheConfig.headers = parseHttpHeaders(matcher.group(2));
-                    } else if ("updateInterval".equals(configKey)) {
-                        cacheConfig.updateInterval = Integer.valueOf(value);
-                    } else {
-                        throw new ConfigurationException(configKey,
-                                "the given configKey '" + configKey + "' is unknown");
+                        throw new ConfigurationException(configKey, "given config url '" + configKey
+                                + "' does not follow the expected pattern '<id>.url[{<headers>}]'");
                     }
+                    cacheConfig.url = matcher.group(1);
+                    cacheConfig.headers = parseHttpHeaders(matcher.group(2));
+                } else if ("updateInterval".equals(configKey)) {
+                    cacheConfig.updateInterval = Integer.valueOf(value);
+                } else {
+                    throw new ConfigurationException(configKey,
+                            "the given configKey '" + configKey + "' is unknown");
                 }
             }
         }
+
+        this.itemCache = itemCache;
+
+        HttpFetcher fetcher = this.fetcher;
+        if (fetcher != null) {
+            fetcher.setLimits(maxRequests, maxRequestsPerHost);
+        }
     }
 
     private Properties parseHttpHeaders(String group) {
@@ -556,12 +604,6 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
         /** Update interval for cache */
         int updateInterval = 0;
 
-        /** Variable to store cached data */
-        String data;
-
-        /** Last time when data is updated */
-        long lastUpdate;
-
         public CacheConfig(String id) {
             this.id = id;
         }
@@ -571,4 +613,23 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
             return "CacheConfig [id=" + id + ", url=" + url + ", update interval=" + updateInterval + "]";
         }
     }
+
+    /**
+     * An item which gets updated from the response of a request once all requests
+     * of the current refresh cycle are finished.
+     */
+    private static class PendingUpdate {
+
+        final HttpBindingProvider provider;
+        final String itemName;
+        final String url;
+        final HttpFetcher.Request request;
+
+        PendingUpdate(HttpBindingProvider provider, String itemName, String url, HttpFetcher.Request request) {
+            this.provider = provider;
+            this.itemName = itemName;
+            this.url = url;
+            this.request = request;
+        }
+    }
 }
@@ -0,0 +1,365 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.io.IOUtils;
+import org.openhab.io.net.http.HttpUtil;
+import org.openhab.io.net.http.HttpUtil.ResponseHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the GET requests of one refresh cycle of the {@link HttpBinding} in
+ * parallel.
+ * <p>
+ * The number of requests running at the same time is limited in total and per host,
+ * so that a single slow server can't block the refresh of all other items and no
+ * server is flooded with requests. Responses which carry an <code>ETag</code> or
+ * <code>Last-Modified</code> header (and the responses of cache configs) are kept,
+ * so that the next request can be sent as conditional GET. Every response which has
+ * actually been transferred gets a new version, which allows callers to recognize an
+ * unchanged response. If the request of a cache config fails, its last response
+ * is kept and served until a request succeeds again.
+ *
+ * @since 1.14.0
+ */
+class HttpFetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpFetcher.class);
+
+    /** responses which haven't been requested for this time (in milliseconds) are discarded */
+    private static final long RESPONSE_RETENTION = TimeUnit.HOURS.toMillis(1);
+
+    private static final AtomicLong versionCounter = new AtomicLong();
+
+    private final ConcurrentMap<String, Response> responses = new ConcurrentHashMap<String, Response>();
+
+    private final ThreadPoolExecutor executor;
+
+    private volatile int maxRequestsPerHost;
+
+    HttpFetcher(int maxRequests, int maxRequestsPerHost) {
+        executor = new ThreadPoolExecutor(maxRequests, maxRequests, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "HTTP Refresh Worker " + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    /**
+     * Changes the limits of concurrently executed requests.
+     *
+     * @param maxRequests the maximum number of requests running at the same time
+     * @param maxRequestsPerHost the maximum number of requests running at the same
+     *            time against a single host
+     */
+    void setLimits(int maxRequests, int maxRequestsPerHost) {
+        if (maxRequests > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maxRequests);
+            executor.setCorePoolSize(maxRequests);
+        } else {
+            executor.setCorePoolSize(maxRequests);
+            executor.setMaximumPoolSize(maxRequests);
+        }
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    /**
+     * Stops the worker threads. Requests which are currently executed are finished.
+     */
+    void shutdown() {
+        executor.shutdown();
+        responses.clear();
+    }
+
+    /**
+     * Returns the request for the given <code>url</code> and <code>headers</code> from
+     * <code>requests</code> or adds a new one, so that every distinct request is
+     * executed only once per cycle.
+     *
+     * @param requests the requests of the current cycle
+     * @param url the url to request
+     * @param headers the request headers (may be <code>null</code>)
+     * @param maxAge the time in milliseconds a previous response may be reused without
+     *            requesting the url again (<code>0</code> to always request it)
+     * @return the request
+     */
+    static Request getRequest(Map<String, Request> requests, String url, Properties headers, long maxAge) {
+        String key = headers == null || headers.isEmpty() ? url : url + new TreeMap<Object, Object>(headers);
+        Request request = requests.get(key);
+        if (request == null) {
+            request = new Request(key, url, headers, maxAge);
+            requests.put(key, request);
+        } else {
+            request.maxAge = Math.min(request.maxAge, maxAge);
+        }
+        return request;
+    }
+
+    /**
+     * Executes the given requests and waits until all of them are finished. The
+     * results are available through {@link Request#getResponse()} afterwards.
+     *
+     * @param requests the requests to execute
+     * @param timeout the socket timeout of a single request
+     */
+    void fetch(Collection<Request> requests, int timeout) {
+        long now = System.currentTimeMillis();
+
+        Map<String, Queue<Request>> requestsByHost = new HashMap<String, Queue<Request>>();
+        Set<String> requestedKeys = new HashSet<String>();
+        int pending = 0;
+        for (Request request : requests) {
+            requestedKeys.add(request.key);
+            Response previous = responses.get(request.key);
+            if (previous != null && now - previous.timestamp < request.maxAge) {
+                logger.trace("reusing the response of '{}' received {}ms ago", request.url, now - previous.timestamp);
+                request.response = previous;
+                continue;
+            }
+
+            String host = getHost(request.url);
+            Queue<Request> hostRequests = requestsByHost.get(host);
+            if (hostRequests == null) {
+                hostRequests = new ConcurrentLinkedQueue<Request>();
+                requestsByHost.put(host, hostRequests);
+            }
+            hostRequests.add(request);
+            pending++;
+        }
+
+        if (pending > 0) {
+            CountDownLatch latch = new CountDownLatch(pending);
+            int perHost = Math.max(1, maxRequestsPerHost);
+            for (Queue<Request> hostRequests : requestsByHost.values()) {
+                // each worker drains the queue of its host, so that there are never
+                // more than 'perHost' requests running against the same host
+                int workers = Math.min(perHost, hostRequests.size());
+                for (int i = 0; i < workers; i++) {
+                    executor.execute(new Worker(hostRequests, latch, timeout));
+                }
+            }
+
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        expireResponses(now, requestedKeys);
+    }
+
+    private void expireResponses(long now, Set<String> requestedKeys) {
+        Iterator<Map.Entry<String, Response>> iterator = responses.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Response> entry = iterator.next();
+            // the last good response of a failing cache config is still in use
+            if (!requestedKeys.contains(entry.getKey()) && now - entry.getValue().timestamp > RESPONSE_RETENTION) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void execute(final Request request, int timeout) {
+        final Response previous = responses.get(request.key);
+
+        Properties headers = new Properties();
+        if (request.headers != null) {
+            headers.putAll(request.headers);
+        }
+        if (previous != null) {
+            if (previous.etag != null && !headers.containsKey("If-None-Match")) {
+                headers.setProperty("If-None-Match", previous.etag);
+            }
+            if (previous.lastModified != null && !headers.containsKey("If-Modified-Since")) {
+                headers.setProperty("If-Modified-Since", previous.lastModified);
+            }
+        }
+
+        Response response = executeUrl(request.url, headers, timeout, new ResponseHandler<Response>() {
+            @Override
+            public Response handleResponse(HttpMethod method, InputStream body) throws IOException {
+                long timestamp = System.currentTimeMillis();
+                int status = method.getStatusCode();
+                if (status == HttpStatus.SC_NOT_MODIFIED && previous != null) {
+                    logger.debug("'{}' has not been modified", request.url);
+                    return new Response(previous.body, previous.etag, previous.lastModified, previous.version,
+                            timestamp);
+                }
+                if (status != HttpStatus.SC_OK) {
+                    logger.debug("Method failed: {}", method.getStatusLine());
+                    return new Response(IOUtils.toString(body), null, null, versionCounter.incrementAndGet(),
+                            timestamp);
+                }
+                return new Response(IOUtils.toString(body), getHeader(method, "ETag"),
+                        getHeader(method, "Last-Modified"), versionCounter.incrementAndGet(), timestamp);
+            }
+        });
+
+        if (response == null && previous != null && request.maxAge > 0) {
+            // keep serving the last good data of the cache config, its old timestamp
+            // makes sure it is requested again in the next cycle
+            logger.debug("Keeping the response of '{}' received {}ms ago", request.url,
+                    System.currentTimeMillis() - previous.timestamp);
+            response = previous;
+        } else if (response != null
+                && (response.etag != null || response.lastModified != null || request.maxAge > 0)) {
+            responses.put(request.key, response);
+        } else {
+            responses.remove(request.key);
+        }
+        request.response = response;
+    }
+
+    /**
+     * Executes a single GET request.
+     *
+     * @param url the url to request
+     * @param headers the request headers
+     * @param timeout the socket timeout
+     * @param handler the handler creating the response
+     * @return the response created by <code>handler</code> or <code>null</code> if the
+     *         request failed
+     */
+    Response executeUrl(String url, Properties headers, int timeout, ResponseHandler<Response> handler) {
+        return HttpUtil.executeUrl("GET", url, headers, null, null, timeout, handler);
+    }
+
+    private static String getHeader(HttpMethod method, String name) {
+        Header header = method.getResponseHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    private static String getHost(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            if (host != null) {
+                return host.toLowerCase();
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through, HttpUtil will report the invalid url
+        }
+        return url;
+    }
+
+    private class Worker implements Runnable {
+
+        private final Queue<Request> requests;
+        private final CountDownLatch latch;
+        private final int timeout;
+
+        Worker(Queue<Request> requests, CountDownLatch latch, int timeout) {
+            this.requests = requests;
+            this.latch = latch;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public void run() {
+            Request request;
+            while ((request = requests.poll()) != null) {
+                try {
+                    execute(request, timeout);
+                } catch (RuntimeException e) {
+                    logger.error("Error while requesting '{}'", request.url, e);
+                } finally {
+                    latch.countDown();
+                }
+            }
+        }
+    }
+
+    /**
+     * A distinct GET request of a refresh cycle.
+     */
+    static class Request {
+
+        final String key;
+        final String url;
+        final Properties headers;
+        long maxAge;
+
+        private volatile Response response;
+
+        Request(String key, String url, Properties headers, long maxAge) {
+            this.key = key;
+            this.url = url;
+            this.headers = headers;
+            this.maxAge = maxAge;
+        }
+
+        /**
+         * @return the response or <code>null</code> if the request failed
+         */
+        Response getResponse() {
+            return response;
+        }
+    }
+
+    /**
+     * An immutable response together with the validators needed for the next
+     * conditional request.
+     */
+    static class Response {
+
+        final String body;
+        final String etag;
+        final String lastModified;
+        final long version;
+        final long timestamp;
+
+        Response(String body, String etag, String lastModified, long version, long timestamp) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.version = version;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.insteonplm.internal.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Testcases for reading the fields of messages received from the modem.
+ *
+ * @since 1.14.0
+ */
+public class MsgTest {
+
+    private static final byte[] STANDARD = { 0x02, 0x50, 0x1A, 0x2B, 0x3C, 0x44, 0x55, 0x66, (byte) 0xC7, 0x11,
+            0x01 };
+
+    private static final byte[] EXTENDED = { 0x02, 0x51, 0x1A, 0x2B, 0x3C, 0x44, 0x55, 0x66, 0x1B, 0x2E, 0x00, 0x01,
+            0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A, 0x0B, 0x0C, 0x0D, 0x0E };
+
+    private static final byte[] SEND_REPLY = { 0x02, 0x62, 0x44, 0x55, 0x66, 0x0F, 0x19, 0x00, 0x06 };
+
+    private static final byte[] X10 = { 0x02, 0x52, 0x66, (byte) 0x80 };
+
+    private static List<Msg> receive(byte[]... data) throws IOException {
+        MsgFactory factory = new MsgFactory();
+        List<Msg> msgs = new ArrayList<>();
+        for (byte[] d : data) {
+            // feed the data in two pieces, like the port reader may get it
+            int half = d.length / 2;
+            factory.addData(d, half);
+            for (Msg m = factory.processData(); m != null; m = factory.processData()) {
+                msgs.add(m);
+            }
+            byte[] rest = new byte[d.length - half];
+            System.arraycopy(d, half, rest, 0, rest.length);
+            factory.addData(rest, rest.length);
+            for (Msg m = factory.processData(); m != null; m = factory.processData()) {
+                msgs.add(m);
+            }
+        }
+        return msgs;
+    }
+
+    @Test
+    public void testStandardMessage() throws Exception {
+        List<Msg> msgs = receive(STANDARD);
+        assertEquals(1, msgs.size());
+        Msg msg = msgs.get(0);
+
+        assertEquals(msg.getByte("Cmd"), msg.getCmd());
+        assertEquals(msg.getByte("messageFlags"), msg.getMessageFlags());
+        assertEquals(msg.getByte("command1"), msg.getCommand1());
+        assertEquals(msg.getByte("command2"), msg.getCommand2());
+        assertEquals(msg.getAddress("fromAddress"), msg.getFromAddress());
+        assertEquals(msg.getAddress("toAddress"), msg.getToAddress());
+        assertEquals("1A.2B.3C", msg.getAddr("fromAddress").toString());
+        assertEquals(1, msg.getHopsLeft());
+
+        assertFalse(msg.isExtended());
+        assertTrue(msg.isUnsolicited());
+        assertTrue(msg.isAllLink());
+        assertTrue(msg.isBroadcast());
+        assertFalse(msg.isCleanup());
+        assertFalse(msg.isX10());
+    }
+
+    @Test
+    public void testExtendedMessage() throws Exception {
+        Msg msg = receive(EXTENDED).get(0);
+
+        assertTrue(msg.isExtended());
+        assertTrue(msg.isOfType(MsgType.DIRECT));
+        assertEquals(0x2E, msg.getCommand1());
+        assertEquals(0x07, msg.getByte("userData7"));
+        assertEquals(25, msg.getLength());
+    }
+
+    @Test
+    public void testReplyIsEcho() throws Exception {
+        List<Msg> msgs = receive(SEND_REPLY, new byte[] { 0x15 });
+        assertEquals(2, msgs.size());
+
+        Msg reply = msgs.get(0);
+        assertFalse(reply.isUnsolicited());
+        assertTrue(reply.isEcho());
+        assertEquals(0x06, reply.getAckNack());
+        assertNull(reply.getAddr("fromAddress"));
+
+        assertTrue(msgs.get(1).isPureNack());
+    }
+
+    @Test
+    public void testMissingFields() throws Exception {
+        Msg msg = receive(X10).get(0);
+
+        assertTrue(msg.isX10());
+        assertFalse(msg.isExtended());
+        assertFalse(msg.isOfType(MsgType.DIRECT));
+        assertNull(msg.getAddr("toAddress"));
+        try {
+            msg.getCommand1();
+            throw new AssertionError("X10 messages have no command1");
+        } catch (FieldException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            msg.getToAddress();
+            throw new AssertionError("X10 messages have no toAddress");
+        } catch (FieldException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testMessageTypes() {
+        for (MsgType t : MsgType.values()) {
+            if (t != MsgType.INVALID) {
+                for (int lowBits = 0; lowBits < 0x20; lowBits += 0x0d) {
+                    byte flags = (byte) (msgTypeValue(t) | lowBits);
+                    assertSame(t, MsgType.s_fromValue(flags));
+                }
+            }
+        }
+    }
+
+    private static int msgTypeValue(MsgType t) {
+        switch (t) {
+            case BROADCAST:
+                return 0x80;
+            case DIRECT:
+                return 0x00;
+            case ACK_OF_DIRECT:
+                return 0x20;
+            case NACK_OF_DIRECT:
+                return 0xa0;
+            case ALL_LINK_BROADCAST:
+                return 0xc0;
+            case ALL_LINK_CLEANUP:
+                return 0x40;
+            case ALL_LINK_CLEANUP_ACK:
+                return 0x60;
+            default:
+                return 0xe0;
+        }
+    }
+}
@@ -70,10 +70,10 @@ public class Msg {
 
     // has the structure of all known messages
     private static final HashMap<String, Msg> s_msgMap = new HashMap<String, Msg>();
-    // maps between command number and the length of the header
-    private static final HashMap<Integer, Integer> s_headerMap = new HashMap<Integer, Integer>();
-    // has templates for all message from modem to host
-    private static final HashMap<Integer, Msg> s_replyMap = new HashMap<Integer, Msg>();
+    // maps between command number and the length of the header, -1 for unknown commands
+    private static final int[] s_headerLengths = new int[256];
+    // has templates for all message from modem to host, indexed by s_cmdToKey()
+    private static final Msg[] s_replyTemplates = new Msg[512];
 
     private int m_headerLength = -1;
     private byte[] m_data = null;
@@ -109,6 +109,21 @@ public class Msg {
         m_direction = m.m_direction;
     }
 
+    /**
+     * Constructor for messages received from the modem. The definition is
+     * shared with the template the message was created from.
+     *
+     * @param template the template of the message
+     * @param data byte array with message
+     * @param dataLength length of byte array data (in bytes)
+     */
+    private Msg(Msg template, byte[] data, int dataLength) {
+        m_headerLength = template.m_headerLength;
+        m_definition = template.m_definition;
+        m_direction = Direction.FROM_MODEM;
+        initialize(data, 0, dataLength);
+    }
+
     static {
         // Use xml msg loader to load configs
         try {
@@ -181,22 +196,17 @@ public class Msg {
         if (m_definition == null) {
             return false;
         }
-        if (!m_definition.containsField("messageFlags")) {
-            return (false);
-        }
-        try {
-            byte flags = getByte("messageFlags");
-            return ((flags & 0x10) == 0x10);
-        } catch (FieldException e) {
-            // do nothing
+        int offset = m_definition.getMessageFlagsOffset();
+        if (offset < 0 || offset >= m_data.length) {
+            return false;
         }
-        return false;
+        return ((m_data[offset] & 0x10) == 0x10);
     }
 
     public boolean isUnsolicited() {
         // if the message has an ACK/NACK, it is in response to our message,
         // otherwise it is out-of-band, i.e. unsolicited
-        return (m_definition != null) && (!m_definition.containsField("ACK/NACK"));
+        return (m_definition != null) && (m_definition.getAckNackOffset() < 0);
     }
 
     public boolean isEcho() {
@@ -204,12 +214,14 @@ public class Msg {
     }
 
     public boolean isOfType(MsgType mt) {
-        try {
-            MsgType t = MsgType.s_fromValue(getByte("messageFlags"));
-            return (t == mt);
-        } catch (FieldException e) {
+        if (m_definition == null) {
+            return false;
+        }
+        int offset = m_definition.getMessageFlagsOffset();
+        if (offset < 0 || offset >= m_data.length) {
             return false;
         }
+        return (MsgType.s_fromValue(m_data[offset]) == mt);
     }
 
     public boolean isBroadcast() {
@@ -233,14 +245,15 @@ public class Msg {
     }
 
     public boolean isX10() {
-        try {
-            int cmd = getByte("Cmd") & 0xff;
-            if (cmd == 0x63 || cmd == 0x52) {
-                return true;
-            }
-        } catch (FieldException e) {
+        if (m_definition == null) {
+            return false;
         }
-        return false;
+        int offset = m_definition.getCmdOffset();
+        if (offset < 0 || offset >= m_data.length) {
+            return false;
+        }
+        int cmd = m_data[offset] & 0xff;
+        return (cmd == 0x63 || cmd == 0x52);
     }
 
     public void setDefinition(MsgDefinition d) {
@@ -262,20 +275,78 @@ public class Msg {
         if (m_definition == null) {
             return null;
         }
-        InsteonAddress a = null;
-        try {
-            a = m_definition.getField(name).getAddress(m_data);
-        } catch (FieldException e) {
-            // do nothing, we'll return null
+        Field f = m_definition.getFields().get(name);
+        if (f == null || f.getType() != DataType.ADDRESS || f.getOffset() + 3 > m_data.length) {
+            return null;
         }
+        InsteonAddress a = new InsteonAddress();
+        a.loadBytes(m_data, f.getOffset());
         return a;
     }
 
     public int getHopsLeft() throws FieldException {
-        int hops = (getByte("messageFlags") & 0x0c) >> 2;
+        int hops = (getMessageFlags() & 0x0c) >> 2;
         return hops;
     }
 
+    //
+    // ------------- typed getters for the common fields --------------
+    //
+    // These read the field at the offset recorded in the message definition,
+    // without looking up the field by name. They throw the same exception as
+    // getByte() and getAddress() if the message has no such field.
+    //
+
+    public byte getCmd() throws FieldException {
+        return getByteAt(m_definition == null ? -1 : m_definition.getCmdOffset(), "Cmd");
+    }
+
+    public byte getMessageFlags() throws FieldException {
+        return getByteAt(m_definition == null ? -1 : m_definition.getMessageFlagsOffset(), "messageFlags");
+    }
+
+    public byte getCommand1() throws FieldException {
+        return getByteAt(m_definition == null ? -1 : m_definition.getCommand1Offset(), "command1");
+    }
+
+    public byte getCommand2() throws FieldException {
+        return getByteAt(m_definition == null ? -1 : m_definition.getCommand2Offset(), "command2");
+    }
+
+    public byte getAckNack() throws FieldException {
+        return getByteAt(m_definition == null ? -1 : m_definition.getAckNackOffset(), "ACK/NACK");
+    }
+
+    public InsteonAddress getFromAddress() throws FieldException {
+        return getAddressAt(m_definition == null ? -1 : m_definition.getFromAddressOffset(), "fromAddress");
+    }
+
+    public InsteonAddress getToAddress() throws FieldException {
+        return getAddressAt(m_definition == null ? -1 : m_definition.getToAddressOffset(), "toAddress");
+    }
+
+    private byte getByteAt(int offset, String key) throws FieldException {
+        if (offset < 0) {
+            throw new FieldException("field " + key + " not found");
+        }
+        if (offset >= m_data.length) {
+            throw new FieldException("field read beyond end of msg");
+        }
+        return m_data[offset];
+    }
+
+    private InsteonAddress getAddressAt(int offset, String key) throws FieldException {
+        if (offset < 0) {
+            throw new FieldException("field " + key + " not found");
+        }
+        if (offset + 3 > m_data.length) {
+            throw new FieldException("field read beyond end of msg");
+        }
+        InsteonAddress a = new InsteonAddress();
+        a.loadBytes(m_data, offset);
+        return a;
+    }
+
     /**
      * Will initialize the message with a byte[], an offset, and a length
      * 
@@ -346,6 +417,20 @@ public class Msg {
      * @return the byte array
      */
     public byte[] getBytes(String key, int numBytes) throws FieldException {
+        int offset = getFieldOffset(key, numBytes);
+        byte[] section = new byte[numBytes];
+        System.arraycopy(m_data, offset, section, 0, numBytes);
+        return section;
+    }
+
+    /**
+     * Finds the offset of a field, and checks that a number of bytes can be read from there
+     *
+     * @param key the name of the field
+     * @param numBytes number of bytes to read from the field on
+     * @return the offset of the field in the data returned by getData()
+     */
+    private int getFieldOffset(String key, int numBytes) throws FieldException {
         if (m_definition == null) {
             throw new FieldException("no msg definition!");
         }
@@ -353,9 +438,7 @@ public class Msg {
         if (offset < 0 || offset + numBytes > m_data.length) {
             throw new FieldException("data index out of bounds!");
         }
-        byte[] section = new byte[numBytes];
-        System.arraycopy(m_data, offset, section, 0, numBytes);
-        return section;
+        return offset;
     }
 
     /**
@@ -430,10 +513,10 @@ public class Msg {
     public int setCRC() {
         int crc;
         try {
-            crc = getByte("command1") + getByte("command2");
-            byte[] bytes = getBytes("userData1", 13); // skip userData14!
-            for (byte b : bytes) {
-                crc += b;
+            crc = getCommand1() + getCommand2();
+            int offset = getFieldOffset("userData1", 13); // skip userData14!
+            for (int i = offset; i < offset + 13; i++) {
+                crc += m_data[i];
             }
             crc = ((~crc) + 1) & 0xFF;
             setByte("userData14", (byte) (crc & 0xFF));
@@ -452,9 +535,9 @@ public class Msg {
     public int setCRC2() {
         int crc = 0;
         try {
-            byte[] bytes = getBytes("command1", 14);
-            for (int loop = 0; loop < bytes.length; loop++) {
-                int b = bytes[loop] & 0xFF;
+            int offset = getFieldOffset("command1", 14);
+            for (int loop = offset; loop < offset + 14; loop++) {
+                int b = m_data[loop] & 0xFF;
                 for (int bit = 0; bit < 8; bit++) {
                     int fb = b & 0x01;
                     if ((crc & 0x8000) == 0) {
@@ -531,7 +614,7 @@ public class Msg {
         if (m_buf == null || m_buf.length < 2) {
             return null;
         }
-        Msg template = s_replyMap.get(s_cmdToKey(m_buf[1], isExtended));
+        Msg template = s_replyTemplates[s_cmdToKey(m_buf[1], isExtended)];
         if (template == null) {
             return null; // cannot find lookup map
         }
@@ -539,9 +622,7 @@ public class Msg {
             logger.error("expected msg {} len {}, got {}", template.getCommandNumber(), template.getLength(), msgLen);
             return null;
         }
-        Msg msg = new Msg(template.getHeaderLength(), m_buf, msgLen, Direction.FROM_MODEM);
-        msg.setDefinition(template.getDefinition());
-        return (msg);
+        return new Msg(template, m_buf, msgLen);
     }
 
     /**
@@ -551,11 +632,7 @@ public class Msg {
      * @return the length of the header to expect
      */
     public static int s_getHeaderLength(byte cmd) {
-        Integer len = s_headerMap.get(new Integer(cmd));
-        if (len == null) {
-            return (-1); // not found
-        }
-        return len;
+        return s_headerLengths[cmd & 0xff]; // -1 if not found
     }
 
     /**
@@ -566,8 +643,7 @@ public class Msg {
      * @return message length, or -1 if length cannot be determined
      */
     public static int s_getMessageLength(byte b, boolean isExtended) {
-        int key = s_cmdToKey(b, isExtended);
-        Msg msg = s_replyMap.get(key);
+        Msg msg = s_replyTemplates[s_cmdToKey(b, isExtended)];
         if (msg == null) {
             return -1;
         }
@@ -612,13 +688,14 @@ public class Msg {
     }
 
     private static int s_cmdToKey(byte cmd, boolean isExtended) {
-        return (cmd + (isExtended ? 256 : 0));
+        return ((cmd & 0xff) + (isExtended ? 256 : 0));
     }
 
     private static void s_buildHeaderMap() {
+        Arrays.fill(s_headerLengths, -1);
         for (Msg m : s_msgMap.values()) {
             if (m.getDirection() == Direction.FROM_MODEM) {
-                s_headerMap.put(new Integer(m.getCommandNumber()), m.getHeaderLength());
+                s_headerLengths[m.getCommandNumber() & 0xff] = m.getHeaderLength();
             }
         }
     }
@@ -626,8 +703,7 @@ public class Msg {
     private static void s_buildLengthMap() {
         for (Msg m : s_msgMap.values()) {
             if (m.getDirection() == Direction.FROM_MODEM) {
-                Integer key = new Integer(s_cmdToKey(m.getCommandNumber(), m.isExtended()));
-                s_replyMap.put(key, m);
+                s_replyTemplates[s_cmdToKey(m.getCommandNumber(), m.isExtended())] = m;
             }
         }
     }
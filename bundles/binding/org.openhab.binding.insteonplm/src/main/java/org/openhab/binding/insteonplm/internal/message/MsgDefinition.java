@@ -26,6 +26,17 @@ import java.util.HashMap;
 public class MsgDefinition {
     private HashMap<String, Field> m_fields = new HashMap<String, Field>();
 
+    // Offsets of the fields that are looked at for almost every message,
+    // so they can be read without a lookup by name. -1 if the message
+    // doesn't have such a field (of the expected type).
+    private int m_cmdOffset = -1;
+    private int m_messageFlagsOffset = -1;
+    private int m_command1Offset = -1;
+    private int m_command2Offset = -1;
+    private int m_ackNackOffset = -1;
+    private int m_fromAddressOffset = -1;
+    private int m_toAddressOffset = -1;
+
     MsgDefinition() {
     }
 
@@ -36,6 +47,13 @@ public class MsgDefinition {
      */
     MsgDefinition(MsgDefinition m) {
         m_fields = new HashMap<String, Field>(m.m_fields);
+        m_cmdOffset = m.m_cmdOffset;
+        m_messageFlagsOffset = m.m_messageFlagsOffset;
+        m_command1Offset = m.m_command1Offset;
+        m_command2Offset = m.m_command2Offset;
+        m_ackNackOffset = m.m_ackNackOffset;
+        m_fromAddressOffset = m.m_fromAddressOffset;
+        m_toAddressOffset = m.m_toAddressOffset;
     }
 
     public HashMap<String, Field> getFields() {
@@ -48,6 +66,61 @@ public class MsgDefinition {
 
     public void addField(Field field) {
         m_fields.put(field.getName(), field);
+        int byteOffset = (field.getType() == DataType.BYTE) ? field.getOffset() : -1;
+        int addressOffset = (field.getType() == DataType.ADDRESS) ? field.getOffset() : -1;
+        switch (field.getName()) {
+            case "Cmd":
+                m_cmdOffset = byteOffset;
+                break;
+            case "messageFlags":
+                m_messageFlagsOffset = byteOffset;
+                break;
+            case "command1":
+                m_command1Offset = byteOffset;
+                break;
+            case "command2":
+                m_command2Offset = byteOffset;
+                break;
+            case "ACK/NACK":
+                m_ackNackOffset = byteOffset;
+                break;
+            case "fromAddress":
+                m_fromAddressOffset = addressOffset;
+                break;
+            case "toAddress":
+                m_toAddressOffset = addressOffset;
+                break;
+            default:
+                break;
+        }
+    }
+
+    int getCmdOffset() {
+        return m_cmdOffset;
+    }
+
+    int getMessageFlagsOffset() {
+        return m_messageFlagsOffset;
+    }
+
+    int getCommand1Offset() {
+        return m_command1Offset;
+    }
+
+    int getCommand2Offset() {
+        return m_command2Offset;
+    }
+
+    int getAckNackOffset() {
+        return m_ackNackOffset;
+    }
+
+    int getFromAddressOffset() {
+        return m_fromAddressOffset;
+    }
+
+    int getToAddressOffset() {
+        return m_toAddressOffset;
     }
 
     /**
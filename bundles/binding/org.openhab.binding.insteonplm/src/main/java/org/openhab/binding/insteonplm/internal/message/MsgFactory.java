@@ -59,7 +59,9 @@ public class MsgFactory {
         System.arraycopy(data, 0, m_buf, m_end, len);
         m_end += len;
         // copy the incoming data to the end of the buffer
-        logger.trace("read buffer: len {} data: {}", m_end, Utils.getHexString(m_buf, m_end));
+        if (logger.isTraceEnabled()) {
+            logger.trace("read buffer: len {} data: {}", m_end, Utils.getHexString(m_buf, m_end));
+        }
     }
 
     /**
@@ -120,7 +122,9 @@ public class MsgFactory {
             msg = Msg.s_createMessage(m_buf, msgLen, isExtended);
             removeFromBuffer(msgLen);
         }
-        logger.trace("keeping buffer len {} data: {}", m_end, Utils.getHexString(m_buf, m_end));
+        if (logger.isTraceEnabled()) {
+            logger.trace("keeping buffer len {} data: {}", m_end, Utils.getHexString(m_buf, m_end));
+        }
         return msg;
     }
 
@@ -140,7 +144,7 @@ public class MsgFactory {
         if (len > m_end) {
             len = m_end;
         }
-        System.arraycopy(m_buf, len, m_buf, 0, m_end + 1 - len);
+        System.arraycopy(m_buf, len, m_buf, 0, m_end - len);
         m_end -= len;
     }
 }
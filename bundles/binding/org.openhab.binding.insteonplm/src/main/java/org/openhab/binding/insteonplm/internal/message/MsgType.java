@@ -12,8 +12,6 @@
  */
 package org.openhab.binding.insteonplm.internal.message;
 
-import java.util.HashMap;
-
 /**
  * Represents insteon message type flags
  *
@@ -43,7 +41,8 @@ public enum MsgType {
     ALL_LINK_CLEANUP_NACK(0xe0),
     INVALID(0xff); // should never happen
 
-    private static HashMap<Integer, MsgType> s_hash = new HashMap<Integer, MsgType>();
+    // indexed by the upper three bits of the message flags
+    private static MsgType[] s_types = new MsgType[8];
 
     private byte m_byteValue = 0;
 
@@ -58,8 +57,9 @@ public enum MsgType {
 
     static {
         for (MsgType t : MsgType.values()) {
-            Integer i = new Integer(t.getByteValue() & 0xff);
-            s_hash.put(i, t);
+            if (t != INVALID) {
+                s_types[(t.getByteValue() & 0xe0) >> 5] = t;
+            }
         }
     }
 
@@ -68,10 +68,9 @@ public enum MsgType {
     }
 
     public static MsgType s_fromValue(byte b) throws IllegalArgumentException {
-        Integer i = new Integer((b & 0xe0));
-        MsgType mt = s_hash.get(i);
+        MsgType mt = s_types[(b & 0xe0) >> 5];
         if (mt == null) {
-            throw new IllegalArgumentException("msg type of byte value " + i + " not found");
+            throw new IllegalArgumentException("msg type of byte value " + (b & 0xe0) + " not found");
         }
         return mt;
     }
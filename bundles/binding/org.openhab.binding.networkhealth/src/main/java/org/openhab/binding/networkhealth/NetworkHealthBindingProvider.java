@@ -41,4 +41,11 @@ public interface NetworkHealthBindingProvider extends BindingProvider {
      */
     public int getTimeout(String itemName);
 
+    /**
+     * @return <code>true</code> if the given <code>itemName</code> receives the
+     *         time it took to reach the host instead of whether it is reachable
+     * @since 1.14.0
+     */
+    public boolean isLatency(String itemName);
+
 }
@@ -12,16 +12,20 @@
  */
 package org.openhab.binding.networkhealth.internal;
 
-import java.io.IOException;
-import java.net.SocketTimeoutException;
+import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.openhab.binding.networkhealth.NetworkHealthBindingProvider;
+import org.openhab.binding.networkhealth.internal.ReachabilityChecker.Probe;
 import org.openhab.core.binding.AbstractActiveBinding;
+import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.OnOffType;
-import org.openhab.io.net.actions.Ping;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
 import org.slf4j.Logger;
@@ -52,8 +56,13 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
     /** If {@link #cachePeriod} is larger than 0, this field holds the time of the last cache purge. */
     private long lastCachePurge = System.currentTimeMillis();
 
-    /** Cached state of all devices for which a binding exists. */
-    private final Map<String, Boolean> cachedStates = new HashMap<String, Boolean>();
+    /** the maximum number of pings and name lookups running at the same time (defaults to 10) */
+    private int maxPings = 10;
+
+    private volatile ReachabilityChecker checker;
+
+    /** Cached state of all items for which a binding exists. */
+    private final Map<String, State> cachedStates = new HashMap<String, State>();
 
     @Override
     protected String getName() {
@@ -65,6 +74,23 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
         return refreshInterval;
     }
 
+    @Override
+    public void activate() {
+        checker = new ReachabilityChecker(maxPings);
+        super.activate();
+    }
+
+    @Override
+    public void deactivate() {
+        super.deactivate();
+        ReachabilityChecker checker = this.checker;
+        this.checker = null;
+        if (checker != null) {
+            logger.debug("stopping {}", checker);
+            checker.shutdown();
+        }
+    }
+
     protected void addBindingProvider(NetworkHealthBindingProvider bindingProvider) {
         super.addBindingProvider(bindingProvider);
     }
@@ -75,45 +101,67 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
 
 
     /**
-     * @{inheritDoc}
+     * Checks all hosts at the same time. Items which refer to the same host and
+     * port share a single check.
      */
     @Override
     public void execute() {
+        ReachabilityChecker checker = this.checker;
+        if (checker == null) {
+            return;
+        }
+
+        Map<String, Probe> probes = new LinkedHashMap<String, Probe>();
+        List<PendingUpdate> pendingUpdates = new ArrayList<PendingUpdate>();
         for (NetworkHealthBindingProvider provider : providers) {
             for (String itemName : provider.getItemNames()) {
 
                 String hostname = provider.getHostname(itemName);
                 int port = provider.getPort(itemName);
 
+                int itemTimeout = timeout;
                 if (provider.getTimeout(itemName) > 0) {
-                    timeout = provider.getTimeout(itemName);
+                    itemTimeout = provider.getTimeout(itemName);
                 }
 
-                boolean success = false;
-
-                try {
-                    success = Ping.checkVitality(hostname, port, timeout);
-
-                    if(success) {
-                        logger.debug("established connection [host '{}' port '{}' timeout '{}']",
-                            new Object[] { hostname, port, timeout });
-                    } else {
-                        logger.debug("couldn't establish connection [host '{}' port '{}' timeout '{}']",
-                            new Object[] { hostname, port, timeout });
-                    }
-                } catch (SocketTimeoutException se) {
-                    logger.debug("timed out while connecting [host '{}' port '{}' timeout '{}']",
-                            new Object[] { hostname, port, timeout });
-                } catch (IOException ioe) {
-                    logger.debug("couldn't establish network connection [host '{}' port '{}' timeout '{}']",
-                            new Object[] { hostname, port, timeout });
+                String key = hostname + ":" + port;
+                Probe probe = probes.get(key);
+                if (probe == null) {
+                    probe = new Probe(hostname, port, itemTimeout);
+                    probes.put(key, probe);
+                } else {
+                    probe.timeout = Math.max(probe.timeout, itemTimeout);
                 }
-                if (eventPublisher != null) {
+                pendingUpdates.add(new PendingUpdate(itemName, probe, itemTimeout, provider.isLatency(itemName)));
+            }
+        }
+
+        checker.check(probes.values());
 
-                    // check cached state and update only if state differs
-                    if (shouldPostUpdate(hostname, port, success)) {
-                        eventPublisher.postUpdate(itemName, success ? OnOffType.ON : OnOffType.OFF);
-                    }
+        for (PendingUpdate update : pendingUpdates) {
+            Probe probe = update.probe;
+            boolean success = probe.isReachable(update.timeout);
+
+            if (success) {
+                logger.debug("established connection [host '{}' port '{}' timeout '{}' latency '{}']",
+                        new Object[] { probe.hostname, probe.port, update.timeout, probe.getLatency() });
+            } else {
+                logger.debug("couldn't establish connection [host '{}' port '{}' timeout '{}']",
+                        new Object[] { probe.hostname, probe.port, update.timeout });
+            }
+
+            State state;
+            if (update.latency) {
+                state = success ? new DecimalType(probe.getLatency()) : UnDefType.UNDEF;
+            } else {
+                state = success ? OnOffType.ON : OnOffType.OFF;
+            }
+
+            if (eventPublisher != null) {
+
+                // check cached state and update only if state differs
+                if (shouldPostUpdate(update.itemName, state)) {
+                    eventPublisher.postUpdate(update.itemName, state);
                 }
             }
         }
@@ -122,17 +170,15 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
     /**
      * Whether or not to post the new state to the event bus.
      * 
-     * @param hostname
-     *            The hostname that was checked.
-     * @param port
-     *            The port.
+     * @param itemName
+     *            The item to update.
      * @param newState
-     *            The state whether the host is reachable or not.
+     *            The new state of the item.
      * @return <code>true</code> if the event changed or it is not cached;
      *         <code>false</code> if the state is already cached and did not
      *         change.
      */
-    private boolean shouldPostUpdate(String hostname, int port, boolean newState) {
+    private boolean shouldPostUpdate(String itemName, State newState) {
         if (cachePeriod <= 0) {
             return true; // caching disabled
         }
@@ -145,9 +191,9 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
         }
         // post update only if state changed (and caching is enabled) to avoid
         // spamming the bus
-        final Boolean cachedState = cachedStates.get(hostname + port);
-        if (cachedState == null || newState != cachedState.booleanValue()) {
-            cachedStates.put(hostname + port, newState);
+        final State cachedState = cachedStates.get(itemName);
+        if (cachedState == null || !newState.equals(cachedState)) {
+            cachedStates.put(itemName, newState);
             return true;
         }
         return false;
@@ -175,8 +221,34 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
             if (cachePeriodString != null && !cachePeriodString.isEmpty()) {
                 cachePeriod = Integer.parseInt(cachePeriodString);
             }
+
+            String maxPingsString = (String) config.get("maxPings");
+            if (maxPingsString != null && !maxPingsString.isEmpty()) {
+                maxPings = Math.max(1, Integer.parseInt(maxPingsString));
+                ReachabilityChecker checker = this.checker;
+                if (checker != null) {
+                    checker.setMaxPings(maxPings);
+                }
+            }
         }
         setProperlyConfigured(true);
     }
 
+    /**
+     * The state of an item, which is posted once its probe has been checked.
+     */
+    private static class PendingUpdate {
+
+        final String itemName;
+        final Probe probe;
+        final int timeout;
+        final boolean latency;
+
+        PendingUpdate(String itemName, Probe probe, int timeout, boolean latency) {
+            this.itemName = itemName;
+            this.probe = probe;
+            this.timeout = timeout;
+            this.latency = latency;
+        }
+    }
 }
@@ -15,6 +15,7 @@ package org.openhab.binding.networkhealth.internal;
 import org.openhab.binding.networkhealth.NetworkHealthBindingProvider;
 import org.openhab.core.binding.BindingConfig;
 import org.openhab.core.items.Item;
+import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.library.items.StringItem;
 import org.openhab.core.library.items.SwitchItem;
 import org.openhab.model.item.binding.AbstractGenericBindingProvider;
@@ -38,6 +39,8 @@ import org.openhab.model.item.binding.BindingConfigParseException;
  * <code>{ nh="ssh.secureserver.com:22:10000" } -  - which checks if the given host allows connections on port 22 with a timeout of 10000ms</code>
  * </li>
  * </ul>
+ * Bound to a NumberItem, the time in milliseconds it took to reach the host is
+ * provided instead.
  *
  * @author Thomas.Eichstaedt-Engelen
  * @author Kai Kreuzer
@@ -60,10 +63,10 @@ public class NetworkHealthGenericBindingProvider extends AbstractGenericBindingP
      */
     @Override
     public void validateItemType(Item item, String bindingConfig) throws BindingConfigParseException {
-        if (!(item instanceof SwitchItem || item instanceof StringItem)) {
-            throw new BindingConfigParseException(
-                    "item '" + item.getName() + "' is of type '" + item.getClass().getSimpleName()
-                            + "', only Switch- and StringItems are allowed - please check your *.items configuration");
+        if (!(item instanceof SwitchItem || item instanceof StringItem || item instanceof NumberItem)) {
+            throw new BindingConfigParseException("item '" + item.getName() + "' is of type '"
+                    + item.getClass().getSimpleName()
+                    + "', only Switch-, String- and NumberItems are allowed - please check your *.items configuration");
         }
     }
 
@@ -91,6 +94,7 @@ public class NetworkHealthGenericBindingProvider extends AbstractGenericBindingP
         if (configParts.length > 2) {
             config.timeout = Integer.valueOf(configParts[2]);
         }
+        config.latency = item instanceof NumberItem;
         addBindingConfig(item, config);
     }
 
@@ -121,6 +125,15 @@ public class NetworkHealthGenericBindingProvider extends AbstractGenericBindingP
         return config != null ? config.timeout : 0;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLatency(String itemName) {
+        NhBindingConfig config = (NhBindingConfig) bindingConfigs.get(itemName);
+        return config != null ? config.latency : false;
+    }
+
     /**
      * This is an internal data structure to store information from the binding
      * config strings and use it to answer the requests to the NetworkHealth
@@ -130,6 +143,7 @@ public class NetworkHealthGenericBindingProvider extends AbstractGenericBindingP
         public String hostname;
         public int port;
         public int timeout;
+        public boolean latency;
     }
 
 }
@@ -0,0 +1,390 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.networkhealth.internal;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks the reachability of a set of hosts at the same time, so that a check
+ * takes about as long as the slowest host instead of the sum of all of them.
+ * <p>
+ * TCP connections are opened non-blocking and are all waited for on a single
+ * {@link Selector} by the calling thread. Host names are resolved and pings are
+ * issued on a bounded pool of worker threads, since both can only be done
+ * blocking.
+ *
+ * @since 1.14.0
+ */
+class ReachabilityChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReachabilityChecker.class);
+
+    private final ThreadPoolExecutor executor;
+
+    private Selector selector;
+
+    private final AtomicLong checkCount = new AtomicLong();
+    private final AtomicLong probeCount = new AtomicLong();
+    private final AtomicLong totalCheckTime = new AtomicLong();
+    private final AtomicLong maxCheckTime = new AtomicLong();
+
+    /**
+     * @param maxPings the maximum number of pings and name lookups running at the
+     *            same time
+     */
+    ReachabilityChecker(int maxPings) {
+        int threads = Math.max(1, maxPings);
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "NetworkHealth Ping " + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Changes the maximum number of pings and name lookups running at the same time.
+     *
+     * @param maxPings the new limit
+     */
+    void setMaxPings(int maxPings) {
+        int threads = Math.max(1, maxPings);
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Stops the worker threads and closes the selector.
+     */
+    synchronized void shutdown() {
+        executor.shutdownNow();
+        if (selector != null) {
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.debug("Error closing selector: {}", e.getMessage());
+            }
+            selector = null;
+        }
+    }
+
+    /**
+     * Checks the given probes and waits until all of them are finished. The results
+     * are available through {@link Probe#getLatency()} afterwards.
+     *
+     * @param probes the probes to check, each host and port should be contained once
+     */
+    void check(Collection<Probe> probes) {
+        if (probes.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Selector selector;
+        try {
+            selector = getSelector();
+        } catch (IOException e) {
+            logger.error("Couldn't open selector: {}", e.getMessage(), e);
+            return;
+        }
+
+        final Queue<Probe> connectable = new ConcurrentLinkedQueue<Probe>();
+        final AtomicInteger pending = new AtomicInteger(probes.size());
+        try {
+            for (Probe probe : probes) {
+                probe.latency = -1;
+                if (probe.hostname == null || probe.timeout <= 0) {
+                    pending.decrementAndGet();
+                } else {
+                    executor.execute(new Lookup(probe, connectable, pending, selector));
+                }
+            }
+            select(selector, connectable, pending);
+        } catch (RejectedExecutionException e) {
+            // shut down meanwhile
+            return;
+        } catch (ClosedSelectorException e) {
+            // shut down meanwhile
+            return;
+        } finally {
+            if (selector.isOpen()) {
+                for (SelectionKey key : selector.keys()) {
+                    ((Probe) key.attachment()).close();
+                }
+            }
+        }
+
+        long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        checkCount.incrementAndGet();
+        probeCount.addAndGet(probes.size());
+        totalCheckTime.addAndGet(time);
+        long max = maxCheckTime.get();
+        while (time > max && !maxCheckTime.compareAndSet(max, time)) {
+            max = maxCheckTime.get();
+        }
+        logger.debug("checked {} hosts in {}ms", probes.size(), time);
+    }
+
+    private synchronized Selector getSelector() throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+        }
+        return selector;
+    }
+
+    private void select(Selector selector, Queue<Probe> connectable, AtomicInteger pending) {
+        while (pending.get() > 0) {
+            Probe probe;
+            while ((probe = connectable.poll()) != null) {
+                connect(selector, probe, pending);
+            }
+
+            long now = System.nanoTime();
+            long wait = Long.MAX_VALUE;
+            for (SelectionKey key : selector.keys()) {
+                if (key.isValid()) {
+                    wait = Math.min(wait, ((Probe) key.attachment()).deadline - now);
+                }
+            }
+
+            try {
+                // without connections only the lookups and pings are waited for,
+                // which wake the selector up when they are finished
+                selector.select(wait == Long.MAX_VALUE ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+            } catch (IOException e) {
+                logger.error("Error waiting for connections: {}", e.getMessage(), e);
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+            while (selected.hasNext()) {
+                SelectionKey key = selected.next();
+                selected.remove();
+                finishConnect((Probe) key.attachment(), pending);
+            }
+
+            now = System.nanoTime();
+            for (SelectionKey key : selector.keys()) {
+                Probe timedOut = (Probe) key.attachment();
+                if (key.isValid() && timedOut.deadline - now <= 0) {
+                    logger.trace("timed out while connecting to {}:{}", timedOut.hostname, timedOut.port);
+                    timedOut.close();
+                    pending.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void connect(Selector selector, Probe probe, AtomicInteger pending) {
+        try {
+            probe.started = System.nanoTime();
+            probe.deadline = probe.started + TimeUnit.MILLISECONDS.toNanos(probe.timeout);
+            probe.channel = SocketChannel.open();
+            probe.channel.configureBlocking(false);
+            if (probe.channel.connect(probe.address)) {
+                probe.succeeded();
+                pending.decrementAndGet();
+            } else {
+                probe.channel.register(selector, SelectionKey.OP_CONNECT, probe);
+            }
+        } catch (IOException e) {
+            logger.trace("couldn't connect to {}:{}: {}", probe.hostname, probe.port, e.getMessage());
+            probe.close();
+            pending.decrementAndGet();
+        }
+    }
+
+    private void finishConnect(Probe probe, AtomicInteger pending) {
+        try {
+            if (probe.channel.finishConnect()) {
+                probe.succeeded();
+            } else {
+                return;
+            }
+        } catch (IOException e) {
+            logger.trace("couldn't connect to {}:{}: {}", probe.hostname, probe.port, e.getMessage());
+            probe.close();
+        }
+        pending.decrementAndGet();
+    }
+
+    /**
+     * @return the number of checks done so far
+     */
+    long getCheckCount() {
+        return checkCount.get();
+    }
+
+    /**
+     * @return the average number of hosts of a check
+     */
+    long getAverageProbes() {
+        long count = checkCount.get();
+        return count == 0 ? 0 : probeCount.get() / count;
+    }
+
+    /**
+     * @return the average time in milliseconds a check took
+     */
+    long getAverageCheckTime() {
+        long count = checkCount.get();
+        return count == 0 ? 0 : totalCheckTime.get() / count;
+    }
+
+    /**
+     * @return the longest time in milliseconds a check took
+     */
+    long getMaxCheckTime() {
+        return maxCheckTime.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ReachabilityChecker [checks=" + getCheckCount() + ", avgProbes=" + getAverageProbes()
+                + ", avgCheckTime=" + getAverageCheckTime() + "ms, maxCheckTime=" + getMaxCheckTime() + "ms]";
+    }
+
+    /**
+     * Resolves the host name of a probe and either pings it or hands it over to
+     * the selector.
+     */
+    private static class Lookup implements Runnable {
+
+        private final Probe probe;
+        private final Queue<Probe> connectable;
+        private final AtomicInteger pending;
+        private final Selector selector;
+
+        Lookup(Probe probe, Queue<Probe> connectable, AtomicInteger pending, Selector selector) {
+            this.probe = probe;
+            this.connectable = connectable;
+            this.pending = pending;
+            this.selector = selector;
+        }
+
+        @Override
+        public void run() {
+            boolean connect = false;
+            try {
+                InetAddress address = InetAddress.getByName(probe.hostname);
+                if (probe.port == 0) {
+                    long started = System.nanoTime();
+                    if (address.isReachable(probe.timeout)) {
+                        probe.latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } else {
+                    probe.address = new InetSocketAddress(address, probe.port);
+                    connect = true;
+                    connectable.add(probe);
+                }
+            } catch (IOException e) {
+                logger.trace("couldn't reach {}: {}", probe.hostname, e.getMessage());
+            } finally {
+                if (!connect) {
+                    pending.decrementAndGet();
+                }
+                selector.wakeup();
+            }
+        }
+    }
+
+    /**
+     * A host and port to check. The port <code>0</code> means that the host is
+     * pinged.
+     */
+    static class Probe {
+
+        final String hostname;
+        final int port;
+        int timeout;
+
+        private volatile long latency = -1;
+
+        private InetSocketAddress address;
+        private SocketChannel channel;
+        private long started;
+        private long deadline;
+
+        Probe(String hostname, int port, int timeout) {
+            this.hostname = hostname;
+            this.port = port;
+            this.timeout = timeout;
+        }
+
+        /**
+         * @return the time in milliseconds it took to reach the host or
+         *         <code>-1</code> if it couldn't be reached
+         */
+        long getLatency() {
+            return latency;
+        }
+
+        /**
+         * @param timeout the timeout in milliseconds
+         * @return whether the host has been reached within the given timeout
+         */
+        boolean isReachable(int timeout) {
+            return latency >= 0 && latency <= timeout;
+        }
+
+        private void succeeded() {
+            latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            close();
+        }
+
+        private void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // nothing to do
+                }
+                channel = null;
+            }
+        }
+    }
+}
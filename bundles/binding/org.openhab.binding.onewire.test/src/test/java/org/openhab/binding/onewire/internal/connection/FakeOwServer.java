@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.onewire.internal.connection;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal owserver on the loopback interface, which answers the requests
+ * of the owserver protocol the binding uses from a map of property values.
+ * Persistent sessions are granted when they are requested, and every request
+ * is logged, so tests can check which paths have been requested through how
+ * many sessions.
+ *
+ * @since 1.14.0
+ */
+class FakeOwServer {
+
+    private static final int MSG_READ = 2;
+    private static final int MSG_WRITE = 3;
+    private static final int MSG_DIR = 4;
+    private static final int MSG_PRESENCE = 6;
+
+    private static final int FLAG_PERSISTENCE = 0x04;
+
+    private static final int ENOENT = -2;
+
+    private final ServerSocket serverSocket;
+
+    /** path without leading slash -> value */
+    private final Map<String, String> values = new LinkedHashMap<String, String>();
+
+    private final List<String> requests = new ArrayList<String>();
+
+    private final List<Socket> sessions = new ArrayList<Socket>();
+
+    FakeOwServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        Thread acceptor = new Thread("FakeOwServer") {
+            @Override
+            public void run() {
+                accept();
+            }
+        };
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    synchronized void setValue(String path, String value) {
+        values.put(path, value);
+    }
+
+    /**
+     * @return the requests in the order they have been received, like <code>READ /uncached/10.1/temperature</code>
+     */
+    synchronized List<String> getRequests() {
+        return new ArrayList<String>(requests);
+    }
+
+    /**
+     * @return the number of sessions that have been opened
+     */
+    synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Closes all open sessions, as owserver does when a persistent session times out.
+     */
+    synchronized void closeSessions() throws IOException {
+        for (Socket session : sessions) {
+            session.close();
+        }
+    }
+
+    void close() throws IOException {
+        serverSocket.close();
+        closeSessions();
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                final Socket session = serverSocket.accept();
+                synchronized (this) {
+                    sessions.add(session);
+                }
+                Thread handler = new Thread("FakeOwServer session") {
+                    @Override
+                    public void run() {
+                        serve(session);
+                    }
+                };
+                handler.setDaemon(true);
+                handler.start();
+            }
+        } catch (IOException e) {
+            // server has been closed
+        }
+    }
+
+    private void serve(Socket session) {
+        try {
+            DataInputStream in = new DataInputStream(session.getInputStream());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(session.getOutputStream()));
+            while (true) {
+                in.readInt(); // version
+                int payloadLength = in.readInt();
+                int type = in.readInt();
+                int flags = in.readInt();
+                int size = in.readInt();
+                in.readInt(); // offset
+                byte[] payload = new byte[payloadLength];
+                in.readFully(payload);
+
+                int pathLength = 0;
+                while (pathLength < payload.length && payload[pathLength] != 0) {
+                    pathLength++;
+                }
+                String path = new String(payload, 0, pathLength, StandardCharsets.US_ASCII);
+                int responseFlags = flags & FLAG_PERSISTENCE;
+
+                switch (type) {
+                    case MSG_READ:
+                        handleRead(out, responseFlags, path);
+                        break;
+                    case MSG_WRITE:
+                        String data = new String(payload, payloadLength - size, size, StandardCharsets.US_ASCII);
+                        handleWrite(out, responseFlags, path, data);
+                        break;
+                    case MSG_DIR:
+                        handleDir(out, responseFlags, path);
+                        break;
+                    case MSG_PRESENCE:
+                        handlePresence(out, responseFlags, path);
+                        break;
+                    default:
+                        writeResponse(out, responseFlags, ENOENT, null);
+                        break;
+                }
+                out.flush();
+
+                if (responseFlags == 0) {
+                    session.close();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // session has been closed
+        }
+    }
+
+    private void handleRead(DataOutputStream out, int flags, String path) throws IOException {
+        String value;
+        synchronized (this) {
+            requests.add("READ " + path);
+            value = values.get(normalize(path));
+        }
+        if (value == null) {
+            writeResponse(out, flags, ENOENT, null);
+        } else {
+            byte[] data = value.getBytes(StandardCharsets.US_ASCII);
+            writeResponse(out, flags, data.length, data);
+        }
+    }
+
+    private void handleWrite(DataOutputStream out, int flags, String path, String data) throws IOException {
+        synchronized (this) {
+            requests.add("WRITE " + path + "=" + data);
+        }
+        writeResponse(out, flags, 0, null);
+    }
+
+    private void handleDir(DataOutputStream out, int flags, String path) throws IOException {
+        List<String> devices = new ArrayList<String>();
+        synchronized (this) {
+            requests.add("DIR " + path);
+            for (String valuePath : values.keySet()) {
+                String device = "/" + valuePath.substring(0, valuePath.indexOf('/'));
+                if (!devices.contains(device)) {
+                    devices.add(device);
+                }
+            }
+        }
+        for (String device : devices) {
+            writeResponse(out, flags, 0, (device + "\0").getBytes(StandardCharsets.US_ASCII));
+        }
+        writeResponse(out, flags, 0, null);
+    }
+
+    private void handlePresence(DataOutputStream out, int flags, String path) throws IOException {
+        boolean exists = false;
+        synchronized (this) {
+            requests.add("PRESENCE " + path);
+            String device = normalize(path) + "/";
+            for (String valuePath : values.keySet()) {
+                exists |= valuePath.startsWith(device);
+            }
+        }
+        writeResponse(out, flags, exists ? 0 : ENOENT, null);
+    }
+
+    private static String normalize(String path) {
+        String normalized = path.startsWith("/") ? path.substring(1) : path;
+        if (normalized.startsWith("uncached/")) {
+            normalized = normalized.substring("uncached/".length());
+        }
+        return normalized;
+    }
+
+    private static void writeResponse(DataOutputStream out, int flags, int ret, byte[] data) throws IOException {
+        int length = data == null ? 0 : data.length;
+        out.writeInt(0); // version
+        out.writeInt(length);
+        out.writeInt(ret);
+        out.writeInt(flags);
+        out.writeInt(length);
+        out.writeInt(0); // offset
+        if (data != null) {
+            out.write(data);
+        }
+    }
+}
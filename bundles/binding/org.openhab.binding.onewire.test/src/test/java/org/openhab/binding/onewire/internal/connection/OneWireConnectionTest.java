@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.onewire.internal.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.onewire.internal.connection.OneWireReadStatistics.PathStatistics;
+import org.openhab.binding.onewire.internal.deviceproperties.AbstractOneWireDevicePropertyBindingConfig;
+import org.openhab.binding.onewire.internal.deviceproperties.OneWireDevicePropertyNumberBindingConfig;
+import org.owfs.jowfsclient.Enums.OwTemperatureScale;
+import org.owfs.jowfsclient.OwfsConnection;
+
+/**
+ * Testcases for the connection to owserver, run against a local fake owserver.
+ *
+ * @since 1.14.0
+ */
+public class OneWireConnectionTest {
+
+    private static final String SENSOR_1 = "28.67C6697351FF";
+    private static final String SENSOR_2 = "28.A8D0FB020000";
+    private static final String COUNTER = "1D.F1A20D000000";
+
+    private FakeOwServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeOwServer();
+        server.setValue(SENSOR_1 + "/temperature", "     21.5");
+        server.setValue(SENSOR_1 + "/humidity", "     48.25");
+        server.setValue(SENSOR_2 + "/temperature", "     19.75");
+        server.setValue(COUNTER + "/counters.A", "   1234");
+
+        Hashtable<String, Object> config = new Hashtable<String, Object>();
+        config.put("ip", "127.0.0.1");
+        config.put("port", String.valueOf(server.getPort()));
+        config.put("server_retries", "0");
+        config.put("connections", "2");
+        OneWireConnection.updated(config);
+        OneWireConnection.getReadStatistics().clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        OneWireConnection.disconnect();
+        server.close();
+    }
+
+    private static AbstractOneWireDevicePropertyBindingConfig property(String deviceId, String propertyName)
+            throws Exception {
+        return new OneWireDevicePropertyNumberBindingConfig("deviceId=" + deviceId + ";propertyName=" + propertyName);
+    }
+
+    @Test
+    public void readsAllPropertiesOfADeviceThroughOneSession() throws Exception {
+        List<AbstractOneWireDevicePropertyBindingConfig> properties = Arrays.asList(property(SENSOR_1, "temperature"),
+                property(SENSOR_1, "humidity"), property(SENSOR_1, "temperature"));
+
+        Map<String, String> values = OneWireConnection.readFromOneWire(properties, false);
+
+        assertEquals(2, values.size());
+        assertEquals("     21.5", values.get(SENSOR_1 + "/temperature"));
+        assertEquals("     48.25", values.get(SENSOR_1 + "/humidity"));
+        assertEquals(Arrays.asList("DIR /", "PRESENCE " + SENSOR_1, "READ " + SENSOR_1 + "/temperature",
+                "READ " + SENSOR_1 + "/humidity"), server.getRequests());
+        assertEquals(1, server.getSessionCount());
+    }
+
+    @Test
+    public void readsSingleProperty() throws Exception {
+        assertEquals("   1234", OneWireConnection.readFromOneWire(property(COUNTER, "counters.A")));
+    }
+
+    @Test
+    public void readsNothingFromMissingDevice() throws Exception {
+        List<AbstractOneWireDevicePropertyBindingConfig> properties = Arrays
+                .asList(property("10.000000000000", "temperature"), property("10.000000000000", "power"));
+
+        Map<String, String> values = OneWireConnection.readFromOneWire(properties, false);
+
+        assertNull(values.get("10.000000000000/temperature"));
+        assertNull(values.get("10.000000000000/power"));
+        // the device is looked up once per attempt, not once per property
+        assertEquals(1 + 3, server.getRequests().size());
+    }
+
+    @Test
+    public void readsUncachedTemperaturesAfterSimultaneousConversion() throws Exception {
+        assertTrue(OneWireConnection.startSimultaneousTemperatureConversion());
+
+        Map<String, String> values = OneWireConnection.readFromOneWire(
+                Arrays.asList(property(SENSOR_1, "temperature"), property(SENSOR_1, "humidity")), true);
+
+        assertEquals("     21.5", values.get(SENSOR_1 + "/temperature"));
+        assertEquals("     48.25", values.get(SENSOR_1 + "/humidity"));
+        assertEquals(Arrays.asList("DIR /", "WRITE /simultaneous/temperature=1", "PRESENCE " + SENSOR_1,
+                "READ /uncached/" + SENSOR_1 + "/temperature", "READ " + SENSOR_1 + "/humidity"),
+                server.getRequests());
+    }
+
+    @Test
+    public void reopensSessionClosedByServer() throws Exception {
+        server.closeSessions();
+
+        Map<String, String> values = OneWireConnection
+                .readFromOneWire(Collections.singletonList(property(SENSOR_2, "temperature")), false);
+
+        assertEquals("     19.75", values.get(SENSOR_2 + "/temperature"));
+        assertEquals(2, server.getSessionCount());
+    }
+
+    @Test
+    public void recordsReadLatencyPerPath() throws Exception {
+        OneWireConnection.readFromOneWire(Arrays.asList(property(SENSOR_1, "temperature")), false);
+        OneWireConnection.readFromOneWire(Arrays.asList(property(SENSOR_1, "temperature")), false);
+        OneWireConnection.readFromOneWire(Arrays.asList(property(SENSOR_2, "temperature")), false);
+
+        PathStatistics statistics = OneWireConnection.getReadStatistics().getStatistics(SENSOR_1 + "/temperature");
+        assertEquals(2, statistics.getCount());
+        assertEquals(0, statistics.getErrors());
+        assertTrue(statistics.getMaxMillis() >= statistics.getAverageMillis());
+        assertEquals(1, OneWireConnection.getReadStatistics().getStatistics(SENSOR_2 + "/temperature").getCount());
+        assertNull(OneWireConnection.getReadStatistics().getStatistics(COUNTER + "/counters.A"));
+    }
+
+    @Test
+    public void failsFastUntilRetryIntervalHasPassed() throws Exception {
+        // accepts connections and closes them at once, like a host without owserver
+        final ServerSocket lvDeadServer = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        final AtomicInteger lvAccepted = new AtomicInteger();
+        Thread lvAcceptor = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        Socket lvSocket = lvDeadServer.accept();
+                        lvAccepted.incrementAndGet();
+                        lvSocket.close();
+                    }
+                } catch (Exception e) {
+                    // server has been closed
+                }
+            }
+        };
+        lvAcceptor.setDaemon(true);
+        lvAcceptor.start();
+
+        try {
+            OneWireConnection.disconnect();
+            Hashtable<String, Object> config = new Hashtable<String, Object>();
+            config.put("ip", "127.0.0.1");
+            config.put("port", String.valueOf(lvDeadServer.getLocalPort()));
+            config.put("server_retries", "0");
+            config.put("server_retryInterval", "60");
+            OneWireConnection.updated(config);
+            assertFalse(OneWireConnection.isConnectionEstablished());
+            int lvAttempts = lvAccepted.get();
+            assertTrue(lvAttempts > 0);
+
+            long lvStart = System.currentTimeMillis();
+            assertFalse(OneWireConnection.isConnectionAvailable());
+            assertNull(OneWireConnection.readFromOneWire(property(SENSOR_1, "temperature")));
+            OneWireConnection.writeToOneWire(SENSOR_1 + "/PIO.A", "1");
+
+            assertTrue(System.currentTimeMillis() - lvStart < 1000);
+            assertEquals(lvAttempts, lvAccepted.get());
+        } finally {
+            lvDeadServer.close();
+        }
+    }
+
+    @Test
+    public void poolOpensNoMoreConnectionsThanItsSize() throws Exception {
+        final OneWireConnectionPool pool = new OneWireConnectionPool("127.0.0.1", server.getPort(),
+                OwTemperatureScale.CELSIUS, 2);
+        try {
+            final OwfsConnection first = pool.borrow();
+            OwfsConnection second = pool.borrow();
+            assertFalse(first == second);
+
+            Thread releaser = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                    }
+                    pool.release(first);
+                }
+            };
+            releaser.start();
+
+            // waits until the first connection is handed back
+            assertTrue(pool.borrow() == first);
+            releaser.join();
+        } finally {
+            pool.close();
+        }
+    }
+}
@@ -12,14 +12,28 @@
  */
 package org.openhab.binding.onewire.internal;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.onewire.OneWireBindingProvider;
 import org.openhab.binding.onewire.internal.connection.OneWireConnection;
+import org.openhab.binding.onewire.internal.connection.OneWireReadStatistics.PathStatistics;
 import org.openhab.binding.onewire.internal.control.AbstractOneWireControlBindingConfig;
 import org.openhab.binding.onewire.internal.deviceproperties.AbstractOneWireDevicePropertyBindingConfig;
 import org.openhab.binding.onewire.internal.deviceproperties.AbstractOneWireDevicePropertyWritableBindingConfig;
@@ -52,6 +66,11 @@ public class OneWireBinding extends AbstractBinding<OneWireBindingProvider>
 
     private static final Logger logger = LoggerFactory.getLogger(OneWireBinding.class);
 
+    /**
+     * Interval of logging the read statistics (debug level)
+     */
+    private static final long READ_STATISTICS_LOG_INTERVAL = TimeUnit.MINUTES.toMillis(15);
+
     /**
      * Scheduler for items
      */
@@ -67,6 +86,21 @@ public class OneWireBinding extends AbstractBinding<OneWireBindingProvider>
      */
     private Hashtable<String, State> ivCacheItemStates = new Hashtable<String, State>();
 
+    /**
+     * Start the temperature conversion of all sensors at once, before several temperatures are read
+     */
+    private boolean ivSimultaneousTemperatureConversion = true;
+
+    /**
+     * Executor, which reads several devices at the same time
+     */
+    private volatile ExecutorService ivReaderExecutor;
+
+    /**
+     * Time the read statistics have been logged last
+     */
+    private long ivLastReadStatisticsLog = System.currentTimeMillis();
+
     public OneWireBinding() {
         super();
         ivOneWireReaderScheduler = new OneWireUpdateScheduler(this);
@@ -75,6 +109,7 @@ public class OneWireBinding extends AbstractBinding<OneWireBindingProvider>
     @Override
     public void activate() {
         super.activate();
+        ivReaderExecutor = Executors.newCachedThreadPool();
         ivOneWireReaderScheduler.start();
     }
 
@@ -82,6 +117,12 @@ public class OneWireBinding extends AbstractBinding<OneWireBindingProvider>
     public void deactivate() {
         super.deactivate();
         ivOneWireReaderScheduler.stop();
+        if (ivReaderExecutor != null) {
+            ivReaderExecutor.shutdownNow();
+            ivReaderExecutor = null;
+        }
+        logReadStatistics(true);
+        OneWireConnection.disconnect();
     }
 
     protected void addBindingProvider(OneWireBindingProvider bindingProvider) {
@@ -106,6 +147,12 @@ public class OneWireBinding extends AbstractBinding<OneWireBindingProvider>
                 ivPostOnlyChangedValues = Boolean.getBoolean(lvPostOnlyChangedValues);
             }
 
+            String lvSimultaneousTemperature = Objects.toString(pvConfig.get("simultaneous_temperature"), null);
+            if (StringUtils.isNotBlank(lvSimultaneousTemperature)) {
+                ivSimultaneousTemperatureConversion = Boolean.parseBoolean(lvSimultaneousTemperature);
+            }
+            logger.debug("onewire:simultaneous_temperature = {}", ivSimultaneousTemperatureConversion);
+
             // Connection config
             OneWireConnection.updated(pvConfig);
         }
@@ -250,16 +297,18 @@ public class OneWireBinding extends AbstractBinding<OneWireBindingProvider>
      *
      * @see org.openhab.binding.onewire.internal.listener.
      * InterfaceOneWireDevicePropertyWantsUpdateListener#
-     * devicePropertyWantsUpdate(org.openhab.binding.onewire.internal.listener.
-     * OneWireDevicePropertyWantsUpdateEvent)
+     * devicePropertiesWantUpdate(java.util.List)
      */
     @Override
-    public void devicePropertyWantsUpdate(OneWireDevicePropertyWantsUpdateEvent pvWantsUpdateEvent) {
-        String lvItemName = pvWantsUpdateEvent.getItemName();
-
-        logger.debug("Item {} wants update!", lvItemName);
+    public void devicePropertiesWantUpdate(List<OneWireDevicePropertyWantsUpdateEvent> pvWantsUpdateEvents) {
+        List<String> lvItemNames = new ArrayList<String>();
+        for (OneWireDevicePropertyWantsUpdateEvent lvWantsUpdateEvent : pvWantsUpdateEvents) {
+            logger.debug("Item {} wants update!", lvWantsUpdateEvent.getItemName());
+            lvItemNames.add(lvWantsUpdateEvent.getItemName());
+        }
 
-        updateItemFromOneWire(lvItemName);
+        updateItemsFromOneWire(lvItemNames);
+        logReadStatistics(false);
     }
 
     /**
@@ -293,32 +342,135 @@ public class OneWireBinding extends AbstractBinding<OneWireBindingProvider>
      * @param pvItemName
      */
     public void updateItemFromOneWire(String pvItemName) {
-        if (OneWireConnection.getConnection() != null) {
+        updateItemsFromOneWire(Collections.singletonList(pvItemName));
+    }
+
+    /**
+     * Update items with values from 1-wire device properties. The properties
+     * are grouped by device, and several devices are read at the same time.
+     * If several temperatures are read, the temperature conversion of all
+     * sensors is started at once and the temperatures are read afterwards.
+     *
+     * @param pvItemNames
+     */
+    public void updateItemsFromOneWire(Collection<String> pvItemNames) {
+        if (!OneWireConnection.isConnectionAvailable()) {
+            return;
+        }
 
-            AbstractOneWireDevicePropertyBindingConfig pvBindingConfig = (AbstractOneWireDevicePropertyBindingConfig) getBindingConfig(
-                    pvItemName);
+        // deviceId -> itemName -> bindingConfig
+        Map<String, Map<String, AbstractOneWireDevicePropertyBindingConfig>> lvDevices = new LinkedHashMap<String, Map<String, AbstractOneWireDevicePropertyBindingConfig>>();
+        int lvTemperatures = 0;
 
-            if (pvBindingConfig == null) {
+        for (String lvItemName : pvItemNames) {
+            AbstractOneWireDevicePropertyBindingConfig lvBindingConfig = (AbstractOneWireDevicePropertyBindingConfig) getBindingConfig(
+                    lvItemName);
+
+            if (lvBindingConfig == null) {
                 logger.error("no bindingConfig found for itemName={} cannot update! It will be removed from scheduler",
-                        pvItemName);
-                ivOneWireReaderScheduler.removeItem(pvItemName);
-                return;
+                        lvItemName);
+                ivOneWireReaderScheduler.removeItem(lvItemName);
+                continue;
+            }
+
+            Map<String, AbstractOneWireDevicePropertyBindingConfig> lvDeviceItems = lvDevices
+                    .get(lvBindingConfig.getDeviceId());
+            if (lvDeviceItems == null) {
+                lvDeviceItems = new LinkedHashMap<String, AbstractOneWireDevicePropertyBindingConfig>();
+                lvDevices.put(lvBindingConfig.getDeviceId(), lvDeviceItems);
+            }
+            lvDeviceItems.put(lvItemName, lvBindingConfig);
+
+            if (OneWireConnection.isSimultaneousTemperature(lvBindingConfig)) {
+                lvTemperatures++;
+            }
+        }
+
+        boolean lvUncachedTemperature = false;
+        if (ivSimultaneousTemperatureConversion && lvTemperatures > 1) {
+            lvUncachedTemperature = OneWireConnection.startSimultaneousTemperatureConversion();
+        }
+
+        readDevices(lvDevices.values(), lvUncachedTemperature);
+    }
+
+    /**
+     * Reads the devices, using as many threads as there are connections to the owserver
+     *
+     * @param pvDevices itemName -> bindingConfig of every device
+     * @param pvUncachedTemperature
+     */
+    private void readDevices(Collection<Map<String, AbstractOneWireDevicePropertyBindingConfig>> pvDevices,
+            final boolean pvUncachedTemperature) {
+        ExecutorService lvExecutor = ivReaderExecutor;
+        int lvReaders = Math.min(OneWireConnection.getConnectionPoolSize(), pvDevices.size());
+        if (lvReaders <= 1 || lvExecutor == null) {
+            for (Map<String, AbstractOneWireDevicePropertyBindingConfig> lvDeviceItems : pvDevices) {
+                updateDeviceItems(lvDeviceItems, pvUncachedTemperature);
             }
+            return;
+        }
+
+        final Queue<Map<String, AbstractOneWireDevicePropertyBindingConfig>> lvQueue = new ConcurrentLinkedQueue<Map<String, AbstractOneWireDevicePropertyBindingConfig>>(
+                pvDevices);
+        List<Future<?>> lvFutures = new ArrayList<Future<?>>();
+        try {
+            for (int i = 0; i < lvReaders; i++) {
+                lvFutures.add(lvExecutor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        Map<String, AbstractOneWireDevicePropertyBindingConfig> lvDeviceItems;
+                        while ((lvDeviceItems = lvQueue.poll()) != null) {
+                            updateDeviceItems(lvDeviceItems, pvUncachedTemperature);
+                        }
+                    }
+                }));
+            }
+        } catch (RejectedExecutionException e) {
+            logger.debug("Binding is deactivated, not reading all devices");
+        }
 
-            String lvReadValue = OneWireConnection.readFromOneWire(pvBindingConfig);
+        for (Future<?> lvFuture : lvFutures) {
+            try {
+                lvFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Error reading from 1-Wire", e.getCause());
+            }
+        }
+    }
 
-            Item lvItem = getItem(pvItemName);
+    /**
+     * Update the items of a device with values from its 1-wire device properties
+     *
+     * @param pvDeviceItems itemName -> bindingConfig
+     * @param pvUncachedTemperature
+     */
+    private void updateDeviceItems(Map<String, AbstractOneWireDevicePropertyBindingConfig> pvDeviceItems,
+            boolean pvUncachedTemperature) {
+        Map<String, String> lvReadValues = OneWireConnection.readFromOneWire(
+                new ArrayList<AbstractOneWireDevicePropertyBindingConfig>(pvDeviceItems.values()),
+                pvUncachedTemperature);
+
+        for (Map.Entry<String, AbstractOneWireDevicePropertyBindingConfig> lvEntry : pvDeviceItems.entrySet()) {
+            String lvItemName = lvEntry.getKey();
+            AbstractOneWireDevicePropertyBindingConfig lvBindingConfig = lvEntry.getValue();
+            String lvReadValue = lvReadValues.get(lvBindingConfig.getDevicePropertyPath());
+
+            Item lvItem = getItem(lvItemName);
             if (lvReadValue != null) {
-                Type lvNewType = pvBindingConfig.convertReadValueToType(lvReadValue);
+                Type lvNewType = lvBindingConfig.convertReadValueToType(lvReadValue);
                 if (lvItem != null) {
                     postUpdate(lvItem, lvNewType);
                 } else {
-                    logger.error("There is no Item for ItemName={}", pvItemName);
+                    logger.error("There is no Item for ItemName={}", lvItemName);
                 }
             } else {
-                String lvLogText = "Set Item for itemName=" + pvItemName
+                String lvLogText = "Set Item for itemName=" + lvItemName
                         + " to Undefined, because the readvalue is null";
-                if (pvBindingConfig.isIgnoreReadErrors()) {
+                if (lvBindingConfig.isIgnoreReadErrors()) {
                     logger.debug(lvLogText);
                 } else {
                     logger.error(lvLogText);
@@ -329,6 +481,25 @@ public class OneWireBinding extends AbstractBinding<OneWireBindingProvider>
         }
     }
 
+    /**
+     * Logs the latency of the reads per path
+     *
+     * @param pvForce false to log at most once per {@link #READ_STATISTICS_LOG_INTERVAL}
+     */
+    private void logReadStatistics(boolean pvForce) {
+        long lvNow = System.currentTimeMillis();
+        if (!logger.isDebugEnabled()
+                || (!pvForce && lvNow - ivLastReadStatisticsLog < READ_STATISTICS_LOG_INTERVAL)) {
+            return;
+        }
+        ivLastReadStatisticsLog = lvNow;
+
+        for (Map.Entry<String, PathStatistics> lvEntry : OneWireConnection.getReadStatistics().getAllStatistics()
+                .entrySet()) {
+            logger.debug("Read statistics for {}: {}", lvEntry.getKey(), lvEntry.getValue());
+        }
+    }
+
     private void postUpdate(Item pvItem, Type pvNewType) {
         synchronized (pvItem) {
             State lvNewState = (State) pvNewType;
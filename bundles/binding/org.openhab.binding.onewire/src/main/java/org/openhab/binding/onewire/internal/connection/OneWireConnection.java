@@ -13,19 +13,18 @@
 package org.openhab.binding.onewire.internal.connection;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.onewire.internal.deviceproperties.AbstractOneWireDevicePropertyBindingConfig;
 import org.osgi.service.cm.ConfigurationException;
-import org.owfs.jowfsclient.Enums.OwBusReturn;
-import org.owfs.jowfsclient.Enums.OwPersistence;
 import org.owfs.jowfsclient.Enums.OwTemperatureScale;
 import org.owfs.jowfsclient.OwfsConnection;
-import org.owfs.jowfsclient.OwfsConnectionConfig;
-import org.owfs.jowfsclient.OwfsConnectionFactory;
 import org.owfs.jowfsclient.OwfsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +32,9 @@ import org.slf4j.LoggerFactory;
 /**
  * This class establishes the connection to the 1-Wire-bus.
  *
+ * The requests are sent through a pool of persistent connections to the
+ * owserver, so several devices can be read at the same time.
+ *
  * @author Dennis Riegelbauer
  * @author Chris Carman (added server connection retry logic)
  * @since 1.7.0
@@ -43,9 +45,29 @@ public class OneWireConnection {
     private static final Logger logger = LoggerFactory.getLogger(OneWireConnection.class);
 
     /**
-     * Connection to the owserver server
+     * Path to start the temperature conversion of all sensors on the bus at once
+     */
+    private static final String SIMULTANEOUS_TEMPERATURE_PATH = "/simultaneous/temperature";
+
+    /**
+     * Prefix of paths which are read from the devices, bypassing the cache of the owserver
+     */
+    private static final String UNCACHED_PATH_PREFIX = "/uncached/";
+
+    /**
+     * Connections to the owserver server
+     */
+    private static OneWireConnectionPool cvConnectionPool = null;
+
+    /**
+     * the maximum number of connections to the owserver (can be set in obenHab.cfg)
      */
-    private static OwfsConnection cvOwConnection = null;
+    private static int cvConnectionPoolSize = 3;
+
+    /**
+     * latency of the requests to the owserver per path
+     */
+    private static final OneWireReadStatistics cvReadStatistics = new OneWireReadStatistics();
 
     /**
      * ip of the owserver (must be set in obenHab.cfg)
@@ -85,84 +107,144 @@ public class OneWireConnection {
     private static boolean cvIsEstablished = false;
 
     /**
-     * Returns an OwfsConnection
+     * time of the last connection attempt in milliseconds
+     */
+    private static long cvLastConnectAttempt = 0;
+
+    /**
+     * Returns the pool of connections to the owserver, connecting if the
+     * connection hasn't been established yet. If the owserver couldn't be
+     * reached, the connection is attempted again once the retry interval has
+     * passed, until then the caller fails fast.
      *
-     * @return the OwfsConnection network link
+     * @return the pool or <code>null</code> if the owserver can't be reached
      */
-    public static synchronized OwfsConnection getConnection() {
-        if (cvOwConnection == null) {
-            if (!connect()) {
+    private static OneWireConnectionPool getConnectionPool() {
+        synchronized (OneWireConnection.class) {
+            if (cvConnectionPool != null) {
+                return cvConnectionPool;
+            }
+            if (System.currentTimeMillis() - cvLastConnectAttempt < cvServerRetryInterval * 1000L) {
+                logger.debug("Not connected to owserver [IP '{}' Port '{}'], waiting for the next connection attempt",
+                        cvIp, cvPort);
                 return null;
             }
         }
-        return cvOwConnection;
+        if (!attemptConnect()) {
+            logger.warn("Couldn't connect to owserver [IP '{}' Port '{}']. Will retry in {} seconds.", cvIp, cvPort,
+                    cvServerRetryInterval);
+        }
+        synchronized (OneWireConnection.class) {
+            return cvConnectionPool;
+        }
+    }
+
+    /**
+     * @return true if the connection to the owserver is established or could be
+     *         established, without waiting for a connection attempt
+     */
+    public static boolean isConnectionAvailable() {
+        return getConnectionPool() != null;
     }
 
     /**
      * Tries to connect either by IP or serial bus, depending on supplied config data.
+     * Failed attempts are retried <code>server_retries</code> times after waiting
+     * <code>server_retryInterval</code> seconds each.
      *
      * @return true if connection was established, false otherwise
      */
-    public static synchronized boolean connect() {
-        OwfsConnectionFactory owfsConnectorFactory = new OwfsConnectionFactory(cvIp, cvPort);
-        OwfsConnectionConfig owConnectionConfig = new OwfsConnectionConfig(cvIp, cvPort);
-        owConnectionConfig.setTemperatureScale(cvTempScale);
-        owConnectionConfig.setPersistence(OwPersistence.ON);
-        owConnectionConfig.setBusReturn(OwBusReturn.ON);
-        owfsConnectorFactory.setConnectionConfig(owConnectionConfig);
-
-        cvOwConnection = owfsConnectorFactory.createNewConnection();
-
-        boolean connected = false;
-        int attempts = 0, retriesRemaining = cvServerRetries;
-        List<String> result = null;
-
-        try {
-            result = cvOwConnection.listDirectory("/");
-            if (result != null) {
-                connected = true;
-            } else {
-                cvIsEstablished = false;
+    public static boolean connect() {
+        synchronized (OneWireConnection.class) {
+            if (cvConnectionPool != null) {
+                cvConnectionPool.close();
+                cvConnectionPool = null;
             }
-        } catch (OwfsException oe) {
-            logger.warn("Unexpected owfs exception: {}", oe.getMessage(), oe);
-        } catch (IOException e) {
-            logger.warn("Unexpected connection failure.", e);
+            cvIsEstablished = false;
         }
 
+        int attempts = 0, retriesRemaining = cvServerRetries;
+        boolean connected = attemptConnect();
+
         while (!connected && retriesRemaining > 0) {
             logger.warn("Connection failed. Will retry in {} seconds.", cvServerRetryInterval);
-            synchronized (cvOwConnection) {
-                try {
-                    cvOwConnection.wait(cvServerRetryInterval * 1000L);
-                } catch (InterruptedException e) {
-                    logger.debug("Wait was interrupted.");
-                }
+            try {
+                Thread.sleep(cvServerRetryInterval * 1000L);
+            } catch (InterruptedException e) {
+                logger.debug("Wait was interrupted.");
+                Thread.currentThread().interrupt();
+                break;
             }
             attempts++;
             retriesRemaining--;
             logger.info("Retrying failed connection... Attempt {} of {}.", attempts, cvServerRetries);
-            try {
-                result = cvOwConnection.listDirectory("/");
-                if (result != null) {
-                    connected = true;
-                }
-            } catch (OwfsException oe) {
-                logger.warn("Unexpected owfs exception: {}", oe.getMessage(), oe);
-            } catch (IOException e) {
-                logger.warn("Unexpected connection failure.", e);
-            }
+            connected = attemptConnect();
         }
 
         if (!connected) {
             logger.error("Couldn't connect to owserver [IP '{}' Port '{}']", cvIp, cvPort);
-            cvIsEstablished = false;
+        }
+        return connected;
+    }
+
+    /**
+     * Tries once to connect to the owserver. The owserver is contacted without
+     * holding the lock of this class, so reads and writes fail fast meanwhile.
+     *
+     * @return true if connection was established, false otherwise
+     */
+    private static boolean attemptConnect() {
+        OneWireConnectionPool lvConnectionPool;
+        synchronized (OneWireConnection.class) {
+            cvLastConnectAttempt = System.currentTimeMillis();
+            lvConnectionPool = new OneWireConnectionPool(cvIp, cvPort, cvTempScale, cvConnectionPoolSize);
+        }
+
+        if (!checkConnection(lvConnectionPool)) {
+            lvConnectionPool.close();
             return false;
         }
 
-        logger.info("Connected to owserver [IP '{}' Port '{}']", cvIp, cvPort);
-        cvIsEstablished = true;
-        return true;
+        synchronized (OneWireConnection.class) {
+            if (cvConnectionPool != null) {
+                // connected by another thread meanwhile
+                lvConnectionPool.close();
+                return true;
+            }
+            logger.info("Connected to owserver [IP '{}' Port '{}'] with up to {} connections", cvIp, cvPort,
+                    cvConnectionPoolSize);
+            cvConnectionPool = lvConnectionPool;
+            cvIsEstablished = true;
+            return true;
+        }
+    }
+
+    /**
+     * Checks if the owserver can be reached through a connection of the pool
+     *
+     * @param pvConnectionPool
+     * @return true if the owserver has answered
+     */
+    private static boolean checkConnection(OneWireConnectionPool pvConnectionPool) {
+        OwfsConnection lvConnection = null;
+        boolean lvConnected = false;
+        try {
+            lvConnection = pvConnectionPool.borrow();
+            lvConnected = lvConnection.listDirectory("/") != null;
+        } catch (OwfsException oe) {
+            logger.warn("Unexpected owfs exception: {}", oe.getMessage(), oe);
+        } catch (IOException | NullPointerException e) {
+            logger.warn("Unexpected connection failure.", e);
+        } finally {
+            if (lvConnection != null) {
+                if (lvConnected) {
+                    pvConnectionPool.release(lvConnection);
+                } else {
+                    pvConnectionPool.discard(lvConnection);
+                }
+            }
+        }
+        return lvConnected;
     }
 
     /**
@@ -170,25 +252,50 @@ public class OneWireConnection {
      *
      * @return
      */
-    public static synchronized boolean reconnect() {
+    public static boolean reconnect() {
         logger.info("Trying to reconnect to owserver...");
-        try {
-            cvOwConnection.disconnect();
-        } catch (Exception lvException) {
-            logger.error("Error while disconnecting from owserver: ", lvException);
+        return connect();
+    }
+
+    /**
+     * Closes all connections to owserver
+     */
+    public static synchronized void disconnect() {
+        if (cvConnectionPool != null) {
+            logger.debug("Closing connections to owserver");
+            cvConnectionPool.close();
+            cvConnectionPool = null;
         }
-        cvOwConnection = null;
         cvIsEstablished = false;
-        return connect();
+        cvLastConnectAttempt = 0;
     }
 
-    public static synchronized void updated(Dictionary<String, ?> pvConfig) throws ConfigurationException {
+    public static void updated(Dictionary<String, ?> pvConfig) throws ConfigurationException {
         if (pvConfig == null) {
             logger.debug(
                     "OneWireBinding configuration is not present. Please check your configuration file or if not needed remove the OneWireBinding addon.");
             return;
         }
 
+        // connect outside of the lock, as failed attempts wait for the retry interval
+        if (configure(pvConfig)) {
+            logger.debug("Not connected to owserver yet. Trying to connect...");
+            if (!connect()) {
+                logger.warn("Connection to owserver failed!");
+            } else {
+                logger.debug("Success: connected to owserver.");
+            }
+        }
+    }
+
+    /**
+     * Applies the configuration
+     *
+     * @param pvConfig
+     * @return true if the connection to the owserver hasn't been established yet
+     * @throws ConfigurationException
+     */
+    private static synchronized boolean configure(Dictionary<String, ?> pvConfig) throws ConfigurationException {
         logger.debug("OneWire configuration present. Setting up owserver connection.");
         cvIp = Objects.toString(pvConfig.get("ip"), null);
         if (StringUtils.isBlank(cvIp)) {
@@ -242,14 +349,18 @@ public class OneWireConnection {
         }
         logger.debug("onewire:server_retryInterval = {} seconds", cvServerRetryInterval);
 
-        if (cvOwConnection == null) {
-            logger.debug("Not connected to owserver yet. Trying to connect...");
-            if (!connect()) {
-                logger.warn("Connection to owserver failed!");
-            } else {
-                logger.debug("Success: connected to owserver.");
+        String lvConnectionsString = Objects.toString(pvConfig.get("connections"), null);
+        if (StringUtils.isNotBlank(lvConnectionsString)) {
+            cvConnectionPoolSize = Integer.parseInt(lvConnectionsString);
+            if (cvConnectionPoolSize < 1) {
+                logger.error("owserver connections was configured with an invalid value: {}", cvConnectionPoolSize);
+                throw new ConfigurationException("onewire:connections",
+                        "owserver connections was configured with an invalid value: " + cvConnectionPoolSize);
             }
         }
+        logger.debug("onewire:connections = {}", cvConnectionPoolSize);
+
+        return cvConnectionPool == null;
     }
 
     /**
@@ -260,21 +371,66 @@ public class OneWireConnection {
     }
 
     /**
-     * Checks if an device exists in 1-Wire network
+     * @return the maximum number of connections to the owserver, which is the
+     *         number of devices that can be read at the same time
+     */
+    public static int getConnectionPoolSize() {
+        return cvConnectionPoolSize;
+    }
+
+    /**
+     * @return latency of the requests to the owserver per path
+     */
+    public static OneWireReadStatistics getReadStatistics() {
+        return cvReadStatistics;
+    }
+
+    /**
+     * Starts the temperature conversion of all temperature sensors on the bus
+     * at once. The temperatures can be read from the uncached paths afterwards
+     * without waiting for the conversion of every single sensor.
      *
-     * @param pvDevicePropertyPath
-     * @return
-     * @throws IOException
-     * @throws OwfsException
+     * @return true if the conversion has been started
      */
-    private static synchronized boolean checkIfDeviceExists(String pvDevicePropertyPath)
-            throws IOException, OwfsException {
-        String[] pvDevicePropertyPathParts = pvDevicePropertyPath.trim().split("/");
+    public static boolean startSimultaneousTemperatureConversion() {
+        OneWireConnectionPool lvConnectionPool = getConnectionPool();
+        if (lvConnectionPool == null) {
+            return false;
+        }
 
-        String lvDevicePath = pvDevicePropertyPathParts[0];
-        logger.debug("check if device exists '{}': ", new Object[] { lvDevicePath });
+        OwfsConnection lvConnection = null;
+        boolean lvSuccess = false;
+        long lvStart = System.nanoTime();
+        try {
+            lvConnection = lvConnectionPool.borrow();
+            lvConnection.write(SIMULTANEOUS_TEMPERATURE_PATH, "1");
+            lvSuccess = true;
+            logger.debug("Started simultaneous temperature conversion");
+        } catch (OwfsException oe) {
+            logger.debug("Simultaneous temperature conversion is not supported by owserver: {}", oe.getMessage());
+        } catch (IOException | NullPointerException e) {
+            logger.debug("Couldn't start simultaneous temperature conversion: {}", e.toString());
+            if (lvConnection != null) {
+                lvConnectionPool.discard(lvConnection);
+                lvConnection = null;
+            }
+        } finally {
+            cvReadStatistics.record(SIMULTANEOUS_TEMPERATURE_PATH, System.nanoTime() - lvStart, lvSuccess);
+            if (lvConnection != null) {
+                lvConnectionPool.release(lvConnection);
+            }
+        }
+        return lvSuccess;
+    }
 
-        return OneWireConnection.getConnection().exists(lvDevicePath);
+    /**
+     * Checks if a temperature is converted by a simultaneous temperature conversion
+     *
+     * @param pvBindingConfig
+     * @return true if the property is the temperature of the device
+     */
+    public static boolean isSimultaneousTemperature(AbstractOneWireDevicePropertyBindingConfig pvBindingConfig) {
+        return "temperature".equals(pvBindingConfig.getPropertyName());
     }
 
     /**
@@ -283,57 +439,122 @@ public class OneWireConnection {
      * @param pvDevicePropertyPath
      * @return device property value as String
      */
-    public static synchronized String readFromOneWire(AbstractOneWireDevicePropertyBindingConfig pvBindingConfig) {
-        String lvDevicePropertyPath = pvBindingConfig.getDevicePropertyPath();
+    public static String readFromOneWire(AbstractOneWireDevicePropertyBindingConfig pvBindingConfig) {
+        Map<String, String> lvValues = readFromOneWire(
+                Collections.<AbstractOneWireDevicePropertyBindingConfig> singletonList(pvBindingConfig), false);
+        return lvValues.get(pvBindingConfig.getDevicePropertyPath());
+    }
+
+    /**
+     * Reads the values of several properties of one device from 1-Wire
+     * network. All properties are read through the same connection, and the
+     * existence of the device is checked only once. Properties with the same
+     * path are read only once.
+     *
+     * @param pvBindingConfigs the properties of the device
+     * @param pvUncachedTemperature true if the temperature is read bypassing the cache of the owserver, as a
+     *            simultaneous temperature conversion has been started
+     * @return device property path -> value as String, or <code>null</code> if the value couldn't be read
+     */
+    public static Map<String, String> readFromOneWire(List<AbstractOneWireDevicePropertyBindingConfig> pvBindingConfigs,
+            boolean pvUncachedTemperature) {
+        Map<String, String> lvValues = new HashMap<String, String>();
 
-        int lvAttempt = 1;
-        while (lvAttempt <= cvRetry) {
-            try {
-                logger.debug("trying to read from '{}', read attempt={}",
-                        new Object[] { lvDevicePropertyPath, lvAttempt });
-                if (checkIfDeviceExists(lvDevicePropertyPath)) {
-                    String lvReadValue = OneWireConnection.getConnection().read(lvDevicePropertyPath);
-                    logger.debug("Read value '{}' from {}, read attempt={}",
-                            new Object[] { lvReadValue, lvDevicePropertyPath, lvAttempt });
-
-                    // Test
-                    if (pvBindingConfig.isIgnore85CPowerOnResetValues()) {
-                        double lvReadDouble = Double.parseDouble(lvReadValue);
-                        if (lvReadDouble == 85.0) {
-                            logger.debug("reading from path '{}' attempt {}. Ignoring 85C value", lvDevicePropertyPath,
+        OneWireConnectionPool lvConnectionPool = getConnectionPool();
+        if (lvConnectionPool == null) {
+            return lvValues;
+        }
+
+        OwfsConnection lvConnection = null;
+        boolean lvDeviceExists = false;
+        boolean lvDeviceMissing = false;
+        try {
+            for (AbstractOneWireDevicePropertyBindingConfig lvBindingConfig : pvBindingConfigs) {
+                String lvDevicePropertyPath = lvBindingConfig.getDevicePropertyPath();
+                if (lvValues.containsKey(lvDevicePropertyPath)) {
+                    continue;
+                }
+                if (lvDeviceMissing) {
+                    // all attempts to find the device have failed for the previous property
+                    lvValues.put(lvDevicePropertyPath, null);
+                    continue;
+                }
+
+                String lvReadPath = lvDevicePropertyPath;
+                if (pvUncachedTemperature && isSimultaneousTemperature(lvBindingConfig)) {
+                    lvReadPath = UNCACHED_PATH_PREFIX + lvDevicePropertyPath;
+                }
+
+                String lvValue = null;
+                int lvAttempt = 1;
+                while (lvValue == null && lvAttempt <= cvRetry) {
+                    long lvStart = 0;
+                    boolean lvSuccess = false;
+                    try {
+                        if (lvConnection == null) {
+                            lvConnection = lvConnectionPool.borrow();
+                        }
+
+                        logger.debug("trying to read from '{}', read attempt={}", lvReadPath, lvAttempt);
+                        if (!lvDeviceExists) {
+                            logger.debug("check if device exists '{}': ", lvBindingConfig.getDeviceId());
+                            lvDeviceExists = lvConnection.exists(lvBindingConfig.getDeviceId());
+                        }
+
+                        if (lvDeviceExists) {
+                            lvStart = System.nanoTime();
+                            String lvReadValue = lvConnection.read(lvReadPath);
+                            lvSuccess = true;
+                            logger.debug("Read value '{}' from {}, read attempt={}", lvReadValue, lvReadPath,
                                     lvAttempt);
+
+                            if (lvBindingConfig.isIgnore85CPowerOnResetValues()
+                                    && Double.parseDouble(lvReadValue) == 85.0) {
+                                logger.debug("reading from path '{}' attempt {}. Ignoring 85C value", lvReadPath,
+                                        lvAttempt);
+                            } else {
+                                lvValue = lvReadValue;
+                            }
+                        } else {
+                            logger.info("there is no device for path {}, read attempt={}", lvReadPath, lvAttempt);
+                        }
+                    } catch (OwfsException oe) {
+                        String lvLogText = "reading from path " + lvReadPath + " attempt " + lvAttempt
+                                + " throws exception";
+                        if (lvBindingConfig.isIgnoreReadErrors()) {
+                            logger.debug(lvLogText, oe);
                         } else {
-                            return lvReadValue;
+                            logger.error(lvLogText, oe);
+                        }
+                    } catch (NumberFormatException lvNumberFormatException) {
+                        logger.error(
+                                "Ignoring 85C PowerOnReset values can only be used with temperature sensors! Read a value, which is not a number");
+                    } catch (IOException | NullPointerException e) {
+                        // the client fails with a NullPointerException if owserver has closed the session
+                        logger.error("couldn't establish network connection while read attempt {} '{}' ip:port={}:{}",
+                                lvAttempt, lvReadPath, cvIp, cvPort, e);
+                        if (lvConnection != null) {
+                            lvConnectionPool.discard(lvConnection);
+                            lvConnection = null;
+                        }
+                    } finally {
+                        if (lvStart != 0) {
+                            cvReadStatistics.record(lvDevicePropertyPath, System.nanoTime() - lvStart, lvSuccess);
                         }
-                    } else {
-                        return lvReadValue;
+                        lvAttempt++;
                     }
-                } else {
-                    logger.info("there is no device for path {}, read attempt={}",
-                            new Object[] { lvDevicePropertyPath, lvAttempt });
                 }
-            } catch (OwfsException oe) {
-                String lvLogText = "reading from path " + lvDevicePropertyPath + " attempt " + lvAttempt
-                        + " throws exception";
-                if (pvBindingConfig.isIgnoreReadErrors()) {
-                    logger.debug(lvLogText, oe);
-                } else {
-                    logger.error(lvLogText, oe);
-                    reconnect();
-                }
-            } catch (IOException ioe) {
-                logger.error("couldn't establish network connection while read attempt {} '{}' ip:port={}:{}",
-                        lvAttempt, lvDevicePropertyPath, cvIp, cvPort, ioe);
-                reconnect();
-            } catch (NumberFormatException lvNumberFormatException) {
-                logger.error(
-                        "Ignoring 85C PowerOnReset values can only be used with temperature sensors! Read a value, which is not a number");
-            } finally {
-                lvAttempt++;
+
+                lvDeviceMissing = !lvDeviceExists;
+                lvValues.put(lvDevicePropertyPath, lvValue);
+            }
+        } finally {
+            if (lvConnection != null) {
+                lvConnectionPool.release(lvConnection);
             }
         }
 
-        return null;
+        return lvValues;
     }
 
     /**
@@ -342,14 +563,23 @@ public class OneWireConnection {
      * @param pvDevicePropertyPath
      * @param pvValue
      */
-    public static synchronized void writeToOneWire(String pvDevicePropertyPath, String pvValue) {
+    public static void writeToOneWire(String pvDevicePropertyPath, String pvValue) {
+        OneWireConnectionPool lvConnectionPool = getConnectionPool();
+        if (lvConnectionPool == null) {
+            return;
+        }
+
+        String lvDevicePath = pvDevicePropertyPath.trim().split("/")[0];
+
         int lvAttempt = 1;
         while (lvAttempt <= cvRetry) {
+            OwfsConnection lvConnection = null;
             try {
+                lvConnection = lvConnectionPool.borrow();
                 logger.debug("Trying to write '{}' to '{}', write attempt={}", pvValue, pvDevicePropertyPath,
                         lvAttempt);
-                if (checkIfDeviceExists(pvDevicePropertyPath)) {
-                    OneWireConnection.getConnection().write(pvDevicePropertyPath, pvValue);
+                if (lvConnection.exists(lvDevicePath)) {
+                    lvConnection.write(pvDevicePropertyPath, pvValue);
                     return; // Success, exit
                 } else {
                     logger.info("There is no device for path {}, write attempt={}", pvDevicePropertyPath, lvAttempt);
@@ -357,12 +587,17 @@ public class OneWireConnection {
             } catch (OwfsException oe) {
                 logger.error("Writing {} to path {} attempt {} threw an exception", pvValue, pvDevicePropertyPath,
                         lvAttempt, oe);
-                reconnect();
-            } catch (IOException ioe) {
+            } catch (IOException | NullPointerException e) {
                 logger.error("Couldn't establish network connection while write attempt {} to '{}' ip:port={}:{}",
-                        lvAttempt, pvDevicePropertyPath, cvIp, cvPort, ioe);
-                reconnect();
+                        lvAttempt, pvDevicePropertyPath, cvIp, cvPort, e);
+                if (lvConnection != null) {
+                    lvConnectionPool.discard(lvConnection);
+                    lvConnection = null;
+                }
             } finally {
+                if (lvConnection != null) {
+                    lvConnectionPool.release(lvConnection);
+                }
                 lvAttempt++;
             }
         }
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.onewire.internal.connection;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.owfs.jowfsclient.Enums.OwBusReturn;
+import org.owfs.jowfsclient.Enums.OwPersistence;
+import org.owfs.jowfsclient.Enums.OwTemperatureScale;
+import org.owfs.jowfsclient.OwfsConnection;
+import org.owfs.jowfsclient.OwfsConnectionConfig;
+import org.owfs.jowfsclient.OwfsConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of connections to an owserver. Every connection requests a persistent
+ * session, so the socket is kept open between requests as long as the owserver
+ * grants it. A connection is used by one thread at a time: it is borrowed with
+ * {@link #borrow()} and handed back with {@link #release(OwfsConnection)}, or
+ * with {@link #discard(OwfsConnection)} if it failed.
+ * <p>
+ * Connections are created when they are needed, up to the size of the pool.
+ * The most recently released connection is borrowed first, so the sessions of
+ * idle connections aren't kept busy needlessly.
+ *
+ * @since 1.14.0
+ */
+final class OneWireConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(OneWireConnectionPool.class);
+
+    private final String ivIp;
+
+    private final int ivPort;
+
+    private final OwTemperatureScale ivTempScale;
+
+    private final int ivSize;
+
+    /**
+     * connections which are not borrowed
+     */
+    private final Deque<OwfsConnection> ivIdleConnections = new ArrayDeque<OwfsConnection>();
+
+    /**
+     * number of connections which have been created and not been discarded
+     */
+    private int ivOpenConnections = 0;
+
+    private boolean ivIsClosed = false;
+
+    /**
+     * @param pvIp ip of the owserver
+     * @param pvPort port of the owserver
+     * @param pvTempScale the temperature scale the owserver returns temperatures in
+     * @param pvSize the maximum number of connections
+     */
+    OneWireConnectionPool(String pvIp, int pvPort, OwTemperatureScale pvTempScale, int pvSize) {
+        this.ivIp = pvIp;
+        this.ivPort = pvPort;
+        this.ivTempScale = pvTempScale;
+        this.ivSize = pvSize;
+    }
+
+    /**
+     * @return the maximum number of connections
+     */
+    int getSize() {
+        return ivSize;
+    }
+
+    /**
+     * Borrows a connection, waiting until one is available if all connections
+     * are in use.
+     *
+     * @return the connection
+     * @throws IOException if the pool has been closed or the thread has been interrupted
+     */
+    synchronized OwfsConnection borrow() throws IOException {
+        while (!ivIsClosed) {
+            OwfsConnection lvConnection = ivIdleConnections.pollFirst();
+            if (lvConnection != null) {
+                return lvConnection;
+            }
+            if (ivOpenConnections < ivSize) {
+                ivOpenConnections++;
+                logger.debug("Opening connection {} of {} to owserver [IP '{}' Port '{}']", ivOpenConnections, ivSize,
+                        ivIp, ivPort);
+                return createConnection();
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for a connection to owserver");
+            }
+        }
+        throw new IOException("connection pool to owserver has been closed");
+    }
+
+    /**
+     * Hands back a connection, which can be used by the next thread.
+     *
+     * @param pvConnection the borrowed connection
+     */
+    synchronized void release(OwfsConnection pvConnection) {
+        if (ivIsClosed) {
+            ivOpenConnections--;
+            disconnect(pvConnection);
+            return;
+        }
+        ivIdleConnections.addFirst(pvConnection);
+        notify();
+    }
+
+    /**
+     * Closes a connection that failed. A new connection is opened when it is
+     * needed next time.
+     *
+     * @param pvConnection the borrowed connection
+     */
+    synchronized void discard(OwfsConnection pvConnection) {
+        ivOpenConnections--;
+        disconnect(pvConnection);
+        notify();
+    }
+
+    /**
+     * Closes all connections. Borrowed connections are closed when they are
+     * handed back.
+     */
+    synchronized void close() {
+        ivIsClosed = true;
+        for (OwfsConnection lvConnection : ivIdleConnections) {
+            ivOpenConnections--;
+            disconnect(lvConnection);
+        }
+        ivIdleConnections.clear();
+        notifyAll();
+    }
+
+    private OwfsConnection createConnection() {
+        // every connection needs a config of its own, as the client stores whether
+        // the owserver has granted a persistent session in the flags of the config
+        OwfsConnectionConfig lvConfig = new OwfsConnectionConfig(ivIp, ivPort);
+        lvConfig.setTemperatureScale(ivTempScale);
+        lvConfig.setPersistence(OwPersistence.ON);
+        lvConfig.setBusReturn(OwBusReturn.ON);
+        return OwfsConnectionFactory.newOwfsClient(lvConfig);
+    }
+
+    private void disconnect(OwfsConnection pvConnection) {
+        try {
+            pvConnection.disconnect();
+        } catch (IOException e) {
+            logger.debug("Error while disconnecting from owserver: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.onewire.internal.connection;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the requests to the owserver per path. Every request is recorded
+ * with the time it took, including requests which failed, so slow or
+ * unreliable devices can be spotted on the bus.
+ *
+ * @since 1.14.0
+ */
+public class OneWireReadStatistics {
+
+    /**
+     * Latency of the requests to one path.
+     */
+    public static final class PathStatistics {
+        private long ivCount = 0;
+        private long ivErrors = 0;
+        private long ivTotalNanos = 0;
+        private long ivMaxNanos = 0;
+        private long ivLastNanos = 0;
+
+        private synchronized void record(long pvNanos, boolean pvSuccess) {
+            ivCount++;
+            if (!pvSuccess) {
+                ivErrors++;
+            }
+            ivTotalNanos += pvNanos;
+            ivLastNanos = pvNanos;
+            if (pvNanos > ivMaxNanos) {
+                ivMaxNanos = pvNanos;
+            }
+        }
+
+        /**
+         * @return the number of requests
+         */
+        public synchronized long getCount() {
+            return ivCount;
+        }
+
+        /**
+         * @return the number of requests which failed
+         */
+        public synchronized long getErrors() {
+            return ivErrors;
+        }
+
+        /**
+         * @return the average time of a request in milliseconds
+         */
+        public synchronized double getAverageMillis() {
+            return ivCount == 0 ? 0 : ivTotalNanos / (double) ivCount / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * @return the time of the slowest request in milliseconds
+         */
+        public synchronized double getMaxMillis() {
+            return ivMaxNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * @return the time of the last request in milliseconds
+         */
+        public synchronized double getLastMillis() {
+            return ivLastNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("count=%d errors=%d avg=%.1fms max=%.1fms last=%.1fms", ivCount, ivErrors,
+                    getAverageMillis(), getMaxMillis(), getLastMillis());
+        }
+    }
+
+    private final ConcurrentMap<String, PathStatistics> ivPaths = new ConcurrentHashMap<String, PathStatistics>();
+
+    /**
+     * Records a request.
+     *
+     * @param pvPath the requested path
+     * @param pvNanos the time the request took in nanoseconds
+     * @param pvSuccess false if the request failed
+     */
+    public void record(String pvPath, long pvNanos, boolean pvSuccess) {
+        PathStatistics lvStatistics = ivPaths.get(pvPath);
+        if (lvStatistics == null) {
+            PathStatistics lvNewStatistics = new PathStatistics();
+            lvStatistics = ivPaths.putIfAbsent(pvPath, lvNewStatistics);
+            if (lvStatistics == null) {
+                lvStatistics = lvNewStatistics;
+            }
+        }
+        lvStatistics.record(pvNanos, pvSuccess);
+    }
+
+    /**
+     * @param pvPath the requested path
+     * @return the statistics of the path, or <code>null</code> if the path hasn't been requested
+     */
+    public PathStatistics getStatistics(String pvPath) {
+        return ivPaths.get(pvPath);
+    }
+
+    /**
+     * @return the statistics of all requested paths, sorted by path
+     */
+    public Map<String, PathStatistics> getAllStatistics() {
+        return new TreeMap<String, PathStatistics>(ivPaths);
+    }
+
+    /**
+     * Removes all statistics
+     */
+    public void clear() {
+        ivPaths.clear();
+    }
+}
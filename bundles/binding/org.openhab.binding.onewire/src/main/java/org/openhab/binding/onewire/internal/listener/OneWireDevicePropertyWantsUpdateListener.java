@@ -13,6 +13,7 @@
 package org.openhab.binding.onewire.internal.listener;
 
 import java.util.EventListener;
+import java.util.List;
 
 /**
  * This Interface definies a Listener for Items which wanted to be updated
@@ -24,10 +25,11 @@ import java.util.EventListener;
 public interface OneWireDevicePropertyWantsUpdateListener extends EventListener {
 
     /**
-     * This method must be implemenented by the classes, which implements the Listener
+     * This method must be implemenented by the classes, which implements the Listener.
+     * It is called with all items which want to be updated at the same time, so they can be read together.
      * 
-     * @param wantsUpdateEvent
+     * @param wantsUpdateEvents
      */
-    public void devicePropertyWantsUpdate(OneWireDevicePropertyWantsUpdateEvent wantsUpdateEvent);
+    public void devicePropertiesWantUpdate(List<OneWireDevicePropertyWantsUpdateEvent> wantsUpdateEvents);
 
 }
@@ -325,15 +325,19 @@ public class OneWireUpdateScheduler {
 
                         ivOneWireUpdateTask.start();
                     }
+                    // lock the queue, so the reader task takes all items of the list at once
                     synchronized (lvItemNameList) {
-                        // increase performance one slower systems on startup
-                        // only add items to queue which aren't already in queue
-                        for (String lvItemName : lvItemNameList) {
-                            if (!ivUpdateQueue.contains(lvItemName)) {
-                                logger.debug("add item {} to updateQueue", lvItemName);
-                                ivUpdateQueue.add(lvItemName);
-                            } else {
-                                logger.debug("didn't add item {} to updateQueue; it is already there", lvItemName);
+                        synchronized (ivUpdateQueue) {
+                            // increase performance one slower systems on startup
+                            // only add items to queue which aren't already in queue
+                            for (String lvItemName : lvItemNameList) {
+                                if (!ivUpdateQueue.contains(lvItemName)) {
+                                    logger.debug("add item {} to updateQueue", lvItemName);
+                                    ivUpdateQueue.add(lvItemName);
+                                } else {
+                                    logger.debug("didn't add item {} to updateQueue; it is already there",
+                                            lvItemName);
+                                }
                             }
                         }
                     }
@@ -15,6 +15,8 @@
  */
 package org.openhab.binding.onewire.internal.scheduler;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 import org.openhab.binding.onewire.internal.listener.OneWireDevicePropertyWantsUpdateListener;
@@ -60,9 +62,20 @@ public class OneWireUpdateTask extends Thread {
                 logger.debug("Autorefresh: got new item {} in update queue", lvItemName);
 
                 if (lvItemName != null) {
-                    logger.debug("Autorefresh: Trying to update Item: {}", lvItemName);
-                    ivWantsUpdateListener
-                            .devicePropertyWantsUpdate(new OneWireDevicePropertyWantsUpdateEvent(this, lvItemName));
+                    // The items of a refresh interval are queued at once, so take all of them and
+                    // let them be read together
+                    List<String> lvItemNames = new ArrayList<String>();
+                    lvItemNames.add(lvItemName);
+                    synchronized (ivUpdateQueue) {
+                        ivUpdateQueue.drainTo(lvItemNames);
+                    }
+
+                    List<OneWireDevicePropertyWantsUpdateEvent> lvEvents = new ArrayList<OneWireDevicePropertyWantsUpdateEvent>();
+                    for (String lvName : lvItemNames) {
+                        logger.debug("Autorefresh: Trying to update Item: {}", lvName);
+                        lvEvents.add(new OneWireDevicePropertyWantsUpdateEvent(this, lvName));
+                    }
+                    ivWantsUpdateListener.devicePropertiesWantUpdate(lvEvents);
                 }
             }
         } catch (InterruptedException ex) {
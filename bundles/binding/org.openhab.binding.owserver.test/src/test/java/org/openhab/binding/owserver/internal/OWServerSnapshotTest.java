@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.owserver.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Testcases for the {@link OWServerSnapshot}, parsing a <code>details.xml</code>
+ * captured from an OW-SERVER-ENET-2 with two devices.
+ *
+ * @since 1.14.0
+ */
+public class OWServerSnapshotTest {
+
+    private static final String EDS0068 = "C200100000A1B2C3";
+    private static final String DS18B20 = "5F0000045A1B2C28";
+
+    private OWServerSnapshot snapshot;
+
+    @Before
+    public void setUp() throws IOException, XMLStreamException {
+        byte[] response = Files.readAllBytes(new File("src/test/resources/details.xml").toPath());
+        snapshot = OWServerSnapshot.parse(new String(response, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void findsVariablesOfEveryDevice() {
+        assertEquals(2, snapshot.size());
+        assertEquals("31.8750", snapshot.getVariable(EDS0068, "Temperature"));
+        assertEquals("37.6875", snapshot.getVariable(EDS0068, "Humidity"));
+        assertEquals("1013.2600", snapshot.getVariable(EDS0068, "BarometricPressureMb"));
+        assertEquals("21.6250", snapshot.getVariable(DS18B20, "Temperature"));
+        assertEquals("75", snapshot.getVariable(DS18B20, "UserByte1"));
+    }
+
+    @Test
+    public void trimsValuesSpanningSeveralLines() {
+        assertEquals("1043", snapshot.getVariable(EDS0068, "Light"));
+    }
+
+    @Test
+    public void doesNotReturnVariablesOfServer() {
+        assertNull(snapshot.getVariable(EDS0068, "PollCount"));
+        assertNull(snapshot.getVariable(null, "PollCount"));
+    }
+
+    @Test
+    public void returnsNoValueForMissingDeviceOrVariable() {
+        assertNull(snapshot.getVariable("0000000000000000", "Temperature"));
+        assertNull(snapshot.getVariable(DS18B20, "Humidity"));
+    }
+
+    @Test
+    public void keepsFirstOfSeveralDevicesWithTheSameRomId() throws XMLStreamException {
+        snapshot = OWServerSnapshot.parse("<Devices-Detail-Response>"
+                + "<owd_DS18B20><ROMId>28</ROMId><Temperature>20.5</Temperature></owd_DS18B20>"
+                + "<owd_DS18B20><ROMId>28</ROMId><Temperature>99.0</Temperature></owd_DS18B20>"
+                + "<owd_DS18B20><Temperature>0.0</Temperature></owd_DS18B20></Devices-Detail-Response>");
+
+        assertEquals(1, snapshot.size());
+        assertEquals("20.5", snapshot.getVariable("28", "Temperature"));
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void rejectsMalformedResponse() throws XMLStreamException {
+        OWServerSnapshot.parse("<Devices-Detail-Response><owd_DS18B20>");
+    }
+}
@@ -12,18 +12,23 @@
  */
 package org.openhab.binding.owserver.internal;
 
-import java.io.IOException;
-import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.owserver.OWServerBindingProvider;
@@ -45,12 +50,6 @@ import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 /**
  * An active binding which requests the EDS OWServer data.
@@ -90,6 +89,11 @@ public class OWServerBinding extends AbstractActiveBinding<OWServerBindingProvid
 
     private Map<String, OWServerConfig> serverList = new HashMap<String, OWServerConfig>();
 
+    /**
+     * the threads fetching the responses of several servers at the same time
+     */
+    private volatile ExecutorService fetchExecutor;
+
     public OWServerBinding() {
     }
 
@@ -97,9 +101,20 @@ public class OWServerBinding extends AbstractActiveBinding<OWServerBindingProvid
     public void activate() {
         logger.debug("OWServer: Activate");
 
+        fetchExecutor = Executors.newCachedThreadPool();
         super.activate();
     }
 
+    @Override
+    public void deactivate() {
+        super.deactivate();
+
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdownNow();
+            fetchExecutor = null;
+        }
+    }
+
     /**
      * @{inheritDoc
      */
@@ -113,64 +128,16 @@ public class OWServerBinding extends AbstractActiveBinding<OWServerBindingProvid
         return "OWServer Refresh Service";
     }
 
-    String getVariable(String response, String romId, String name) {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-        // Get the DOM Builder
-        DocumentBuilder builder = null;
-        try {
-            builder = factory.newDocumentBuilder();
-        } catch (ParserConfigurationException e) {
-            logger.error("Error parsing OWServer XML response " + e.getMessage());
-        }
-
-        // Load and Parse the XML document
-        // document contains the complete XML as a Tree.
-        Document document = null;
-        try {
-            InputSource is = new InputSource(new StringReader(response));
-            document = builder.parse(is);
-        } catch (SAXException e) {
-            logger.error("Error reading OWServer XML response " + e.getMessage());
-        } catch (IOException e) {
-            logger.error("Error reading OWServer XML response " + e.getMessage());
-        }
-
-        // Iterating through the nodes and extracting the data.
-        NodeList nodeList = document.getDocumentElement().getChildNodes();
-
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node node = nodeList.item(i);
-            if (node.getNodeName().startsWith("owd_")) {
-                boolean romMatch = false;
-                NodeList childNodes = node.getChildNodes();
-                for (int j = 0; j < childNodes.getLength(); j++) {
-                    Node cNode = childNodes.item(j);
-
-                    // Identifying the child tag of employee encountered.
-                    if (cNode instanceof Element) {
-                        String content = cNode.getLastChild().getTextContent().trim();
-                        if (cNode.getNodeName().equals("ROMId") & content.equals(romId)) {
-                            romMatch = true;
-                        }
-
-                        String nname = cNode.getNodeName();
-                        if (nname.equals(name) & romMatch == true) {
-                            return content;
-                        }
-                    }
-                }
-            }
-        }
-
-        return null;
-    }
-
     /**
      * @{inheritDoc
      */
     @Override
     public void execute() {
+        // Find the items to refresh, and the servers whose cached response has expired
+        List<String> dueItems = new ArrayList<String>();
+        List<OWServerBindingProvider> dueProviders = new ArrayList<OWServerBindingProvider>();
+        Set<OWServerConfig> expiredServers = new LinkedHashSet<OWServerConfig>();
+
         for (OWServerBindingProvider provider : providers) {
             for (String itemName : provider.getInBindingItemNames()) {
                 int refreshInterval = provider.getRefreshInterval(itemName);
@@ -181,65 +148,115 @@ public class OWServerBinding extends AbstractActiveBinding<OWServerBindingProvid
                 }
 
                 long age = System.currentTimeMillis() - lastUpdateTimeStamp;
-                boolean needsUpdate = age >= refreshInterval;
-
-                if (needsUpdate) {
-                    logger.debug("Item '{}' is about to be refreshed now", itemName);
-
-                    // Get the unit serverId from the binding, and relate that to the config
-                    String unit = provider.getServerId(itemName);
-                    OWServerConfig server = serverList.get(unit);
-                    needsUpdate = false;
-                    if (server == null) {
-                        needsUpdate = false;
-                        logger.error("Unknown OW server referenced: " + unit);
-
-                        continue;
-                    } else {
-                        age = System.currentTimeMillis() - server.lastUpdate;
-                        if (age >= cacheDuration) {
-                            needsUpdate = true;
-                        }
-                    }
-
-                    String response = null;
-                    if (needsUpdate == true) {
-                        String address;
-                        if (server.user == null) {
-                            address = "http://" + server.host + "/details.xml";
-                        } else {
-                            address = "http://" + server.user + ":" + server.password + "@" + server.host
-                                    + "/details.xml";
-                        }
-                        logger.debug("Getting OWSERVER data from " + address);
-                        response = HttpUtil.executeUrl("GET", address, timeout);
-                        server.cache = response;
-
-                        if (response == null) {
-                            server.lastUpdate = (long) 0;
-                            logger.error("No response received from '{}'", address);
-                        } else {
-                            server.lastUpdate = System.currentTimeMillis();
-                        }
-                        serverList.put(address, server);
-                    } else {
-                        logger.debug("Using OWSERVER cache");
-                        response = server.cache;
-                    }
-
-                    if (response != null) {
-                        String value = getVariable(response, provider.getRomId(itemName), provider.getName(itemName));
-                        if (value != null) {
-                            Class<? extends Item> itemType = provider.getItemType(itemName);
-                            State state = createState(itemType, value);
-                            eventPublisher.postUpdate(itemName, state);
-                        }
-                    }
-
-                    lastUpdateMap.put(itemName, System.currentTimeMillis());
+                if (age < refreshInterval) {
+                    continue;
+                }
+
+                logger.debug("Item '{}' is about to be refreshed now", itemName);
+
+                // Get the unit serverId from the binding, and relate that to the config
+                String unit = provider.getServerId(itemName);
+                OWServerConfig server = serverList.get(unit);
+                if (server == null) {
+                    logger.error("Unknown OW server referenced: " + unit);
+                    continue;
+                }
+
+                age = System.currentTimeMillis() - server.lastUpdate;
+                if (age >= cacheDuration) {
+                    expiredServers.add(server);
                 }
+                dueItems.add(itemName);
+                dueProviders.add(provider);
             }
         }
+
+        fetchAll(expiredServers);
+
+        for (int i = 0; i < dueItems.size(); i++) {
+            String itemName = dueItems.get(i);
+            OWServerBindingProvider provider = dueProviders.get(i);
+            OWServerConfig server = serverList.get(provider.getServerId(itemName));
+
+            OWServerSnapshot snapshot = server.snapshot;
+            if (snapshot != null) {
+                String value = snapshot.getVariable(provider.getRomId(itemName), provider.getName(itemName));
+                if (value != null) {
+                    Class<? extends Item> itemType = provider.getItemType(itemName);
+                    State state = createState(itemType, value);
+                    eventPublisher.postUpdate(itemName, state);
+                }
+            }
+
+            lastUpdateMap.put(itemName, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Fetches the responses of the given servers. Several servers are
+     * requested at the same time.
+     *
+     * @param servers the servers to fetch the response from
+     */
+    private void fetchAll(Collection<OWServerConfig> servers) {
+        ExecutorService executor = fetchExecutor;
+        if (servers.size() == 1 || executor == null) {
+            for (OWServerConfig server : servers) {
+                fetch(server);
+            }
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (final OWServerConfig server : servers) {
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    fetch(server);
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Error getting OWSERVER data", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Fetches and parses the response of a server.
+     *
+     * @param server the server to fetch the response from
+     */
+    private void fetch(OWServerConfig server) {
+        String address;
+        if (server.user == null) {
+            address = "http://" + server.host + "/details.xml";
+        } else {
+            address = "http://" + server.user + ":" + server.password + "@" + server.host + "/details.xml";
+        }
+        logger.debug("Getting OWSERVER data from " + address);
+        String response = HttpUtil.executeUrl("GET", address, timeout);
+
+        server.snapshot = null;
+        server.lastUpdate = (long) 0;
+        if (response == null) {
+            logger.error("No response received from '{}'", address);
+            return;
+        }
+
+        try {
+            server.snapshot = OWServerSnapshot.parse(response);
+            server.lastUpdate = System.currentTimeMillis();
+        } catch (XMLStreamException e) {
+            logger.error("Error reading OWServer XML response " + e.getMessage());
+        }
     }
 
     /**
@@ -363,7 +380,7 @@ public class OWServerBinding extends AbstractActiveBinding<OWServerBindingProvid
         public String user;
         public String password;
         public Long lastUpdate;
-        public String cache;
+        public volatile OWServerSnapshot snapshot;
 
         OWServerConfig() {
             lastUpdate = (long) 0;
@@ -371,7 +388,8 @@ public class OWServerBinding extends AbstractActiveBinding<OWServerBindingProvid
 
         @Override
         public String toString() {
-            return "OWServerCache [host=" + host + " last=" + lastUpdate + ", cache=" + cache + "]";
+            return "OWServerCache [host=" + host + " last=" + lastUpdate + ", devices="
+                    + (snapshot != null ? snapshot.size() : 0) + "]";
         }
     }
 
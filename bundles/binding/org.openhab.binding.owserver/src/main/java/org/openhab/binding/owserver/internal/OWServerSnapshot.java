@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.owserver.internal;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * The variables of all devices in a <code>details.xml</code> response of an
+ * EDS OWServer. The response is parsed once when it has been received, and the
+ * snapshot is shared by all items of the server until the next response
+ * arrives. A snapshot is immutable, so it can be used by several threads.
+ *
+ * @since 1.14.0
+ */
+final class OWServerSnapshot {
+
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    /** ROM ID -> variable name -> value */
+    private final Map<String, Map<String, String>> devices;
+
+    private OWServerSnapshot(Map<String, Map<String, String>> devices) {
+        this.devices = devices;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * Parses a <code>details.xml</code> response. Every <code>owd_*</code>
+     * element of the response is a device, its child elements are the
+     * variables of the device, which is identified by its <code>ROMId</code>.
+     *
+     * @param response the response of the server
+     * @return the snapshot of the response
+     * @throws XMLStreamException if the response is not well-formed
+     */
+    static OWServerSnapshot parse(String response) throws XMLStreamException {
+        Map<String, Map<String, String>> devices = new HashMap<String, Map<String, String>>();
+
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(response));
+        try {
+            Map<String, String> variables = null;
+            String variable = null;
+            StringBuilder text = new StringBuilder();
+            int depth = 0;
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        depth++;
+                        if (depth == 2 && reader.getLocalName().startsWith("owd_")) {
+                            variables = new HashMap<String, String>();
+                        } else if (depth == 3 && variables != null) {
+                            variable = reader.getLocalName();
+                            text.setLength(0);
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (depth == 3 && variable != null) {
+                            text.append(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (depth == 3 && variable != null) {
+                            if (!variables.containsKey(variable)) {
+                                variables.put(variable, text.toString().trim());
+                            }
+                            variable = null;
+                        } else if (depth == 2 && variables != null) {
+                            String romId = variables.get("ROMId");
+                            if (romId != null && !devices.containsKey(romId)) {
+                                devices.put(romId, Collections.unmodifiableMap(variables));
+                            }
+                            variables = null;
+                        }
+                        depth--;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return new OWServerSnapshot(devices);
+    }
+
+    /**
+     * Returns the value of a variable of a device.
+     *
+     * @param romId the ROM ID of the device
+     * @param name the name of the variable
+     * @return the value or <code>null</code> if the device or the variable doesn't exist
+     */
+    String getVariable(String romId, String name) {
+        Map<String, String> variables = devices.get(romId);
+        if (variables == null) {
+            return null;
+        }
+        return variables.get(name);
+    }
+
+    /**
+     * @return the number of devices in the snapshot
+     */
+    int size() {
+        return devices.size();
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.serial.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+/**
+ * Testcases for the precompiled item patterns.
+ *
+ * @since 1.14.0
+ */
+public class RegexPatternMatcherTest {
+
+    @Test
+    public void testCaptureGroups() {
+        RegexPatternMatcher matcher = new RegexPatternMatcher("T:([0-9.]*)");
+
+        assertArrayEquals(new String[] { "21.5", "22" }, matcher.getMatches(" T:21.5 H:40 T:22\n"));
+        assertArrayEquals(new String[0], matcher.getMatches("H:40"));
+    }
+
+    @Test
+    public void testPatternWithoutGroupReturnsMatch() {
+        assertArrayEquals(new String[] { "ON" }, new RegexPatternMatcher("ON").getMatches("Q1 ON"));
+    }
+
+    @Test
+    public void testSubstitution() {
+        assertArrayEquals(new String[] { "ON Position:50" },
+                new RegexPatternMatcher("s/Position:100/ON/").getMatches("Position:100 Position:50"));
+        assertArrayEquals(new String[] { "ON ON" },
+                new RegexPatternMatcher("s/Position:100/ON/g").getMatches("Position:100 Position:100"));
+        assertArrayEquals(new String[] { "unrelated" },
+                new RegexPatternMatcher("s/Position:100/ON/g").getMatches("unrelated"));
+    }
+
+    @Test
+    public void testLiteralPrefix() {
+        assertEquals("ID:2", RegexPatternMatcher.getLiteralPrefix("ID:2.*,T:([0-9.]*)"));
+        assertEquals("Position:", RegexPatternMatcher.getLiteralPrefix("^Position:([0-9]+)"));
+        assertEquals("Temp", RegexPatternMatcher.getLiteralPrefix("Temps?=(.*)"));
+        assertEquals("A", RegexPatternMatcher.getLiteralPrefix("AB{0,1}C"));
+        assertNull(RegexPatternMatcher.getLiteralPrefix("ON|OFF"));
+        assertNull(RegexPatternMatcher.getLiteralPrefix("(?i)temp=(.*)"));
+        assertNull(RegexPatternMatcher.getLiteralPrefix("\\d+"));
+    }
+
+    @Test
+    public void testOptionalCharacterIsNotRequired() {
+        RegexPatternMatcher matcher = new RegexPatternMatcher("Temps?=([0-9]+)");
+        assertArrayEquals(new String[] { "20" }, matcher.getMatches("Temp=20"));
+        assertArrayEquals(new String[] { "21" }, matcher.getMatches("Temps=21"));
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void testInvalidPatternIsRejected() {
+        new RegexPatternMatcher("T:([0-9.]*");
+    }
+}
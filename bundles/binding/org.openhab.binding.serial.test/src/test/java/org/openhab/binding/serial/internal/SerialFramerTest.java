@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.serial.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Testcases for the framing of the data received on a serial port.
+ *
+ * @since 1.14.0
+ */
+public class SerialFramerTest {
+
+    private final List<String> frames = new ArrayList<>();
+
+    private final SerialFramer.FrameHandler handler = new SerialFramer.FrameHandler() {
+        @Override
+        public void handleFrame(byte[] buffer, int offset, int length) {
+            frames.add(new String(buffer, offset, length, StandardCharsets.US_ASCII));
+        }
+    };
+
+    private void append(SerialFramer framer, String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.US_ASCII);
+        framer.append(bytes, 0, bytes.length, handler);
+    }
+
+    @Test
+    public void testDelimitedFramesAreSplit() {
+        SerialFramer framer = SerialFramer.delimited("\n".getBytes(StandardCharsets.US_ASCII));
+        append(framer, "T:21.5\nH:40\n\nT:2");
+
+        assertEquals(3, frames.size());
+        assertEquals("T:21.5", frames.get(0));
+        assertEquals("H:40", frames.get(1));
+        assertEquals("", frames.get(2));
+        assertEquals(3, framer.getPending());
+
+        append(framer, "2.0\n");
+        assertEquals(4, frames.size());
+        assertEquals("T:22.0", frames.get(3));
+        assertEquals(0, framer.getPending());
+    }
+
+    @Test
+    public void testDelimiterSplitAcrossReads() {
+        SerialFramer framer = SerialFramer.delimited("\r\n".getBytes(StandardCharsets.US_ASCII));
+        append(framer, "first\r");
+        assertEquals(0, frames.size());
+
+        append(framer, "\nsecond\r\nthi");
+        append(framer, "rd\r");
+        append(framer, "\n");
+
+        assertEquals(3, frames.size());
+        assertEquals("first", frames.get(0));
+        assertEquals("second", frames.get(1));
+        assertEquals("third", frames.get(2));
+    }
+
+    @Test
+    public void testDelimitedFramesOfEveryLength() {
+        SerialFramer framer = SerialFramer.delimited("##".getBytes(StandardCharsets.US_ASCII));
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            data.append(i).append("##");
+        }
+        // feed the data in pieces of different sizes
+        byte[] bytes = data.toString().getBytes(StandardCharsets.US_ASCII);
+        int offset = 0;
+        for (int size = 1; offset < bytes.length; size = size % 7 + 1) {
+            int length = Math.min(size, bytes.length - offset);
+            framer.append(bytes, offset, length, handler);
+            offset += length;
+        }
+
+        assertEquals(600, frames.size());
+        for (int i = 0; i < 600; i++) {
+            assertEquals(Integer.toString(i), frames.get(i));
+        }
+    }
+
+    @Test
+    public void testOverlongFrameIsDropped() {
+        SerialFramer framer = SerialFramer.delimited("\n".getBytes(StandardCharsets.US_ASCII));
+        byte[] noise = new byte[SerialFramer.MAX_FRAME_LENGTH + 1];
+        framer.append(noise, 0, noise.length, handler);
+        assertEquals(0, framer.getPending());
+
+        append(framer, "valid\n");
+        assertEquals(1, frames.size());
+        assertEquals("valid", frames.get(0));
+    }
+
+    @Test
+    public void testFixedLengthFrames() {
+        SerialFramer framer = SerialFramer.fixedLength(4);
+        append(framer, "AB");
+        append(framer, "CDEFGHIJ");
+        append(framer, "KL");
+
+        assertEquals(3, frames.size());
+        assertEquals("ABCD", frames.get(0));
+        assertEquals("EFGH", frames.get(1));
+        assertEquals("IJKL", frames.get(2));
+        assertEquals(0, framer.getPending());
+    }
+}
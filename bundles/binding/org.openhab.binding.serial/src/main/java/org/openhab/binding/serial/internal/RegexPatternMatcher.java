@@ -13,18 +13,21 @@
 package org.openhab.binding.serial.internal;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
-import org.openhab.core.transform.TransformationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Pattern matcher to match and cache regular expression patterns
+ * Pattern matcher for the regular expression of an item. The expression is
+ * compiled once when the item is configured, so matching a message doesn't need
+ * any locks or parsing.
+ * <p>
+ * Messages which don't contain the literal text a pattern starts with are
+ * skipped without running the regular expression.
  *
  * @author Marek Halmo
  * @SInCE 1.10.0
@@ -33,7 +36,11 @@ import org.slf4j.LoggerFactory;
  */
 public class RegexPatternMatcher {
     private static final Logger logger = LoggerFactory.getLogger(RegexPatternMatcher.class);
-    private static Map<String, Pattern> patternCache = new HashMap<>();
+
+    private static final String[] NO_MATCHES = new String[0];
+
+    /** characters which end the literal prefix of a regular expression */
+    private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
 
     /*
      * Regular expression to match or a substitution in form of
@@ -42,112 +49,127 @@ public class RegexPatternMatcher {
      */
     private static final Pattern SUBST_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    private final String regExpression;
+
+    private final Pattern pattern;
+
+    /** replacement of a substitution or <code>null</code> if this is not a substitution */
+    private final String substitution;
+
+    private final boolean replaceAll;
+
+    /** text every match contains or <code>null</code> if unknown */
+    private final String literal;
+
     /**
-     * Returns compiled pattern for specific regular expression that is stored in patternCache
+     * Compiles the given regular expression.
      *
-     * @param regExpression
-     * @return
+     * @param regExpression regular expression to match or a substitution in form of "s/<regex>/result/g" (replace all)
+     *            or "s/<regex>/result/" (replace first)
+     * @throws PatternSyntaxException if the regular expression is invalid
      */
-    private static Pattern getPattern(String regExpression) {
-        return cache(regExpression);
+    public RegexPatternMatcher(String regExpression) {
+        if (regExpression == null) {
+            throw new IllegalArgumentException("The given parameter 'regExpression' must not be null");
+        }
+        this.regExpression = regExpression;
+
+        // Check if RegEx is a substitution (s/<regex>/result/g) or (s/<regex>/result/)
+        Matcher substMatcher = SUBST_PATTERN.matcher(regExpression);
+        if (substMatcher.matches()) {
+            pattern = Pattern.compile(substMatcher.group(1));
+            substitution = substMatcher.group(2);
+            replaceAll = substMatcher.group(3).equals("g");
+            // a substitution always returns the source
+            literal = null;
+        } else {
+            pattern = Pattern.compile(regExpression, Pattern.DOTALL);
+            substitution = null;
+            replaceAll = false;
+            literal = getLiteralPrefix(regExpression);
+        }
     }
 
     /**
-     * Returns true if given regular expression is a substitution pattern
-     * This fact is indicated by patternCache containing "null" for given pattern
+     * Returns the text any match of the given regular expression starts with.
      *
-     * @param regExpression
-     * @return
+     * @param regExpression the regular expression
+     * @return the literal prefix or <code>null</code> if there is none or it can't be determined
      */
-    private static boolean isSubtitution(String regExpression) {
-        return cache(regExpression) == null;
+    static String getLiteralPrefix(String regExpression) {
+        if (regExpression.indexOf('|') >= 0) {
+            // alternatives may start with different text
+            return null;
+        }
+
+        StringBuilder prefix = new StringBuilder();
+        int i = regExpression.startsWith("^") ? 1 : 0;
+        for (; i < regExpression.length(); i++) {
+            char c = regExpression.charAt(i);
+            if (META_CHARACTERS.indexOf(c) >= 0) {
+                if ((c == '?' || c == '*' || c == '{') && prefix.length() > 0) {
+                    // the last character is optional
+                    prefix.setLength(prefix.length() - 1);
+                }
+                break;
+            }
+            prefix.append(c);
+        }
+        return prefix.length() > 0 ? prefix.toString() : null;
     }
 
     /**
-     * Caches given regular expression.
-     * If the expression is a substitution pattern, it marks it as a substitution with a null
-     *
-     * @return Pattern from cache
-     * @see RegexPatternMatcher#isSubtitution isSubtitution
+     * @return the regular expression this matcher has been compiled from
      */
-    private static synchronized Pattern cache(String regExpression) {
-        if (!patternCache.containsKey(regExpression)) {
-            Matcher substMatcher = SUBST_PATTERN.matcher(regExpression);
-
-            // Check if this pattern is a substitution
-            if (substMatcher.matches()) {
-                // If so mark it in cache with null
-                patternCache.put(regExpression, null);
-            } else {
-                // Otherwise compile the pattern
-                Pattern pattern = Pattern.compile(regExpression, Pattern.DOTALL);
-                patternCache.put(regExpression, pattern);
-            }
-        }
+    public String getRegExpression() {
+        return regExpression;
+    }
 
-        return patternCache.get(regExpression);
+    /**
+     * @return true if this matcher is a substitution
+     */
+    public boolean isSubstitution() {
+        return substitution != null;
     }
 
     /**
-     * Returns array of strings that match given regular expression.
-     * If expression is not known the compiled pattern is cached in pattern cache
+     * Returns array of strings that match the regular expression.
      *
-     * @param regExpression regular expression to match or a substitution in form of "s/<regex>/result/g" (replace all)
-     *            or "s/<regex>/result/" (replace first)
      * @param source text to search in
-     * @return Array of matched strings or empty array if none found
-     * @throws TransformationException if regExpression or source is null
+     * @return Array of matched strings or empty array if none found. A substitution
+     *         always returns the (substituted) source.
      * @see org.eclipse.smarthome.transform.regex.internal.RegExTranformationService RegExTranformationService
      */
-    public static String[] getMatches(String regExpression, String source) throws TransformationException {
-        if (regExpression == null || source == null) {
-            throw new TransformationException("The given parameters 'regExpression' and 'source' must not be null");
-        }
-
-        logger.debug("about to transform '{}' by the function '{}'", source, regExpression);
-
-        // Check if RegEx is a substitution (s/<regex>/result/g) or (s/<regex>/result/)
-        if (isSubtitution(regExpression)) {
-            Matcher substMatcher = SUBST_PATTERN.matcher(regExpression);
-
-            // If there is no match of substitution, source is returned
-            String result = source;
-            if (substMatcher.matches()) {
-                logger.debug("Using substitution form of regex transformation");
-                String regex = substMatcher.group(1);
-                String substitution = substMatcher.group(2);
-                String options = substMatcher.group(3);
-
-                if (options.equals("g")) {
-                    result = source.trim().replaceAll(regex, substitution);
-                } else {
-                    result = source.trim().replaceFirst(regex, substitution);
-                }
-            }
+    public String[] getMatches(String source) {
+        String trimmed = source.trim();
 
-            return new String[] { result };
-        } else {
-            // Not a substitution, return matches
-            Matcher matcher = getPattern(regExpression).matcher(source.trim());
+        if (substitution != null) {
+            logger.trace("about to transform '{}' by the function '{}'", source, regExpression);
+            Matcher matcher = pattern.matcher(trimmed);
+            return new String[] { replaceAll ? matcher.replaceAll(substitution) : matcher.replaceFirst(substitution) };
+        }
 
-            List<String> results = new ArrayList<>();
+        if (literal != null && trimmed.indexOf(literal) < 0) {
+            return NO_MATCHES;
+        }
 
-            while (matcher.find()) {
-                // Only return first/primary group matches
-                // This way you can use secondary groups to quantify occurrence count
-                results.add(matcher.group(1));
+        logger.trace("about to transform '{}' by the function '{}'", source, regExpression);
+        Matcher matcher = pattern.matcher(trimmed);
+        List<String> results = null;
+        while (matcher.find()) {
+            if (results == null) {
+                results = new ArrayList<>();
             }
-
-            return results.toArray(new String[results.size()]);
+            // Only return first/primary group matches
+            // This way you can use secondary groups to quantify occurrence count
+            results.add(matcher.group(matcher.groupCount() > 0 ? 1 : 0));
         }
+
+        return results == null ? NO_MATCHES : results.toArray(new String[results.size()]);
     }
 
-    /**
-     * Removes pattern from cache
-     *
-     * @param regExpression
-     */
-    public static synchronized void removePattern(String regExpression) {
-        patternCache.remove(regExpression);
+    @Override
+    public String toString() {
+        return regExpression;
     }
 }
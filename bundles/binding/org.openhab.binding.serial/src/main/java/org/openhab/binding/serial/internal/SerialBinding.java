@@ -16,6 +16,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.core.events.AbstractEventSubscriber;
@@ -54,6 +55,9 @@ import org.slf4j.LoggerFactory;
  * `baudrate` is the baud rate of the port. if not specified, the default is
  * 9600.
  *
+ * DELIMITER(<text>) or LENGTH(<bytes>) split the data received on the port
+ * into frames, which are matched one by one.
+ *
  * Switch items with this binding will receive an ON-OFF update on the bus,
  * whenever data becomes available on the serial interface.
  *
@@ -200,6 +204,8 @@ public class SerialBinding extends AbstractEventSubscriber implements BindingCon
         String stopCommand = null;
         String format = null;
         String charset = null;
+        String delimiter = null;
+        int frameLength = 0;
 
         int parameterSplitterAt = bindingConfig.indexOf(",");
 
@@ -245,6 +251,22 @@ public class SerialBinding extends AbstractEventSubscriber implements BindingCon
                 } else if (substring.startsWith("CHARSET(")) {
                     charset = substring.substring(8, substring.length());
                     logger.debug("CHARSET: '{}'", charset);
+                } else if (substring.startsWith("DELIMITER(")) {
+                    delimiter = substring.substring(10, substring.length());
+                    if (delimiter.isEmpty()) {
+                        throw new BindingConfigParseException("DELIMITER must not be empty");
+                    }
+                    logger.debug("DELIMITER: '{}'", delimiter);
+                } else if (substring.startsWith("LENGTH(")) {
+                    try {
+                        frameLength = Integer.parseInt(substring.substring(7, substring.length()).trim());
+                    } catch (NumberFormatException e) {
+                        frameLength = 0;
+                    }
+                    if (frameLength <= 0) {
+                        throw new BindingConfigParseException("LENGTH must be a positive number of bytes");
+                    }
+                    logger.debug("LENGTH: '{}'", frameLength);
                 } else {
                     logger.warn("Unrecognized transform: {}", substring);
                 }
@@ -289,8 +311,19 @@ public class SerialBinding extends AbstractEventSubscriber implements BindingCon
             serialDevices.put(port, serialDevice);
         }
 
+        if (delimiter != null || frameLength > 0) {
+            if (!serialDevice.setFraming(delimiter, frameLength)) {
+                throw new BindingConfigParseException(
+                        "Serial port " + port + " is already configured with a different DELIMITER or LENGTH");
+            }
+        }
+
+        try {
+            serialDevice.addConfig(item, pattern, base64, onCommand, offCommand, openCommand, closedCommand, upCommand, downCommand, stopCommand, format);
+        } catch (PatternSyntaxException e) {
+            throw new BindingConfigParseException("Invalid REGEX for item " + item.getName() + ": " + e.getMessage());
+        }
         itemMap.put(item.getName(), port);
-        serialDevice.addConfig(item, pattern, base64, onCommand, offCommand, openCommand, closedCommand, upCommand, downCommand, stopCommand, format);
 
         Set<String> itemNames = contextMap.get(context);
         if (itemNames == null) {
@@ -18,10 +18,10 @@ import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.IllegalCharsetNameException;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.TooManyListenersException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
@@ -39,7 +39,6 @@ import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.library.types.PercentType;
 import org.openhab.core.library.types.StringType;
-import org.openhab.core.transform.TransformationException;
 import org.openhab.core.types.State;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +52,10 @@ import gnu.io.UnsupportedCommOperationException;
 
 /**
  * This class represents a serial device that is linked to one or many String, Number, Switch or Rollershutter items
+ * <p>
+ * Without framing, data received within 100ms is treated as one message. With framing, the received data is split
+ * at a delimiter or after a fixed number of bytes, and every frame is matched once. The item configurations are
+ * compiled when they are added and read without locking while messages are dispatched.
  *
  * @author Kai Kreuzer
  *
@@ -76,8 +79,27 @@ public class SerialDevice implements SerialPortEventListener {
 
     private Map<String, ItemType> configMap;
 
+    /** snapshot of the values of configMap, replaced whenever the configuration changes */
+    private volatile ItemType[] itemTypes = new ItemType[0];
+
+    /** framing of the received data, null to treat everything received within 100ms as one message */
+    private volatile SerialFramer framer;
+    private String framing;
+
+    /** buffer for reading the serial port, only used by the thread notifying serial events */
+    private final byte[] readBuffer = new byte[1024];
+
+    private final SerialFramer.FrameHandler frameHandler = new SerialFramer.FrameHandler() {
+        @Override
+        public void handleFrame(byte[] buffer, int offset, int length) {
+            dispatch(new String(buffer, offset, length, charset));
+        }
+    };
+
     class ItemType {
+        String itemName;
         String pattern;
+        RegexPatternMatcher matcher;
         boolean base64;
         String onCommand;
         String offCommand;
@@ -94,15 +116,22 @@ public class SerialDevice implements SerialPortEventListener {
         return configMap.isEmpty();
     }
 
-    public void addConfig(Item item, String pattern, boolean base64, String onCommand, String offCommand,
-            String openCommand, String closedCommand, String upCommand, String downCommand, String stopCommand,
-            String format) {
+    /**
+     * Adds the configuration of an item.
+     *
+     * @throws PatternSyntaxException if the pattern is not a valid regular expression
+     */
+    public synchronized void addConfig(Item item, String pattern, boolean base64, String onCommand,
+            String offCommand, String openCommand, String closedCommand, String upCommand, String downCommand,
+            String stopCommand, String format) {
         if (configMap == null) {
-            configMap = new HashMap<>();
+            configMap = new ConcurrentHashMap<>();
         }
 
         ItemType typeItem = new ItemType();
+        typeItem.itemName = item.getName();
         typeItem.pattern = pattern;
+        typeItem.matcher = pattern != null ? new RegexPatternMatcher(pattern) : null;
         typeItem.base64 = base64;
         typeItem.type = item.getClass();
         typeItem.onCommand = onCommand;
@@ -115,21 +144,37 @@ public class SerialDevice implements SerialPortEventListener {
         typeItem.format = format;
 
         configMap.put(item.getName(), typeItem);
+        itemTypes = configMap.values().toArray(new ItemType[0]);
     }
 
-    public void removeConfig(String itemName) {
+    public synchronized void removeConfig(String itemName) {
         if (configMap != null) {
-            ItemType type = configMap.get(itemName);
-            if (type.pattern != null) {
-                // We can safely remove any pattern
-                // If there are any duplicates, they will be added to cache next time they are requested
-                RegexPatternMatcher.removePattern(type.pattern);
-            }
-
             configMap.remove(itemName);
+            itemTypes = configMap.values().toArray(new ItemType[0]);
         }
     }
 
+    /**
+     * Splits the received data into frames, either at a delimiter or after a fixed number of bytes. The framing of a
+     * port can only be set once.
+     *
+     * @param delimiter the text which ends a frame, or <code>null</code> for frames of a fixed length
+     * @param frameLength the length of a frame in bytes, if no delimiter is given
+     * @return <code>false</code> if the port has a different framing already
+     */
+    public synchronized boolean setFraming(String delimiter, int frameLength) {
+        String newFraming = delimiter != null ? "DELIMITER(" + delimiter + ")" : "LENGTH(" + frameLength + ")";
+        if (framing != null) {
+            return framing.equals(newFraming);
+        }
+
+        framer = delimiter != null ? SerialFramer.delimited(delimiter.getBytes(charset))
+                : SerialFramer.fixedLength(frameLength);
+        framing = newFraming;
+        logger.debug("Serial port '{}' uses framing {}", port, framing);
+        return true;
+    }
+
     public SerialDevice(String port) {
         this(port, null);
     }
@@ -323,105 +368,13 @@ public class SerialDevice implements SerialPortEventListener {
                 break;
             case SerialPortEvent.DATA_AVAILABLE:
                 // we get here if data has been received
-                StringBuilder sb = new StringBuilder();
-                byte[] readBuffer = new byte[20];
                 try {
-                    do {
-                        // read data from serial device
-                        while (inputStream.available() > 0) {
-                            int bytes = inputStream.read(readBuffer);
-                            sb.append(new String(readBuffer, 0, bytes, charset));
-                        }
-                        try {
-                            // add wait states around reading the stream, so that interrupted transmissions are merged
-                            Thread.sleep(100);
-                        } catch (InterruptedException e) {
-                            // ignore interruption
-                        }
-                    } while (inputStream.available() > 0);
-                    // sent data
-                    String result = sb.toString();
-
-                    // send data to the bus
-                    logger.debug("Received message '{}' on serial port {}", result, port);
-
-                    if (eventPublisher != null) {
-                        if (configMap != null && !configMap.isEmpty()) {
-                            for (Entry<String, ItemType> entry : configMap.entrySet()) {
-                                String pattern = entry.getValue().pattern;
-                                // use pattern
-                                if (pattern != null) {
-                                    try {
-                                        String[] matches = RegexPatternMatcher.getMatches(pattern, result);
-
-                                        for (int i = 0; i < matches.length; i++) {
-                                            String match = matches[i];
-
-                                            try {
-                                                State state = null;
-
-                                                if (entry.getValue().type.equals(NumberItem.class)) {
-                                                    state = new DecimalType(match);
-                                                } else if (entry.getValue().type == RollershutterItem.class) {
-                                                    state = new PercentType(match);
-                                                } else if (entry.getValue().type == SwitchItem.class) {
-                                                    state = OnOffType.valueOf(match);
-                                                } else if (entry.getValue().type == ContactItem.class) {
-                                                    state = OpenClosedType.valueOf(match);
-                                                } else {
-                                                    state = new StringType(match);
-                                                }
-
-                                                eventPublisher.postUpdate(entry.getKey(), state);
-                                            } catch (NumberFormatException e) {
-                                                logger.warn("Unable to convert regex result '{}' for item {} to number",
-                                                        result, entry.getKey());
-                                            }
-                                        }
-                                    } catch (TransformationException e) {
-                                        logger.warn("Unable to transform!", e);
-                                    }
-                                } else if (entry.getValue().type == StringItem.class) {
-                                    if (entry.getValue().base64) {
-                                        result = Base64.encodeBase64String(result.getBytes(charset));
-                                    }
-                                    eventPublisher.postUpdate(entry.getKey(), new StringType(result));
-
-                                } else if (entry.getValue().type == SwitchItem.class) {
-                                    if (result.trim().isEmpty()) {
-                                        eventPublisher.postUpdate(entry.getKey(), OnOffType.ON);
-                                        eventPublisher.postUpdate(entry.getKey(), OnOffType.OFF);
-                                    } else if (StringUtils.contains(result, getOnCommand(entry.getKey()))) {
-                                        eventPublisher.postUpdate(entry.getKey(), OnOffType.ON);
-                                    } else if (StringUtils.contains(result, getOffCommand(entry.getKey()))) {
-                                        eventPublisher.postUpdate(entry.getKey(), OnOffType.OFF);
-                                    }
-                                } else if (entry.getValue().type == ContactItem.class) {
-                                    if (result.trim().isEmpty()) {
-                                        eventPublisher.postUpdate(entry.getKey(), OpenClosedType.CLOSED);
-                                        eventPublisher.postUpdate(entry.getKey(), OpenClosedType.OPEN);
-                                    } else if (StringUtils.contains(result, getOnCommand(entry.getKey()))) {
-                                        eventPublisher.postUpdate(entry.getKey(), OpenClosedType.CLOSED);
-                                    } else if (StringUtils.contains(result, getOffCommand(entry.getKey()))) {
-                                        eventPublisher.postUpdate(entry.getKey(), OpenClosedType.OPEN);
-                                    }
-                                } else if (entry.getValue().type == RollershutterItem.class
-                                        || entry.getValue().type == DimmerItem.class) {
-                                    if (result.trim().isEmpty()) {
-                                        eventPublisher.postUpdate(entry.getKey(), new PercentType(50));
-                                    } else if (StringUtils.contains(result, getUpCommand(entry.getKey()))) {
-                                        eventPublisher.postUpdate(entry.getKey(), PercentType.HUNDRED);
-                                    } else if (StringUtils.contains(result, getDownCommand(entry.getKey()))) {
-                                        eventPublisher.postUpdate(entry.getKey(), PercentType.ZERO);
-                                    } else if (StringUtils.contains(result, getStopCommand(entry.getKey()))) {
-                                        eventPublisher.postUpdate(entry.getKey(), new PercentType(50));
-                                    }
-                                }
-                            }
-                        }
-
+                    SerialFramer framer = this.framer;
+                    if (framer != null) {
+                        readFrames(framer);
+                    } else {
+                        readMessage();
                     }
-
                 } catch (IOException e) {
                     logger.debug("Error receiving data on serial port {}: {}", port, e.getMessage());
                 }
@@ -429,6 +382,124 @@ public class SerialDevice implements SerialPortEventListener {
         }
     }
 
+    /**
+     * Reads all available data and passes it to the framer, which dispatches every complete frame.
+     */
+    private void readFrames(SerialFramer framer) throws IOException {
+        int available;
+        while ((available = inputStream.available()) > 0) {
+            int bytes = inputStream.read(readBuffer, 0, Math.min(available, readBuffer.length));
+            if (bytes <= 0) {
+                break;
+            }
+            framer.append(readBuffer, 0, bytes, frameHandler);
+        }
+    }
+
+    /**
+     * Reads data until nothing has been received for 100ms and dispatches it as one message.
+     */
+    private void readMessage() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        do {
+            // read data from serial device
+            while (inputStream.available() > 0) {
+                int bytes = inputStream.read(readBuffer);
+                sb.append(new String(readBuffer, 0, bytes, charset));
+            }
+            try {
+                // add wait states around reading the stream, so that interrupted transmissions are merged
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // ignore interruption
+            }
+        } while (inputStream.available() > 0);
+
+        dispatch(sb.toString());
+    }
+
+    /**
+     * Sends a received message to the bus, as an update of every item it matches.
+     *
+     * @param result the received message
+     */
+    void dispatch(String result) {
+        // send data to the bus
+        logger.debug("Received message '{}' on serial port {}", result, port);
+
+        if (eventPublisher == null) {
+            return;
+        }
+
+        for (ItemType itemType : itemTypes) {
+            String itemName = itemType.itemName;
+            // use pattern
+            if (itemType.matcher != null) {
+                String[] matches = itemType.matcher.getMatches(result);
+
+                for (int i = 0; i < matches.length; i++) {
+                    String match = matches[i];
+
+                    try {
+                        State state = null;
+
+                        if (itemType.type.equals(NumberItem.class)) {
+                            state = new DecimalType(match);
+                        } else if (itemType.type == RollershutterItem.class) {
+                            state = new PercentType(match);
+                        } else if (itemType.type == SwitchItem.class) {
+                            state = OnOffType.valueOf(match);
+                        } else if (itemType.type == ContactItem.class) {
+                            state = OpenClosedType.valueOf(match);
+                        } else {
+                            state = new StringType(match);
+                        }
+
+                        eventPublisher.postUpdate(itemName, state);
+                    } catch (NumberFormatException e) {
+                        logger.warn("Unable to convert regex result '{}' for item {} to number", match, itemName);
+                    }
+                }
+            } else if (itemType.type == StringItem.class) {
+                if (itemType.base64) {
+                    eventPublisher.postUpdate(itemName,
+                            new StringType(Base64.encodeBase64String(result.getBytes(charset))));
+                } else {
+                    eventPublisher.postUpdate(itemName, new StringType(result));
+                }
+
+            } else if (itemType.type == SwitchItem.class) {
+                if (result.trim().isEmpty()) {
+                    eventPublisher.postUpdate(itemName, OnOffType.ON);
+                    eventPublisher.postUpdate(itemName, OnOffType.OFF);
+                } else if (StringUtils.contains(result, itemType.onCommand)) {
+                    eventPublisher.postUpdate(itemName, OnOffType.ON);
+                } else if (StringUtils.contains(result, itemType.offCommand)) {
+                    eventPublisher.postUpdate(itemName, OnOffType.OFF);
+                }
+            } else if (itemType.type == ContactItem.class) {
+                if (result.trim().isEmpty()) {
+                    eventPublisher.postUpdate(itemName, OpenClosedType.CLOSED);
+                    eventPublisher.postUpdate(itemName, OpenClosedType.OPEN);
+                } else if (StringUtils.contains(result, itemType.onCommand)) {
+                    eventPublisher.postUpdate(itemName, OpenClosedType.CLOSED);
+                } else if (StringUtils.contains(result, itemType.offCommand)) {
+                    eventPublisher.postUpdate(itemName, OpenClosedType.OPEN);
+                }
+            } else if (itemType.type == RollershutterItem.class || itemType.type == DimmerItem.class) {
+                if (result.trim().isEmpty()) {
+                    eventPublisher.postUpdate(itemName, new PercentType(50));
+                } else if (StringUtils.contains(result, itemType.upCommand)) {
+                    eventPublisher.postUpdate(itemName, PercentType.HUNDRED);
+                } else if (StringUtils.contains(result, itemType.downCommand)) {
+                    eventPublisher.postUpdate(itemName, PercentType.ZERO);
+                } else if (StringUtils.contains(result, itemType.stopCommand)) {
+                    eventPublisher.postUpdate(itemName, new PercentType(50));
+                }
+            }
+        }
+    }
+
     /**
      * Sends a string to the serial port of this device
      *
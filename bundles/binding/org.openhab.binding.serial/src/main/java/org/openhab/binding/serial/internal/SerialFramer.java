@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.serial.internal;
+
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits the data received on a serial port into frames, either at a delimiter
+ * or after a fixed number of bytes. Incomplete frames are kept until the rest
+ * of the frame has been received.
+ * <p>
+ * A framer is not thread-safe, it is meant to be used by the thread reading the
+ * serial port only.
+ *
+ * @since 1.14.0
+ */
+class SerialFramer {
+
+    /**
+     * Receives the complete frames.
+     */
+    interface FrameHandler {
+
+        /**
+         * @param buffer the buffer holding the frame, only valid during the call
+         * @param offset the start of the frame
+         * @param length the length of the frame, without the delimiter
+         */
+        void handleFrame(byte[] buffer, int offset, int length);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SerialFramer.class);
+
+    /** the maximum length of a delimited frame, longer frames are dropped */
+    static final int MAX_FRAME_LENGTH = 65536;
+
+    private final byte[] delimiter;
+    private final int frameLength;
+
+    private byte[] buffer;
+    private int count;
+
+    /** the position from which on the delimiter hasn't been searched yet */
+    private int searched;
+
+    private SerialFramer(byte[] delimiter, int frameLength) {
+        this.delimiter = delimiter;
+        this.frameLength = frameLength;
+        this.buffer = new byte[delimiter != null ? 256 : frameLength];
+    }
+
+    /**
+     * Creates a framer which ends a frame at the given delimiter.
+     *
+     * @param delimiter the bytes which end a frame
+     * @return the framer
+     */
+    static SerialFramer delimited(byte[] delimiter) {
+        if (delimiter == null || delimiter.length == 0) {
+            throw new IllegalArgumentException("The delimiter must not be empty");
+        }
+        return new SerialFramer(delimiter.clone(), 0);
+    }
+
+    /**
+     * Creates a framer which ends a frame after the given number of bytes.
+     *
+     * @param frameLength the length of a frame in bytes
+     * @return the framer
+     */
+    static SerialFramer fixedLength(int frameLength) {
+        if (frameLength <= 0) {
+            throw new IllegalArgumentException("The frame length must be positive");
+        }
+        return new SerialFramer(null, frameLength);
+    }
+
+    /**
+     * Appends received data and passes every frame it completes to the handler.
+     *
+     * @param data the received data
+     * @param offset the start of the received data
+     * @param length the number of bytes received
+     * @param handler receives the complete frames
+     */
+    void append(byte[] data, int offset, int length, FrameHandler handler) {
+        if (delimiter == null) {
+            appendFixedLength(data, offset, length, handler);
+        } else {
+            appendDelimited(data, offset, length, handler);
+        }
+    }
+
+    private void appendFixedLength(byte[] data, int offset, int length, FrameHandler handler) {
+        int end = offset + length;
+        if (count > 0) {
+            int copy = Math.min(frameLength - count, length);
+            System.arraycopy(data, offset, buffer, count, copy);
+            count += copy;
+            offset += copy;
+            if (count < frameLength) {
+                return;
+            }
+            handler.handleFrame(buffer, 0, frameLength);
+            count = 0;
+        }
+        // complete frames are passed on without copying them
+        while (end - offset >= frameLength) {
+            handler.handleFrame(data, offset, frameLength);
+            offset += frameLength;
+        }
+        System.arraycopy(data, offset, buffer, 0, end - offset);
+        count = end - offset;
+    }
+
+    private void appendDelimited(byte[] data, int offset, int length, FrameHandler handler) {
+        if (count + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(count + length, buffer.length * 2));
+        }
+        System.arraycopy(data, offset, buffer, count, length);
+        count += length;
+
+        int start = 0;
+        int i = Math.max(searched, delimiter.length - 1);
+        for (; i < count; i++) {
+            if (endsWithDelimiter(i)) {
+                int frameEnd = i - delimiter.length + 1;
+                handler.handleFrame(buffer, start, frameEnd - start);
+                start = i + 1;
+                i = start + delimiter.length - 2;
+            }
+        }
+
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, count - start);
+            count -= start;
+        }
+        // a delimiter ending in the next data is found by looking back from there
+        searched = count;
+
+        if (count > MAX_FRAME_LENGTH) {
+            logger.warn("No delimiter received within {} bytes, dropping the received data", MAX_FRAME_LENGTH);
+            reset();
+        }
+    }
+
+    /**
+     * @return true if the delimiter ends at the given position of the buffer
+     */
+    private boolean endsWithDelimiter(int end) {
+        int start = end - delimiter.length + 1;
+        for (int j = delimiter.length - 1; j >= 0; j--) {
+            if (buffer[start + j] != delimiter[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of bytes of the incomplete frame
+     */
+    int getPending() {
+        return count;
+    }
+
+    /**
+     * Drops the incomplete frame.
+     */
+    void reset() {
+        count = 0;
+        searched = 0;
+        if (delimiter != null && buffer.length > 256) {
+            buffer = new byte[256];
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.snmp.internal;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.snmp4j.CommandResponder;
+import org.snmp4j.CommandResponderEvent;
+import org.snmp4j.MessageException;
+import org.snmp4j.PDU;
+import org.snmp4j.Snmp;
+import org.snmp4j.mp.StatusInformation;
+import org.snmp4j.smi.Address;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.UdpAddress;
+import org.snmp4j.smi.Variable;
+import org.snmp4j.smi.VariableBinding;
+import org.snmp4j.transport.DefaultUdpTransportMapping;
+
+/**
+ * A minimal SNMP agent on the loopback interface, which answers GET requests
+ * with the variables put into it. Unknown OIDs are answered like an SNMPv1 agent
+ * does, with a <code>noSuchName</code> error for the whole request.
+ *
+ * @since 1.14.0
+ */
+class LocalAgent implements CommandResponder {
+
+    private final Snmp snmp;
+    private final DefaultUdpTransportMapping transport;
+    private final ScheduledExecutorService responder = Executors.newSingleThreadScheduledExecutor();
+    private final Map<OID, Variable> variables = new ConcurrentHashMap<OID, Variable>();
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger maxPending = new AtomicInteger();
+
+    private volatile long delay;
+
+    LocalAgent() throws IOException {
+        transport = new DefaultUdpTransportMapping(new UdpAddress("127.0.0.1/0"));
+        snmp = new Snmp(transport);
+        snmp.addCommandResponder(this);
+        transport.listen();
+    }
+
+    Address getAddress() {
+        return transport.getListenAddress();
+    }
+
+    void put(OID oid, Variable variable) {
+        variables.put(oid, variable);
+    }
+
+    /**
+     * @param delay the time in milliseconds to wait before answering a request
+     */
+    void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the highest number of requests which were waiting for their answer
+     *         at the same time
+     */
+    int getMaxPending() {
+        return maxPending.get();
+    }
+
+    void close() throws IOException {
+        responder.shutdownNow();
+        snmp.close();
+    }
+
+    @Override
+    public void processPdu(final CommandResponderEvent event) {
+        if (event.getPDU().getType() != PDU.GET) {
+            return;
+        }
+        event.setProcessed(true);
+        requestCount.incrementAndGet();
+        int current = pending.incrementAndGet();
+        int max = maxPending.get();
+        while (current > max && !maxPending.compareAndSet(max, current)) {
+            max = maxPending.get();
+        }
+
+        responder.schedule(new Runnable() {
+            @Override
+            public void run() {
+                pending.decrementAndGet();
+                respond(event);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void respond(CommandResponderEvent event) {
+        PDU response = (PDU) event.getPDU().clone();
+        response.setType(PDU.RESPONSE);
+        for (int i = 0; i < response.size(); i++) {
+            VariableBinding variableBinding = response.get(i);
+            Variable variable = variables.get(variableBinding.getOid());
+            if (variable == null) {
+                response.setErrorStatus(PDU.noSuchName);
+                response.setErrorIndex(i + 1);
+                break;
+            }
+            variableBinding.setVariable(variable);
+        }
+        try {
+            event.getMessageDispatcher().returnResponsePdu(event.getMessageProcessingModel(),
+                    event.getSecurityModel(), event.getSecurityName(), event.getSecurityLevel(), response,
+                    event.getMaxSizeResponsePDU(), event.getStateReference(), new StatusInformation());
+        } catch (MessageException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.snmp.internal;
+
+import java.net.DatagramSocket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.snmp4j.PDU;
+import org.snmp4j.Snmp;
+import org.snmp4j.mp.SnmpConstants;
+import org.snmp4j.smi.Address;
+import org.snmp4j.smi.Integer32;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.UdpAddress;
+import org.snmp4j.smi.VariableBinding;
+import org.snmp4j.transport.DefaultUdpTransportMapping;
+
+import junit.framework.Assert;
+
+/**
+ * Testcases for the GET requests of the SNMP binding against a {@link LocalAgent}.
+ *
+ * @since 1.14.0
+ */
+public class SnmpPollerTest {
+
+    private static final OctetString COMMUNITY = new OctetString("public");
+    private static final String PREFIX = "1.3.6.1.4.1.99999.1.";
+
+    private LocalAgent agent;
+    private Snmp snmp;
+
+    private final Map<OID, String> received = new ConcurrentHashMap<OID, String>();
+    private volatile CountDownLatch latch;
+
+    private final SnmpPoller.ResponseHandler handler = new SnmpPoller.ResponseHandler() {
+        @Override
+        public void handleResponse(Address address, PDU response) {
+            for (VariableBinding variableBinding : response.getVariableBindings()) {
+                received.put(variableBinding.getOid(), variableBinding.getVariable().toString());
+                latch.countDown();
+            }
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        agent = new LocalAgent();
+        for (int i = 0; i < 100; i++) {
+            agent.put(new OID(PREFIX + i), new Integer32(i));
+        }
+        DefaultUdpTransportMapping transport = new DefaultUdpTransportMapping(new UdpAddress("127.0.0.1/0"));
+        snmp = new Snmp(transport);
+        transport.listen();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        snmp.close();
+        agent.close();
+    }
+
+    private SnmpPoller.Batch createBatch(Address address, int version, int count) {
+        SnmpPoller.Batch batch = new SnmpPoller.Batch();
+        for (int i = 0; i < count; i++) {
+            batch.add(address, COMMUNITY, version, new OID(PREFIX + i));
+        }
+        return batch;
+    }
+
+    @Test
+    public void testOidsAreRequestedTogether() throws Exception {
+        SnmpPoller poller = new SnmpPoller(handler, 20, 10);
+        latch = new CountDownLatch(45);
+
+        SnmpPoller.Batch batch = createBatch(agent.getAddress(), SnmpConstants.version2c, 45);
+        Assert.assertEquals(3, poller.send(snmp, batch, 1000, 0));
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(3, agent.getRequestCount());
+        Assert.assertEquals(45, received.size());
+        Assert.assertEquals("44", received.get(new OID(PREFIX + 44)));
+    }
+
+    @Test
+    public void testPendingRequestsAreLimited() throws Exception {
+        SnmpPoller poller = new SnmpPoller(handler, 1, 2);
+        agent.setDelay(50);
+        latch = new CountDownLatch(10);
+
+        SnmpPoller.Batch batch = createBatch(agent.getAddress(), SnmpConstants.version2c, 10);
+        Assert.assertEquals(10, poller.send(snmp, batch, 1000, 0));
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(10, agent.getRequestCount());
+        Assert.assertTrue(agent.getMaxPending() <= 2);
+    }
+
+    @Test
+    public void testUnknownOidIsLeftOutForVersion1() throws Exception {
+        SnmpPoller poller = new SnmpPoller(handler, 20, 10);
+        SnmpPoller.Batch batch = createBatch(agent.getAddress(), SnmpConstants.version1, 5);
+        batch.add(agent.getAddress(), COMMUNITY, SnmpConstants.version1, new OID(PREFIX + "1000"));
+        latch = new CountDownLatch(5);
+
+        Assert.assertEquals(1, poller.send(snmp, batch, 1000, 0));
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, agent.getRequestCount());
+        Assert.assertEquals(5, received.size());
+        Assert.assertEquals(1, poller.getErrorCount());
+    }
+
+    @Test
+    public void testTimeoutReleasesRequest() throws Exception {
+        // a port nobody answers on
+        DatagramSocket socket = new DatagramSocket(0);
+        Address silent = new UdpAddress("127.0.0.1/" + socket.getLocalPort());
+        try {
+            SnmpPoller poller = new SnmpPoller(handler, 20, 1);
+            latch = new CountDownLatch(1);
+
+            Assert.assertEquals(2, poller.send(snmp, createBatch(silent, SnmpConstants.version2c, 1), 200, 0)
+                    + poller.send(snmp, createBatch(agent.getAddress(), SnmpConstants.version2c, 1), 200, 0));
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, poller.getTimeoutCount());
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -88,6 +88,17 @@ public interface SnmpBindingProvider extends BindingProvider {
      */
     List<String> getInBindingItemNames();
 
+    /**
+     * Returns all items which are mapped to a SNMP-In-Binding of the given address
+     * and OID
+     * 
+     * @param address the address of the SNMP agent
+     * @param oid the OID of the variable
+     * @return items which are mapped to a SNMP-In-Binding of the address and OID
+     * @since 1.14.0
+     */
+    List<String> getInBindingItemNames(Address address, OID oid);
+
     /**
      * Returns the IP address of the SNMP binding
      * 
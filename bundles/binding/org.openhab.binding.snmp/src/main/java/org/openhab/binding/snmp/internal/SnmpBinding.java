@@ -63,9 +63,9 @@ import org.snmp4j.transport.DefaultUdpTransportMapping;
  * @since 0.9.0
  */
 public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
-        implements ManagedService, CommandResponder, ResponseListener {
+        implements ManagedService, CommandResponder, ResponseListener, SnmpPoller.ResponseHandler {
 
-    private Snmp snmp;
+    private volatile Snmp snmp;
     private static final Logger logger = LoggerFactory.getLogger(SnmpBinding.class);
 
     private static DefaultUdpTransportMapping transport;
@@ -86,6 +86,14 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
      */
     private int granularity = 1000;
 
+    /** the maximum number of OIDs requested from an agent with a single GET request (defaults to 20) */
+    private int maxOidsPerRequest = 20;
+
+    /** the maximum number of GET requests waiting for their response (defaults to 10) */
+    private int maxPendingRequests = 10;
+
+    private final SnmpPoller poller = new SnmpPoller(this, maxOidsPerRequest, maxPendingRequests);
+
     private Map<String, Long> lastUpdateMap = new HashMap<String, Long>();
 
     @Override
@@ -145,6 +153,7 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
             }
 
             snmp = new Snmp(transport);
+            snmp.addCommandResponder(this);
 
             transport.listen();
             logger.debug("SNMP binding is listening on " + address);
@@ -219,54 +228,63 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
         dispatchPdu(event.getPeerAddress(), event.getResponse());
     }
 
+    /**
+     * Called when the response to a GET request of the {@link SnmpPoller} is
+     * received
+     */
+    @Override
+    public void handleResponse(Address address, PDU response) {
+        dispatchPdu(address, response);
+    }
+
     private void dispatchPdu(Address address, PDU pdu) {
         if (pdu != null & address != null) {
             logger.debug("Received PDU from '{}' '{}'", address, pdu);
-            for (SnmpBindingProvider provider : providers) {
-                for (String itemName : provider.getItemNames()) {
-                    // Check the IP address
-                    if (!provider.getAddress(itemName).equals(address)) {
-                        continue;
-                    }
-
-                    // Check the OID
-                    OID oid = provider.getOID(itemName);
-                    Variable variable = pdu.getVariable(oid);
-                    if (variable != null) {
-                        Class<? extends Item> itemType = provider.getItemType(itemName);
-
-                        // Do any transformations
-                        String value = variable.toString();
-                        try {
-                            value = provider.doTransformation(itemName, value);
-                        } catch (TransformationException e) {
-                            logger.error("Transformation error with item {}: {}", itemName, e);
-                        }
-
-                        // Change to a state
-                        State state = null;
-                        if (itemType.isAssignableFrom(StringItem.class)) {
-                            state = StringType.valueOf(value);
-                        } else if (itemType.isAssignableFrom(NumberItem.class)) {
-                            state = DecimalType.valueOf(value);
-                        } else if (itemType.isAssignableFrom(SwitchItem.class)) {
-                            state = OnOffType.valueOf(value);
-                        }
-
-                        if (state != null) {
-                            eventPublisher.postUpdate(itemName, state);
-                        } else {
-                            logger.debug("'{}' couldn't be parsed to a State. Valid State-Types are String and Number",
-                                    variable.toString());
-                        }
-                    } else {
-                        logger.trace("PDU doesn't contain a variable with OID '{}'", oid.toString());
+            for (VariableBinding variableBinding : pdu.getVariableBindings()) {
+                OID oid = variableBinding.getOid();
+                boolean bound = false;
+                for (SnmpBindingProvider provider : providers) {
+                    for (String itemName : provider.getInBindingItemNames(address, oid)) {
+                        bound = true;
+                        postUpdate(provider, itemName, variableBinding.getVariable());
                     }
                 }
+                if (!bound) {
+                    logger.trace("No item is bound to OID '{}'", oid);
+                }
             }
         }
     }
 
+    private void postUpdate(SnmpBindingProvider provider, String itemName, Variable variable) {
+        Class<? extends Item> itemType = provider.getItemType(itemName);
+
+        // Do any transformations
+        String value = variable.toString();
+        try {
+            value = provider.doTransformation(itemName, value);
+        } catch (TransformationException e) {
+            logger.error("Transformation error with item {}: {}", itemName, e);
+        }
+
+        // Change to a state
+        State state = null;
+        if (itemType.isAssignableFrom(StringItem.class)) {
+            state = StringType.valueOf(value);
+        } else if (itemType.isAssignableFrom(NumberItem.class)) {
+            state = DecimalType.valueOf(value);
+        } else if (itemType.isAssignableFrom(SwitchItem.class)) {
+            state = OnOffType.valueOf(value);
+        }
+
+        if (state != null) {
+            eventPublisher.postUpdate(itemName, state);
+        } else {
+            logger.debug("'{}' couldn't be parsed to a State. Valid State-Types are String and Number",
+                    variable.toString());
+        }
+    }
+
     /**
      * @{inheritDoc
      */
@@ -319,10 +337,12 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
     }
 
     /**
-     * @{inheritDoc
+     * Requests the OIDs of all items which are due. The OIDs of an agent are
+     * requested together, the responses are handled as they are received.
      */
     @Override
     public void execute() {
+        SnmpPoller.Batch batch = new SnmpPoller.Batch();
         for (SnmpBindingProvider provider : providers) {
             for (String itemName : provider.getInBindingItemNames()) {
                 int refreshInterval = provider.getRefreshInterval(itemName);
@@ -343,32 +363,24 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
                 if (needsUpdate) {
                     logger.debug("Item '{}' is about to be refreshed", itemName);
 
-                    // Set up the target
-                    CommunityTarget target = new CommunityTarget();
-                    target.setCommunity(provider.getCommunity(itemName));
-                    target.setAddress(provider.getAddress(itemName));
-                    target.setRetries(retries);
-                    target.setTimeout(timeout);
-                    target.setVersion(provider.getSnmpVersion(itemName));
-
-                    // Create the PDU
-                    PDU pdu = new PDU();
-                    pdu.add(new VariableBinding(provider.getOID(itemName)));
-                    pdu.setType(PDU.GET);
-
-                    logger.debug("SNMP: Send PDU {} {}", provider.getAddress(itemName), pdu);
-
-                    if (snmp == null) {
-                        logger.error("SNMP: snmp not initialised - aborting request");
-                    } else {
-                        sendPDU(target, pdu);
-                    }
+                    batch.add(provider.getAddress(itemName), provider.getCommunity(itemName),
+                            provider.getSnmpVersion(itemName), provider.getOID(itemName));
 
                     lastUpdateMap.put(itemName, System.currentTimeMillis());
                 }
             }
         }
 
+        if (batch.isEmpty()) {
+            return;
+        }
+        Snmp snmp = this.snmp;
+        if (snmp == null) {
+            logger.error("SNMP: snmp not initialised - aborting request");
+        } else {
+            int requests = poller.send(snmp, batch, timeout, retries);
+            logger.debug("SNMP: sent {} requests, {}", requests, poller);
+        }
     }
 
     protected void addBindingProvider(SnmpBindingProvider bindingProvider) {
@@ -433,6 +445,16 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
                         SnmpBinding.retries);
             }
 
+            String maxOidsPerRequestString = (String) config.get("maxOidsPerRequest");
+            if (StringUtils.isNotBlank(maxOidsPerRequestString)) {
+                maxOidsPerRequest = Math.max(1, Integer.parseInt(maxOidsPerRequestString));
+            }
+
+            String maxPendingRequestsString = (String) config.get("maxPendingRequests");
+            if (StringUtils.isNotBlank(maxPendingRequestsString)) {
+                maxPendingRequests = Math.max(1, Integer.parseInt(maxPendingRequestsString));
+            }
+            poller.setLimits(maxOidsPerRequest, maxPendingRequests);
         }
 
         for (SnmpBindingProvider provider : providers) {
@@ -13,6 +13,8 @@
 package org.openhab.binding.snmp.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -323,6 +325,27 @@ public class SnmpGenericBindingProvider extends AbstractGenericBindingProvider i
         return inBindings;
     }
 
+    /**
+     * @{inheritDoc
+     */
+    @Override
+    public List<String> getInBindingItemNames(Address address, OID oid) {
+        return new ArrayList<String>(getItemNamesForAddress(new InBindingKey(address, oid)));
+    }
+
+    /**
+     * Indexes the In-Binding of an item by its address and OID, so that the
+     * variables of a received PDU are dispatched to the items bound to them only.
+     */
+    @Override
+    protected Collection<?> getBindingAddresses(BindingConfig config) {
+        SnmpBindingConfigElement element = ((SnmpBindingConfig) config).get(IN_BINDING_KEY);
+        if (element == null) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(new InBindingKey(element.address, element.oid));
+    }
+
     /**
      * @{inheritDoc
      */
@@ -430,6 +453,33 @@ public class SnmpGenericBindingProvider extends AbstractGenericBindingProvider i
         return config != null && config.get(IN_BINDING_KEY) != null ? config.get(IN_BINDING_KEY).refreshInterval : 0;
     }
 
+    /**
+     * The key of the In-Bindings of a variable in the address index.
+     */
+    private static class InBindingKey {
+        private final Address address;
+        private final OID oid;
+
+        InBindingKey(Address address, OID oid) {
+            this.address = address;
+            this.oid = oid;
+        }
+
+        @Override
+        public int hashCode() {
+            return address.hashCode() * 31 + oid.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof InBindingKey)) {
+                return false;
+            }
+            InBindingKey other = (InBindingKey) obj;
+            return address.equals(other.address) && oid.equals(other.oid);
+        }
+    }
+
     static class SnmpBindingConfig extends HashMap<Command, SnmpBindingConfigElement> implements BindingConfig {
 
         private static final long serialVersionUID = 4697146075427676116L;
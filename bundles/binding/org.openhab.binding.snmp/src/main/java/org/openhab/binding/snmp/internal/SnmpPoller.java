@@ -0,0 +1,380 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.snmp.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.CommunityTarget;
+import org.snmp4j.PDU;
+import org.snmp4j.Snmp;
+import org.snmp4j.event.ResponseEvent;
+import org.snmp4j.event.ResponseListener;
+import org.snmp4j.mp.SnmpConstants;
+import org.snmp4j.smi.Address;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.VariableBinding;
+
+/**
+ * Sends the GET requests of the {@link SnmpBinding}.
+ * <p>
+ * The OIDs of one refresh cycle are grouped by agent, community and version, and
+ * each group is requested with as few GET requests as possible, each containing
+ * up to a configured number of OIDs. The requests are sent asynchronously, the
+ * number of requests waiting for their response is limited, so that a cycle
+ * doesn't flood the network or the agents.
+ * <p>
+ * SNMPv1 agents answer a request with an error as soon as one of its OIDs is
+ * unknown. Such a request is sent again without the offending OID, so that the
+ * other OIDs are still received.
+ *
+ * @since 1.14.0
+ */
+class SnmpPoller {
+
+    /**
+     * Receives the responses of the GET requests.
+     */
+    interface ResponseHandler {
+
+        /**
+         * @param address the address of the agent the request has been sent to
+         * @param response the response, which contains a variable for every
+         *            requested OID
+         */
+        void handleResponse(Address address, PDU response);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SnmpPoller.class);
+
+    /** the time in milliseconds to wait for a free request slot in addition to the timeout of a request */
+    private static final long PERMIT_GRACE_PERIOD = 1000;
+
+    private final ResponseHandler handler;
+
+    private final ResponseListener listener = new ResponseListener() {
+        @Override
+        public void onResponse(ResponseEvent event) {
+            // always cancel the request, otherwise it is leaked
+            ((Snmp) event.getSource()).cancel(event.getRequest(), this);
+            SnmpPoller.this.onResponse((Snmp) event.getSource(), (Request) event.getUserObject(),
+                    event.getResponse());
+        }
+    };
+
+    private volatile int maxOidsPerRequest;
+    private volatile Semaphore permits;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong oidCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong answeredCount = new AtomicLong();
+    private final AtomicLong totalRoundTrip = new AtomicLong();
+    private final AtomicLong maxRoundTrip = new AtomicLong();
+
+    /**
+     * @param handler receives the responses
+     * @param maxOidsPerRequest the maximum number of OIDs requested with a single
+     *            GET request
+     * @param maxPendingRequests the maximum number of requests waiting for their
+     *            response at the same time
+     */
+    SnmpPoller(ResponseHandler handler, int maxOidsPerRequest, int maxPendingRequests) {
+        this.handler = handler;
+        setLimits(maxOidsPerRequest, maxPendingRequests);
+    }
+
+    /**
+     * Changes the limits of the requests. Requests which are waiting for their
+     * response already are still counted against the previous limit.
+     *
+     * @param maxOidsPerRequest the maximum number of OIDs requested with a single
+     *            GET request
+     * @param maxPendingRequests the maximum number of requests waiting for their
+     *            response at the same time
+     */
+    void setLimits(int maxOidsPerRequest, int maxPendingRequests) {
+        this.maxOidsPerRequest = Math.max(1, maxOidsPerRequest);
+        this.permits = new Semaphore(Math.max(1, maxPendingRequests));
+    }
+
+    /**
+     * Sends GET requests for all OIDs of the given batch. Waits while the maximum
+     * number of requests is pending, but doesn't wait for the responses of the
+     * requests.
+     *
+     * @param snmp the session to send the requests with
+     * @param batch the OIDs to request
+     * @param timeout the timeout of a request in milliseconds
+     * @param retries the number of retries of a request
+     * @return the number of requests sent
+     */
+    int send(Snmp snmp, Batch batch, int timeout, int retries) {
+        Semaphore permits = this.permits;
+        int maxOids = maxOidsPerRequest;
+        int sent = 0;
+        for (Map.Entry<Target, Set<OID>> entry : batch.oids.entrySet()) {
+            List<OID> oids = new ArrayList<OID>(entry.getValue());
+            for (int from = 0; from < oids.size(); from += maxOids) {
+                List<OID> chunk = oids.subList(from, Math.min(from + maxOids, oids.size()));
+                try {
+                    if (!permits.tryAcquire(timeout * (retries + 1L) + PERMIT_GRACE_PERIOD, TimeUnit.MILLISECONDS)) {
+                        logger.warn("SNMP: no response to the pending requests, skipping the remaining requests");
+                        return sent;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return sent;
+                }
+                Request request = new Request(entry.getKey(), new ArrayList<OID>(chunk), timeout, retries, permits);
+                if (sendRequest(snmp, request)) {
+                    sent++;
+                }
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Sends a request, whose permit has been acquired already. The permit is
+     * released if the request couldn't be sent.
+     */
+    private boolean sendRequest(Snmp snmp, Request request) {
+        CommunityTarget target = new CommunityTarget();
+        target.setCommunity(request.target.community);
+        target.setAddress(request.target.address);
+        target.setRetries(request.retries);
+        target.setTimeout(request.timeout);
+        target.setVersion(request.target.version);
+
+        PDU pdu = new PDU();
+        for (OID oid : request.oids) {
+            pdu.add(new VariableBinding(oid));
+        }
+        pdu.setType(PDU.GET);
+
+        logger.debug("SNMP: Send PDU {} {}", request.target.address, pdu);
+        try {
+            request.sent = System.nanoTime();
+            snmp.send(pdu, target, request, listener);
+            requestCount.incrementAndGet();
+            oidCount.addAndGet(request.oids.size());
+            return true;
+        } catch (IOException e) {
+            logger.error("Error sending PDU", e);
+            request.finish();
+            return false;
+        }
+    }
+
+    private void onResponse(Snmp snmp, Request request, PDU response) {
+        if (request == null || request.done.get()) {
+            return;
+        }
+
+        long roundTrip = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - request.sent);
+        if (response == null) {
+            timeoutCount.incrementAndGet();
+            logger.debug("SNMP: no response from {} for {}", request.target.address, request.oids);
+            request.finish();
+            return;
+        }
+        recordRoundTrip(roundTrip);
+
+        if (response.getErrorStatus() != PDU.noError) {
+            errorCount.incrementAndGet();
+            int index = response.getErrorIndex();
+            if (request.target.version == SnmpConstants.version1 && index > 0 && index <= request.oids.size()
+                    && request.oids.size() > 1) {
+                List<OID> remaining = new ArrayList<OID>(request.oids);
+                OID failed = remaining.remove(index - 1);
+                logger.debug("SNMP: {} failed for OID {} ({}), requesting the other OIDs again",
+                        request.target.address, failed, response.getErrorStatusText());
+                // the new request takes over the permit of the failed one
+                if (request.done.compareAndSet(false, true)) {
+                    Request retry = new Request(request.target, remaining, request.timeout, request.retries,
+                            request.permits);
+                    sendRequest(snmp, retry);
+                }
+            } else {
+                logger.debug("SNMP: {} answered {} with error {}", request.target.address, request.oids,
+                        response.getErrorStatusText());
+                request.finish();
+            }
+            return;
+        }
+
+        request.finish();
+        try {
+            handler.handleResponse(request.target.address, response);
+        } catch (RuntimeException e) {
+            logger.error("Error handling the response of {}: {}", request.target.address, e.getMessage(), e);
+        }
+    }
+
+    private void recordRoundTrip(long roundTrip) {
+        answeredCount.incrementAndGet();
+        totalRoundTrip.addAndGet(roundTrip);
+        long max = maxRoundTrip.get();
+        while (roundTrip > max && !maxRoundTrip.compareAndSet(max, roundTrip)) {
+            max = maxRoundTrip.get();
+        }
+    }
+
+    /**
+     * @return the number of requests sent
+     */
+    long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the number of OIDs requested
+     */
+    long getOidCount() {
+        return oidCount.get();
+    }
+
+    /**
+     * @return the number of requests which haven't been answered
+     */
+    long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * @return the number of requests which have been answered with an error
+     */
+    long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * @return the average time in milliseconds until a request has been answered
+     */
+    long getAverageRoundTrip() {
+        long count = answeredCount.get();
+        return count == 0 ? 0 : totalRoundTrip.get() / count;
+    }
+
+    /**
+     * @return the longest time in milliseconds until a request has been answered
+     */
+    long getMaxRoundTrip() {
+        return maxRoundTrip.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SnmpPoller [requests=" + getRequestCount() + ", oids=" + getOidCount() + ", timeouts="
+                + getTimeoutCount() + ", errors=" + getErrorCount() + ", avgRoundTrip=" + getAverageRoundTrip()
+                + "ms, maxRoundTrip=" + getMaxRoundTrip() + "ms]";
+    }
+
+    /**
+     * The OIDs to request in one refresh cycle.
+     */
+    static class Batch {
+
+        private final Map<Target, Set<OID>> oids = new LinkedHashMap<Target, Set<OID>>();
+
+        /**
+         * Adds an OID to request from an agent.
+         */
+        void add(Address address, OctetString community, int version, OID oid) {
+            Target target = new Target(address, community, version);
+            Set<OID> targetOids = oids.get(target);
+            if (targetOids == null) {
+                targetOids = new LinkedHashSet<OID>();
+                oids.put(target, targetOids);
+            }
+            targetOids.add(oid);
+        }
+
+        boolean isEmpty() {
+            return oids.isEmpty();
+        }
+    }
+
+    /**
+     * The agent, community and version of a request.
+     */
+    private static class Target {
+
+        final Address address;
+        final OctetString community;
+        final int version;
+
+        Target(Address address, OctetString community, int version) {
+            this.address = address;
+            this.community = community;
+            this.version = version;
+        }
+
+        @Override
+        public int hashCode() {
+            return (address.hashCode() * 31 + community.hashCode()) * 31 + version;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Target)) {
+                return false;
+            }
+            Target other = (Target) obj;
+            return address.equals(other.address) && community.equals(other.community) && version == other.version;
+        }
+    }
+
+    /**
+     * A request waiting for its response, which holds one permit until it is
+     * finished.
+     */
+    private static class Request {
+
+        final Target target;
+        final List<OID> oids;
+        final int timeout;
+        final int retries;
+        final Semaphore permits;
+        final AtomicBoolean done = new AtomicBoolean();
+        long sent;
+
+        Request(Target target, List<OID> oids, int timeout, int retries, Semaphore permits) {
+            this.target = target;
+            this.oids = oids;
+            this.timeout = timeout;
+            this.retries = retries;
+            this.permits = permits;
+        }
+
+        void finish() {
+            if (done.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
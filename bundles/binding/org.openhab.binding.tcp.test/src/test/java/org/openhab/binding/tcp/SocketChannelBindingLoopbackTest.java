@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tcp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.binding.BindingChangeListener;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+
+/**
+ * Testcases for the {@link AbstractSocketChannelBinding}, connected to a server on the
+ * loopback interface. Received data has to be handled as soon as it arrives, not at the
+ * next refresh of the binding.
+ *
+ * @since 1.14.0
+ */
+public class SocketChannelBindingLoopbackTest {
+
+    private static final String ITEM = "Item";
+    private static final Command COMMAND = StringType.valueOf("*");
+    private static final long REFRESH_INTERVAL = 250;
+
+    private static class Provider implements ChannelBindingProvider {
+
+        private final InetSocketAddress address;
+
+        Provider(int port) {
+            address = new InetSocketAddress("127.0.0.1", port);
+        }
+
+        @Override
+        public void addBindingChangeListener(BindingChangeListener listener) {
+        }
+
+        @Override
+        public void removeBindingChangeListener(BindingChangeListener listener) {
+        }
+
+        @Override
+        public boolean providesBindingFor(String itemName) {
+            return ITEM.equals(itemName);
+        }
+
+        @Override
+        public boolean providesBinding() {
+            return true;
+        }
+
+        @Override
+        public Collection<String> getItemNames() {
+            return Collections.singletonList(ITEM);
+        }
+
+        @Override
+        public List<InetSocketAddress> getInetSocketAddresses(String itemName) {
+            return Collections.singletonList(address);
+        }
+
+        @Override
+        public InetSocketAddress getInetSocketAddress(String itemName, Command command) {
+            return address;
+        }
+
+        @Override
+        public String getHost(String itemName, Command command) {
+            return address.getHostString();
+        }
+
+        @Override
+        public int getPort(String itemName, Command command) {
+            return address.getPort();
+        }
+
+        @Override
+        public String getPortAsString(String itemName, Command command) {
+            return Integer.toString(address.getPort());
+        }
+
+        @Override
+        public Collection<String> getItemNames(String host, int port) {
+            return getItemNames();
+        }
+
+        @Override
+        public List<Command> getQualifiedCommands(String itemName, Command command) {
+            return Collections.singletonList(COMMAND);
+        }
+
+        @Override
+        public List<Class<? extends State>> getAcceptedDataTypes(String itemName, Command command) {
+            return null;
+        }
+
+        @Override
+        public List<Command> getAllCommands(String itemName) {
+            return Collections.singletonList(COMMAND);
+        }
+
+        @Override
+        public Direction getDirection(String itemName, Command command) {
+            return Direction.OUT;
+        }
+    }
+
+    private static class LoopbackBinding extends AbstractSocketChannelBinding<Provider> {
+
+        private final BlockingQueue<Long> parsed = new LinkedBlockingQueue<Long>();
+
+        @Override
+        protected void configureChannel(Channel channel) {
+        }
+
+        @Override
+        protected boolean internalReceiveChanneledCommand(String itemName, Command command, Channel channel,
+                String commandAsString) {
+            return false;
+        }
+
+        @Override
+        protected void parseBuffer(String itemName, Command command, Direction direction, ByteBuffer buffer) {
+            parsed.add(System.nanoTime());
+        }
+
+        @Override
+        protected String getName() {
+            return "Loopback";
+        }
+
+        Channel getChannel(int port) {
+            return channels.get(ITEM, COMMAND, Direction.OUT, new InetSocketAddress("127.0.0.1", port));
+        }
+
+        ByteBuffer write(Channel channel, String data, boolean blocking) {
+            return writeBuffer(ByteBuffer.wrap(data.getBytes(StandardCharsets.US_ASCII)), channel, blocking, 3000);
+        }
+    }
+
+    private ServerSocket server;
+    private Socket peer;
+    private LoopbackBinding binding;
+    private AbstractSocketChannelBinding<Provider>.Channel channel;
+    private Thread refresher;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+
+        binding = new LoopbackBinding();
+        binding.activate();
+        Hashtable<String, String> config = new Hashtable<String, String>();
+        config.put("refreshinterval", Long.toString(REFRESH_INTERVAL));
+        config.put("queue", "true");
+        config.put("itemsharedconnections", "true");
+        config.put("bindingsharedconnections", "true");
+        binding.updated(config);
+        binding.addBindingProvider(new Provider(server.getLocalPort()));
+
+        // sets up the connections of the items, like the refresh thread of the binding does
+        refresher = new Thread("Loopback Refresh") {
+            @Override
+            public void run() {
+                while (!isInterrupted()) {
+                    binding.execute();
+                    try {
+                        Thread.sleep(REFRESH_INTERVAL);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        };
+        refresher.setDaemon(true);
+        refresher.start();
+
+        server.setSoTimeout(5000);
+        peer = server.accept();
+        peer.setTcpNoDelay(true);
+        for (int i = 0; i < 500; i++) {
+            channel = binding.getChannel(server.getLocalPort());
+            if (channel != null && channel.channel != null && channel.channel.isConnected()) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        assertTrue(channel.channel.isConnected());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        refresher.interrupt();
+        refresher.join(1000);
+        binding.deactivate();
+        peer.close();
+        server.close();
+    }
+
+    @Test
+    public void parsesReceivedDataAsSoonAsItArrives() throws Exception {
+        OutputStream out = peer.getOutputStream();
+        long total = 0;
+        int count = 20;
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            out.write("status\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            Long parsed = binding.parsed.poll(5, TimeUnit.SECONDS);
+            assertNotNull(parsed);
+            total += parsed - start;
+            Thread.sleep(20);
+        }
+
+        // data would wait for half a refresh interval on average if it was polled
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(total / count) < REFRESH_INTERVAL / 2);
+    }
+
+    @Test
+    public void writesAllDataInOrder() throws Exception {
+        int count = 2000;
+        for (int i = 0; i < count; i++) {
+            binding.write(channel, "cmd " + i + "\n", false);
+        }
+
+        peer.setSoTimeout(10000);
+        InputStream in = peer.getInputStream();
+        StringBuilder line = new StringBuilder();
+        int lines = 0;
+        while (lines < count) {
+            int c = in.read();
+            assertTrue(c >= 0);
+            if (c == '\n') {
+                assertEquals("cmd " + lines, line.toString());
+                line.setLength(0);
+                lines++;
+            } else {
+                line.append((char) c);
+            }
+        }
+    }
+
+    @Test
+    public void returnsReplyOfBlockingWrite() throws Exception {
+        Thread echo = new Thread("Loopback Echo") {
+            @Override
+            public void run() {
+                try {
+                    InputStream in = peer.getInputStream();
+                    OutputStream out = peer.getOutputStream();
+                    byte[] buffer = new byte[1024];
+                    int length;
+                    while ((length = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, length);
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // connection has been closed
+                }
+            }
+        };
+        echo.setDaemon(true);
+        echo.start();
+
+        for (int i = 0; i < 10; i++) {
+            ByteBuffer reply = binding.write(channel, "req " + i + "\n", true);
+            assertNotNull(reply);
+            byte[] data = new byte[reply.remaining()];
+            reply.get(data);
+            assertEquals("req " + i + "\n", new String(data, StandardCharsets.US_ASCII));
+        }
+    }
+}
@@ -12,24 +12,30 @@
  */
 package org.openhab.binding.tcp;
 
-import static org.quartz.DateBuilder.futureDate;
-import static org.quartz.JobBuilder.newJob;
-import static org.quartz.TriggerBuilder.newTrigger;
-
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.NotYetConnectedException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.core.binding.AbstractActiveBinding;
@@ -39,16 +45,6 @@ import org.openhab.core.types.State;
 import org.openhab.core.types.TypeParser;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
-import org.quartz.DateBuilder.IntervalUnit;
-import org.quartz.Job;
-import org.quartz.JobDataMap;
-import org.quartz.JobDetail;
-import org.quartz.JobExecutionContext;
-import org.quartz.JobExecutionException;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
-import org.quartz.Trigger;
-import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -85,7 +81,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
     protected boolean directionsShareChannels = false;
     // allow *:* host:port definitions
     protected boolean useAddressMask = true;
-    // refresh interval for the worker thread
+    // refresh interval for the worker thread that sets up the channels
     protected long refreshInterval = 250;
 
     protected DatagramChannel listenerChannel = null;
@@ -97,6 +93,19 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
     // Simple datastructure to track the state of Channels
     protected ChannelTracker<Channel> channels = new ChannelTracker<Channel>();
 
+    // held while registering channels, the selector itself is locked by the JDK whilst selecting
+    private final Object registrationLock = new Object();
+
+    // thread that waits for and handles the events of the selector
+    private Thread selectorThread;
+    private volatile boolean selecting;
+
+    // runs the reconnects, which must not block the selector thread
+    private ScheduledThreadPoolExecutor channelScheduler;
+
+    // buffer to receive incoming data into, only used by the selector thread
+    private ByteBuffer readBuffer;
+
     /**
      * Datastructure to represent that state of a communications channel
      * 
@@ -214,428 +223,383 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
      * contains() - return true if a channel that matches the provided criteria exists in the ChannelTracker
      * replace() - replaces the underlying Java NIO channel on the Channels that match the provided criteria
      * 
+     * The Channels are indexed by Item and by remote address, so that a query only looks at the Channels which can
+     * match it. A connected Java NIO channel is only ever bound to Channels for its remote end or with a masked
+     * address, so the queries for a Java NIO channel look at the Channels for its remote address. The listener channel
+     * is not connected and serves all remote ends. Channels are never removed from the tracker, and the indexes keep
+     * the order in which the Channels have been added.
+     * 
      * @author Karel Goderis
      * @since 1.4.0
      * 
      **/
-    protected class ChannelTracker<C extends Channel> extends ArrayList<C> {
+    protected class ChannelTracker<C extends Channel> implements Iterable<C> {
 
-        private static final long serialVersionUID = 1543958347565096785L;
+        private final List<C> all = new CopyOnWriteArrayList<C>();
 
-        public boolean contains(String item, Command command, Direction direction, InetSocketAddress remote) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
-                        return true;
-                    }
+        private final List<C> masked = new CopyOnWriteArrayList<C>();
+
+        private final ConcurrentMap<String, List<C>> byItem = new ConcurrentHashMap<String, List<C>>();
+
+        // every list also holds the masked Channels, in the order they have been added
+        private final ConcurrentMap<InetSocketAddress, List<C>> byRemote = new ConcurrentHashMap<InetSocketAddress, List<C>>();
+
+        public synchronized boolean add(C aChannel) {
+            all.add(aChannel);
+
+            List<C> itemChannels = byItem.get(aChannel.item);
+            if (itemChannels == null) {
+                itemChannels = new CopyOnWriteArrayList<C>();
+                byItem.put(aChannel.item, itemChannels);
+            }
+            itemChannels.add(aChannel);
+
+            if (aChannel.remote == null || "*".equals(aChannel.host) || "*".equals(aChannel.port)) {
+                masked.add(aChannel);
+                for (List<C> remoteChannels : byRemote.values()) {
+                    remoteChannels.add(aChannel);
                 }
+            }
+            if (aChannel.remote != null) {
+                List<C> remoteChannels = byRemote.get(aChannel.remote);
+                if (remoteChannels == null) {
+                    remoteChannels = new CopyOnWriteArrayList<C>(masked);
+                    byRemote.put(aChannel.remote, remoteChannels);
+                }
+                if (!remoteChannels.contains(aChannel)) {
+                    remoteChannels.add(aChannel);
+                }
+            }
+            return true;
+        }
 
-                return false;
+        public int size() {
+            return all.size();
+        }
+
+        @Override
+        public Iterator<C> iterator() {
+            return all.iterator();
+        }
+
+        private List<C> forItem(String itemName) {
+            List<C> itemChannels = byItem.get(itemName);
+            return itemChannels != null ? itemChannels : Collections.<C> emptyList();
+        }
+
+        private List<C> forRemote(InetSocketAddress remoteAddress) {
+            if (remoteAddress == null) {
+                return all;
             }
+            List<C> remoteChannels = byRemote.get(remoteAddress);
+            return remoteChannels != null ? remoteChannels : masked;
         }
 
-        public Channel get(String item, Command command, Direction direction, InetSocketAddress remote) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
-                        return aChannel;
-                    }
+        private List<C> forChannel(DatagramChannel theDatagramChannel) {
+            try {
+                // the listener channel is not connected and falls back to all the Channels
+                return forRemote((InetSocketAddress) theDatagramChannel.getRemoteAddress());
+            } catch (IOException e) {
+                // the channel is closed, so the remote address is not known anymore
+                return all;
+            }
+        }
+
+        public boolean contains(String item, Command command, Direction direction, InetSocketAddress remote) {
+            for (C aChannel : forItem(item)) {
+                if (item.equals(aChannel.item) && command.equals(aChannel.command)
+                        && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
+                    return true;
                 }
+            }
+
+            return false;
+        }
 
-                return null;
+        public Channel get(String item, Command command, Direction direction, InetSocketAddress remote) {
+            for (C aChannel : forItem(item)) {
+                if (item.equals(aChannel.item) && command.equals(aChannel.command)
+                        && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
+                    return aChannel;
+                }
             }
+
+            return null;
         }
 
         public Channel get(String item, Command command, Direction direction, String host, String port) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction)) {
-                        if (aChannel.host.equals(host) && aChannel.port.equals(port)) {
-                            return aChannel;
-                        }
+            for (C aChannel : forItem(item)) {
+                if (item.equals(aChannel.item) && command.equals(aChannel.command)
+                        && direction.equals(aChannel.direction)) {
+                    if (aChannel.host.equals(host) && aChannel.port.equals(port)) {
+                        return aChannel;
                     }
                 }
-
-                return null;
-
             }
+
+            return null;
         }
 
         public Channel get(DatagramChannel theDatagramChannel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel)) {
-                        return aChannel;
-                    }
+            for (C aChannel : forChannel(theDatagramChannel)) {
+                if (theDatagramChannel.equals(aChannel.channel)) {
+                    return aChannel;
                 }
-                return null;
             }
+            return null;
         }
 
         public Channel getFirst(Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel == null
-                            && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
+            List<C> candidates = forRemote(remoteAddress);
+            for (C aChannel : candidates) {
+                if (remoteAddress.equals(aChannel.remote) && aChannel.channel == null
+                        && direction.equals(aChannel.direction)) {
+                    return aChannel;
                 }
+            }
 
-                Iterator<C> it2 = iterator();
-                while (it2.hasNext()) {
-                    C aChannel = it2.next();
-                    if (remoteAddress.equals(aChannel.remote)) {
-                        return aChannel;
-                    }
+            for (C aChannel : candidates) {
+                if (remoteAddress.equals(aChannel.remote)) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public Channel getFirst(String itemName, Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
+                        && direction.equals(aChannel.direction)) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public Channel getFirstServed(String itemName, Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && aChannel.channel != null && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
+                        && aChannel.channel != null && direction.equals(aChannel.direction)) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public void replace(String itemName, Direction direction, DatagramChannel theDatagramChannel,
                 DatagramChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theDatagramChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
-                        aChannel.channel = channel;
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && theDatagramChannel.equals(aChannel.channel)
+                        && direction.equals(aChannel.direction)) {
+                    aChannel.channel = channel;
                 }
-
             }
         }
 
         public void replace(String itemName, Direction direction, InetSocketAddress remoteAddress,
                 DatagramChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && direction.equals(aChannel.direction) && !channel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
+                        && direction.equals(aChannel.direction) && !channel.equals(aChannel.channel)) {
+                    aChannel.channel = channel;
                 }
             }
-
         }
 
         public ArrayList<Channel> getAll(String itemName, Direction direction, DatagramChannel theDatagramChannel) {
-            synchronized (this) {
-
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
+            ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theDatagramChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
-                        selectedChannels.add(aChannel);
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && theDatagramChannel.equals(aChannel.channel)
+                        && direction.equals(aChannel.direction)) {
+                    selectedChannels.add(aChannel);
                 }
-
-                return selectedChannels;
             }
+
+            return selectedChannels;
         }
 
         public ArrayList<Channel> getAll(Direction direction, InetSocketAddress remote) {
-            synchronized (this) {
-
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
+            ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                if (useAddressMask) {
-                    Iterator<C> it = iterator();
-                    while (it.hasNext()) {
-                        C aChannel = it.next();
-                        if (direction.equals(aChannel.direction)) {
-                            if (aChannel.host.equals("*") && aChannel.port.equals(Integer.toString(remote.getPort()))) {
-                                selectedChannels.add(aChannel);
-                            } else if (aChannel.port.equals("*") && aChannel.host.equals(remote.getHostString())) {
-                                selectedChannels.add(aChannel);
-                            } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
-                                selectedChannels.add(aChannel);
-                            }
-                        }
-                    }
-                } else {
-                    Iterator<C> it = iterator();
-                    while (it.hasNext()) {
-                        C aChannel = it.next();
-                        if (remote.equals(aChannel.remote) && direction.equals(aChannel.direction)) {
+            if (useAddressMask) {
+                for (C aChannel : masked) {
+                    if (direction.equals(aChannel.direction)) {
+                        if (aChannel.host.equals("*") && aChannel.port.equals(Integer.toString(remote.getPort()))) {
+                            selectedChannels.add(aChannel);
+                        } else if (aChannel.port.equals("*") && aChannel.host.equals(remote.getHostString())) {
+                            selectedChannels.add(aChannel);
+                        } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
                             selectedChannels.add(aChannel);
                         }
                     }
                 }
-
-                return selectedChannels;
+            } else {
+                for (C aChannel : forRemote(remote)) {
+                    if (remote.equals(aChannel.remote) && direction.equals(aChannel.direction)) {
+                        selectedChannels.add(aChannel);
+                    }
+                }
             }
+
+            return selectedChannels;
         }
 
         public void setAll(String itemName, Direction direction, DatagramChannel theDatagramChannel, boolean b) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theDatagramChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
-                        aChannel.isBlocking = b;
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && theDatagramChannel.equals(aChannel.channel)
+                        && direction.equals(aChannel.direction)) {
+                    aChannel.isBlocking = b;
                 }
             }
         }
 
         public Channel getFirstServed(InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null) {
-                        return aChannel;
-                    }
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public void replace(Direction direction, SocketChannel oldSocketChannel, DatagramChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (oldSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
-                        aChannel.channel = channel;
-                    }
+            for (C aChannel : all) {
+                if (oldSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                    aChannel.channel = channel;
                 }
             }
         }
 
         public void replace(Direction direction, InetSocketAddress remoteAddress, DatagramChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
-                            && !channel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
-                    }
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
+                        && !channel.equals(aChannel.channel)) {
+                    aChannel.channel = channel;
                 }
             }
         }
 
         public ArrayList<Channel> getAll(Direction direction, DatagramChannel theDatagramChannel) {
-            synchronized (this) {
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
+            ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
-                        selectedChannels.add(aChannel);
-                    }
+            for (C aChannel : forChannel(theDatagramChannel)) {
+                if (theDatagramChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                    selectedChannels.add(aChannel);
                 }
-
-                return selectedChannels;
             }
+
+            return selectedChannels;
         }
 
         public void setAllBlocking(Direction direction, DatagramChannel theDatagramChannel, boolean b) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
-                        aChannel.isBlocking = true;
-                    }
+            for (C aChannel : forChannel(theDatagramChannel)) {
+                if (theDatagramChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                    aChannel.isBlocking = true;
                 }
             }
         }
 
         public Channel getFirstServed(Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null
-                            && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null
+                        && direction.equals(aChannel.direction)) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public void replace(DatagramChannel oldDatagramChannel, DatagramChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (oldDatagramChannel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
-                    }
+            for (C aChannel : forChannel(oldDatagramChannel)) {
+                if (oldDatagramChannel.equals(aChannel.channel)) {
+                    aChannel.channel = channel;
                 }
-
             }
         }
 
         public void replace(InetSocketAddress remoteAddress, DatagramChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && !channel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
-                    }
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (remoteAddress.equals(aChannel.remote) && !channel.equals(aChannel.channel)) {
+                    aChannel.channel = channel;
                 }
             }
-
         }
 
         public ArrayList<Channel> getAll(DatagramChannel theDatagramChannel) {
-            synchronized (this) {
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
+            ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel)) {
-                        selectedChannels.add(aChannel);
-                    }
+            for (C aChannel : forChannel(theDatagramChannel)) {
+                if (theDatagramChannel.equals(aChannel.channel)) {
+                    selectedChannels.add(aChannel);
                 }
-
-                return selectedChannels;
             }
+
+            return selectedChannels;
         }
 
         public void setAllBlocking(DatagramChannel theDatagramChannel, boolean b) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel)) {
-                        aChannel.isBlocking = b;
-                    }
+            for (C aChannel : forChannel(theDatagramChannel)) {
+                if (theDatagramChannel.equals(aChannel.channel)) {
+                    aChannel.isBlocking = b;
                 }
             }
         }
 
         public void setAllReconnecting(DatagramChannel theDatagramChannel, boolean b) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel)) {
-                        aChannel.isReconnecting = b;
-                    }
+            for (C aChannel : forChannel(theDatagramChannel)) {
+                if (theDatagramChannel.equals(aChannel.channel)) {
+                    aChannel.isReconnecting = b;
                 }
             }
         }
 
         public Channel getFirstNotServed(Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
-                            && (aChannel.channel == null || !aChannel.channel.isOpen())) {
-                        return aChannel;
-                    }
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
+                        && (aChannel.channel == null || !aChannel.channel.isOpen())) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public ArrayList<Channel> getAll(Direction direction, DatagramChannel theDatagramChannel,
                 InetSocketAddress clientAddress) {
-            synchronized (this) {
+            ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
-
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (clientAddress.equals(aChannel.remote) && theDatagramChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
-                        selectedChannels.add(aChannel);
-                    }
+            for (C aChannel : forRemote(clientAddress)) {
+                if (clientAddress.equals(aChannel.remote) && theDatagramChannel.equals(aChannel.channel)
+                        && direction.equals(aChannel.direction)) {
+                    selectedChannels.add(aChannel);
                 }
-
-                return selectedChannels;
             }
+
+            return selectedChannels;
         }
 
         public boolean isBlocking(DatagramChannel theDatagramChannel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel) && aChannel.isBlocking) {
-                        return true;
-                    }
+            for (C aChannel : forChannel(theDatagramChannel)) {
+                if (theDatagramChannel.equals(aChannel.channel) && aChannel.isBlocking) {
+                    return true;
                 }
-                return false;
             }
+            return false;
         }
 
         public Channel getBlocking(DatagramChannel theDatagramChannel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel) && aChannel.isBlocking) {
-                        return aChannel;
-                    }
+            for (C aChannel : forChannel(theDatagramChannel)) {
+                if (theDatagramChannel.equals(aChannel.channel) && aChannel.isBlocking) {
+                    return aChannel;
                 }
-                return null;
             }
+            return null;
         }
 
     }
@@ -691,14 +655,15 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
             logger.info("Listening for incoming data on {}", listenerChannel.getLocalAddress());
 
-            synchronized (selector) {
+            synchronized (registrationLock) {
                 selector.wakeup();
                 try {
-                    listenerKey = listenerChannel.register(selector, listenerChannel.validOps());
+                    listenerKey = listenerChannel.register(selector, SelectionKey.OP_READ);
                 } catch (ClosedChannelException e1) {
                     logger.warn("An exception occurred while registering a selector: {}", e1.getMessage());
                 }
             }
+            updateInterestOps(listenerChannel);
         } catch (Exception e3) {
             logger.warn("An exception occurred while creating the Listener Channel on port number {} ({})",
                     listenerPort, e3.getMessage());
@@ -716,7 +681,28 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
             selector = Selector.open();
         } catch (IOException e) {
             logger.warn("An exception occurred while registering the selector: {}", e.getMessage());
+            return;
         }
+
+        channelScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, getName() + " Channel Scheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        channelScheduler.setRemoveOnCancelPolicy(true);
+
+        selecting = true;
+        selectorThread = new Thread(getName() + " Selector") {
+            @Override
+            public void run() {
+                select();
+            }
+        };
+        selectorThread.setDaemon(true);
+        selectorThread.start();
     }
 
     /**
@@ -725,6 +711,22 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
     @Override
     public void deactivate() {
 
+        selecting = false;
+        if (selectorThread != null) {
+            selector.wakeup();
+            try {
+                selectorThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            selectorThread = null;
+        }
+
+        if (channelScheduler != null) {
+            channelScheduler.shutdownNow();
+            channelScheduler = null;
+        }
+
         try {
             selector.close();
         } catch (IOException e) {
@@ -919,38 +921,9 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                                 "The channel for {} has a connection problem. Data will queued to the new channel when it is successfully set up.",
                                 theChannel.remote);
 
-                        Scheduler scheduler = null;
-                        try {
-                            scheduler = StdSchedulerFactory.getDefaultScheduler();
-                        } catch (SchedulerException e1) {
-                            logger.warn("An exception occurred while getting the Quartz scheduler: {}",
-                                    e1.getMessage());
-                        }
-
-                        JobDataMap map = new JobDataMap();
-                        map.put("Channel", theChannel);
-                        map.put("Binding", this);
-
-                        JobDetail job = newJob(ReconnectJob.class)
-                                .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                        + Long.toString(System.currentTimeMillis()), this.toString())
-                                .usingJobData(map).build();
-
-                        Trigger trigger = newTrigger()
-                                .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                        + Long.toString(System.currentTimeMillis()), this.toString())
-                                .startNow().build();
-
-                        try {
-                            if (job != null && trigger != null) {
-                                if (!theChannel.isReconnecting) {
-                                    theChannel.isReconnecting = true;
-                                    scheduler.scheduleJob(job, trigger);
-                                }
-                            }
-                        } catch (SchedulerException e) {
-                            logger.warn("An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                    e.getMessage());
+                        if (!theChannel.isReconnecting) {
+                            theChannel.isReconnecting = true;
+                            scheduleReconnect(theChannel, 0);
                         }
                     }
 
@@ -1046,23 +1019,31 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
             if (theBuffer != null) {
                 writeQueue.add(new WriteBufferElement(theChannel, theBuffer, true));
+                updateInterestOps(theChannel.channel);
 
-                long currentElapsedTimeMillis = System.currentTimeMillis();
-
-                while (theChannel.buffer == null && (System.currentTimeMillis() - currentElapsedTimeMillis) < timeOut) {
-                    try {
-                        Thread.sleep(50);
-                    } catch (InterruptedException e) {
-                        logger.warn("An Exception occurred while waiting during a blocking buffer write");
+                // the selector thread notifies us as soon as it has received the response
+                ByteBuffer responseBuffer = null;
+                synchronized (theChannel) {
+                    long deadline = System.currentTimeMillis() + timeOut;
+                    long remaining = timeOut;
+                    while (theChannel.buffer == null && remaining > 0) {
+                        try {
+                            theChannel.wait(remaining);
+                        } catch (InterruptedException e) {
+                            logger.warn("An Exception occurred while waiting during a blocking buffer write");
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                        remaining = deadline - System.currentTimeMillis();
                     }
-                }
 
-                ByteBuffer responseBuffer = null;
-                synchronized (this) {
                     responseBuffer = theChannel.buffer;
                     theChannel.buffer = null;
                     theChannel.isBlocking = false;
                 }
+
+                // data queued in the meantime can be written again
+                updateInterestOps(theChannel.channel);
                 return responseBuffer;
             } else {
                 return theBuffer;
@@ -1072,6 +1053,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
             if (theBuffer != null) {
                 writeQueue.add(new WriteBufferElement(theChannel, theBuffer, false));
+                updateInterestOps(theChannel.channel);
             }
 
             return theBuffer;
@@ -1079,129 +1061,217 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
     }
 
     /**
-     * Quartz Job to reconnect a channel
-     * 
-     * @author Karel Goderis
-     * @since 1.2.0
+     * Returns true if data is queued to be written to the given channel.
+     */
+    private boolean hasQueuedWrites(DatagramChannel theDatagramChannel) {
+        synchronized (writeQueue) {
+            for (WriteBufferElement anElement : writeQueue) {
+                if (theDatagramChannel.equals(anElement.channel.channel)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sets the events the selector waits for on a channel: incoming data and, as long as data is queued and no
+     * blocking write/read operation is in progress, the possibility to write. A datagram channel can nearly always be
+     * written to, so waiting for that without data to write would keep the selector thread spinning.
      *
+     * @param theDatagramChannel the network channel
      */
-    public static class ReconnectJob implements Job {
+    protected void updateInterestOps(DatagramChannel theDatagramChannel) {
+        if (theDatagramChannel == null) {
+            return;
+        }
 
-        @SuppressWarnings({ "unchecked", "rawtypes" })
-        @Override
-        public void execute(JobExecutionContext context) throws JobExecutionException {
-            JobDataMap dataMap = context.getJobDetail().getJobDataMap();
-            AbstractDatagramChannelBinding theBinding = (AbstractDatagramChannelBinding) dataMap.get("Binding");
-            AbstractDatagramChannelBinding.Channel theChannel = (AbstractDatagramChannelBinding.Channel) dataMap
-                    .get("Channel");
+        synchronized (registrationLock) {
+            SelectionKey key = theDatagramChannel.keyFor(selector);
+            if (key == null || !key.isValid()) {
+                return;
+            }
 
-            if (theChannel.isReconnecting) {
+            int interestSet = SelectionKey.OP_READ;
+            if ((theDatagramChannel == listenerChannel || theDatagramChannel.isConnected())
+                    && hasQueuedWrites(theDatagramChannel) && !channels.isBlocking(theDatagramChannel)) {
+                interestSet |= SelectionKey.OP_WRITE;
+            }
 
-                if (theChannel.remote != null) {
-                    if (theChannel.channel != theBinding.listenerChannel) {
+            if (Thread.currentThread() != selectorThread) {
+                selector.wakeup();
+            }
+            try {
+                key.interestOps(interestSet);
+            } catch (CancelledKeyException e) {
+                logger.debug("The channel {} has been closed in the meantime", theDatagramChannel);
+            }
+        }
+    }
 
-                        SelectionKey sKey = theChannel.channel.keyFor(theBinding.selector);
-                        if (sKey != null) {
-                            sKey.cancel();
-                        }
+    /**
+     * Schedules the reconnection of a channel.
+     *
+     * @param theChannel the channel to reconnect
+     * @param delay the time to wait before reconnecting, in seconds
+     */
+    protected void scheduleReconnect(final Channel theChannel, long delay) {
+        ScheduledThreadPoolExecutor scheduler = channelScheduler;
+        if (scheduler == null) {
+            return;
+        }
 
-                        try {
-                            theChannel.channel.close();
-                        } catch (IOException e) {
-                            logger.warn("An exception occurred while closing a channel: {}", e.getMessage());
-                        }
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        reconnect(theChannel);
+                    } catch (RuntimeException e) {
+                        logger.warn("An exception occurred while reconnecting the channel for {}", theChannel.remote,
+                                e);
+                    }
+                }
+            }, delay, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Not reconnecting the channel for {}, the binding has been deactivated", theChannel.remote);
+        }
+    }
 
-                        try {
-                            theChannel.channel = DatagramChannel.open();
-                        } catch (IOException e) {
-                            logger.warn("An exception occurred while opening a channel: {}", e.getMessage());
-                        }
+    /**
+     * Replaces the underlying Java NIO channel of a channel that has encountered an error by a new one.
+     *
+     * @param theChannel the channel to reconnect
+     */
+    protected void reconnect(Channel theChannel) {
 
-                        theChannel.isBlocking = false;
-                        theChannel.buffer = null;
+        if (theChannel.isReconnecting) {
 
-                        try {
-                            theChannel.channel.configureBlocking(false);
-                            // setKeepAlive(true);
-                        } catch (Exception e) {
-                            logger.warn("An exception occurred while configuring a channel: {}", e.getMessage());
-                        }
+            if (theChannel.remote != null) {
+                if (theChannel.channel != listenerChannel) {
 
-                        synchronized (theBinding.selector) {
-                            theBinding.selector.wakeup();
-                            try {
-                                if (theChannel.channel != null) {
-                                    theChannel.channel.register(theBinding.selector, theChannel.channel.validOps());
-                                }
-                            } catch (ClosedChannelException e1) {
-                                logger.warn("An exception occurred while registering a selector: {}", e1.getMessage());
-                            }
-                        }
+                    SelectionKey sKey = theChannel.channel.keyFor(selector);
+                    if (sKey != null) {
+                        sKey.cancel();
+                    }
+
+                    try {
+                        theChannel.channel.close();
+                    } catch (IOException e) {
+                        logger.warn("An exception occurred while closing a channel: {}", e.getMessage());
+                    }
 
+                    try {
+                        theChannel.channel = DatagramChannel.open();
+                    } catch (IOException e) {
+                        logger.warn("An exception occurred while opening a channel: {}", e.getMessage());
+                    }
+
+                    theChannel.isBlocking = false;
+                    theChannel.buffer = null;
+
+                    try {
+                        theChannel.channel.configureBlocking(false);
+                        // setKeepAlive(true);
+                    } catch (Exception e) {
+                        logger.warn("An exception occurred while configuring a channel: {}", e.getMessage());
+                    }
+
+                    synchronized (registrationLock) {
+                        selector.wakeup();
                         try {
                             if (theChannel.channel != null) {
+                                theChannel.channel.register(selector, SelectionKey.OP_READ);
+                            }
+                        } catch (ClosedChannelException e1) {
+                            logger.warn("An exception occurred while registering a selector: {}", e1.getMessage());
+                        }
+                    }
 
-                                if (theBinding.itemShareChannels) {
-                                    theBinding.channels.replace(theChannel.item, theChannel.direction,
-                                            theChannel.remote, theChannel.channel);
-                                }
-
-                                if (theBinding.bindingShareChannels) {
-                                    theBinding.channels.replace(theChannel.direction, theChannel.remote,
-                                            theChannel.channel);
-                                }
+                    try {
+                        if (theChannel.channel != null) {
 
-                                if (theBinding.directionsShareChannels) {
-                                    theBinding.channels.replace(theChannel.remote, theChannel.channel);
-                                }
+                            if (itemShareChannels) {
+                                channels.replace(theChannel.item, theChannel.direction, theChannel.remote,
+                                        theChannel.channel);
+                            }
 
-                                theChannel.isBlocking = false;
-                                theBinding.channels.setAllReconnecting(theChannel.channel, false);
+                            if (bindingShareChannels) {
+                                channels.replace(theChannel.direction, theChannel.remote, theChannel.channel);
+                            }
 
-                                theChannel.channel.connect(theChannel.remote);
-                                logger.info("Attempting to reconnect the channel for {}", theChannel.remote);
+                            if (directionsShareChannels) {
+                                channels.replace(theChannel.remote, theChannel.channel);
                             }
-                        } catch (Exception e) {
-                            logger.warn("An exception occurred while connecting a channel: {}", e.getMessage());
+
+                            theChannel.isBlocking = false;
+                            channels.setAllReconnecting(theChannel.channel, false);
+
+                            theChannel.channel.connect(theChannel.remote);
+                            logger.info("Attempting to reconnect the channel for {}", theChannel.remote);
+
+                            // write the data that has been queued whilst reconnecting
+                            updateInterestOps(theChannel.channel);
                         }
-                    } else {
-                        logger.warn("The listener channel cannot be closed!");
+                    } catch (Exception e) {
+                        logger.warn("An exception occurred while connecting a channel: {}", e.getMessage());
                     }
                 } else {
-                    logger.debug("I cannot proceed without remote address");
+                    logger.warn("The listener channel cannot be closed!");
                 }
             } else {
-                logger.warn("Already reconnecting the channel for {}", theChannel.remote);
+                logger.debug("I cannot proceed without remote address");
             }
+        } else {
+            logger.warn("Already reconnecting the channel for {}", theChannel.remote);
         }
     }
 
     /**
-     * Quartz Job to configure a channel
-     * 
-     * @author Karel Goderis
-     * @since 1.4.0
+     * Closes the underlying Java NIO channel of a channel that has encountered an error, so that the selector does not
+     * report it again, and schedules its reconnection.
      *
+     * @param theDatagramChannel the network channel
+     * @param theChannel the channel to reconnect
      */
-    public static class ConfigureJob implements Job {
+    private void closeAndReconnect(DatagramChannel theDatagramChannel, Channel theChannel) {
+        try {
+            theDatagramChannel.close();
+        } catch (IOException e) {
+            logger.warn("An exception occurred while closing a channel: {}", e.getMessage());
+        }
 
-        @SuppressWarnings({ "unchecked", "rawtypes" })
-        @Override
-        public void execute(JobExecutionContext context) throws JobExecutionException {
-            JobDataMap dataMap = context.getJobDetail().getJobDataMap();
-            AbstractSocketChannelBinding theBinding = (AbstractSocketChannelBinding) dataMap.get("Binding");
-            AbstractSocketChannelBinding.Channel theChannel = (AbstractSocketChannelBinding.Channel) dataMap
-                    .get("Channel");
+        if (theChannel != null && !theChannel.isReconnecting) {
+            channels.setAllReconnecting(theDatagramChannel, true);
+            scheduleReconnect(theChannel, reconnectInterval);
+        }
+    }
 
-            if (theChannel.channel.isConnected()) {
-                theBinding.configureChannel(theChannel);
-            }
+    /**
+     * Waits for events on the channels and handles them as soon as they occur, until the binding is deactivated.
+     */
+    private void select() {
+        while (selecting) {
+            try {
+                synchronized (registrationLock) {
+                    // wait until other threads have finished registering channels with the selector
+                }
 
+                selector.select();
+                processSelectedKeys();
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                logger.warn("An exception occurred while Selecting ({})", e.getMessage());
+            } catch (RuntimeException e) {
+                logger.warn("An exception occurred while processing the selected channels", e);
+            }
         }
     }
 
     /**
-     * @{inheritDoc}
+     * Sets up the channels for the Items. The data of the channels is handled by the selector thread as soon as it
+     * arrives.
      */
     @Override
     protected void execute() {
@@ -1355,10 +1425,10 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                                                     e.getMessage());
                                         }
 
-                                        synchronized (selector) {
+                                        synchronized (registrationLock) {
                                             selector.wakeup();
                                             try {
-                                                newDatagramChannel.register(selector, newDatagramChannel.validOps());
+                                                newDatagramChannel.register(selector, SelectionKey.OP_READ);
                                             } catch (ClosedChannelException e1) {
                                                 logger.warn("An exception occurred while registering a selector: {}",
                                                         e1.getMessage());
@@ -1371,6 +1441,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                                         try {
                                             logger.info("'Connecting' the channel {} ", newChannel);
                                             newDatagramChannel.connect(remoteAddress);
+                                            updateInterestOps(newDatagramChannel);
                                         } catch (IOException e) {
                                             logger.warn("An exception occurred while connecting a channel: {}",
                                                     e.getMessage());
@@ -1387,15 +1458,12 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
             }
         }
 
-        // Check on channels for which we have to process data
-        synchronized (selector) {
-            try {
-                // Wait for an event
-                selector.selectNow();
-            } catch (IOException e) {
-                logger.warn("An exception occurred while Selecting ({})", e.getMessage());
-            }
-        }
+    }
+
+    /**
+     * Handles the events the selector has reported.
+     */
+    private void processSelectedKeys() {
 
         // Get list of selection keys with pending events
         Iterator<SelectionKey> it = selector.selectedKeys().iterator();
@@ -1411,15 +1479,19 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
                 if (selKey.isReadable()) {
                     InetSocketAddress clientAddress = null;
-                    ByteBuffer readBuffer = ByteBuffer.allocate(maximumBufferSize);
+                    if (readBuffer == null || readBuffer.capacity() != maximumBufferSize) {
+                        readBuffer = ByteBuffer.allocate(maximumBufferSize);
+                    }
                     int numberBytesRead = 0;
                     boolean error = false;
 
                     if (selKey == listenerKey) {
                         try {
                             clientAddress = (InetSocketAddress) theDatagramChannel.receive(readBuffer);
-                            logger.debug("Received {} on the listener port from {}", new String(readBuffer.array()),
-                                    clientAddress);
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Received {} on the listener port from {}",
+                                        new String(readBuffer.array(), 0, readBuffer.position()), clientAddress);
+                            }
                             numberBytesRead = readBuffer.position();
                         } catch (Exception e) {
                             error = true;
@@ -1433,10 +1505,13 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                             // for example, the buffer needs to be split based on a special character like line feed or
                             // carriage return
                             numberBytesRead = theDatagramChannel.read(readBuffer);
-                            logger.debug("Received {} bytes ({}) on the channel {}->{}",
-                                    new Object[] { numberBytesRead, new String(readBuffer.array()),
-                                            theDatagramChannel.getLocalAddress(),
-                                            theDatagramChannel.getRemoteAddress() });
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Received {} bytes ({}) on the channel {}->{}",
+                                        new Object[] { numberBytesRead,
+                                                new String(readBuffer.array(), 0, readBuffer.position()),
+                                                theDatagramChannel.getLocalAddress(),
+                                                theDatagramChannel.getRemoteAddress() });
+                            }
                         } catch (NotYetConnectedException e) {
                             try {
                                 logger.warn("The channel for {} has no connection pending ({})",
@@ -1461,6 +1536,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                         }
                     }
 
+                    int numberBytesReceived = readBuffer.position();
+
                     if (numberBytesRead == -1) {
                         try {
                             if (selKey != listenerKey) {
@@ -1481,44 +1558,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
                     if (error) {
                         if (selKey != listenerKey) {
-
-                            Scheduler scheduler = null;
-                            try {
-                                scheduler = StdSchedulerFactory.getDefaultScheduler();
-                            } catch (SchedulerException e1) {
-                                logger.warn("An exception occurred while getting the Quartz scheduler: {}",
-                                        e1.getMessage());
-                            }
-
-                            JobDataMap map = new JobDataMap();
-                            map.put("Channel", theChannel);
-                            map.put("Binding", this);
-
-                            JobDetail job = null;
-                            Trigger trigger = null;
-
-                            job = newJob(ReconnectJob.class)
-                                    .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                            + Long.toString(System.currentTimeMillis()), this.toString())
-                                    .usingJobData(map).build();
-
-                            trigger = newTrigger()
-                                    .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                            + Long.toString(System.currentTimeMillis()), this.toString())
-                                    .startAt(futureDate(reconnectInterval, IntervalUnit.SECOND)).build();
-
-                            try {
-                                if (job != null && trigger != null && selKey != listenerKey) {
-                                    if (!theChannel.isReconnecting) {
-                                        channels.setAllReconnecting(theDatagramChannel, true);
-                                        scheduler.scheduleJob(job, trigger);
-                                    }
-                                }
-                            } catch (SchedulerException e) {
-                                logger.warn(
-                                        "An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                        e.getMessage());
-                            }
+                            closeAndReconnect(theDatagramChannel, theChannel);
                         }
 
                     } else {
@@ -1529,7 +1569,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                             channelsToServe = channels.getAll(Direction.IN, clientAddress);
                             if (channelsToServe.size() == 0) {
                                 logger.warn("Received data {} from an undefined remote end {}. We will not process it",
-                                        new String(readBuffer.array()), clientAddress);
+                                        new String(readBuffer.array(), 0, numberBytesReceived), clientAddress);
                             }
                         } else {
                             channelsToServe = channels.getAll(theDatagramChannel);
@@ -1545,8 +1585,17 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                                 // that initiated the write opreation - it has to parse the buffer itself
 
                                 // find the Channel with this DGC that is holding a Blocking flag
-                                theChannel = channels.getBlocking(theDatagramChannel);
-                                theChannel.buffer = readBuffer;
+                                Channel blockingChannel = channels.getBlocking(theDatagramChannel);
+
+                                // the read buffer is reused, so the instance gets a copy of the data
+                                ByteBuffer responseBuffer = ByteBuffer.allocate(maximumBufferSize);
+                                responseBuffer.put(readBuffer);
+                                responseBuffer.flip();
+
+                                synchronized (blockingChannel) {
+                                    blockingChannel.buffer = responseBuffer;
+                                    blockingChannel.notifyAll();
+                                }
 
                             } else {
                                 for (Channel aChannel : channelsToServe) {
@@ -1575,17 +1624,23 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                             }
                         }
                     }
+
+                    // clear the data, so that the next read does not see the remains of this one
+                    Arrays.fill(readBuffer.array(), 0, numberBytesReceived, (byte) 0);
+                    readBuffer.clear();
                 } else if (selKey.isWritable()) {
 
                     WriteBufferElement theElement = null;
 
                     if (selKey == listenerKey) {
-                        Iterator<WriteBufferElement> iterator = writeQueue.iterator();
-                        while (iterator.hasNext()) {
-                            WriteBufferElement anElement = iterator.next();
-                            if (anElement.channel.channel.equals(listenerChannel)) {
-                                theElement = anElement;
-                                break;
+                        synchronized (writeQueue) {
+                            Iterator<WriteBufferElement> iterator = writeQueue.iterator();
+                            while (iterator.hasNext()) {
+                                WriteBufferElement anElement = iterator.next();
+                                if (listenerChannel.equals(anElement.channel.channel)) {
+                                    theElement = anElement;
+                                    break;
+                                }
                             }
                         }
                     }
@@ -1595,23 +1650,28 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
                     if (isBlocking) {
                         // if this channel is already flagged as being in a blocked write/read operation, we skip this
-                        // selKey
+                        // selKey until the operation has finished
+                        updateInterestOps(theDatagramChannel);
                     } else {
 
                         if (selKey != listenerKey) {
-                            Iterator<WriteBufferElement> iterator = writeQueue.iterator();
-                            while (iterator.hasNext()) {
-                                WriteBufferElement anElement = iterator.next();
-                                if (anElement.channel.channel.equals(theDatagramChannel)) {
-                                    theElement = anElement;
-                                    break;
+                            synchronized (writeQueue) {
+                                Iterator<WriteBufferElement> iterator = writeQueue.iterator();
+                                while (iterator.hasNext()) {
+                                    WriteBufferElement anElement = iterator.next();
+                                    if (theDatagramChannel.equals(anElement.channel.channel)) {
+                                        theElement = anElement;
+                                        break;
+                                    }
                                 }
                             }
                         }
 
                         if (theElement != null && theElement.buffer != null) {
 
-                            logger.debug("Picked {} from the queue", theElement);
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Picked {} from the queue", theElement);
+                            }
 
                             if (theElement.isBlocking) {
                                 theElement.channel.isBlocking = true;
@@ -1682,48 +1742,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                             if (error) {
 
                                 if (selKey != listenerKey) {
-
-                                    Scheduler scheduler = null;
-                                    try {
-                                        scheduler = StdSchedulerFactory.getDefaultScheduler();
-                                    } catch (SchedulerException e1) {
-                                        logger.warn("An exception occurred while getting the Quartz scheduler: {}",
-                                                e1.getMessage());
-                                    }
-
-                                    JobDataMap map = new JobDataMap();
-                                    map.put("Channel", theElement.channel);
-                                    map.put("Binding", this);
-
-                                    JobDetail job = null;
-                                    Trigger trigger = null;
-
-                                    job = newJob(ReconnectJob.class)
-                                            .withIdentity(
-                                                    Integer.toHexString(hashCode()) + "-Reconnect-"
-                                                            + Long.toString(System.currentTimeMillis()),
-                                                    this.toString())
-                                            .usingJobData(map).build();
-
-                                    trigger = newTrigger()
-                                            .withIdentity(
-                                                    Integer.toHexString(hashCode()) + "-Reconnect-"
-                                                            + Long.toString(System.currentTimeMillis()),
-                                                    this.toString())
-                                            .startAt(futureDate(reconnectInterval, IntervalUnit.SECOND)).build();
-
-                                    try {
-                                        if (job != null && trigger != null && selKey != listenerKey) {
-                                            if (!theElement.channel.isReconnecting) {
-                                                channels.setAllReconnecting(theElement.channel.channel, true);
-                                                scheduler.scheduleJob(job, trigger);
-                                            }
-                                        }
-                                    } catch (SchedulerException e) {
-                                        logger.warn(
-                                                "An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                                e.getMessage());
-                                    }
+                                    closeAndReconnect(theDatagramChannel, theElement.channel);
                                 }
                             } else {
                                 if (theElement != null) {
@@ -1732,6 +1751,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
                             }
                         }
+
+                        updateInterestOps(theDatagramChannel);
                     }
                 }
             }
@@ -13,14 +13,15 @@
 package org.openhab.binding.tcp;
 
 import static org.quartz.CronScheduleBuilder.cronSchedule;
-import static org.quartz.DateBuilder.futureDate;
 import static org.quartz.JobBuilder.newJob;
 import static org.quartz.TriggerBuilder.newTrigger;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.NoConnectionPendingException;
 import java.nio.channels.NotYetConnectedException;
 import java.nio.channels.SelectionKey;
@@ -28,11 +29,19 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.core.binding.AbstractActiveBinding;
@@ -42,12 +51,12 @@ import org.openhab.core.types.State;
 import org.openhab.core.types.TypeParser;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
-import org.quartz.DateBuilder.IntervalUnit;
 import org.quartz.Job;
 import org.quartz.JobDataMap;
 import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
@@ -88,7 +97,7 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
     protected boolean directionsShareChannels = false;
     // allow *:* host:port definitions
     protected boolean useAddressMask = true;
-    // refresh interval for the worker thread
+    // refresh interval for the worker thread that sets up the channels
     protected long refreshInterval = 250;
 
     protected ServerSocketChannel listenerChannel = null;
@@ -100,6 +109,22 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
     // Simple data structure to track the state of Channels
     protected ChannelTracker<Channel> channels = new ChannelTracker<Channel>();
 
+    // held while registering channels, the selector itself is locked by the JDK whilst selecting
+    private final Object registrationLock = new Object();
+
+    // thread that waits for and handles the events of the selector
+    private Thread selectorThread;
+    private volatile boolean selecting;
+
+    // runs reconnects and the configuration of new channels, which must not block the selector thread
+    private ScheduledThreadPoolExecutor channelScheduler;
+
+    // buffer to read incoming data into, only used by the selector thread
+    private ByteBuffer readBuffer;
+
+    // Quartz job that resets the outbound channels according to reconnectCron
+    private JobKey reconnectJobKey;
+
     /**
      * Data structure to represent the state of a communications channel.
      *
@@ -216,418 +241,379 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
      * contains() - return true if a channel that matches the provided criteria exists in the ChannelTracker
      * replace() - replaces the underlying Java NIO channel on the Channels that match the provided criteria
      *
+     * The Channels are indexed by Item and by remote address, so that a query only looks at the Channels which can
+     * match it. A Java NIO channel is only ever bound to Channels for its remote end or with a masked address, so the
+     * queries for a Java NIO channel look at the Channels for its remote address. Channels are never removed from the
+     * tracker, and the indexes keep the order in which the Channels have been added.
+     *
      * @author Karel Goderis
      * @since 1.4.0
      */
-    protected class ChannelTracker<C extends Channel> extends ArrayList<C> {
+    protected class ChannelTracker<C extends Channel> implements Iterable<C> {
 
-        private static final long serialVersionUID = 1543958347565096785L;
+        private final List<C> all = new CopyOnWriteArrayList<C>();
 
-        public boolean contains(String item, Command command, Direction direction, InetSocketAddress remote) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
-                        return true;
-                    }
+        private final List<C> masked = new CopyOnWriteArrayList<C>();
+
+        private final ConcurrentMap<String, List<C>> byItem = new ConcurrentHashMap<String, List<C>>();
+
+        // every list also holds the masked Channels, in the order they have been added
+        private final ConcurrentMap<InetSocketAddress, List<C>> byRemote = new ConcurrentHashMap<InetSocketAddress, List<C>>();
+
+        public synchronized boolean add(C aChannel) {
+            all.add(aChannel);
+
+            List<C> itemChannels = byItem.get(aChannel.item);
+            if (itemChannels == null) {
+                itemChannels = new CopyOnWriteArrayList<C>();
+                byItem.put(aChannel.item, itemChannels);
+            }
+            itemChannels.add(aChannel);
+
+            if (aChannel.remote == null || "*".equals(aChannel.host) || "*".equals(aChannel.port)) {
+                masked.add(aChannel);
+                for (List<C> remoteChannels : byRemote.values()) {
+                    remoteChannels.add(aChannel);
+                }
+            }
+            if (aChannel.remote != null) {
+                List<C> remoteChannels = byRemote.get(aChannel.remote);
+                if (remoteChannels == null) {
+                    remoteChannels = new CopyOnWriteArrayList<C>(masked);
+                    byRemote.put(aChannel.remote, remoteChannels);
+                }
+                if (!remoteChannels.contains(aChannel)) {
+                    remoteChannels.add(aChannel);
                 }
+            }
+            return true;
+        }
+
+        public int size() {
+            return all.size();
+        }
+
+        @Override
+        public Iterator<C> iterator() {
+            return all.iterator();
+        }
+
+        private List<C> forItem(String itemName) {
+            List<C> itemChannels = byItem.get(itemName);
+            return itemChannels != null ? itemChannels : Collections.<C> emptyList();
+        }
 
-                return false;
+        private List<C> forRemote(InetSocketAddress remoteAddress) {
+            if (remoteAddress == null) {
+                return all;
             }
+            List<C> remoteChannels = byRemote.get(remoteAddress);
+            return remoteChannels != null ? remoteChannels : masked;
         }
 
-        public Channel get(String item, Command command, Direction direction, InetSocketAddress remote) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
-                        return aChannel;
-                    }
+        private List<C> forChannel(SocketChannel theSocketChannel) {
+            try {
+                return forRemote((InetSocketAddress) theSocketChannel.getRemoteAddress());
+            } catch (IOException e) {
+                // the channel is closed, so the remote address is not known anymore
+                return all;
+            }
+        }
+
+        public boolean contains(String item, Command command, Direction direction, InetSocketAddress remote) {
+            for (C aChannel : forItem(item)) {
+                if (item.equals(aChannel.item) && command.equals(aChannel.command)
+                        && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
+                    return true;
                 }
+            }
 
-                return null;
+            return false;
+        }
+
+        public Channel get(String item, Command command, Direction direction, InetSocketAddress remote) {
+            for (C aChannel : forItem(item)) {
+                if (item.equals(aChannel.item) && command.equals(aChannel.command)
+                        && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
+                    return aChannel;
+                }
             }
+
+            return null;
         }
 
         public Channel get(String item, Command command, Direction direction, String host, String port) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction)) {
-                        if (aChannel.host.equals(host) && aChannel.port.equals(port)) {
-                            return aChannel;
-                        }
+            for (C aChannel : forItem(item)) {
+                if (item.equals(aChannel.item) && command.equals(aChannel.command)
+                        && direction.equals(aChannel.direction)) {
+                    if (aChannel.host.equals(host) && aChannel.port.equals(port)) {
+                        return aChannel;
                     }
                 }
-
-                return null;
-
             }
+
+            return null;
         }
 
         public Channel get(SocketChannel theChannel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theChannel.equals(aChannel.channel)) {
-                        return aChannel;
-                    }
+            for (C aChannel : forChannel(theChannel)) {
+                if (theChannel.equals(aChannel.channel)) {
+                    return aChannel;
                 }
-                return null;
             }
+            return null;
         }
 
         public Channel getFirst(Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel == null
-                            && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
+            List<C> candidates = forRemote(remoteAddress);
+            for (C aChannel : candidates) {
+                if (remoteAddress.equals(aChannel.remote) && aChannel.channel == null
+                        && direction.equals(aChannel.direction)) {
+                    return aChannel;
                 }
+            }
 
-                Iterator<C> it2 = iterator();
-                while (it2.hasNext()) {
-                    C aChannel = it2.next();
-                    if (remoteAddress.equals(aChannel.remote)) {
-                        return aChannel;
-                    }
+            for (C aChannel : candidates) {
+                if (remoteAddress.equals(aChannel.remote)) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public Channel getFirst(String itemName, Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
+                        && direction.equals(aChannel.direction)) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public Channel getFirstServed(String itemName, Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && aChannel.channel != null && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
+                        && aChannel.channel != null && direction.equals(aChannel.direction)) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public void replace(String itemName, Direction direction, SocketChannel oldSocketChannel,
                 SocketChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && oldSocketChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
-                        aChannel.channel = channel;
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && oldSocketChannel.equals(aChannel.channel)
+                        && direction.equals(aChannel.direction)) {
+                    aChannel.channel = channel;
                 }
-
             }
         }
 
         public void replace(String itemName, Direction direction, InetSocketAddress remoteAddress,
                 SocketChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
-                            && direction.equals(aChannel.direction) && itemName.equals(aChannel.item)
-                            && !channel.equals(aChannel.channel)) {
-                        if (aChannel.host.equals("*")
-                                && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
-                            aChannel.channel = channel;
-                        }
-                    } else if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && direction.equals(aChannel.direction) && !channel.equals(aChannel.channel)) {
+            for (C aChannel : forItem(itemName)) {
+                if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
+                        && direction.equals(aChannel.direction) && itemName.equals(aChannel.item)
+                        && !channel.equals(aChannel.channel)) {
+                    if (aChannel.host.equals("*") && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
+                        aChannel.channel = channel;
+                    } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
+                        aChannel.channel = channel;
+                    } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
                         aChannel.channel = channel;
                     }
+                } else if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
+                        && direction.equals(aChannel.direction) && !channel.equals(aChannel.channel)) {
+                    aChannel.channel = channel;
                 }
             }
-
         }
 
         public ArrayList<Channel> getAll(String itemName, Direction direction, SocketChannel theSocketChannel) {
-            synchronized (this) {
-
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
+            ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theSocketChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
-                        selectedChannels.add(aChannel);
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && theSocketChannel.equals(aChannel.channel)
+                        && direction.equals(aChannel.direction)) {
+                    selectedChannels.add(aChannel);
                 }
-
-                return selectedChannels;
             }
+
+            return selectedChannels;
         }
 
         public void setAllBlocking(String itemName, Direction direction, SocketChannel theSocketChannel, boolean b) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theSocketChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
-                        aChannel.isBlocking = b;
-                    }
+            for (C aChannel : forItem(itemName)) {
+                if (itemName.equals(aChannel.item) && theSocketChannel.equals(aChannel.channel)
+                        && direction.equals(aChannel.direction)) {
+                    aChannel.isBlocking = b;
                 }
             }
         }
 
         public Channel getFirstServed(InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null) {
-                        return aChannel;
-                    }
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public void replace(Direction direction, SocketChannel oldSocketChannel, SocketChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (oldSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
-                        aChannel.channel = channel;
-                    }
+            for (C aChannel : forChannel(oldSocketChannel)) {
+                if (oldSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                    aChannel.channel = channel;
                 }
             }
         }
 
         public void replace(Direction direction, InetSocketAddress remoteAddress, SocketChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
-                            && remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
-                            && !channel.equals(aChannel.channel)) {
-                        if (aChannel.host.equals("*")
-                                && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
-                            aChannel.channel = channel;
-                        }
-                    } else if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
-                            && !channel.equals(aChannel.channel)) {
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
+                        && remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
+                        && !channel.equals(aChannel.channel)) {
+                    if (aChannel.host.equals("*") && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
+                        aChannel.channel = channel;
+                    } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
+                        aChannel.channel = channel;
+                    } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
                         aChannel.channel = channel;
                     }
+                } else if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
+                        && !channel.equals(aChannel.channel)) {
+                    aChannel.channel = channel;
                 }
             }
         }
 
         public ArrayList<Channel> getAll(Direction direction, SocketChannel theSocketChannel) {
-            synchronized (this) {
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
-
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
-                        selectedChannels.add(aChannel);
-                    }
-                }
+            ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                return selectedChannels;
+            for (C aChannel : forChannel(theSocketChannel)) {
+                if (theSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                    selectedChannels.add(aChannel);
+                }
             }
+
+            return selectedChannels;
         }
 
         public void setAllBlocking(Direction direction, SocketChannel theSocketChannel, boolean b) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
-                        aChannel.isBlocking = b;
-                    }
+            for (C aChannel : forChannel(theSocketChannel)) {
+                if (theSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                    aChannel.isBlocking = b;
                 }
             }
         }
 
         public Channel getFirstServed(Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null
-                            && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null
+                        && direction.equals(aChannel.direction)) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public void replace(SocketChannel oldSocketChannel, SocketChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (oldSocketChannel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
-                    }
+            for (C aChannel : forChannel(oldSocketChannel)) {
+                if (oldSocketChannel.equals(aChannel.channel)) {
+                    aChannel.channel = channel;
                 }
-
             }
         }
 
         public void replace(InetSocketAddress remoteAddress, SocketChannel channel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
-                            && !channel.equals(aChannel.channel)) {
-                        if (aChannel.host.equals("*")
-                                && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
-                            aChannel.channel = channel;
-                        }
-                    } else if (remoteAddress.equals(aChannel.remote) && !channel.equals(aChannel.channel)) {
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
+                        && !channel.equals(aChannel.channel)) {
+                    if (aChannel.host.equals("*") && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
+                        aChannel.channel = channel;
+                    } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
+                        aChannel.channel = channel;
+                    } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
                         aChannel.channel = channel;
                     }
+                } else if (remoteAddress.equals(aChannel.remote) && !channel.equals(aChannel.channel)) {
+                    aChannel.channel = channel;
                 }
             }
-
         }
 
         public ArrayList<Channel> getAll(SocketChannel theSocketChannel) {
-            synchronized (this) {
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
-
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel)) {
-                        selectedChannels.add(aChannel);
-                    }
-                }
+            ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                return selectedChannels;
+            for (C aChannel : forChannel(theSocketChannel)) {
+                if (theSocketChannel.equals(aChannel.channel)) {
+                    selectedChannels.add(aChannel);
+                }
             }
+
+            return selectedChannels;
         }
 
         public void setAllBlocking(SocketChannel theSocketChannel, boolean b) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel)) {
-                        aChannel.isBlocking = b;
-                    }
+            for (C aChannel : forChannel(theSocketChannel)) {
+                if (theSocketChannel.equals(aChannel.channel)) {
+                    aChannel.isBlocking = b;
                 }
             }
         }
 
         public void setAllReconnecting(SocketChannel theSocketChannel, boolean b) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel)) {
-                        aChannel.isReconnecting = b;
-                    }
+            for (C aChannel : forChannel(theSocketChannel)) {
+                if (theSocketChannel.equals(aChannel.channel)) {
+                    aChannel.isReconnecting = b;
                 }
             }
         }
 
         public Channel getFirstNotServed(Direction direction, InetSocketAddress remoteAddress) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
-                            && direction.equals(aChannel.direction)
-                            && (aChannel.channel == null || !aChannel.channel.isOpen())) {
-                        if (aChannel.host.equals("*")
-                                && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
-                            return aChannel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
-                            return aChannel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
-                            return aChannel;
-                        }
-                    } else if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
-                            && (aChannel.channel == null || !aChannel.channel.isOpen())) {
+            for (C aChannel : forRemote(remoteAddress)) {
+                if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
+                        && direction.equals(aChannel.direction)
+                        && (aChannel.channel == null || !aChannel.channel.isOpen())) {
+                    if (aChannel.host.equals("*") && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
+                        return aChannel;
+                    } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
+                        return aChannel;
+                    } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
                         return aChannel;
                     }
+                } else if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
+                        && (aChannel.channel == null || !aChannel.channel.isOpen())) {
+                    return aChannel;
                 }
-
-                return null;
             }
+
+            return null;
         }
 
         public boolean isBlocking(SocketChannel theSocketChannel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel) && aChannel.isBlocking) {
-                        return true;
-                    }
+            for (C aChannel : forChannel(theSocketChannel)) {
+                if (theSocketChannel.equals(aChannel.channel) && aChannel.isBlocking) {
+                    return true;
                 }
-                return false;
             }
+            return false;
         }
 
         public Channel getBlocking(SocketChannel theSocketChannel) {
-            synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel) && aChannel.isBlocking) {
-                        return aChannel;
-                    }
+            for (C aChannel : forChannel(theSocketChannel)) {
+                if (theSocketChannel.equals(aChannel.channel) && aChannel.isBlocking) {
+                    return aChannel;
                 }
-                return null;
             }
+            return null;
         }
 
     }
@@ -682,7 +668,7 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
             logger.info("Listening for incoming connections on {}", listenerChannel.getLocalAddress());
 
-            synchronized (selector) {
+            synchronized (registrationLock) {
                 selector.wakeup();
                 try {
                     listenerKey = listenerChannel.register(selector, SelectionKey.OP_ACCEPT);
@@ -708,7 +694,28 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
             selector = Selector.open();
         } catch (IOException e) {
             logger.warn("An exception occurred while registering the selector: {}", e.getMessage());
+            return;
         }
+
+        channelScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, getName() + " Channel Scheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        channelScheduler.setRemoveOnCancelPolicy(true);
+
+        selecting = true;
+        selectorThread = new Thread(getName() + " Selector") {
+            @Override
+            public void run() {
+                select();
+            }
+        };
+        selectorThread.setDaemon(true);
+        selectorThread.start();
     }
 
     /**
@@ -717,6 +724,24 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
     @Override
     public void deactivate() {
 
+        unscheduleReconnectJob();
+
+        selecting = false;
+        if (selectorThread != null) {
+            selector.wakeup();
+            try {
+                selectorThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            selectorThread = null;
+        }
+
+        if (channelScheduler != null) {
+            channelScheduler.shutdownNow();
+            channelScheduler = null;
+        }
+
         try {
             selector.close();
         } catch (IOException e) {
@@ -874,6 +899,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                 configureListenerChannel();
             }
 
+            scheduleReconnectJob();
+
             setProperlyConfigured(true);
         }
     }
@@ -925,40 +952,9 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                                 theChannel.remote);
 
                         if (!theSocketChannel.isConnectionPending() || !theSocketChannel.isOpen()) {
-
-                            Scheduler scheduler = null;
-                            try {
-                                scheduler = StdSchedulerFactory.getDefaultScheduler();
-                            } catch (SchedulerException e1) {
-                                logger.warn("An exception occurred while getting the Quartz scheduler: {}",
-                                        e1.getMessage());
-                            }
-
-                            JobDataMap map = new JobDataMap();
-                            map.put("Channel", theChannel);
-                            map.put("Binding", this);
-
-                            JobDetail job = newJob(ReconnectJob.class)
-                                    .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                            + Long.toString(System.currentTimeMillis()), this.toString())
-                                    .usingJobData(map).build();
-
-                            Trigger trigger = newTrigger()
-                                    .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                            + Long.toString(System.currentTimeMillis()), this.toString())
-                                    .startNow().build();
-
-                            try {
-                                if (job != null && trigger != null) {
-                                    if (!theChannel.isReconnecting) {
-                                        theChannel.isReconnecting = true;
-                                        scheduler.scheduleJob(job, trigger);
-                                    }
-                                }
-                            } catch (SchedulerException e) {
-                                logger.warn(
-                                        "An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                        e.getMessage());
+                            if (!theChannel.isReconnecting) {
+                                theChannel.isReconnecting = true;
+                                scheduleReconnect(theChannel, 0);
                             }
                         }
                     }
@@ -1059,24 +1055,32 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
             if (theBuffer != null) {
                 if (theSocketChannel.isConnected() || queueUntilConnected) {
                     writeQueue.add(new WriteBufferElement(theChannel, theBuffer, true));
+                    updateInterestOps(theSocketChannel);
                 }
 
-                long currentElapsedTimeMillis = System.currentTimeMillis();
-
-                while (theChannel.buffer == null && (System.currentTimeMillis() - currentElapsedTimeMillis) < timeOut) {
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        logger.warn("Exception occurred while waiting during a blocking buffer write");
+                // the selector thread notifies us as soon as it has received the response
+                ByteBuffer responseBuffer = null;
+                synchronized (theChannel) {
+                    long deadline = System.currentTimeMillis() + timeOut;
+                    long remaining = timeOut;
+                    while (theChannel.buffer == null && remaining > 0) {
+                        try {
+                            theChannel.wait(remaining);
+                        } catch (InterruptedException e) {
+                            logger.warn("Exception occurred while waiting during a blocking buffer write");
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                        remaining = deadline - System.currentTimeMillis();
                     }
-                }
 
-                ByteBuffer responseBuffer = null;
-                synchronized (this) {
                     responseBuffer = theChannel.buffer;
                     theChannel.buffer = null;
                     theChannel.isBlocking = false;
                 }
+
+                // data queued in the meantime can be written again
+                updateInterestOps(theSocketChannel);
                 return responseBuffer;
             } else {
                 return theBuffer;
@@ -1087,6 +1091,7 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
             if (theBuffer != null) {
                 if (theSocketChannel.isConnected() || queueUntilConnected) {
                     writeQueue.add(new WriteBufferElement(theChannel, theBuffer, false));
+                    updateInterestOps(theSocketChannel);
                 }
             }
 
@@ -1095,105 +1100,343 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
     }
 
     /**
-     * Quartz Job to reconnect a channel.
+     * Returns true if data is queued to be written to the given channel.
+     */
+    private boolean hasQueuedWrites(SocketChannel theSocketChannel) {
+        synchronized (writeQueue) {
+            for (WriteBufferElement anElement : writeQueue) {
+                if (theSocketChannel.equals(anElement.channel.channel)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sets the events the selector waits for on a channel: the connection while it is pending, incoming data and, as
+     * long as data is queued and no blocking write/read operation is in progress, the possibility to write. A
+     * connected channel can always be written to, so waiting for that without data to write would keep the selector
+     * thread spinning.
      *
-     * @author Karel Goderis
-     * @since 1.2.0
+     * @param theSocketChannel the network channel
      */
-    public static class ReconnectJob implements Job {
+    protected void updateInterestOps(SocketChannel theSocketChannel) {
+        if (theSocketChannel == null) {
+            return;
+        }
 
-        @SuppressWarnings({ "unchecked", "rawtypes" })
-        @Override
-        public void execute(JobExecutionContext context) throws JobExecutionException {
-            JobDataMap dataMap = context.getJobDetail().getJobDataMap();
-            AbstractSocketChannelBinding theBinding = (AbstractSocketChannelBinding) dataMap.get("Binding");
-            AbstractSocketChannelBinding.Channel theChannel = (AbstractSocketChannelBinding.Channel) dataMap
-                    .get("Channel");
+        synchronized (registrationLock) {
+            SelectionKey key = theSocketChannel.keyFor(selector);
+            if (key == null || !key.isValid()) {
+                return;
+            }
 
-            if (theChannel.isReconnecting) {
+            int interestSet = SelectionKey.OP_READ;
+            if (theSocketChannel.isConnectionPending()) {
+                interestSet |= SelectionKey.OP_CONNECT;
+            } else if (theSocketChannel.isConnected() && hasQueuedWrites(theSocketChannel)
+                    && !channels.isBlocking(theSocketChannel)) {
+                interestSet |= SelectionKey.OP_WRITE;
+            }
 
-                if (theChannel.remote != null && !theChannel.channel.isOpen()) {
+            if (Thread.currentThread() != selectorThread) {
+                selector.wakeup();
+            }
+            try {
+                key.interestOps(interestSet);
+            } catch (CancelledKeyException e) {
+                logger.debug("The channel {} has been closed in the meantime", theSocketChannel);
+            }
+        }
+    }
 
-                    SelectionKey sKey = theChannel.channel.keyFor(theBinding.selector);
-                    if (sKey != null) {
-                        sKey.cancel();
-                    }
+    /**
+     * Schedules the reconnection of a channel.
+     *
+     * @param theChannel the channel to reconnect
+     * @param delay the time to wait before reconnecting, in seconds
+     */
+    protected void scheduleReconnect(final Channel theChannel, long delay) {
+        ScheduledThreadPoolExecutor scheduler = channelScheduler;
+        if (scheduler == null) {
+            return;
+        }
 
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
                     try {
-                        theChannel.channel.close();
-                    } catch (IOException e) {
-                        logger.warn("An exception occurred while closing a channel: {}", e.getMessage());
+                        reconnect(theChannel);
+                    } catch (RuntimeException e) {
+                        logger.warn("An exception occurred while reconnecting the channel for {}", theChannel.remote,
+                                e);
                     }
+                }
+            }, delay, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Not reconnecting the channel for {}, the binding has been deactivated", theChannel.remote);
+        }
+    }
+
+    /**
+     * Schedules the configuration of a channel that has been connected. The configuration can write to the channel
+     * and wait for a response, so it must not run on the selector thread.
+     *
+     * @param theChannel the channel to configure
+     */
+    protected void scheduleConfigure(final Channel theChannel) {
+        ScheduledThreadPoolExecutor scheduler = channelScheduler;
+        if (scheduler == null) {
+            return;
+        }
 
+        try {
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
                     try {
-                        theChannel.channel = SocketChannel.open();
-                    } catch (IOException e) {
-                        logger.warn("An exception occurred while opening a channel: {}", e.getMessage());
+                        if (theChannel.channel.isConnected()) {
+                            configureChannel(theChannel);
+                        }
+                    } catch (RuntimeException e) {
+                        logger.warn("An exception occurred while configuring the channel for {}", theChannel.remote,
+                                e);
                     }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Not configuring the channel for {}, the binding has been deactivated", theChannel.remote);
+        }
+    }
 
-                    theChannel.isBlocking = false;
-                    theChannel.buffer = null;
+    /**
+     * Reconnects a channel of which the underlying Java NIO channel has been closed.
+     *
+     * @param theChannel the channel to reconnect
+     */
+    protected void reconnect(Channel theChannel) {
 
-                    try {
-                        theChannel.channel.configureBlocking(false);
-                        // setKeepAlive(true);
-                    } catch (Exception e) {
-                        logger.warn("An exception occurred while configuring a channel: {}", e.getMessage());
-                    }
+        if (theChannel.isReconnecting) {
 
-                    synchronized (theBinding.selector) {
-                        theBinding.selector.wakeup();
-                        int interestSet = SelectionKey.OP_READ | SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT;
-                        try {
-                            if (theChannel.channel != null) {
-                                theChannel.channel.register(theBinding.selector, interestSet);
-                            }
-                        } catch (ClosedChannelException e1) {
-                            logger.warn("An exception occurred while registering a selector: {}", e1.getMessage());
-                        }
-                    }
+            if (theChannel.remote != null && !theChannel.channel.isOpen()) {
+
+                SelectionKey sKey = theChannel.channel.keyFor(selector);
+                if (sKey != null) {
+                    sKey.cancel();
+                }
+
+                try {
+                    theChannel.channel.close();
+                } catch (IOException e) {
+                    logger.warn("An exception occurred while closing a channel: {}", e.getMessage());
+                }
+
+                SocketChannel newSocketChannel = null;
+                try {
+                    newSocketChannel = SocketChannel.open();
+                } catch (IOException e) {
+                    logger.warn("An exception occurred while opening a channel: {}", e.getMessage());
+                    return;
+                }
+
+                theChannel.isBlocking = false;
+                theChannel.buffer = null;
+
+                try {
+                    newSocketChannel.configureBlocking(false);
+                    // setKeepAlive(true);
+                } catch (Exception e) {
+                    logger.warn("An exception occurred while configuring a channel: {}", e.getMessage());
+                }
+
+                theChannel.channel = newSocketChannel;
 
+                boolean connected = false;
+                try {
+                    connected = newSocketChannel.connect(theChannel.remote);
+                    logger.info("Attempting to reconnect the channel for {}", theChannel.remote);
+                } catch (Exception e) {
+                    logger.warn("An exception occurred while connecting a channel: {}", e.getMessage());
+                    closeChannel(newSocketChannel, theChannel);
+                    scheduleReconnect(theChannel, reconnectInterval);
+                    return;
+                }
+
+                // the channel is registered once connecting, so that the selector never sees it unconnected
+                synchronized (registrationLock) {
+                    selector.wakeup();
+                    int interestSet = connected ? SelectionKey.OP_READ
+                            : SelectionKey.OP_READ | SelectionKey.OP_CONNECT;
                     try {
-                        if (theChannel.channel != null) {
-                            theChannel.channel.connect(theChannel.remote);
-                            logger.info("Attempting to reconnect the channel for {}", theChannel.remote);
-                        }
-                    } catch (Exception e) {
-                        logger.warn("An exception occurred while connecting a channel: {}", e.getMessage());
+                        newSocketChannel.register(selector, interestSet);
+                    } catch (ClosedChannelException e1) {
+                        logger.warn("An exception occurred while registering a selector: {}", e1.getMessage());
                     }
-                } else {
-                    logger.debug("Either the remote address was not found or the channel was not open.");
+                }
+
+                if (connected) {
+                    channelConnected(theChannel, newSocketChannel);
                 }
             } else {
-                logger.warn("Channel for {} is not reconnecting.", theChannel.remote);
+                logger.debug("Either the remote address was not found or the channel was not open.");
             }
+        } else {
+            logger.warn("Channel for {} is not reconnecting.", theChannel.remote);
         }
     }
 
     /**
-     * Quartz Job to configure a channel.
+     * Shares a channel that has just been connected according to the sharing settings and configures it.
+     *
+     * @param theChannel the channel that has been connected
+     * @param theSocketChannel the underlying Java NIO channel
+     */
+    private void channelConnected(Channel theChannel, SocketChannel theSocketChannel) {
+        InetSocketAddress remote = null;
+        try {
+            remote = (InetSocketAddress) theSocketChannel.getRemoteAddress();
+        } catch (IOException e) {
+            logger.warn("An exception occurred while getting the remote address of channel {} ({})", theSocketChannel,
+                    e.getMessage());
+        }
+
+        logger.info("The channel for {} is now connected", remote);
+
+        if (itemShareChannels) {
+            channels.replace(theChannel.item, theChannel.direction, remote, theChannel.channel);
+        }
+
+        if (bindingShareChannels) {
+            channels.replace(theChannel.direction, remote, theChannel.channel);
+        }
+
+        if (directionsShareChannels) {
+            channels.replace(remote, theChannel.channel);
+        }
+
+        // the channels that now share the connection are not reconnecting either
+        channels.setAllReconnecting(theSocketChannel, false);
+
+        updateInterestOps(theSocketChannel);
+        scheduleConfigure(theChannel);
+    }
+
+    /**
+     * Closes a Java NIO channel after a communication error, so that the selector doesn't report it anymore.
+     */
+    private void closeChannel(SocketChannel theSocketChannel, Channel theChannel) {
+        try {
+            theSocketChannel.close();
+        } catch (IOException e) {
+            logger.warn("Error occurred while closing the channel for {}: {}",
+                    theChannel != null ? theChannel.remote : theSocketChannel, e.getMessage());
+        }
+    }
+
+    /**
+     * Quartz Job to reset the outbound channels of a binding, according to the configured reconnect cron expression.
      *
      * @author Karel Goderis
-     * @since 1.4.0
+     * @since 1.2.0
      */
-    public static class ConfigureJob implements Job {
+    public static class ReconnectJob implements Job {
 
-        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @SuppressWarnings("rawtypes")
         @Override
         public void execute(JobExecutionContext context) throws JobExecutionException {
             JobDataMap dataMap = context.getJobDetail().getJobDataMap();
             AbstractSocketChannelBinding theBinding = (AbstractSocketChannelBinding) dataMap.get("Binding");
-            AbstractSocketChannelBinding.Channel theChannel = (AbstractSocketChannelBinding.Channel) dataMap
-                    .get("Channel");
 
-            if (theChannel.channel.isConnected()) {
-                theBinding.configureChannel(theChannel);
+            theBinding.resetChannels();
+        }
+    }
+
+    /**
+     * Closes the outbound channels and reconnects them.
+     */
+    protected void resetChannels() {
+        for (Channel aChannel : channels) {
+            SocketChannel theSocketChannel = aChannel.channel;
+            if (aChannel.direction == Direction.OUT && theSocketChannel != null && theSocketChannel.isOpen()
+                    && !aChannel.isReconnecting) {
+                logger.info("Resetting the channel for {}", aChannel.remote);
+                channels.setAllReconnecting(theSocketChannel, true);
+                closeChannel(theSocketChannel, aChannel);
+                scheduleReconnect(aChannel, 0);
+            }
+        }
+    }
+
+    private void scheduleReconnectJob() {
+        unscheduleReconnectJob();
+
+        if (StringUtils.isBlank(reconnectCron)) {
+            return;
+        }
+
+        try {
+            Scheduler scheduler = StdSchedulerFactory.getDefaultScheduler();
+
+            JobDataMap map = new JobDataMap();
+            map.put("Binding", this);
+
+            JobDetail job = newJob(ReconnectJob.class)
+                    .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect", this.toString()).usingJobData(map)
+                    .build();
+
+            Trigger trigger = newTrigger()
+                    .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect", this.toString())
+                    .withSchedule(cronSchedule(reconnectCron)).build();
+
+            scheduler.scheduleJob(job, trigger);
+            reconnectJobKey = job.getKey();
+        } catch (SchedulerException e) {
+            logger.warn("An exception occurred while scheduling a job with the Quartz Scheduler {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("The cron expression '{}' to reset connections is not valid: {}", reconnectCron,
+                    e.getMessage());
+        }
+    }
+
+    private void unscheduleReconnectJob() {
+        if (reconnectJobKey != null) {
+            try {
+                StdSchedulerFactory.getDefaultScheduler().deleteJob(reconnectJobKey);
+            } catch (SchedulerException e) {
+                logger.warn("An exception occurred while deleting a job from the Quartz Scheduler {}",
+                        e.getMessage());
             }
+            reconnectJobKey = null;
         }
     }
 
     /**
-     * @{inheritDoc}
+     * Waits for events on the channels and handles them as soon as they occur, until the binding is deactivated.
+     */
+    private void select() {
+        while (selecting) {
+            try {
+                synchronized (registrationLock) {
+                    // wait until other threads have finished registering channels with the selector
+                }
+
+                selector.select();
+                processSelectedKeys();
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                logger.warn("An exception occurred while Selecting: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                logger.warn("An exception occurred while processing the selected channels", e);
+            }
+        }
+    }
+
+    /**
+     * Sets up the channels for the Items. The data of the channels is handled by the selector thread as soon as it
+     * arrives.
      */
     @Override
     protected void execute() {
@@ -1338,10 +1581,24 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                                                         e.getMessage());
                                             }
 
-                                            synchronized (selector) {
+                                            newChannel.channel = newSocketChannel;
+                                            logger.debug("Setting up the outbound channel {}", newChannel);
+
+                                            boolean connected = false;
+                                            try {
+                                                logger.info("Connecting the channel {} ", newChannel);
+                                                connected = newSocketChannel.connect(remoteAddress);
+                                            } catch (IOException e) {
+                                                logger.warn("An exception occurred while connecting a channel: {}",
+                                                        e.getMessage());
+                                            }
+
+                                            // the channel is registered once connecting, so that the selector never
+                                            // sees it unconnected
+                                            synchronized (registrationLock) {
                                                 selector.wakeup();
-                                                int interestSet = SelectionKey.OP_READ | SelectionKey.OP_WRITE
-                                                        | SelectionKey.OP_CONNECT;
+                                                int interestSet = connected ? SelectionKey.OP_READ
+                                                        : SelectionKey.OP_READ | SelectionKey.OP_CONNECT;
                                                 try {
                                                     newSocketChannel.register(selector, interestSet);
                                                 } catch (ClosedChannelException e1) {
@@ -1351,15 +1608,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                                                 }
                                             }
 
-                                            newChannel.channel = newSocketChannel;
-                                            logger.debug("Setting up the outbound channel {}", newChannel);
-
-                                            try {
-                                                logger.info("Connecting the channel {} ", newChannel);
-                                                newSocketChannel.connect(remoteAddress);
-                                            } catch (IOException e) {
-                                                logger.warn("An exception occurred while connecting a channel: {}",
-                                                        e.getMessage());
+                                            if (connected) {
+                                                channelConnected(newChannel, newSocketChannel);
                                             }
                                         }
                                     }
@@ -1373,16 +1623,12 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                 }
             }
         }
+    }
 
-        // Check on channels for which we have to process data
-        synchronized (selector) {
-            try {
-                // Wait for an event
-                selector.selectNow();
-            } catch (IOException e) {
-                logger.warn("An exception occurred while Selecting: {}", e.getMessage());
-            }
-        }
+    /**
+     * Handles the events the selector has reported for the channels.
+     */
+    private void processSelectedKeys() {
 
         // Get list of selection keys with pending events
         Iterator<SelectionKey> it = selector.selectedKeys().iterator();
@@ -1398,6 +1644,9 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
                         try {
                             SocketChannel newChannel = listenerChannel.accept();
+                            if (newChannel == null) {
+                                continue;
+                            }
                             logger.info("Received connection request from {}", newChannel.getRemoteAddress());
 
                             Channel firstChannel = channels.getFirstNotServed(Direction.IN,
@@ -1448,51 +1697,15 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                                                     e.getMessage());
                                         }
 
-                                        synchronized (selector) {
-                                            selector.wakeup();
-                                            try {
-                                                newChannel.register(selector, newChannel.validOps());
-                                            } catch (ClosedChannelException e1) {
-                                                logger.warn("An exception occurred while registering a selector: {}",
-                                                        e1.getMessage());
-                                            }
-                                        }
-
-                                        Scheduler scheduler = null;
                                         try {
-                                            scheduler = StdSchedulerFactory.getDefaultScheduler();
-                                        } catch (SchedulerException e1) {
-                                            logger.warn("An exception occurred while getting the Quartz scheduler: {}",
+                                            newChannel.register(selector, SelectionKey.OP_READ);
+                                        } catch (ClosedChannelException e1) {
+                                            logger.warn("An exception occurred while registering a selector: {}",
                                                     e1.getMessage());
                                         }
 
-                                        JobDataMap map = new JobDataMap();
-                                        map.put("Channel", firstChannel);
-                                        map.put("Binding", this);
-
-                                        JobDetail job = newJob(ConfigureJob.class)
-                                                .withIdentity(
-                                                        Integer.toHexString(hashCode()) + "-Configure-"
-                                                                + Long.toString(System.currentTimeMillis()),
-                                                        this.toString())
-                                                .usingJobData(map).build();
-
-                                        Trigger trigger = newTrigger()
-                                                .withIdentity(
-                                                        Integer.toHexString(hashCode()) + "-Configure-"
-                                                                + Long.toString(System.currentTimeMillis()),
-                                                        this.toString())
-                                                .startNow().build();
-
-                                        try {
-                                            if (job != null && trigger != null && selKey != listenerKey) {
-                                                scheduler.scheduleJob(job, trigger);
-                                            }
-                                        } catch (SchedulerException e) {
-                                            logger.warn(
-                                                    "An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                                    e.getMessage());
-                                        }
+                                        // data may have been queued for the remote end before it connected
+                                        updateInterestOps(newChannel);
 
                                     } else {
                                         logger.info(
@@ -1545,124 +1758,22 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                         }
 
                         if (error) {
-
-                            Scheduler scheduler = null;
-                            try {
-                                scheduler = StdSchedulerFactory.getDefaultScheduler();
-                            } catch (SchedulerException e1) {
-                                logger.warn("An exception occurred while getting the Quartz scheduler: {}",
-                                        e1.getMessage());
+                            closeChannel(theSocketChannel, theChannel);
+                            if (theChannel != null && !theChannel.isReconnecting) {
+                                channels.setAllReconnecting(theSocketChannel, true);
+                                scheduleReconnect(theChannel, reconnectInterval);
                             }
-
-                            JobDataMap map = new JobDataMap();
-                            map.put("Channel", theChannel);
-                            map.put("Binding", this);
-
-                            JobDetail job = newJob(ReconnectJob.class)
-                                    .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                            + Long.toString(System.currentTimeMillis()), this.toString())
-                                    .usingJobData(map).build();
-
-                            Trigger trigger = newTrigger()
-                                    .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                            + Long.toString(System.currentTimeMillis()), this.toString())
-                                    .startAt(futureDate(reconnectInterval, IntervalUnit.SECOND)).build();
-
-                            try {
-                                if (job != null && trigger != null && selKey != listenerKey) {
-                                    if (!theChannel.isReconnecting) {
-                                        channels.setAllReconnecting(theSocketChannel, true);
-                                        scheduler.scheduleJob(job, trigger);
-                                    }
-                                }
-                            } catch (SchedulerException e) {
-                                logger.warn(
-                                        "An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                        e.getMessage());
-                            }
-
                         } else {
-                            if (result) {
-                                InetSocketAddress remote = null;
-                                try {
-                                    remote = (InetSocketAddress) theSocketChannel.getRemoteAddress();
-                                } catch (IOException e) {
-                                    logger.warn(
-                                            "An exception occurred while getting the remote address of channel {} ({})",
-                                            theSocketChannel, e.getMessage());
-                                }
-
-                                logger.info("The channel for {} is now connected", remote);
-
-                                if (itemShareChannels) {
-                                    channels.replace(theChannel.item, theChannel.direction, remote, theChannel.channel);
-                                }
-
-                                if (bindingShareChannels) {
-                                    channels.replace(theChannel.direction, remote, theChannel.channel);
-                                }
-
-                                if (directionsShareChannels) {
-                                    channels.replace(remote, theChannel.channel);
-                                }
-
-                                Scheduler scheduler = null;
-                                try {
-                                    scheduler = StdSchedulerFactory.getDefaultScheduler();
-                                } catch (SchedulerException e1) {
-                                    logger.warn("An exception occurred while getting the Quartz scheduler: {}",
-                                            e1.getMessage());
-                                }
-
-                                JobDataMap map = new JobDataMap();
-                                map.put("Channel", theChannel);
-                                map.put("Binding", this);
-
-                                JobDetail job = newJob(ConfigureJob.class)
-                                        .withIdentity(Integer.toHexString(hashCode()) + "-Configure-"
-                                                + Long.toString(System.currentTimeMillis()), this.toString())
-                                        .usingJobData(map).build();
-
-                                Trigger trigger = newTrigger()
-                                        .withIdentity(Integer.toHexString(hashCode()) + "-Configure-"
-                                                + Long.toString(System.currentTimeMillis()), this.toString())
-                                        .startNow().build();
-
-                                try {
-                                    if (job != null && trigger != null && selKey != listenerKey) {
-                                        scheduler.scheduleJob(job, trigger);
-                                    }
-                                } catch (SchedulerException e) {
-                                    logger.warn(
-                                            "An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                            e.getMessage());
-                                }
-
-                                job = newJob(ReconnectJob.class)
-                                        .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                                + Long.toString(System.currentTimeMillis()), this.toString())
-                                        .usingJobData(map).build();
-
-                                trigger = newTrigger()
-                                        .withIdentity(Integer.toHexString(hashCode()) + "-Reconnect-"
-                                                + Long.toString(System.currentTimeMillis()), this.toString())
-                                        .withSchedule(cronSchedule(reconnectCron)).build();
-
-                                try {
-                                    if (job != null && trigger != null && selKey != listenerKey) {
-                                        scheduler.scheduleJob(job, trigger);
-                                    }
-                                } catch (SchedulerException e) {
-                                    logger.warn(
-                                            "An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                            e.getMessage());
-                                }
+                            if (result && theChannel != null) {
+                                channelConnected(theChannel, theSocketChannel);
                             }
                         }
 
                     } else if (selKey.isReadable()) {
 
-                        ByteBuffer readBuffer = ByteBuffer.allocate(maximumBufferSize);
+                        if (readBuffer == null || readBuffer.capacity() != maximumBufferSize) {
+                            readBuffer = ByteBuffer.allocate(maximumBufferSize);
+                        }
                         int numberBytesRead = 0;
                         boolean error = false;
 
@@ -1673,90 +1784,64 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                             // carriage return
                             numberBytesRead = theSocketChannel.read(readBuffer);
                         } catch (NotYetConnectedException e) {
-                            logger.warn("The channel for {} has no connection pending ({})", theChannel.remote,
-                                    e.getMessage());
+                            logger.warn("The channel for {} has no connection pending ({})",
+                                    theChannel != null ? theChannel.remote : theSocketChannel, e.getMessage());
                             if (!theSocketChannel.isConnectionPending()) {
                                 error = true;
                             }
                         } catch (IOException e) {
                             // If some other I/O error occurs
                             logger.warn("The channel for {} has encountered an unknown IO Exception: {}",
-                                    theChannel.remote, e.getMessage());
+                                    theChannel != null ? theChannel.remote : theSocketChannel, e.getMessage());
                             error = true;
                         }
 
                         if (numberBytesRead == -1) {
-                            try {
-                                theSocketChannel.close();
-                            } catch (IOException e) {
-                                logger.warn("Error occurred while closing the channel for {}: {}", theChannel.remote, e.getMessage());
-                            }
                             error = true;
                         }
 
-                        if (error) {
-                            if (theChannel.direction == Direction.OUT) {
-
-                                Scheduler scheduler = null;
-                                try {
-                                    scheduler = StdSchedulerFactory.getDefaultScheduler();
-                                } catch (SchedulerException e1) {
-                                    logger.warn("An exception occurred while getting the Quartz scheduler: {}",
-                                            e1.getMessage());
-                                }
+                        int numberBytesReceived = readBuffer.position();
 
-                                JobDataMap map = new JobDataMap();
-                                map.put("Channel", theChannel);
-                                map.put("Binding", this);
-
-                                JobDetail job = newJob(ReconnectJob.class).withIdentity(
-                                        Integer.toHexString(hashCode()) + "-Reconnect-"
-                                                + Long.toString(System.currentTimeMillis()),
-                                        "AbstractSocketChannelBinding").usingJobData(map).build();
-
-                                Trigger trigger = newTrigger()
-                                        .withIdentity(
-                                                Integer.toHexString(hashCode()) + "-Reconnect-"
-                                                        + Long.toString(System.currentTimeMillis()),
-                                                "AbstractSocketChannelBinding")
-                                        .startAt(futureDate(reconnectInterval, IntervalUnit.SECOND)).build();
-
-                                try {
-                                    if (job != null && trigger != null && selKey != listenerKey) {
-                                        if (!theChannel.isReconnecting) {
-                                            channels.setAllReconnecting(theSocketChannel, true);
-                                            scheduler.scheduleJob(job, trigger);
-                                        }
-                                    }
-                                } catch (SchedulerException e) {
-                                    logger.warn(
-                                            "An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                            e.getMessage());
+                        if (error) {
+                            // a channel left open would be reported as readable over and over again
+                            closeChannel(theSocketChannel, theChannel);
+
+                            if (theChannel == null) {
+                                logger.debug("No channel is defined for the closed connection {}", theSocketChannel);
+                            } else if (theChannel.direction == Direction.OUT) {
+                                if (!theChannel.isReconnecting) {
+                                    channels.setAllReconnecting(theSocketChannel, true);
+                                    scheduleReconnect(theChannel, reconnectInterval);
                                 }
-
                             } else {
                                 theChannel.channel = null;
                             }
                         } else {
 
-                            ArrayList<Channel> channelsToServe = new ArrayList<Channel>();
-
-                            channelsToServe = channels.getAll(theSocketChannel);
+                            ArrayList<Channel> channelsToServe = channels.getAll(theSocketChannel);
 
                             if (channelsToServe.size() > 0) {
 
                                 readBuffer.flip();
 
-                                boolean isBlocking = channels.isBlocking(theSocketChannel);
+                                Channel blockingChannel = channels.getBlocking(theSocketChannel);
 
-                                if (isBlocking) {
+                                if (blockingChannel != null) {
                                     // if we are in a blocking operation, we get are now finished and we have to reset
-                                    // the flag. The read buffer will be returned to the instance
+                                    // the flag. A copy of the read buffer will be returned to the instance
                                     // that initiated the write opreation - it has to parse the buffer itself
 
-                                    theChannel = channels.getBlocking(theSocketChannel);
-                                    theChannel.buffer = readBuffer;
-                                    theChannel.isBlocking = false;
+                                    ByteBuffer responseBuffer = ByteBuffer.allocate(maximumBufferSize);
+                                    responseBuffer.put(readBuffer);
+                                    responseBuffer.flip();
+
+                                    synchronized (blockingChannel) {
+                                        blockingChannel.buffer = responseBuffer;
+                                        blockingChannel.isBlocking = false;
+                                        blockingChannel.notifyAll();
+                                    }
+
+                                    updateInterestOps(theSocketChannel);
 
                                 } else {
                                     for (Channel aChannel : channelsToServe) {
@@ -1777,25 +1862,30 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                             }
                         }
 
+                        // the read buffer is reused, and parseBuffer() implementations may look beyond its limit
+                        Arrays.fill(readBuffer.array(), 0, numberBytesReceived, (byte) 0);
+                        readBuffer.clear();
+
                     } else if (selKey.isWritable()) {
 
                         boolean isBlocking = channels.isBlocking(theSocketChannel);
 
                         if (isBlocking) {
                             // if this channel is already flagged as being in a blocked write/read operation, we skip
-                            // this selKey
+                            // this selKey until the response has been received
+                            updateInterestOps(theSocketChannel);
                         } else {
 
                             // pick up a QueueElement for this channel, if any
 
                             WriteBufferElement theElement = null;
 
-                            Iterator<WriteBufferElement> iterator = writeQueue.iterator();
-                            while (iterator.hasNext()) {
-                                WriteBufferElement anElement = iterator.next();
-                                if (anElement.channel.channel.equals(theSocketChannel)) {
-                                    theElement = anElement;
-                                    break;
+                            synchronized (writeQueue) {
+                                for (WriteBufferElement anElement : writeQueue) {
+                                    if (theSocketChannel.equals(anElement.channel.channel)) {
+                                        theElement = anElement;
+                                        break;
+                                    }
                                 }
                             }
 
@@ -1811,79 +1901,48 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
                                 theElement.buffer.rewind();
                                 try {
-                                    logger.debug("Sending {} for the outbound channel {}->{}",
-                                            new Object[] { new String(theElement.buffer.array()),
-                                                    theElement.channel.channel.getLocalAddress(),
-                                                    theElement.channel.channel.getRemoteAddress() });
+                                    if (logger.isDebugEnabled()) {
+                                        logger.debug("Sending {} for the outbound channel {}->{}",
+                                                new Object[] { new String(theElement.buffer.array()),
+                                                        theSocketChannel.getLocalAddress(),
+                                                        theSocketChannel.getRemoteAddress() });
+                                    }
                                     theSocketChannel.write(theElement.buffer);
                                 } catch (NotYetConnectedException e) {
-                                    logger.warn("The channel for {} has no connection pending ({})", theChannel.remote,
-                                            e.getMessage());
+                                    logger.warn("The channel for {} has no connection pending ({})",
+                                            theElement.channel.remote, e.getMessage());
                                     if (!theSocketChannel.isConnectionPending()) {
                                         error = true;
                                     }
                                 } catch (ClosedChannelException e) {
                                     // If some other I/O error occurs
-                                    logger.warn("The channel for {} is closed ({})", theChannel.remote, e.getMessage());
+                                    logger.warn("The channel for {} is closed ({})", theElement.channel.remote,
+                                            e.getMessage());
                                     error = true;
                                 } catch (IOException e) {
                                     // If some other I/O error occurs
                                     logger.warn("The channel for {} has encountered an unknown IO Exception: {}",
-                                            theChannel.remote, e.getMessage());
+                                            theElement.channel.remote, e.getMessage());
                                     error = true;
                                 }
 
                                 if (error) {
+                                    closeChannel(theSocketChannel, theElement.channel);
 
                                     if (theElement.channel.direction == Direction.OUT) {
-
-                                        Scheduler scheduler = null;
-                                        try {
-                                            scheduler = StdSchedulerFactory.getDefaultScheduler();
-                                        } catch (SchedulerException e1) {
-                                            logger.warn("An exception occurred while getting the Quartz scheduler: {}",
-                                                    e1.getMessage());
-                                        }
-
-                                        JobDataMap map = new JobDataMap();
-                                        map.put("Channel", theElement.channel);
-                                        map.put("Binding", this);
-
-                                        JobDetail job = newJob(ReconnectJob.class).withIdentity(
-                                                Integer.toHexString(hashCode()) + "-Reconnect-"
-                                                        + Long.toString(System.currentTimeMillis()),
-                                                "AbstractSocketChannelBinding").usingJobData(map).build();
-
-                                        Trigger trigger = newTrigger()
-                                                .withIdentity(
-                                                        Integer.toHexString(hashCode()) + "-Reconnect-"
-                                                                + Long.toString(System.currentTimeMillis()),
-                                                        "AbstractSocketChannelBinding")
-                                                .startAt(futureDate(reconnectInterval, IntervalUnit.SECOND)).build();
-
-                                        try {
-                                            if (job != null && trigger != null && selKey != listenerKey) {
-                                                if (!theElement.channel.isReconnecting) {
-                                                    channels.setAllReconnecting(theSocketChannel, true);
-                                                    scheduler.scheduleJob(job, trigger);
-                                                }
-                                            }
-                                        } catch (SchedulerException e) {
-                                            logger.warn(
-                                                    "An exception occurred while scheduling a job with the Quartz Scheduler {}",
-                                                    e.getMessage());
+                                        if (!theElement.channel.isReconnecting) {
+                                            channels.setAllReconnecting(theSocketChannel, true);
+                                            scheduleReconnect(theElement.channel, reconnectInterval);
                                         }
-
                                     } else {
                                         theElement.channel.channel = null;
                                     }
                                 } else {
-                                    if (theElement != null) {
-                                        writeQueue.remove(theElement);
-                                    }
-
+                                    writeQueue.remove(theElement);
                                 }
                             }
+
+                            updateInterestOps(theSocketChannel);
                         }
                     }
                 }
@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.zwave;
 
+import java.util.Collection;
+
 import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.items.Item;
 
@@ -32,6 +34,16 @@ public interface ZWaveBindingProvider extends BindingProvider {
      */
     public ZWaveBindingConfig getZwaveBindingConfig(String itemName);
 
+    /**
+     * Returns the names of the items that are bound to the specified
+     * endpoint of a node.
+     *
+     * @param nodeId the node ID.
+     * @param endpoint the endpoint, 0 for the node itself.
+     * @return the item names, never null.
+     */
+    public Collection<String> getItemNames(int nodeId, int endpoint);
+
     /**
      * Returns the {@link Item} with the specified item name. Returns null
      * if the item was not found.
@@ -14,8 +14,9 @@ package org.openhab.binding.zwave.internal;
 
 import java.util.ArrayList;
 import java.util.Dictionary;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.zwave.ZWaveBindingConfig;
@@ -26,6 +27,7 @@ import org.openhab.binding.zwave.internal.protocol.SerialInterfaceException;
 import org.openhab.binding.zwave.internal.protocol.ZWaveController;
 import org.openhab.binding.zwave.internal.protocol.ZWaveEventListener;
 import org.openhab.binding.zwave.internal.protocol.ZWaveNode;
+import org.openhab.binding.zwave.internal.protocol.ZWaveNodeState;
 import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveSecurityCommandClass;
 import org.openhab.binding.zwave.internal.protocol.event.ZWaveCommandClassValueEvent;
 import org.openhab.binding.zwave.internal.protocol.event.ZWaveEvent;
@@ -70,8 +72,7 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
     private volatile ZWaveController zController;
     private volatile ZWaveConverterHandler converterHandler;
 
-    private Iterator<ZWavePollItem> pollingIterator = null;
-    private List<ZWavePollItem> pollingList = new ArrayList<ZWavePollItem>();
+    private final ZWavePollScheduler pollScheduler = new ZWavePollScheduler();
 
     // Configuration Service
     ZWaveConfiguration zConfigurationService;
@@ -97,7 +98,7 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 
     /**
      * Working method that executes refreshing of the bound items. The method is executed
-     * at every refresh interval. The nodes are polled only every 6 refreshes.
+     * at every refresh interval and polls the items whose polling deadline has passed.
      */
     @Override
     protected void execute() {
@@ -106,27 +107,41 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
             networkMonitor.execute();
         }
 
-        // If we're not currently in a poll cycle, restart the polling table
-        if (pollingIterator == null) {
-            pollingIterator = pollingList.iterator();
+        ZWaveController controller = zController;
+        ZWaveConverterHandler handler = converterHandler;
+        if (controller == null || handler == null) {
+            return;
         }
 
-        // Loop through the polling list. We only allow a certain number of messages
+        // Poll the items that are due. We only allow a certain number of messages
         // into the send queue at a time to avoid congestion within the system.
         // Basically, we don't want the polling to slow down 'important' stuff.
-        // The queue ensures all nodes get a chance - if we always started at the top
-        // then the last items might never get polled.
-        while (pollingIterator.hasNext()) {
-            if (zController.getSendQueueLength() >= pollingQueue) {
-                logger.trace("Polling queue full!");
-                break;
+        // Items that can't be polled now stay due, and are polled first in the next run.
+        while (controller.getSendQueueLength() < pollingQueue) {
+            long now = System.currentTimeMillis();
+            ZWavePollScheduler.PollItem poll = pollScheduler.pollDue(now);
+            if (poll == null) {
+                return;
+            }
+
+            // the scheduler has already checked the deadline, so the refresh interval isn't checked again
+            ZWaveNode node = controller.getNode(poll.nodeId);
+            if (!handler.executeRefresh(poll.provider, poll.itemName, true)) {
+                if (node == null || node.getNodeState() != ZWaveNodeState.ALIVE
+                        || !node.isInitializationComplete()) {
+                    // try again in the next run, the node may be ready by then
+                    pollScheduler.pollRetry(poll, now + getRefreshInterval());
+                } else {
+                    pollScheduler.pollSkipped(poll);
+                }
+                continue;
+            }
+
+            if (node != null) {
+                node.incrementPollCount();
             }
-            ZWavePollItem poll = pollingIterator.next();
-            converterHandler.executeRefresh(poll.provider, poll.item, false);
-        }
-        if (pollingIterator.hasNext() == false) {
-            pollingIterator = null;
         }
+        logger.trace("Polling queue full!");
     }
 
     /**
@@ -169,17 +184,18 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
     }
 
     /**
-     * This method rebuilds the polling table. The polling table is a list of items that have
-     * polling enabled (ie a refresh interval is set). This list is then checked periodically
-     * and any item that has passed its polling interval will be polled.
+     * This method rebuilds the polling table. The polling table holds the items that have
+     * polling enabled (ie a refresh interval is set). The table is then checked periodically
+     * and any item that has passed its polling deadline will be polled.
      */
     private void rebuildPollingTable() {
-        // Rebuild the polling table
-        pollingList.clear();
+        List<ZWavePollScheduler.PollItem> pollingList = new ArrayList<ZWavePollScheduler.PollItem>();
+        Map<String, Long> lastRefreshed = new HashMap<String, Long>();
 
+        ZWaveConverterHandler converterHandler = this.converterHandler;
         if (converterHandler == null) {
             logger.debug("ConverterHandler not initialised. Polling disabled.");
-
+            pollScheduler.setItems(pollingList, lastRefreshed, System.currentTimeMillis());
             return;
         }
 
@@ -200,20 +216,22 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
                     continue;
                 }
 
-                logger.trace("Polling list: Checking {} == {}", name,
-                        converterHandler.getRefreshInterval(eachProvider, name));
+                Integer interval = converterHandler.getRefreshInterval(eachProvider, name);
+                logger.trace("Polling list: Checking {} == {}", name, interval);
 
                 // If this binding is configured to poll - add it to the list
-                if (converterHandler.getRefreshInterval(eachProvider, name) > 0) {
-                    ZWavePollItem item = new ZWavePollItem();
-                    item.item = name;
-                    item.provider = eachProvider;
-                    pollingList.add(item);
+                if (interval != null && interval > 0) {
+                    pollingList.add(new ZWavePollScheduler.PollItem(eachProvider, name, cfg.getNodeId(),
+                            converterHandler.getRefreshCommandClass(eachProvider, name), interval * 1000L));
+                    if (cfg.getLastRefreshed() != null) {
+                        lastRefreshed.put(name, cfg.getLastRefreshed().getTime());
+                    }
                     logger.trace("Polling list added {}", name);
                 }
             }
         }
-        pollingIterator = null;
+        pollScheduler.setItems(pollingList, lastRefreshed, System.currentTimeMillis());
+        logger.debug("Polling list contains {} items", pollScheduler.size());
     }
 
     /**
@@ -477,17 +495,20 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
                 new Object[] { event.getNodeId(), event.getEndpoint(), event.getCommandClass().getLabel(),
                         event.getValue() });
 
+        long now = System.currentTimeMillis();
         for (ZWaveBindingProvider provider : providers) {
-            for (String itemName : provider.getItemNames()) {
-                ZWaveBindingConfig bindingConfig = provider.getZwaveBindingConfig(itemName);
-
-                if (bindingConfig.getNodeId() != event.getNodeId()
-                        || bindingConfig.getEndpoint() != event.getEndpoint()) {
-                    continue;
-                }
-
+            for (String itemName : provider.getItemNames(event.getNodeId(), event.getEndpoint())) {
                 converterHandler.handleEvent(provider, itemName, event);
                 handled = true;
+
+                // A reported value makes the next poll of the item unnecessary
+                long latency = pollScheduler.reportReceived(itemName, event.getCommandClass(), now);
+                if (latency >= 0) {
+                    ZWaveNode node = zController.getNode(event.getNodeId());
+                    if (node != null) {
+                        node.addPollResponse(latency);
+                    }
+                }
             }
         }
 
@@ -497,9 +518,4 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
                             event.getValue() });
         }
     }
-
-    class ZWavePollItem {
-        ZWaveBindingProvider provider;
-        String item;
-    }
 }
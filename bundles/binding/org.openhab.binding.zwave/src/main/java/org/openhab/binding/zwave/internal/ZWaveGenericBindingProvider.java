@@ -12,12 +12,15 @@
  */
 package org.openhab.binding.zwave.internal;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.openhab.binding.zwave.ZWaveBindingConfig;
 import org.openhab.binding.zwave.ZWaveBindingProvider;
 import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveCommandClass;
+import org.openhab.core.binding.BindingConfig;
 import org.openhab.core.items.Item;
 import org.openhab.model.item.binding.AbstractGenericBindingProvider;
 import org.openhab.model.item.binding.BindingConfigParseException;
@@ -137,6 +140,24 @@ public class ZWaveGenericBindingProvider extends AbstractGenericBindingProvider
         return (ZWaveBindingConfig) this.bindingConfigs.get(itemName);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<String> getItemNames(int nodeId, int endpoint) {
+        return getItemNamesForAddress(new NodeEndpoint(nodeId, endpoint));
+    }
+
+    /**
+     * Indexes the items by the node and endpoint they are bound to, so that
+     * the value events of a node are dispatched to its items only.
+     */
+    @Override
+    protected Collection<?> getBindingAddresses(BindingConfig config) {
+        ZWaveBindingConfig zwaveConfig = (ZWaveBindingConfig) config;
+        return Collections.singleton(new NodeEndpoint(zwaveConfig.getNodeId(), zwaveConfig.getEndpoint()));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -145,4 +166,28 @@ public class ZWaveGenericBindingProvider extends AbstractGenericBindingProvider
         return items.get(itemName);
     }
 
+    private static class NodeEndpoint {
+        private final int nodeId;
+        private final int endpoint;
+
+        NodeEndpoint(int nodeId, int endpoint) {
+            this.nodeId = nodeId;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public int hashCode() {
+            return nodeId * 31 + endpoint;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof NodeEndpoint)) {
+                return false;
+            }
+            NodeEndpoint other = (NodeEndpoint) obj;
+            return nodeId == other.nodeId && endpoint == other.endpoint;
+        }
+    }
+
 }
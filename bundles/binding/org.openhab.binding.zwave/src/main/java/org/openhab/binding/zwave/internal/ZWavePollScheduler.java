@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.zwave.internal;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.openhab.binding.zwave.ZWaveBindingProvider;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveCommandClass.CommandClass;
+
+/**
+ * Schedules the polling of items by deadline. Every polled item is due once its
+ * refresh interval has passed since it was last polled or since the node last
+ * reported the polled value, so devices that report their values by themselves
+ * aren't polled needlessly. Items which are due at the same time are polled in
+ * the order they became due, and are rescheduled from the time they have
+ * actually been polled, which spreads the polls over time if the send queue is
+ * full.
+ * <p>
+ * The scheduler is used by the refresh thread and the thread dispatching the
+ * Z-Wave events, so all methods are synchronized.
+ *
+ * @since 1.14.0
+ */
+class ZWavePollScheduler {
+
+    /**
+     * An item that is polled.
+     */
+    static class PollItem {
+        final ZWaveBindingProvider provider;
+        final String itemName;
+        final int nodeId;
+        final CommandClass commandClass;
+        final long interval;
+
+        private long deadline;
+        private long sequence;
+
+        /** the time the last poll has been queued, or 0 if no response is outstanding */
+        private long polled;
+
+        /**
+         * @param provider the provider of the item
+         * @param itemName the name of the item
+         * @param nodeId the node the item is bound to
+         * @param commandClass the command class that is polled, or null if unknown
+         * @param interval the refresh interval in milliseconds
+         */
+        PollItem(ZWaveBindingProvider provider, String itemName, int nodeId, CommandClass commandClass,
+                long interval) {
+            this.provider = provider;
+            this.itemName = itemName;
+            this.nodeId = nodeId;
+            this.commandClass = commandClass;
+            this.interval = interval;
+        }
+    }
+
+    private static final Comparator<PollItem> DEADLINE_ORDER = new Comparator<PollItem>() {
+        @Override
+        public int compare(PollItem a, PollItem b) {
+            if (a.deadline != b.deadline) {
+                return a.deadline < b.deadline ? -1 : 1;
+            }
+            return a.sequence < b.sequence ? -1 : (a.sequence == b.sequence ? 0 : 1);
+        }
+    };
+
+    private final Map<String, PollItem> items = new HashMap<String, PollItem>();
+    private final TreeSet<PollItem> queue = new TreeSet<PollItem>(DEADLINE_ORDER);
+    private long sequence = 0;
+
+    /**
+     * Replaces the polled items. Items which have been polled before keep
+     * their deadline, new items are due when their refresh interval has passed
+     * since they were last refreshed.
+     *
+     * @param pollItems the items to poll
+     * @param lastRefreshed the time each item has last been refreshed, items without an entry are due immediately
+     * @param now the current time in milliseconds
+     */
+    synchronized void setItems(Collection<PollItem> pollItems, Map<String, Long> lastRefreshed, long now) {
+        Map<String, PollItem> previous = new HashMap<String, PollItem>(items);
+        items.clear();
+        queue.clear();
+
+        for (PollItem item : pollItems) {
+            PollItem old = previous.get(item.itemName);
+            if (old != null && old.interval == item.interval) {
+                item.deadline = old.deadline;
+                item.polled = old.polled;
+            } else {
+                Long refreshed = lastRefreshed.get(item.itemName);
+                item.deadline = refreshed != null ? refreshed + item.interval : now;
+            }
+            item.sequence = sequence++;
+            items.put(item.itemName, item);
+            queue.add(item);
+        }
+    }
+
+    /**
+     * Takes the item that is due next and reschedules it one refresh interval
+     * from now. The item is expected to be polled, so the next report of the
+     * polled value is taken as the response of the node.
+     *
+     * @param now the current time in milliseconds
+     * @return the item to poll, or null if no item is due
+     */
+    synchronized PollItem pollDue(long now) {
+        if (queue.isEmpty() || queue.first().deadline > now) {
+            return null;
+        }
+
+        PollItem item = queue.pollFirst();
+        item.deadline = now + item.interval;
+        item.sequence = sequence++;
+        item.polled = now;
+        queue.add(item);
+        return item;
+    }
+
+    /**
+     * Records that no poll has been sent for an item returned by
+     * {@link #pollDue(long)}, e.g. because the node is not alive.
+     *
+     * @param item the item that hasn't been polled
+     */
+    synchronized void pollSkipped(PollItem item) {
+        item.polled = 0;
+    }
+
+    /**
+     * Records that an item returned by {@link #pollDue(long)} couldn't be
+     * polled yet, e.g. because its node is still initializing or not alive,
+     * and makes it due again at <code>retry</code>, unless its refresh
+     * interval passes earlier.
+     *
+     * @param item the item that hasn't been polled
+     * @param retry the time to try to poll the item again in milliseconds
+     */
+    synchronized void pollRetry(PollItem item, long retry) {
+        item.polled = 0;
+        if (retry < item.deadline && queue.remove(item)) {
+            item.deadline = retry;
+            queue.add(item);
+        }
+    }
+
+    /**
+     * Postpones the next poll of an item after its node has reported the
+     * polled value.
+     *
+     * @param itemName the name of the item
+     * @param commandClass the command class of the reported value
+     * @param now the current time in milliseconds
+     * @return the time since the poll of the item has been queued in
+     *         milliseconds, or -1 if the report is not a response to a poll
+     */
+    synchronized long reportReceived(String itemName, CommandClass commandClass, long now) {
+        PollItem item = items.get(itemName);
+        if (item == null || item.commandClass == null || item.commandClass != commandClass) {
+            return -1;
+        }
+
+        queue.remove(item);
+        item.deadline = now + item.interval;
+        item.sequence = sequence++;
+        queue.add(item);
+
+        long latency = item.polled != 0 ? now - item.polled : -1;
+        item.polled = 0;
+        return latency;
+    }
+
+    /**
+     * @return the number of polled items
+     */
+    synchronized int size() {
+        return items.size();
+    }
+}
@@ -586,6 +586,11 @@ public class ZWaveConfiguration implements OpenHABConfigurationService, ZWaveEve
                 record.value = node.getRetryCount() + " / " + node.getSendCount();
                 records.add(record);
 
+                record = new OpenHABConfigurationRecord(domain, "Polls", "Poll Statistics", true);
+                record.value = node.getPollResponseCount() + " / " + node.getPollCount() + " ["
+                        + node.getAveragePollResponseTime() + "ms]";
+                records.add(record);
+
                 record = new OpenHABConfigurationRecord(domain, "Dead", "Dead", true);
                 if (node.getDeadCount() == 0) {
                     record.value = Boolean.toString(node.isDead());
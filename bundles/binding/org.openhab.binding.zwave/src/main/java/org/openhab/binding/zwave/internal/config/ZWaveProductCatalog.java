@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.zwave.internal.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.osgi.framework.FrameworkUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.annotations.XStreamImplicit;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+
+/**
+ * The catalog of the XML product database. The product list is read once and indexed by manufacturer and product
+ * reference, the product files are read when they are needed for the first time. The catalog is shared by all
+ * {@link ZWaveProductDatabase} instances and is never modified after it has been loaded, except for the cache of
+ * product files, so it can be used by several threads at once.
+ *
+ * @since 1.14.0
+ */
+final class ZWaveProductCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(ZWaveProductCatalog.class);
+
+    private final List<ZWaveDbManufacturer> manufacturers;
+
+    private final Map<Integer, ZWaveDbManufacturer> manufacturersById = new HashMap<Integer, ZWaveDbManufacturer>();
+
+    private final Map<ProductKey, ZWaveDbProduct> productsByReference = new HashMap<ProductKey, ZWaveDbProduct>();
+
+    private final ConcurrentMap<String, ZWaveDbProductFile> productFiles = new ConcurrentHashMap<String, ZWaveDbProductFile>();
+
+    private final XStream productFileStream;
+
+    private ZWaveProductCatalog() {
+        manufacturers = loadDatabase();
+
+        // the first entry wins, as it did when the lists were searched
+        for (ZWaveDbManufacturer manufacturer : manufacturers) {
+            if (manufacturer.Id == null || manufacturersById.containsKey(manufacturer.Id)) {
+                continue;
+            }
+            manufacturersById.put(manufacturer.Id, manufacturer);
+
+            if (manufacturer.Product == null) {
+                continue;
+            }
+            for (ZWaveDbProduct product : manufacturer.Product) {
+                if (product.Reference == null) {
+                    continue;
+                }
+                for (ZWaveDbProductReference reference : product.Reference) {
+                    if (reference.Type == null || reference.Id == null) {
+                        continue;
+                    }
+                    ProductKey key = new ProductKey(manufacturer.Id, reference.Type, reference.Id);
+                    if (!productsByReference.containsKey(key)) {
+                        productsByReference.put(key, product);
+                    }
+                }
+            }
+        }
+
+        // XStream is thread safe once it has been configured
+        productFileStream = new XStream(new StaxDriver());
+        productFileStream.alias("Product", ZWaveDbProductFile.class);
+        productFileStream.alias("Configuration", ZWaveDbProductFile.ZWaveDbConfiguration.class);
+        productFileStream.alias("Parameter", ZWaveDbConfigurationParameter.class);
+        productFileStream.alias("Item", ZWaveDbConfigurationListItem.class);
+        productFileStream.alias("Associations", ZWaveDbProductFile.ZWaveDbAssociation.class);
+        productFileStream.alias("Group", ZWaveDbAssociationGroup.class);
+        productFileStream.alias("CommandClass", ZWaveDbProductFile.ZWaveDbCommandClassList.class);
+        productFileStream.alias("Class", ZWaveDbCommandClass.class);
+
+        productFileStream.processAnnotations(ZWaveDbProductFile.class);
+
+        logger.debug("ZWave product database loaded with {} manufacturers and {} product references",
+                manufacturersById.size(), productsByReference.size());
+    }
+
+    /**
+     * @return the catalog, which is loaded on first use
+     */
+    static ZWaveProductCatalog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final ZWaveProductCatalog INSTANCE = new ZWaveProductCatalog();
+    }
+
+    private static List<ZWaveDbManufacturer> loadDatabase() {
+        URL entry = FrameworkUtil.getBundle(ZWaveProductCatalog.class).getEntry("database/products.xml");
+        if (entry == null) {
+            logger.error("Unable to load ZWave product database!");
+            return Collections.emptyList();
+        }
+
+        XStream xstream = new XStream(new StaxDriver());
+        xstream.alias("Manufacturers", ZWaveDbRoot.class);
+        xstream.alias("Manufacturer", ZWaveDbManufacturer.class);
+        xstream.alias("Product", ZWaveDbProduct.class);
+        xstream.alias("Reference", ZWaveDbProductReference.class);
+
+        xstream.processAnnotations(ZWaveDbRoot.class);
+
+        try {
+            InputStream x = entry.openStream();
+            try {
+                ZWaveDbRoot database = (ZWaveDbRoot) xstream.fromXML(x);
+                if (database == null || database.Manufacturer == null) {
+                    return Collections.emptyList();
+                }
+                return Collections.unmodifiableList(database.Manufacturer);
+            } finally {
+                x.close();
+            }
+        } catch (IOException e) {
+            logger.error("Unable to load ZWave product database: {}", e.toString());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * @return all manufacturers in the order of the database
+     */
+    List<ZWaveDbManufacturer> getManufacturers() {
+        return manufacturers;
+    }
+
+    /**
+     * @param manufacturerId the manufacturer ID
+     * @return the manufacturer or null if it is not in the database
+     */
+    ZWaveDbManufacturer getManufacturer(int manufacturerId) {
+        return manufacturersById.get(manufacturerId);
+    }
+
+    /**
+     * @param manufacturerId the manufacturer ID
+     * @param productType the product type
+     * @param productId the product ID
+     * @return the product or null if it is not in the database
+     */
+    ZWaveDbProduct getProduct(int manufacturerId, int productType, int productId) {
+        return productsByReference.get(new ProductKey(manufacturerId, productType, productId));
+    }
+
+    /**
+     * Returns a product file. The file is read when it is requested for the first time.
+     *
+     * @param cfgFile the name of the product file, relative to the database folder
+     * @return the product file or null if it can't be read
+     */
+    ZWaveDbProductFile getProductFile(String cfgFile) {
+        ZWaveDbProductFile productFile = productFiles.get(cfgFile);
+        if (productFile != null) {
+            return productFile;
+        }
+
+        URL entry = FrameworkUtil.getBundle(ZWaveProductCatalog.class).getEntry("database/" + cfgFile);
+        if (entry == null) {
+            logger.error("Unable to load ZWave product file: '{}'", cfgFile);
+            return null;
+        }
+
+        try {
+            InputStream x = entry.openStream();
+            try {
+                productFile = (ZWaveDbProductFile) productFileStream.fromXML(x);
+            } finally {
+                x.close();
+            }
+        } catch (IOException e) {
+            logger.error("Unable to load ZWave product file '{}' : {}", cfgFile, e.toString());
+            return null;
+        }
+        if (productFile == null) {
+            return null;
+        }
+
+        // another thread may have read the file in the meantime
+        ZWaveDbProductFile existing = productFiles.putIfAbsent(cfgFile, productFile);
+        return existing != null ? existing : productFile;
+    }
+
+    private static class ZWaveDbRoot {
+        @XStreamImplicit
+        List<ZWaveDbManufacturer> Manufacturer;
+    }
+
+    private static final class ProductKey {
+        private final int manufacturerId;
+        private final int productType;
+        private final int productId;
+
+        ProductKey(int manufacturerId, int productType, int productId) {
+            this.manufacturerId = manufacturerId;
+            this.productType = productType;
+            this.productId = productId;
+        }
+
+        @Override
+        public int hashCode() {
+            return (manufacturerId * 31 + productType) * 31 + productId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ProductKey)) {
+                return false;
+            }
+            ProductKey other = (ProductKey) obj;
+            return manufacturerId == other.manufacturerId && productType == other.productType
+                    && productId == other.productId;
+        }
+    }
+}
@@ -12,33 +12,24 @@
  */
 package org.openhab.binding.zwave.internal.config;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.util.Collections;
 import java.util.List;
 
-import org.osgi.framework.FrameworkUtil;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.annotations.XStreamImplicit;
-import com.thoughtworks.xstream.io.xml.StaxDriver;
-
 /**
  * Implements the top level functions for the XML product database This class
  * includes helper functions to manipulate the database and facilitate access to
  * the database.
+ * <p>
+ * The database itself is loaded only once and shared, see {@link ZWaveProductCatalog}.
+ * An instance only holds the selected manufacturer and product, so it is cheap to
+ * create but must not be shared between threads.
  *
  * @author Chris Jackson
  * @since 1.4.0
  *
  */
 public class ZWaveProductDatabase {
-    private static final Logger logger = LoggerFactory.getLogger(ZWaveProductDatabase.class);
-
-    ZWaveDbRoot database = null;
+    final ZWaveProductCatalog database = ZWaveProductCatalog.getInstance();
     Languages language = Languages.ENGLISH;
 
     ZWaveDbManufacturer selManufacturer = null;
@@ -48,7 +39,6 @@ public class ZWaveProductDatabase {
     String productVersion;
 
     public ZWaveProductDatabase() {
-        loadDatabase();
     }
 
     /**
@@ -59,7 +49,6 @@ public class ZWaveProductDatabase {
      */
     public ZWaveProductDatabase(Languages Language) {
         language = Language;
-        loadDatabase();
     }
 
     /**
@@ -70,35 +59,6 @@ public class ZWaveProductDatabase {
      */
     public ZWaveProductDatabase(String Language) {
         language = Languages.fromString(Language);
-        loadDatabase();
-    }
-
-    private void loadDatabase() {
-        URL entry = FrameworkUtil.getBundle(ZWaveProductDatabase.class).getEntry("database/products.xml");
-        if (entry == null) {
-            database = null;
-            logger.error("Unable to load ZWave product database!");
-            return;
-        }
-
-        XStream xstream = new XStream(new StaxDriver());
-        xstream.alias("Manufacturers", ZWaveDbRoot.class);
-        xstream.alias("Manufacturer", ZWaveDbManufacturer.class);
-        xstream.alias("Product", ZWaveDbProduct.class);
-        xstream.alias("Reference", ZWaveDbProductReference.class);
-
-        xstream.processAnnotations(ZWaveDbRoot.class);
-
-        try {
-            // this.Manufacturer = (ZWaveDbManufacturer)
-            InputStream x = entry.openStream();
-            database = (ZWaveDbRoot) xstream.fromXML(x);
-            if (database == null) {
-                return;
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
     }
 
     /**
@@ -123,49 +83,20 @@ public class ZWaveProductDatabase {
             return null;
         }
 
-        URL entry = FrameworkUtil.getBundle(ZWaveProductDatabase.class).getEntry("database/" + cfgFile);
-        if (entry == null) {
-            database = null;
-            logger.error("Unable to load ZWave product file: '{}'", cfgFile);
-            return null;
-        }
-
-        XStream xstream = new XStream(new StaxDriver());
-        xstream.alias("Product", ZWaveDbProductFile.class);
-        xstream.alias("Configuration", ZWaveDbProductFile.ZWaveDbConfiguration.class);
-        xstream.alias("Parameter", ZWaveDbConfigurationParameter.class);
-        xstream.alias("Item", ZWaveDbConfigurationListItem.class);
-        xstream.alias("Associations", ZWaveDbProductFile.ZWaveDbAssociation.class);
-        xstream.alias("Group", ZWaveDbAssociationGroup.class);
-        xstream.alias("CommandClass", ZWaveDbProductFile.ZWaveDbCommandClassList.class);
-        xstream.alias("Class", ZWaveDbCommandClass.class);
-
-        xstream.processAnnotations(ZWaveDbProductFile.class);
-
-        try {
-            // this.Manufacturer = (ZWaveDbManufacturer)
-            InputStream x = entry.openStream();
-            productFile = (ZWaveDbProductFile) xstream.fromXML(x);
-        } catch (IOException e) {
-            logger.error("Unable to load ZWave product file '{}' : {}", cfgFile, e.toString());
-        }
-
+        productFile = database.getProductFile(cfgFile);
         return productFile;
     }
 
     public List<ZWaveDbManufacturer> GetManufacturers() {
-        if (database == null || database.Manufacturer == null) {
-            return Collections.emptyList();
-        }
-        return database.Manufacturer;
+        return database.getManufacturers();
     }
 
     public List<ZWaveDbProduct> GetProducts() {
-        if (selManufacturer == null) {
+        if (selManufacturer == null || selManufacturer.Product == null) {
             return Collections.emptyList();
         }
 
-        return selManufacturer.Product;
+        return unmodifiable(selManufacturer.Product);
     }
 
     /**
@@ -175,21 +106,11 @@ public class ZWaveProductDatabase {
      * @return true if the manufacturer was found
      */
     public boolean FindManufacturer(int manufacturerId) {
-        if (database == null || database.Manufacturer == null) {
-            return false;
-        }
-
-        selManufacturer = null;
+        selManufacturer = database.getManufacturer(manufacturerId);
         selProduct = null;
         productFile = null;
 
-        for (ZWaveDbManufacturer manufacturer : database.Manufacturer) {
-            if (manufacturer.Id == manufacturerId) {
-                selManufacturer = manufacturer;
-                return true;
-            }
-        }
-        return false;
+        return selManufacturer != null;
     }
 
     /**
@@ -227,15 +148,14 @@ public class ZWaveProductDatabase {
         }
         productVersion = version;
 
-        for (ZWaveDbProduct product : selManufacturer.Product) {
-            for (ZWaveDbProductReference reference : product.Reference) {
-                if (reference.Type == productType && reference.Id == productId) {
-                    selProduct = product;
-                    return true;
-                }
-            }
+        ZWaveDbProduct product = database.getProduct(selManufacturer.Id, productType, productId);
+        if (product == null) {
+            return false;
         }
-        return false;
+
+        selProduct = product;
+        productFile = null;
+        return true;
     }
 
     /**
@@ -347,7 +267,7 @@ public class ZWaveProductDatabase {
             return null;
         }
 
-        return productFile.CommandClasses.Class;
+        return unmodifiable(productFile.CommandClasses.Class);
     }
 
     /**
@@ -361,7 +281,7 @@ public class ZWaveProductDatabase {
             return Collections.emptyList();
         }
 
-        return productFile.getConfiguration();
+        return unmodifiable(productFile.getConfiguration());
     }
 
     /**
@@ -375,12 +295,14 @@ public class ZWaveProductDatabase {
             return null;
         }
 
-        return productFile.getAssociations();
+        return unmodifiable(productFile.getAssociations());
     }
 
-    private class ZWaveDbRoot {
-        @XStreamImplicit
-        List<ZWaveDbManufacturer> Manufacturer;
+    /**
+     * The lists of the database are shared, so callers only get a read-only view.
+     */
+    private static <T> List<T> unmodifiable(List<T> list) {
+        return list == null ? null : Collections.unmodifiableList(list);
     }
 
     /**
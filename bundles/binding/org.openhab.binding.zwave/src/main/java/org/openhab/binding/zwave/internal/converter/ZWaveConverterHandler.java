@@ -182,9 +182,10 @@ public class ZWaveConverterHandler {
      *            the name of the item to poll.
      * @param forceRefresh
      *            indicates that a polling refresh should be forced.
+     * @return true if a message has been sent to the node.
      */
     @SuppressWarnings("unchecked")
-    public void executeRefresh(ZWaveBindingProvider provider, String itemName, boolean forceRefresh) {
+    public boolean executeRefresh(ZWaveBindingProvider provider, String itemName, boolean forceRefresh) {
         ZWaveBindingConfig bindingConfiguration = provider.getZwaveBindingConfig(itemName);
         ZWaveCommandClass commandClass;
         String commandClassName = bindingConfiguration.getArguments().get("command");
@@ -192,14 +193,14 @@ public class ZWaveConverterHandler {
         // this binding is configured not to poll.
         if (!forceRefresh && bindingConfiguration.getRefreshInterval() != null
                 && 0 == bindingConfiguration.getRefreshInterval()) {
-            return;
+            return false;
         }
 
         ZWaveNode node = this.controller.getNode(bindingConfiguration.getNodeId());
 
         // ignore nodes that are not initialized.
         if (node == null) {
-            return;
+            return false;
         }
 
         if (commandClassName != null) {
@@ -208,12 +209,12 @@ public class ZWaveConverterHandler {
             if (commandClassName.equalsIgnoreCase("info")) {
                 infoConverter.executeRefresh(provider.getItem(itemName), node, bindingConfiguration.getEndpoint(),
                         bindingConfiguration.getArguments());
-                return;
+                return false;
             }
 
             // ignore nodes that are not initialized or dead.
             if (node.getNodeState() != ZWaveNodeState.ALIVE || node.isInitializationComplete() == false) {
-                return;
+                return false;
             }
 
             commandClass = node.resolveCommandClass(CommandClass.getCommandClass(commandClassName),
@@ -222,7 +223,7 @@ public class ZWaveConverterHandler {
             if (commandClass == null) {
                 logger.warn("No command class found for item = {}, command class name = {}, ignoring execute refresh.",
                         itemName, commandClassName);
-                return;
+                return false;
             }
         } else {
             commandClass = resolveConverter(provider.getItem(itemName), node, bindingConfiguration.getEndpoint());
@@ -230,7 +231,7 @@ public class ZWaveConverterHandler {
 
         if (commandClass == null) {
             logger.warn("No converter found for item = {}, ignoring execute refresh.", itemName);
-            return;
+            return false;
         }
 
         ZWaveCommandClassConverter<ZWaveCommandClass> converter = (ZWaveCommandClassConverter<ZWaveCommandClass>) getConverter(
@@ -238,7 +239,7 @@ public class ZWaveConverterHandler {
 
         if (converter == null) {
             logger.warn("No converter found for item = {}, ignoring execute refresh.", itemName);
-            return;
+            return false;
         }
 
         if (bindingConfiguration.getRefreshInterval() == null) {
@@ -246,7 +247,7 @@ public class ZWaveConverterHandler {
 
             // this binding is configured not to poll.
             if (!forceRefresh && 0 == bindingConfiguration.getRefreshInterval()) {
-                return;
+                return false;
             }
         }
 
@@ -255,7 +256,7 @@ public class ZWaveConverterHandler {
                 && (bindingConfiguration.getLastRefreshed().getTime()
                         + (bindingConfiguration.getRefreshInterval() * 1000) > Calendar.getInstance()
                                 .getTimeInMillis())) {
-            return;
+            return false;
         }
 
         bindingConfiguration.setLastRefreshed(Calendar.getInstance().getTime());
@@ -265,7 +266,7 @@ public class ZWaveConverterHandler {
         if (serialMessage == null) {
             logger.warn("NODE {}: Generating message failed for command class = {}", node.getNodeId(),
                     commandClass.getCommandClass().getLabel());
-            return;
+            return false;
         }
 
         // This is a poll - treat it as a low priority!
@@ -273,6 +274,7 @@ public class ZWaveConverterHandler {
 
         // Queue the message
         this.controller.sendData(serialMessage);
+        return true;
     }
 
     /**
@@ -343,6 +345,40 @@ public class ZWaveConverterHandler {
         return bindingConfiguration.getRefreshInterval();
     }
 
+    /**
+     * Get the command class that is polled for an item binding
+     *
+     * @param provider
+     *            the {@link ZWaveBindingProvider} that provides the item
+     * @param itemName
+     *            the name of the item to poll.
+     * @return the polled {@link CommandClass} or null if it can't be resolved.
+     */
+    public CommandClass getRefreshCommandClass(ZWaveBindingProvider provider, String itemName) {
+        ZWaveBindingConfig bindingConfiguration = provider.getZwaveBindingConfig(itemName);
+        ZWaveCommandClass commandClass;
+        String commandClassName = bindingConfiguration.getArguments().get("command");
+
+        ZWaveNode node = this.controller.getNode(bindingConfiguration.getNodeId());
+        if (node == null) {
+            return null;
+        }
+
+        if (commandClassName != null) {
+            // report items are answered by the controller itself
+            if (commandClassName.equalsIgnoreCase("info")) {
+                return null;
+            }
+
+            commandClass = node.resolveCommandClass(CommandClass.getCommandClass(commandClassName),
+                    bindingConfiguration.getEndpoint());
+        } else {
+            commandClass = resolveConverter(provider.getItem(itemName), node, bindingConfiguration.getEndpoint());
+        }
+
+        return commandClass != null ? commandClass.getCommandClass() : null;
+    }
+
     /**
      * Handles an incoming {@link ZWaveCommandClassValueEvent}. Implement this
      * message in derived classes to convert the value and post an update on the
@@ -119,6 +119,12 @@ public class ZWaveNode {
     private Date deadTime;
     @XStreamOmitField
     private int retryCount = 0;
+    @XStreamOmitField
+    private int pollCount = 0;
+    @XStreamOmitField
+    private int pollResponseCount = 0;
+    @XStreamOmitField
+    private long pollResponseTime = 0;
 
     /**
      * Constructor. Creates a new instance of the ZWaveNode class.
@@ -879,6 +885,55 @@ public class ZWaveNode {
         return sendCount;
     }
 
+    /**
+     * Increments the poll counter. This is called whenever a poll has been
+     * queued for the node and is used for statistical purposes only.
+     */
+    public synchronized void incrementPollCount() {
+        pollCount++;
+    }
+
+    /**
+     * Records the response to a poll. This is used for statistical purposes
+     * to assess the responsiveness of a node.
+     *
+     * @param latency the time between queueing the poll and receiving the response in milliseconds
+     */
+    public synchronized void addPollResponse(long latency) {
+        pollResponseCount++;
+        pollResponseTime += latency;
+    }
+
+    /**
+     * Gets the number of polls sent to the node
+     *
+     * @return poll count
+     */
+    public synchronized int getPollCount() {
+        return pollCount;
+    }
+
+    /**
+     * Gets the number of polls the node has responded to
+     *
+     * @return poll response count
+     */
+    public synchronized int getPollResponseCount() {
+        return pollResponseCount;
+    }
+
+    /**
+     * Gets the average time the node took to respond to a poll
+     *
+     * @return average response time in milliseconds or 0 if no response has been received
+     */
+    public synchronized long getAveragePollResponseTime() {
+        if (pollResponseCount == 0) {
+            return 0;
+        }
+        return pollResponseTime / pollResponseCount;
+    }
+
     /**
      * Gets the applicationUpdateReceived flag.
      * This is set to indicate that we have received the required information from the device
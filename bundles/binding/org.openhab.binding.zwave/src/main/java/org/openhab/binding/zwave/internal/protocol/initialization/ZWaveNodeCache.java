@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.zwave.internal.protocol.initialization;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary cache of the serialized nodes. All nodes are kept in a single file,
+ * which is read once, so the nodes can be restored without parsing their XML
+ * files. The XML files remain the reference: every cached node is stamped with
+ * the modification time and length of its XML file, and is only used as long
+ * as the XML file hasn't been changed or deleted.
+ * <p>
+ * The file starts with a header of {@link #MAGIC} and {@link #FORMAT_VERSION},
+ * followed by records of
+ * <ul>
+ * <li>node ID (int)</li>
+ * <li>modification time of the XML file (long)</li>
+ * <li>length of the XML file (long)</li>
+ * <li>length of the data (int), -1 if the node has been removed</li>
+ * <li>CRC32 of the data (int)</li>
+ * <li>the data</li>
+ * </ul>
+ * Changed nodes are appended to the file, the last record of a node wins. The
+ * file is rewritten once it contains too many outdated records.
+ *
+ * @since 1.14.0
+ */
+final class ZWaveNodeCache {
+    private static final Logger logger = LoggerFactory.getLogger(ZWaveNodeCache.class);
+
+    static final int MAGIC = 0x5A574E43; // "ZWNC"
+    static final int FORMAT_VERSION = 1;
+
+    private static final int REMOVED = -1;
+
+    private final File file;
+
+    private final Map<Integer, Entry> entries = new HashMap<Integer, Entry>();
+
+    /** number of records in the file, including outdated ones */
+    private int records = 0;
+
+    private boolean loaded = false;
+
+    /** true if the file has to be rewritten before records can be appended */
+    private boolean rewrite = false;
+
+    /**
+     * @param file the cache file
+     */
+    ZWaveNodeCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the cache file
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the cached data of a node if it has been cached from the given
+     * version of the XML file.
+     *
+     * @param nodeId the node ID
+     * @param modified the modification time of the XML file
+     * @param length the length of the XML file
+     * @return the data or null if the node isn't cached or the XML file has changed
+     */
+    synchronized byte[] get(int nodeId, long modified, long length) {
+        load();
+
+        Entry entry = entries.get(nodeId);
+        if (entry == null || entry.modified != modified || entry.length != length) {
+            return null;
+        }
+        return entry.data;
+    }
+
+    /**
+     * Caches the data of a node and appends it to the file.
+     *
+     * @param nodeId the node ID
+     * @param modified the modification time of the XML file the data belongs to
+     * @param length the length of the XML file the data belongs to
+     * @param data the data, which must not be modified afterwards
+     */
+    synchronized void put(int nodeId, long modified, long length, byte[] data) {
+        load();
+
+        entries.put(nodeId, new Entry(modified, length, data));
+        write(nodeId, modified, length, data);
+    }
+
+    /**
+     * Removes a node from the cache.
+     *
+     * @param nodeId the node ID
+     */
+    synchronized void remove(int nodeId) {
+        load();
+
+        if (entries.remove(nodeId) != null) {
+            write(nodeId, 0, 0, null);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        if (!file.exists()) {
+            rewrite = true;
+            return;
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.debug("Ignoring node cache {} of an unknown format", file.getPath());
+                rewrite = true;
+                return;
+            }
+
+            CRC32 crc = new CRC32();
+            long fileLength = file.length();
+            int first;
+            while ((first = in.read()) != -1) {
+                int nodeId = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8)
+                        | in.readUnsignedByte();
+                long modified = in.readLong();
+                long length = in.readLong();
+                int dataLength = in.readInt();
+                int checksum = in.readInt();
+                records++;
+
+                if (dataLength < REMOVED || dataLength > fileLength) {
+                    throw new IOException("invalid record length " + dataLength);
+                }
+                if (dataLength == REMOVED) {
+                    entries.remove(nodeId);
+                    continue;
+                }
+
+                byte[] data = new byte[dataLength];
+                in.readFully(data);
+                crc.reset();
+                crc.update(data);
+                if ((int) crc.getValue() != checksum) {
+                    logger.debug("NODE {}: Ignoring corrupt entry in node cache", nodeId);
+                    entries.remove(nodeId);
+                    rewrite = true;
+                    continue;
+                }
+                entries.put(nodeId, new Entry(modified, length, data));
+            }
+        } catch (IOException e) {
+            // an incomplete record is left when writing has been interrupted
+            logger.debug("Error reading node cache {}: {}", file.getPath(), e.toString());
+            rewrite = true;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+
+        logger.debug("Loaded {} nodes from node cache {}", entries.size(), file.getPath());
+    }
+
+    private void write(int nodeId, long modified, long length, byte[] data) {
+        if (rewrite || records > 2 * entries.size() + 16) {
+            rewrite();
+            return;
+        }
+
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+            writeRecord(out, nodeId, modified, length, data);
+            out.flush();
+            records++;
+        } catch (IOException e) {
+            logger.error("NODE {}: Error writing node cache: {}", nodeId, e.getMessage());
+            rewrite = true;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    private void rewrite() {
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            for (Map.Entry<Integer, Entry> entry : entries.entrySet()) {
+                Entry value = entry.getValue();
+                writeRecord(out, entry.getKey(), value.modified, value.length, value.data);
+            }
+            out.close();
+            out = null;
+
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Unable to replace " + file.getPath());
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Unable to rename " + temp.getPath());
+            }
+            records = entries.size();
+            rewrite = false;
+        } catch (IOException e) {
+            logger.error("Error writing node cache {}: {}", file.getPath(), e.getMessage());
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, int nodeId, long modified, long length, byte[] data)
+            throws IOException {
+        out.writeInt(nodeId);
+        out.writeLong(modified);
+        out.writeLong(length);
+        if (data == null) {
+            out.writeInt(REMOVED);
+            out.writeInt(0);
+            return;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        out.writeInt(data.length);
+        out.writeInt((int) crc.getValue());
+        out.write(data);
+    }
+
+    private static class Entry {
+        final long modified;
+        final long length;
+        final byte[] data;
+
+        Entry(long modified, long length, byte[] data) {
+            this.modified = modified;
+            this.length = length;
+            this.data = data;
+        }
+    }
+}
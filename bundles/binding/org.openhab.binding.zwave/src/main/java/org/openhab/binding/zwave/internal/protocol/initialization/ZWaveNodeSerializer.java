@@ -14,6 +14,8 @@ package org.openhab.binding.zwave.internal.protocol.initialization;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -31,11 +33,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.binary.BinaryStreamReader;
+import com.thoughtworks.xstream.io.binary.BinaryStreamWriter;
 import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
 import com.thoughtworks.xstream.io.xml.StaxDriver;
 
 /**
  * ZWaveNodeSerializer class. Serializes nodes to XML and back again.
+ * A binary copy of every node is kept in a {@link ZWaveNodeCache}, so
+ * unchanged nodes are restored without parsing XML.
  *
  * @author Jan-Willem Spuij
  * @since 1.4.0
@@ -43,16 +49,19 @@ import com.thoughtworks.xstream.io.xml.StaxDriver;
 public class ZWaveNodeSerializer {
 
     private static final Logger logger = LoggerFactory.getLogger(ZWaveNodeSerializer.class);
-    private final XStream stream = new XStream(new StaxDriver());
+
+    // XStream is thread safe once it has been configured, so all serializers share one instance
+    private static final XStream stream = createStream();
+    private static ZWaveNodeCache cache;
+
     private String folderName = "etc/zwave";
+    private final ZWaveNodeCache nodeCache;
 
     /**
      * Constructor. Creates a new instance of the {@link ZWaveNodeSerializer}
      * class.
      */
     public ZWaveNodeSerializer() {
-        logger.trace("Initializing ZWaveNodeSerializer.");
-
         // Change the folder for OH2
         // ConfigConstants.getUserDataFolder();
         final String USERDATA_DIR_PROG_ARGUMENT = "smarthome.userdata";
@@ -68,6 +77,20 @@ public class ZWaveNodeSerializer {
             logger.debug("Creating directory {}", folderName);
             folder.mkdirs();
         }
+        nodeCache = getCache(new File(folder, "nodes.cache"));
+    }
+
+    private static synchronized ZWaveNodeCache getCache(File file) {
+        if (cache == null || !cache.getFile().equals(file)) {
+            cache = new ZWaveNodeCache(file);
+        }
+        return cache;
+    }
+
+    private static XStream createStream() {
+        logger.trace("Initializing ZWaveNodeSerializer.");
+
+        XStream stream = new XStream(new StaxDriver());
         stream.processAnnotations(ZWaveNode.class);
         stream.processAnnotations(ZWaveEndpoint.class);
         stream.processAnnotations(ZWaveDeviceClass.class);
@@ -87,6 +110,7 @@ public class ZWaveNodeSerializer {
         }
         stream.processAnnotations(MeterScale.class);
         logger.trace("Initialized ZWaveNodeSerializer.");
+        return stream;
     }
 
     /**
@@ -116,6 +140,8 @@ public class ZWaveNodeSerializer {
                 writer.flush();
             } catch (IOException e) {
                 logger.error("NODE {}: Error serializing to file: {}", node.getNodeId(), e.getMessage());
+                nodeCache.remove(node.getNodeId());
+                return;
             } finally {
                 if (writer != null) {
                     try {
@@ -124,6 +150,8 @@ public class ZWaveNodeSerializer {
                     }
                 }
             }
+
+            nodeCache.put(node.getNodeId(), file.lastModified(), file.length(), toBinary(node));
         }
     }
 
@@ -135,32 +163,58 @@ public class ZWaveNodeSerializer {
      * @return returns the Node or null in case Serialization failed.
      */
     public ZWaveNode DeserializeNode(int nodeId) {
-        synchronized (stream) {
-            File file = new File(this.folderName, String.format("node%d.xml", nodeId));
-            BufferedReader reader = null;
+        // Nodes are restored by one thread per node, so restore them without locking the stream
+        File file = new File(this.folderName, String.format("node%d.xml", nodeId));
+        BufferedReader reader = null;
 
-            logger.debug("NODE {}: Serializing from file {}", nodeId, file.getPath());
+        logger.debug("NODE {}: Serializing from file {}", nodeId, file.getPath());
 
-            if (!file.exists()) {
-                logger.debug("NODE {}: Error serializing from file: file does not exist.", nodeId);
-                return null;
-            }
+        if (!file.exists()) {
+            logger.debug("NODE {}: Error serializing from file: file does not exist.", nodeId);
+            nodeCache.remove(nodeId);
+            return null;
+        }
 
+        // Use the binary copy as long as the XML file hasn't been changed
+        long modified = file.lastModified();
+        long length = file.length();
+        byte[] data = nodeCache.get(nodeId, modified, length);
+        if (data != null) {
             try {
-                reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
-                return (ZWaveNode) stream.fromXML(reader);
-            } catch (IOException e) {
-                logger.error("NODE {}: Error serializing from file: {}", nodeId, e.getMessage());
-            } finally {
-                if (reader != null) {
-                    try {
-                        reader.close();
-                    } catch (IOException e) {
-                    }
+                return (ZWaveNode) stream.unmarshal(new BinaryStreamReader(new ByteArrayInputStream(data)));
+            } catch (RuntimeException e) {
+                logger.debug("NODE {}: Error restoring from node cache, reading XML file. {}", nodeId, e.toString());
+            }
+        }
+
+        ZWaveNode node = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+            node = (ZWaveNode) stream.fromXML(reader);
+        } catch (IOException e) {
+            logger.error("NODE {}: Error serializing from file: {}", nodeId, e.getMessage());
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
                 }
             }
-            return null;
         }
+
+        // Cache the node, so it's restored from the binary copy next time
+        if (node != null) {
+            nodeCache.put(nodeId, modified, length, toBinary(node));
+        }
+        return node;
+    }
+
+    private static byte[] toBinary(ZWaveNode node) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryStreamWriter writer = new BinaryStreamWriter(bytes);
+        stream.marshal(node, writer);
+        writer.flush();
+        return bytes.toByteArray();
     }
 
     /**
@@ -173,6 +227,7 @@ public class ZWaveNodeSerializer {
         synchronized (stream) {
             File file = new File(this.folderName, String.format("node%d.xml", nodeId));
 
+            nodeCache.remove(nodeId);
             return file.delete();
         }
     }
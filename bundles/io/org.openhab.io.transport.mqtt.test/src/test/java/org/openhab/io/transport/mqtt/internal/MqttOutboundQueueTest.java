@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Testcases for the outbound queue of a broker connection.
+ *
+ * @since 1.14.0
+ */
+public class MqttOutboundQueueTest {
+
+    /**
+     * Records the messages handed over by the queue, and completes them on
+     * request like the Paho client does.
+     */
+    private static class FakeClient implements InvocationHandler {
+
+        private final List<Object> contexts = new ArrayList<Object>();
+        private final List<IMqttActionListener> listeners = new ArrayList<IMqttActionListener>();
+        private final List<String> topics = new ArrayList<String>();
+
+        private final IMqttAsyncClient client = (IMqttAsyncClient) Proxy.newProxyInstance(
+                IMqttAsyncClient.class.getClassLoader(), new Class<?>[] { IMqttAsyncClient.class }, this);
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getName().equals("publish") && args.length == 6) {
+                topics.add((String) args[0]);
+                contexts.add(args[4]);
+                listeners.add((IMqttActionListener) args[5]);
+            }
+            return null;
+        }
+
+        void complete(int index) {
+            final Object context = contexts.get(index);
+            IMqttToken token = (IMqttToken) Proxy.newProxyInstance(IMqttToken.class.getClassLoader(),
+                    new Class<?>[] { IMqttToken.class }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            if (method.getName().equals("getUserContext")) {
+                                return context;
+                            }
+                            if (method.getName().equals("getMessageId")) {
+                                return 0;
+                            }
+                            return null;
+                        }
+                    });
+            listeners.get(index).onSuccess(token);
+        }
+    }
+
+    private MqttOutboundQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new MqttOutboundQueue("test");
+        queue.setMaxInflight(1);
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes();
+    }
+
+    @Test
+    public void handsOverNextMessageWhenPreviousCompletes() {
+        FakeClient client = new FakeClient();
+        queue.resume(client.client);
+        queue.publish("a", payload("1"), 1, false);
+        queue.publish("b", payload("2"), 1, false);
+
+        assertEquals(1, client.topics.size());
+        assertEquals(1, queue.getQueueDepth());
+
+        client.complete(0);
+
+        assertEquals(2, client.topics.size());
+        assertEquals("b", client.topics.get(1));
+        assertEquals(1, queue.getPublishedCount());
+    }
+
+    @Test
+    public void keepsPublishingAfterReconnectWithMessagesInFlight() {
+        FakeClient lostClient = new FakeClient();
+        queue.resume(lostClient.client);
+        queue.publish("a", payload("1"), 1, false);
+        assertEquals(1, queue.getInflightCount());
+
+        // the connection drops without completing the message in flight
+        queue.suspend();
+        queue.publish("b", payload("2"), 1, false);
+        assertEquals(0, queue.getInflightCount());
+        assertEquals(1, queue.getQueueDepth());
+
+        FakeClient client = new FakeClient();
+        queue.resume(client.client);
+
+        assertEquals(1, client.topics.size());
+        assertEquals("b", client.topics.get(0));
+        assertEquals(1, queue.getInflightCount());
+
+        client.complete(0);
+        queue.publish("c", payload("3"), 1, false);
+
+        assertEquals(2, client.topics.size());
+        assertEquals("c", client.topics.get(1));
+    }
+
+    @Test
+    public void ignoresCompletionsOfPreviousClient() {
+        FakeClient lostClient = new FakeClient();
+        queue.resume(lostClient.client);
+        queue.publish("a", payload("1"), 1, false);
+
+        queue.suspend();
+        FakeClient client = new FakeClient();
+        queue.resume(client.client);
+        queue.publish("b", payload("2"), 1, false);
+        queue.publish("c", payload("3"), 1, false);
+        assertEquals(1, client.topics.size());
+
+        // a late completion from the previous client must not open the window
+        lostClient.complete(0);
+
+        assertEquals(1, client.topics.size());
+        assertEquals(1, queue.getInflightCount());
+        assertEquals(1, queue.getQueueDepth());
+
+        client.complete(0);
+
+        assertEquals(2, client.topics.size());
+        assertEquals("c", client.topics.get(1));
+    }
+}
@@ -115,6 +115,20 @@ public class MqttService implements ManagedService {
                 if (parsedKeepAlive > -1) {
                     conn.setKeepAliveInterval(parsedKeepAlive);
                 }
+            } else if (property.equals("maxInflight")) {
+                int parsedMaxInflight = safeParseInt(property, value);
+                if (parsedMaxInflight > 0) {
+                    conn.setMaxInflight(parsedMaxInflight);
+                }
+            } else if (property.equals("outboundQueueSize")) {
+                int parsedQueueSize = safeParseInt(property, value);
+                if (parsedQueueSize > 0) {
+                    conn.setOutboundQueueSize(parsedQueueSize);
+                }
+            } else if (property.equals("coalesceOutbound")) {
+                if (validateBooleanSetting(property, value)) {
+                    conn.setCoalesceOutbound(Boolean.parseBoolean(value));
+                }
             } else {
                 logger.warn("Unrecognized property: {}", key);
             }
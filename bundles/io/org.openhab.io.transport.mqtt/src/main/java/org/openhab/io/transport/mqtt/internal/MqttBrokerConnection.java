@@ -13,6 +13,7 @@
 package org.openhab.io.transport.mqtt.internal;
 
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Timer;
@@ -25,13 +26,11 @@ import javax.net.ssl.X509TrustManager;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
-import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
-import org.eclipse.paho.client.mqttv3.MqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
-import org.eclipse.paho.client.mqttv3.MqttTopic;
 import org.eclipse.paho.client.mqttv3.persist.MqttDefaultFilePersistence;
 import org.openhab.io.transport.mqtt.MqttMessageConsumer;
 import org.openhab.io.transport.mqtt.MqttMessageProducer;
@@ -66,12 +65,15 @@ public class MqttBrokerConnection implements MqttCallback {
     private MqttWillAndTestament lastWill;
     private String clientId;
     private boolean allowLongerClientIds = false;
-    private MqttClient client;
+    private MqttAsyncClient client;
     private boolean started;
     private List<MqttMessageConsumer> consumers = new CopyOnWriteArrayList<MqttMessageConsumer>();
+    private MqttTopicTrie<MqttMessageConsumer> subscriptions = new MqttTopicTrie<MqttMessageConsumer>();
     private List<MqttMessageProducer> producers = new CopyOnWriteArrayList<MqttMessageProducer>();
     private Timer reconnectTimer;
     private int keepAliveInterval = 60;
+    private int maxInflight = 10;
+    private MqttOutboundQueue outboundQueue;
 
     /**
      * Create a new connection with the given name.
@@ -81,6 +83,7 @@ public class MqttBrokerConnection implements MqttCallback {
      */
     public MqttBrokerConnection(String name) {
         this.name = name;
+        this.outboundQueue = new MqttOutboundQueue(name);
     }
 
     /**
@@ -116,6 +119,8 @@ public class MqttBrokerConnection implements MqttCallback {
         }
 
         started = true;
+        outboundQueue.setMaxInflight(async ? maxInflight : 1);
+        outboundQueue.resume(client);
     }
 
     /**
@@ -241,16 +246,61 @@ public class MqttBrokerConnection implements MqttCallback {
     }
 
     /**
-     * Set whether messages should be sent synchronously (the message is sent
-     * and the thread waits until delivery to the broker has completed) or
-     * asynchronously (the message is sent and the sending thread does not wait
-     * for delivery completion). In the case of async, the sending thread
-     * currently does not receive any feedback when delivery is completed.
+     * Set whether messages should be sent synchronously (a message is only sent
+     * after delivery of the previous one to the broker has completed) or
+     * asynchronously (up to <code>maxInflight</code> messages are sent without
+     * waiting for delivery completion). In both cases the sending thread does not
+     * wait, the messages are queued and sent by the outbound queue of this
+     * connection.
      * 
      * @param async
      */
     public void setAsync(boolean async) {
         this.async = async;
+        outboundQueue.setMaxInflight(async ? maxInflight : 1);
+    }
+
+    /**
+     * Set the maximum number of messages which are sent to the broker without
+     * their delivery being completed yet. Only used for async connections.
+     * 
+     * @param maxInflight
+     *            maximum number of messages in flight
+     */
+    public void setMaxInflight(int maxInflight) {
+        this.maxInflight = Math.max(1, maxInflight);
+        outboundQueue.setMaxInflight(async ? this.maxInflight : 1);
+    }
+
+    /**
+     * Set the maximum number of outbound messages which wait to be sent. Further
+     * messages are dropped.
+     * 
+     * @param size
+     *            maximum number of waiting messages
+     */
+    public void setOutboundQueueSize(int size) {
+        outboundQueue.setCapacity(size);
+    }
+
+    /**
+     * Set whether a new outbound message replaces a waiting message for the same
+     * topic, so that only the latest message per topic is sent.
+     * 
+     * @param coalesce
+     *            true to coalesce waiting messages per topic
+     */
+    public void setCoalesceOutbound(boolean coalesce) {
+        outboundQueue.setOverflowPolicy(
+                coalesce ? MqttOutboundQueue.OverflowPolicy.COALESCE : MqttOutboundQueue.OverflowPolicy.DROP);
+    }
+
+    /**
+     * @return current state and statistics of the outbound queue, e.g. queue
+     *         depth and publish latency
+     */
+    public String getOutboundStatistics() {
+        return outboundQueue.toString();
     }
 
     /**
@@ -302,10 +352,10 @@ public class MqttBrokerConnection implements MqttCallback {
         if (client == null) {
             if (StringUtils.isBlank(clientId) || clientId.length() > 23) {
                 if (StringUtils.isBlank(clientId)) {
-                    clientId = MqttClient.generateClientId();
+                    clientId = MqttAsyncClient.generateClientId();
                 } else {
                     if (clientId.length() > 23 && !allowLongerClientIds) {
-                        clientId = MqttClient.generateClientId();
+                        clientId = MqttAsyncClient.generateClientId();
                     }
                 }
             }
@@ -313,7 +363,7 @@ public class MqttBrokerConnection implements MqttCallback {
             String tmpDir = System.getProperty("java.io.tmpdir") + "/" + name;
             MqttDefaultFilePersistence dataStore = new MqttDefaultFilePersistence(tmpDir);
             logger.debug("Creating new client for '{}' using id '{}' and file store '{}'", url, clientId, tmpDir);
-            client = new MqttClient(url, clientId, dataStore);
+            client = new MqttAsyncClient(url, clientId, dataStore);
             client.setCallback(this);
         }
 
@@ -366,8 +416,9 @@ public class MqttBrokerConnection implements MqttCallback {
         }
 
         options.setKeepAliveInterval(keepAliveInterval);
+        options.setMaxInflight(Math.max(maxInflight, MqttConnectOptions.MAX_INFLIGHT_DEFAULT));
 
-        client.connect(options);
+        client.connect(options).waitForCompletion();
     }
 
     /**
@@ -437,26 +488,9 @@ public class MqttBrokerConnection implements MqttCallback {
                     return;
                 }
 
-                // Create and configure a message
-                MqttMessage message = new MqttMessage(payload);
-                message.setQos(qos);
-                message.setRetained(retain);
-
-                // publish message asynchronously
-                MqttTopic mqttTopic = client.getTopic(topic);
-                MqttDeliveryToken deliveryToken = mqttTopic.publish(message);
-
-                logger.debug("Publishing message {} to topic '{}'", deliveryToken.getMessageId(), topic);
-                if (!async) {
-                    // wait for publish confirmation
-                    deliveryToken.waitForCompletion(10000);
-                    if (!deliveryToken.isComplete()) {
-                        logger.warn(
-                                "Did not receive completion message within timeout limit while publishing to topic '{}'",
-                                topic);
-                    }
-                }
-
+                // queue the message, it is published asynchronously by the outbound queue
+                logger.debug("Publishing message to topic '{}'", topic);
+                outboundQueue.publish(topic, payload, qos, retain);
             }
         });
 
@@ -470,6 +504,7 @@ public class MqttBrokerConnection implements MqttCallback {
      */
     public synchronized void addConsumer(MqttMessageConsumer subscriber) {
         consumers.add(subscriber);
+        subscriptions.add(subscriber.getTopic(), subscriber);
         if (started) {
             startConsumer(subscriber);
         }
@@ -487,7 +522,7 @@ public class MqttBrokerConnection implements MqttCallback {
         logger.debug("Starting message consumer for broker '{}' on topic '{}'", name, topic);
 
         try {
-            client.subscribe(topic, qos);
+            client.subscribe(topic, qos).waitForCompletion();
         } catch (Exception e) {
             logger.warn("Error starting consumer", e);
         }
@@ -516,12 +551,13 @@ public class MqttBrokerConnection implements MqttCallback {
 
         try {
             if (started) {
-                client.unsubscribe(subscriber.getTopic());
+                client.unsubscribe(subscriber.getTopic()).waitForCompletion();
             }
         } catch (Exception e) {
             logger.warn("Error unsubscribing topic from broker", e);
         }
         consumers.remove(subscriber);
+        subscriptions.remove(subscriber.getTopic(), subscriber);
     }
 
     /**
@@ -529,9 +565,12 @@ public class MqttBrokerConnection implements MqttCallback {
      */
     public synchronized void close() {
         logger.debug("Closing connection to broker '{}'", name);
+        outboundQueue.suspend();
+        outboundQueue.clear();
+        logger.debug("Outbound statistics of broker connection {}", outboundQueue);
         try {
             if (started) {
-                client.disconnect();
+                client.disconnect().waitForCompletion();
             }
         } catch (MqttException e) {
             logger.warn("Error closing connection to broker", e);
@@ -553,6 +592,7 @@ public class MqttBrokerConnection implements MqttCallback {
         }
 
         started = false;
+        outboundQueue.suspend();
         logger.info("Starting connection helper to periodically try restoring connection to broker '{}'", name);
 
         MqttBrokerConnectionHelper helper = new MqttBrokerConnectionHelper(this);
@@ -569,41 +609,12 @@ public class MqttBrokerConnection implements MqttCallback {
     public void messageArrived(String topic, MqttMessage message) throws Exception {
         byte[] bytes = message.getPayload();
         logger.trace("Received message on topic '{}'. Raw bytes: {}", topic, bytes);
-        for (MqttMessageConsumer consumer : consumers) {
-            if (isTopicMatch(topic, consumer.getTopic())) {
-                consumer.processMessage(topic, message.getPayload());
-            }
-        }
-    }
-
-    /**
-     * Check if the topic on which a message was received matches provided
-     * target topic. The matching will take into account the + and # wildcards.
-     * 
-     * @param source
-     *            topic from received message
-     * @param target
-     *            topic as defined with possible wildcards
-     * @return true if both topics match
-     */
-    private boolean isTopicMatch(String source, String target) {
-        if (source.equals(target)) {
-            return true;
-        }
-        if (target.indexOf('+') == -1 && target.indexOf('#') == -1) {
-            return false;
-        }
 
-        String regex = target;
-        regex = StringUtils.replace(regex, "+", "[^/]*");
-        regex = StringUtils.replace(regex, "#", ".*");
-        boolean result = source.matches(regex);
-        if (result) {
-            logger.trace("Topic match for '{}' and '{}' using regex {}", source, target, regex);
-            return true;
-        } else {
-            logger.trace("No topic match for '{}' and '{}' using regex {}", source, target, regex);
-            return false;
+        List<MqttMessageConsumer> matches = new ArrayList<MqttMessageConsumer>();
+        subscriptions.match(topic, matches);
+        logger.trace("Topic '{}' matches {} consumer(s)", topic, matches.size());
+        for (MqttMessageConsumer consumer : matches) {
+            consumer.processMessage(topic, message.getPayload());
         }
     }
 
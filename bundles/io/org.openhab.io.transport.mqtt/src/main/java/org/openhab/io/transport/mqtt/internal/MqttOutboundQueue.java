@@ -0,0 +1,339 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Outbound pipeline of a single {@link MqttBrokerConnection}. Messages are queued
+ * by the publishing thread and handed over to the asynchronous MQTT client, which
+ * never blocks the caller. At most <code>maxInflight</code> messages are handed
+ * over at the same time, further messages wait in a bounded queue. With
+ * {@link OverflowPolicy#COALESCE} a new message replaces a message for the same
+ * topic which is still waiting, so only the latest value per topic is sent. Messages
+ * which don't fit into the full queue anymore are dropped.
+ * <p>
+ * Messages which are queued while the connection is down are sent once the
+ * connection has been restored.
+ *
+ * @since 1.14.0
+ */
+class MqttOutboundQueue {
+
+    /**
+     * How messages are handled which can't be handed over immediately.
+     */
+    enum OverflowPolicy {
+        /** every message is queued, new messages are dropped while the queue is full */
+        DROP,
+        /**
+         * a new message replaces the waiting message of the same topic, it is
+         * dropped only if there is no such message and the queue is full
+         */
+        COALESCE
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(MqttOutboundQueue.class);
+
+    private final String name;
+
+    private final Queue<PendingMessage> queue = new ArrayDeque<PendingMessage>();
+
+    /** the waiting message per topic, only maintained with {@link OverflowPolicy#COALESCE} */
+    private final Map<String, PendingMessage> waitingByTopic = new HashMap<String, PendingMessage>();
+
+    private IMqttAsyncClient client;
+    private int inflight;
+
+    /**
+     * incremented whenever the client is suspended or resumed, so completions of
+     * messages handed over to a previous client don't affect the current window
+     */
+    private int generation;
+
+    private int maxInflight = 10;
+    private int capacity = 1000;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    private final IMqttActionListener completionListener = new IMqttActionListener() {
+
+        @Override
+        public void onSuccess(IMqttToken token) {
+            PendingMessage message = (PendingMessage) token.getUserContext();
+            recordLatency(System.nanoTime() - message.queuedNanos);
+            published.incrementAndGet();
+            logger.trace("Published message {} to topic '{}'", token.getMessageId(), message.topic);
+            complete(message);
+        }
+
+        @Override
+        public void onFailure(IMqttToken token, Throwable exception) {
+            PendingMessage message = (PendingMessage) token.getUserContext();
+            failed.incrementAndGet();
+            logger.warn("Error publishing message to topic '{}' on broker '{}': {}", message.topic, name,
+                    exception != null ? exception.getMessage() : "unknown");
+            complete(message);
+        }
+    };
+
+    MqttOutboundQueue(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param maxInflight
+     *            the maximum number of messages handed over to the client
+     *            without being completed yet
+     */
+    synchronized void setMaxInflight(int maxInflight) {
+        this.maxInflight = Math.max(1, maxInflight);
+    }
+
+    synchronized int getMaxInflight() {
+        return maxInflight;
+    }
+
+    /**
+     * @param capacity
+     *            the maximum number of messages waiting to be handed over
+     */
+    synchronized void setCapacity(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    synchronized void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        if (overflowPolicy != OverflowPolicy.COALESCE) {
+            waitingByTopic.clear();
+        }
+    }
+
+    /**
+     * Starts handing over the waiting messages to the given client.
+     *
+     * @param client
+     *            connected client
+     */
+    synchronized void resume(IMqttAsyncClient client) {
+        this.client = client;
+        resetInflight();
+        drain();
+    }
+
+    /**
+     * Stops handing over messages. Waiting messages are kept, so that they are
+     * sent after the next call to {@link #resume(IMqttAsyncClient)}.
+     */
+    synchronized void suspend() {
+        this.client = null;
+        resetInflight();
+    }
+
+    /**
+     * Forgets the messages handed over to the current client. The client doesn't
+     * complete them when the connection is lost, and a clean session discards
+     * them on reconnect, so they would block the window forever otherwise.
+     */
+    private void resetInflight() {
+        inflight = 0;
+        generation++;
+    }
+
+    /**
+     * Discards all waiting messages.
+     */
+    synchronized void clear() {
+        queue.clear();
+        waitingByTopic.clear();
+    }
+
+    /**
+     * Queues a message. This method never blocks.
+     *
+     * @param topic
+     *            topic to publish the message to
+     * @param payload
+     *            message payload
+     * @param qos
+     *            quality of service level
+     * @param retain
+     *            whether the broker should retain the message
+     */
+    synchronized void publish(String topic, byte[] payload, int qos, boolean retain) {
+        if (overflowPolicy == OverflowPolicy.COALESCE) {
+            PendingMessage waiting = waitingByTopic.get(topic);
+            if (waiting != null) {
+                // keep the position of the waiting message, only its content is outdated
+                waiting.payload = payload;
+                waiting.qos = qos;
+                waiting.retain = retain;
+                coalesced.incrementAndGet();
+                logger.trace("Replaced waiting message for topic '{}'", topic);
+                return;
+            }
+        }
+
+        if (queue.size() >= capacity) {
+            dropped.incrementAndGet();
+            logger.warn("Outbound queue of broker '{}' is full. Dropping message to topic '{}'", name, topic);
+            return;
+        }
+
+        PendingMessage message = new PendingMessage(topic, payload, qos, retain);
+        queue.add(message);
+        if (overflowPolicy == OverflowPolicy.COALESCE) {
+            waitingByTopic.put(topic, message);
+        }
+        drain();
+    }
+
+    private synchronized void complete(PendingMessage message) {
+        if (message.generation != generation) {
+            return;
+        }
+        inflight--;
+        drain();
+    }
+
+    private void drain() {
+        while (client != null && inflight < maxInflight && !queue.isEmpty()) {
+            PendingMessage message = queue.poll();
+            if (waitingByTopic.get(message.topic) == message) {
+                waitingByTopic.remove(message.topic);
+            }
+
+            message.generation = generation;
+            try {
+                client.publish(message.topic, message.payload, message.qos, message.retain, message,
+                        completionListener);
+                inflight++;
+            } catch (MqttException e) {
+                failed.incrementAndGet();
+                logger.warn("Error publishing message to topic '{}' on broker '{}': {}", message.topic, name,
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        long latency = latencyNanos / 1000000L;
+        totalLatency.addAndGet(latency);
+        long max = maxLatency.get();
+        while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+            max = maxLatency.get();
+        }
+    }
+
+    /**
+     * @return the number of messages waiting to be handed over to the client
+     */
+    synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of messages handed over to the client which are not
+     *         completed yet
+     */
+    synchronized int getInflightCount() {
+        return inflight;
+    }
+
+    /**
+     * @return the number of successfully published messages
+     */
+    long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * @return the number of messages which could not be published
+     */
+    long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of messages dropped because the queue was full
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of messages which replaced a waiting message
+     */
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the average time in milliseconds from queueing a message until
+     *         its publication has been completed
+     */
+    long getAveragePublishLatency() {
+        long count = published.get();
+        return count == 0 ? 0 : totalLatency.get() / count;
+    }
+
+    /**
+     * @return the longest time in milliseconds from queueing a message until
+     *         its publication has been completed
+     */
+    long getMaxPublishLatency() {
+        return maxLatency.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + " [queued=" + getQueueDepth() + ", inflight=" + getInflightCount() + ", published="
+                + getPublishedCount() + ", failed=" + getFailedCount() + ", dropped=" + getDroppedCount()
+                + ", coalesced=" + getCoalescedCount() + ", avgLatency=" + getAveragePublishLatency()
+                + "ms, maxLatency=" + getMaxPublishLatency() + "ms]";
+    }
+
+    private static class PendingMessage {
+
+        final String topic;
+        final long queuedNanos = System.nanoTime();
+        byte[] payload;
+        int qos;
+        boolean retain;
+        int generation;
+
+        PendingMessage(String topic, byte[] payload, int qos, boolean retain) {
+            this.topic = topic;
+            this.payload = payload;
+            this.qos = qos;
+            this.retain = retain;
+        }
+    }
+}
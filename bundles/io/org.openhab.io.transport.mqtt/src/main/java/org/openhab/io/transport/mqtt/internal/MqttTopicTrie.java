@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stores subscriptions by their topic filter in a tree with one level per topic
+ * level, so that the subscriptions matching a topic can be found without looking
+ * at every subscription. The single level wildcard <code>+</code> and the multi
+ * level wildcard <code>#</code> are stored as regular levels and followed while
+ * matching, which makes the cost of a lookup depend on the depth of the topic
+ * rather than on the number of subscriptions.
+ * <p>
+ * Lookups don't lock and may run concurrently with modifications.
+ *
+ * @param <T> the type of the subscribers
+ * @since 1.14.0
+ */
+class MqttTopicTrie<T> {
+
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final Node<T> root = new Node<T>();
+
+    /**
+     * Adds a subscriber for the given topic filter.
+     *
+     * @param filter
+     *            topic filter, possibly containing wildcards
+     * @param subscriber
+     *            to add
+     */
+    synchronized void add(String filter, T subscriber) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            Node<T> child = node.children.get(level);
+            if (child == null) {
+                child = new Node<T>();
+                node.children.put(level, child);
+            }
+            node = child;
+        }
+        node.subscribers.add(subscriber);
+    }
+
+    /**
+     * Removes a subscriber which has been added for the given topic filter.
+     *
+     * @param filter
+     *            topic filter the subscriber has been added with
+     * @param subscriber
+     *            to remove
+     * @return true if the subscriber has been found
+     */
+    synchronized boolean remove(String filter, T subscriber) {
+        return remove(root, filter.split("/", -1), 0, subscriber);
+    }
+
+    private boolean remove(Node<T> node, String[] levels, int index, T subscriber) {
+        if (index == levels.length) {
+            return node.subscribers.remove(subscriber);
+        }
+
+        Node<T> child = node.children.get(levels[index]);
+        if (child == null) {
+            return false;
+        }
+
+        boolean removed = remove(child, levels, index + 1, subscriber);
+        if (child.isEmpty()) {
+            // prune branches which don't lead to any subscriber anymore
+            node.children.remove(levels[index]);
+        }
+        return removed;
+    }
+
+    /**
+     * Collects all subscribers whose topic filter matches the given topic.
+     *
+     * @param topic
+     *            topic on which a message has been received
+     * @param result
+     *            list the matching subscribers are added to
+     */
+    void match(String topic, List<T> result) {
+        match(root, topic.split("/", -1), 0, result);
+    }
+
+    private void match(Node<T> node, String[] levels, int index, List<T> result) {
+        // '#' matches the remaining levels including the parent level itself
+        Node<T> multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+        if (multiLevel != null) {
+            result.addAll(multiLevel.subscribers);
+        }
+
+        if (index == levels.length) {
+            result.addAll(node.subscribers);
+            return;
+        }
+
+        Node<T> exact = node.children.get(levels[index]);
+        if (exact != null) {
+            match(exact, levels, index + 1, result);
+        }
+
+        Node<T> singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+        if (singleLevel != null && singleLevel != exact) {
+            match(singleLevel, levels, index + 1, result);
+        }
+    }
+
+    private static class Node<T> {
+
+        final ConcurrentMap<String, Node<T>> children = new ConcurrentHashMap<String, Node<T>>();
+        final List<T> subscribers = new CopyOnWriteArrayList<T>();
+
+        boolean isEmpty() {
+            return children.isEmpty() && subscribers.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.persistence.jdbc.model.ItemVO;
+
+/**
+ * Testcases for the {@link JdbcWriteQueue}, writing to a fake table which rejects
+ * a batch like a database does when one of its rows violates a constraint.
+ *
+ * @since 1.14.0
+ */
+public class JdbcWriteQueueTest {
+
+    private static final String BAD_VALUE = "bad";
+
+    private final List<List<Object>> batches = new ArrayList<List<Object>>();
+
+    private JdbcWriteQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new JdbcWriteQueue(new JdbcWriteQueue.Writer() {
+            @Override
+            public boolean write(String tableName, String dbType, List<ItemVO> vol) {
+                List<Object> values = new ArrayList<Object>();
+                for (ItemVO vo : vol) {
+                    if (BAD_VALUE.equals(vo.getValue())) {
+                        return false;
+                    }
+                    values.add(vo.getValue());
+                }
+                batches.add(values);
+                return true;
+            }
+        }, 100, 60000, 1000);
+    }
+
+    @After
+    public void tearDown() {
+        queue.shutdown();
+    }
+
+    private static ItemVO value(String tableName, long time, Object value) {
+        ItemVO vo = new ItemVO(tableName, null);
+        vo.setDbType("VARCHAR(65500)");
+        vo.setTime(new Date(time));
+        vo.setValue(value);
+        return vo;
+    }
+
+    @Test
+    public void writesOneBatchPerTable() {
+        queue.add(value("item0001", 1000, "a"));
+        queue.add(value("item0002", 1000, "b"));
+        queue.add(value("item0001", 1001, "c"));
+
+        queue.flush();
+
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(3, queue.getWrittenCount());
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    public void writesLastOfSeveralValuesWithTheSameTime() {
+        queue.add(value("item0001", 1000, "first"));
+        queue.add(value("item0001", 1000, "last"));
+        queue.add(value("item0002", 1000, "other"));
+
+        queue.flush();
+
+        assertEquals("last", batches.get(0).get(0));
+        assertEquals(1, batches.get(0).size());
+        assertEquals(2, queue.getWrittenCount());
+        assertEquals(1, queue.getCoalescedCount());
+        assertEquals(0, queue.getFailedCount());
+    }
+
+    @Test
+    public void writesValuesOfFailedBatchOneAtATime() {
+        queue.add(value("item0001", 1000, "a"));
+        queue.add(value("item0001", 1001, BAD_VALUE));
+        queue.add(value("item0001", 1002, "c"));
+
+        queue.flush();
+
+        assertEquals(2, batches.size());
+        assertEquals("a", batches.get(0).get(0));
+        assertEquals("c", batches.get(1).get(0));
+        assertEquals(2, queue.getWrittenCount());
+        assertEquals(1, queue.getFailedCount());
+    }
+}
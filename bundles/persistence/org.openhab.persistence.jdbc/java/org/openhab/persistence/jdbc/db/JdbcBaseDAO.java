@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
@@ -82,6 +83,9 @@ public class JdbcBaseDAO {
     protected String SQL_CREATE_ITEM_TABLE;
     protected String SQL_INSERT_ITEM_VALUE;
 
+    // batch insert statements per table, the time is bound as parameter
+    private final Map<String, String> insertItemValuesSql = new ConcurrentHashMap<String, String>();
+
     /********
      * INIT *
      ********/
@@ -337,6 +341,29 @@ public class JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
+    /**
+     * Inserts several values into the table of one item within a single JDBC batch.
+     *
+     * @param tableName the table to insert into
+     * @param dbType the sql type of the value column
+     * @param vol the values, created by {@link #createItemValue(Item, String)}
+     * @return true if the batch has been executed, false if it failed
+     */
+    public boolean doStoreItemValues(String tableName, String dbType, List<ItemVO> vol) {
+        String key = tableName + "#" + dbType;
+        String sql = insertItemValuesSql.get(key);
+        if (sql == null) {
+            sql = insertItemValuesProvider(tableName, dbType);
+            insertItemValuesSql.put(key, sql);
+        }
+        Object[][] params = new Object[vol.size()][];
+        for (int i = 0; i < vol.size(); i++) {
+            params[i] = insertItemValuesParams(vol.get(i));
+        }
+        logger.debug("JDBC::doStoreItemValues sql={} rows={}", sql, vol.size());
+        return Yank.executeBatch(sql, params) != null;
+    }
+
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name) {
         String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name);
@@ -397,6 +424,27 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    /**
+     * Creates the insert statement of {@link #doStoreItemValues(String, String, List)}. The time of a row is bound as
+     * first parameter instead of being generated by the database, as the rows of a batch are stored at different
+     * times.
+     */
+    protected String insertItemValuesProvider(String tableName, String dbType) {
+        return StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUE,
+                new String[] { "#tableName#", "#tablePrimaryValue#" }, new String[] { tableName, "?" });
+    }
+
+    /**
+     * Returns the parameters of one row for the statement of {@link #insertItemValuesProvider(String, String)}.
+     */
+    protected Object[] insertItemValuesParams(ItemVO vo) {
+        return new Object[] { timeParameter(vo), vo.getValue(), vo.getValue() };
+    }
+
+    protected Object timeParameter(ItemVO vo) {
+        return new Timestamp(vo.getTime().getTime());
+    }
+
     protected ItemVO storeItemValueProvider(Item item, ItemVO vo) {
         String itemType = getItemType(item);
 
@@ -572,6 +620,19 @@ public class JdbcBaseDAO {
         return itemType;
     }
 
+    /**
+     * Converts the current state of an item into the value to store, together with the time it is stored at.
+     *
+     * @param item the item to store
+     * @param tableName the table of the item
+     * @return the value to pass to {@link #doStoreItemValues(String, String, List)}
+     */
+    public ItemVO createItemValue(Item item, String tableName) {
+        ItemVO vo = storeItemValueProvider(item, new ItemVO(tableName, null));
+        vo.setTime(new Date());
+        return vo;
+    }
+
     /******************************
      * public Getters and Setters *
      ******************************/
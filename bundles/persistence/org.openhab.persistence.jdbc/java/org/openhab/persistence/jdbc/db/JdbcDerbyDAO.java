@@ -158,6 +158,18 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String insertItemValuesProvider(String tableName, String dbType) {
+        return StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUE,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { tableName.toUpperCase(), dbType, "?" });
+    }
+
+    @Override
+    protected Object[] insertItemValuesParams(ItemVO vo) {
+        return new Object[] { timeParameter(vo), vo.getValue() };
+    }
+
     @Override
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name) {
@@ -83,6 +83,18 @@ public class JdbcH2DAO extends JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String insertItemValuesProvider(String tableName, String dbType) {
+        return StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUE,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { tableName, dbType, "?" });
+    }
+
+    @Override
+    protected Object[] insertItemValuesParams(ItemVO vo) {
+        return new Object[] { timeParameter(vo), vo.getValue() };
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
@@ -117,6 +117,18 @@ public class JdbcHsqldbDAO extends JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String insertItemValuesProvider(String tableName, String dbType) {
+        return StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUE,
+                new String[] { "#tableName#", "#dbType#", "#tableName#", "#tablePrimaryValue#" },
+                new String[] { tableName, dbType, tableName, "CAST( ? AS TIMESTAMP)" });
+    }
+
+    @Override
+    protected Object[] insertItemValuesParams(ItemVO vo) {
+        return new Object[] { timeParameter(vo), vo.getValue() };
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
 import org.knowm.yank.Yank;
 import org.openhab.core.items.Item;
 import org.openhab.persistence.jdbc.model.ItemVO;
@@ -31,6 +33,9 @@ import org.slf4j.LoggerFactory;
 public class JdbcSqliteDAO extends JdbcBaseDAO {
     private static final Logger logger = LoggerFactory.getLogger(JdbcSqliteDAO.class);
 
+    // same format as the local time generated by strftime() in SQL_INSERT_ITEM_VALUE
+    private static final DateTimeFormatter sqliteTimeFormat = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
     /********
      * INIT *
      ********/
@@ -102,6 +107,23 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String insertItemValuesProvider(String tableName, String dbType) {
+        return StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUE,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { tableName, dbType, "?" });
+    }
+
+    @Override
+    protected Object[] insertItemValuesParams(ItemVO vo) {
+        return new Object[] { timeParameter(vo), vo.getValue() };
+    }
+
+    @Override
+    protected Object timeParameter(ItemVO vo) {
+        return sqliteTimeFormat.print(vo.getTime().getTime());
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
@@ -56,6 +56,9 @@ public class JdbcConfiguration {
     private String tableNamePrefix = "item";
     private int tableIdDigitCount = 4;
     private boolean rebuildTableNames = false;
+    private int batchSize = 100;
+    private int flushInterval = 1000;
+    private int queueSize = 10000;
 
     private int errReconnectThreshold = 0;
 
@@ -168,6 +171,24 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String bs = (String) configuration.get("batchSize");
+        if (StringUtils.isNotBlank(bs) && StringUtils.isNumeric(bs)) {
+            batchSize = Integer.parseInt(bs);
+            logger.debug("JDBC::updateConfig: batchSize={}", batchSize);
+        }
+
+        String fi = (String) configuration.get("flushInterval");
+        if (StringUtils.isNotBlank(fi) && StringUtils.isNumeric(fi)) {
+            flushInterval = Integer.parseInt(fi);
+            logger.debug("JDBC::updateConfig: flushInterval={}", flushInterval);
+        }
+
+        String qs = (String) configuration.get("queueSize");
+        if (StringUtils.isNotBlank(qs) && StringUtils.isNumeric(qs)) {
+            queueSize = Integer.parseInt(qs);
+            logger.debug("JDBC::updateConfig: queueSize={}", queueSize);
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (StringUtils.isNotBlank(ac)) {
@@ -347,6 +368,18 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
@@ -39,6 +39,7 @@ public class JdbcMapper {
     protected boolean initialized = false;
     protected JdbcConfiguration conf = null;
     protected Map<String, String> sqlTables = new HashMap<String, String>();
+    protected volatile JdbcWriteQueue writeQueue = null;
     private long afterAccessMin = 10000;
     private long afterAccessMax = 0;
     private static final String ITEM_NAME_PATTERN = "[^a-zA-Z_0-9\\-]";
@@ -141,6 +142,12 @@ public class JdbcMapper {
             logger.error("JDBC::store: Unable to store item '{}'.", item.getName());
             return item;
         }
+        JdbcWriteQueue queue = writeQueue;
+        if (queue != null) {
+            // written later by the writer thread within a batch
+            queue.add(conf.getDBDAO().createItemValue(item, tableName));
+            return item;
+        }
         long timerStart = System.currentTimeMillis();
         conf.getDBDAO().doStoreItemValue(item, new ItemVO(tableName, null));
         logTime("storeItemValue", timerStart, System.currentTimeMillis());
@@ -148,12 +155,28 @@ public class JdbcMapper {
         return item;
     }
 
+    public boolean storeItemValues(String tableName, String dbType, List<ItemVO> vol) {
+        logger.debug("JDBC::storeItemValues: table={} rows={}", tableName, vol.size());
+        long timerStart = System.currentTimeMillis();
+        boolean stored = conf.getDBDAO().doStoreItemValues(tableName, dbType, vol);
+        logTime("storeItemValues", timerStart, System.currentTimeMillis());
+        if (stored) {
+            errCnt = 0;
+        }
+        return stored;
+    }
+
     public List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
             Item item) {
         logger.debug(
                 "JDBC::getHistItemFilterQuery filter='{}' numberDecimalcount='{}' table='{}' item='{}' itemName='{}'",
                 (filter != null), numberDecimalcount, table, item, item.getName());
         if (table != null) {
+            JdbcWriteQueue queue = writeQueue;
+            if (queue != null) {
+                // the query has to see the values which are still waiting to be written
+                queue.flush(table);
+            }
             long timerStart = System.currentTimeMillis();
             List<HistoricItem> r = conf.getDBDAO().doGetHistItemFilterQuery(item, filter, numberDecimalcount, table,
                     item.getName());
@@ -165,6 +188,29 @@ public class JdbcMapper {
         return null;
     }
 
+    /***************
+     * WRITE QUEUE *
+     ***************/
+    protected void startWriteQueue() {
+        logger.debug("JDBC::startWriteQueue: batchSize={} flushInterval={} queueSize={}", conf.getBatchSize(),
+                conf.getFlushInterval(), conf.getQueueSize());
+        writeQueue = new JdbcWriteQueue(new JdbcWriteQueue.Writer() {
+            @Override
+            public boolean write(String tableName, String dbType, List<ItemVO> vol) {
+                return storeItemValues(tableName, dbType, vol);
+            }
+        }, conf.getBatchSize(), conf.getFlushInterval(), conf.getQueueSize());
+    }
+
+    protected void stopWriteQueue() {
+        JdbcWriteQueue queue = writeQueue;
+        if (queue != null) {
+            logger.debug("JDBC::stopWriteQueue: writing remaining values");
+            queue.shutdown();
+            writeQueue = null;
+        }
+    }
+
     /***********************
      * DATABASE CONNECTION *
      ***********************/
@@ -84,6 +84,7 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
      */
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
+        stopWriteQueue();
         // closeConnection();
         this.bundleContext = null;
         initialized = false;
@@ -218,7 +219,10 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
+        // values queued with the former configuration are written before it is replaced
+        stopWriteQueue();
         conf = new JdbcConfiguration(configuration);
+        startWriteQueue();
         if (checkDBAccessability()) {
             checkDBSchema();
             // connection has been established ... initialization completed!
@@ -0,0 +1,293 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.persistence.jdbc.model.ItemVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind queue of the values to store. Values are queued by the persistence
+ * manager and written by a single writer thread, grouped per table into JDBC batch
+ * inserts. The queue is flushed every <code>flushInterval</code> milliseconds and as
+ * soon as <code>batchSize</code> values are waiting. While <code>queueSize</code>
+ * values are waiting, further values are dropped.
+ * <p>
+ * The time of a value is its primary key, so of several values queued for the same
+ * table at the same time only the last one is written. If a batch fails, its values
+ * are written one at a time, so that a single bad value doesn't drop the others.
+ *
+ * @since 1.14.0
+ */
+class JdbcWriteQueue {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcWriteQueue.class);
+
+    /**
+     * Writes the values of one table.
+     */
+    interface Writer {
+        /**
+         * @return true if the values have been written
+         */
+        boolean write(String tableName, String dbType, List<ItemVO> vol);
+    }
+
+    private final Writer writer;
+    private final int batchSize;
+    private final int queueSize;
+
+    private final List<ItemVO> queue = new ArrayList<ItemVO>();
+    private final Object writeLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService executor;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushRequested.set(false);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                logger.error("JDBC::flush: writing queued values failed", e);
+            }
+        }
+    };
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushTime = new AtomicLong();
+    private volatile long lastFlushTime;
+    private volatile long maxFlushTime;
+
+    JdbcWriteQueue(Writer writer, int batchSize, int flushInterval, int queueSize) {
+        this.writer = writer;
+        this.batchSize = Math.max(1, batchSize);
+        this.queueSize = Math.max(this.batchSize, queueSize);
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "JDBC Writer");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        int interval = Math.max(1, flushInterval);
+        executor.scheduleWithFixedDelay(flushTask, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a value. This method never blocks on the database.
+     *
+     * @param vo the value created by the DAO, including table name and time
+     */
+    void add(ItemVO vo) {
+        int depth;
+        synchronized (queue) {
+            if (queue.size() >= queueSize) {
+                dropped.incrementAndGet();
+                logger.warn("JDBC::add: write queue is full ({} values), dropping value for table '{}'", queueSize,
+                        vo.getTableName());
+                return;
+            }
+            queue.add(vo);
+            depth = queue.size();
+        }
+        if (depth >= batchSize && flushRequested.compareAndSet(false, true)) {
+            executor.execute(flushTask);
+        }
+    }
+
+    /**
+     * Writes all queued values.
+     */
+    void flush() {
+        synchronized (writeLock) {
+            List<ItemVO> vol;
+            synchronized (queue) {
+                if (queue.isEmpty()) {
+                    return;
+                }
+                vol = new ArrayList<ItemVO>(queue);
+                queue.clear();
+            }
+            write(vol);
+        }
+    }
+
+    /**
+     * Writes the queued values of a single table, so that a following query sees
+     * them.
+     *
+     * @param tableName the table to flush
+     */
+    void flush(String tableName) {
+        synchronized (writeLock) {
+            List<ItemVO> vol = new ArrayList<ItemVO>();
+            synchronized (queue) {
+                Iterator<ItemVO> it = queue.iterator();
+                while (it.hasNext()) {
+                    ItemVO vo = it.next();
+                    if (tableName.equals(vo.getTableName())) {
+                        vol.add(vo);
+                        it.remove();
+                    }
+                }
+            }
+            if (!vol.isEmpty()) {
+                write(vol);
+            }
+        }
+    }
+
+    /**
+     * Stops the writer thread and writes the remaining values.
+     */
+    void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.debug("JDBC::shutdown: {}", this);
+    }
+
+    private void write(List<ItemVO> vol) {
+        long timerStart = System.currentTimeMillis();
+
+        // group the values per table, keeping their order within each table and only
+        // the last of several values with the same time, which is the primary key
+        Map<String, Map<Object, ItemVO>> tables = new LinkedHashMap<String, Map<Object, ItemVO>>();
+        for (ItemVO vo : vol) {
+            String key = vo.getTableName() + "#" + vo.getDbType();
+            Map<Object, ItemVO> rows = tables.get(key);
+            if (rows == null) {
+                rows = new LinkedHashMap<Object, ItemVO>();
+                tables.put(key, rows);
+            }
+            Object time = vo.getTime() != null ? vo.getTime().getTime() : new Object();
+            if (rows.put(time, vo) != null) {
+                coalesced.incrementAndGet();
+            }
+        }
+
+        for (Map<Object, ItemVO> tableRows : tables.values()) {
+            List<ItemVO> rows = new ArrayList<ItemVO>(tableRows.values());
+            for (int i = 0; i < rows.size(); i += batchSize) {
+                writeBatch(rows.subList(i, Math.min(i + batchSize, rows.size())));
+            }
+        }
+
+        long time = System.currentTimeMillis() - timerStart;
+        lastFlushTime = time;
+        if (time > maxFlushTime) {
+            maxFlushTime = time;
+        }
+        flushes.incrementAndGet();
+        totalFlushTime.addAndGet(time);
+        logger.debug("JDBC::write: stored {} value(s) in {} table(s) in {} ms", vol.size(), tables.size(), time);
+    }
+
+    private void writeBatch(List<ItemVO> batch) {
+        ItemVO first = batch.get(0);
+        if (writer.write(first.getTableName(), first.getDbType(), batch)) {
+            written.addAndGet(batch.size());
+            return;
+        }
+        if (batch.size() > 1) {
+            logger.debug("JDBC::writeBatch: batch of {} value(s) for table '{}' failed, writing them one at a time",
+                    batch.size(), first.getTableName());
+            for (ItemVO vo : batch) {
+                writeBatch(Collections.singletonList(vo));
+            }
+            return;
+        }
+        failed.incrementAndGet();
+        logger.warn("JDBC::writeBatch: could not store value in table '{}'", first.getTableName());
+    }
+
+    /**
+     * @return the number of values waiting to be written
+     */
+    int getQueueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    long getWrittenCount() {
+        return written.get();
+    }
+
+    long getFailedCount() {
+        return failed.get();
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of values which have been replaced by a later value with the same time
+     */
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the duration of the last flush in milliseconds
+     */
+    long getLastFlushTime() {
+        return lastFlushTime;
+    }
+
+    /**
+     * @return the longest duration of a flush in milliseconds
+     */
+    long getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    /**
+     * @return the average duration of a flush in milliseconds
+     */
+    long getAverageFlushTime() {
+        long count = flushes.get();
+        return count == 0 ? 0 : totalFlushTime.get() / count;
+    }
+
+    @Override
+    public String toString() {
+        return "JdbcWriteQueue [queued=" + getQueueDepth() + ", written=" + getWrittenCount() + ", failed="
+                + getFailedCount() + ", dropped=" + getDroppedCount() + ", coalesced=" + getCoalescedCount()
+                + ", lastFlush=" + getLastFlushTime() + "ms, avgFlush=" + getAverageFlushTime() + "ms, maxFlush="
+                + getMaxFlushTime() + "ms]";
+    }
+}
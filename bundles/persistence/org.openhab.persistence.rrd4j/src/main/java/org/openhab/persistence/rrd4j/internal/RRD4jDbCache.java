@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the most recently used rrd4j databases open, so that a database doesn't
+ * have to be opened and parsed again for every access. The least recently used
+ * database is closed when the capacity is exceeded.
+ * <p>
+ * Callers synchronize on the returned {@link RrdDb} while using it. As a database
+ * might be closed by an eviction in the meantime, {@link RrdDb#isClosed()} has to be
+ * checked after acquiring the lock.
+ *
+ * @since 1.14.0
+ */
+class RRD4jDbCache {
+
+    /**
+     * Opens a database which isn't cached yet.
+     */
+    interface Opener {
+
+        /**
+         * @param name the name of the database
+         * @return the opened database or <code>null</code> if it could not be opened
+         */
+        RrdDb open(String name);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(RRD4jDbCache.class);
+
+    private final Map<String, RrdDb> databases = new LinkedHashMap<String, RrdDb>(16, 0.75f, true);
+
+    private final Opener opener;
+
+    private int capacity;
+
+    RRD4jDbCache(Opener opener, int capacity) {
+        this.opener = opener;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * @param capacity the maximum number of open databases
+     */
+    void setCapacity(int capacity) {
+        List<RrdDb> evicted;
+        synchronized (databases) {
+            this.capacity = Math.max(1, capacity);
+            evicted = evict();
+        }
+        close(evicted);
+    }
+
+    /**
+     * Returns the open database of the given name, opening it if necessary.
+     *
+     * @param name the name of the database
+     * @return the database or <code>null</code> if it could not be opened
+     */
+    RrdDb get(String name) {
+        RrdDb db;
+        List<RrdDb> evicted;
+        synchronized (databases) {
+            db = databases.get(name);
+            if (db != null && !db.isClosed()) {
+                return db;
+            }
+
+            db = opener.open(name);
+            if (db == null) {
+                databases.remove(name);
+                return null;
+            }
+            databases.put(name, db);
+            evicted = evict();
+        }
+        // close evicted databases outside of the cache lock, as closing has to wait
+        // for the database to be released by its current user
+        close(evicted);
+        return db;
+    }
+
+    /**
+     * Closes all open databases.
+     */
+    void clear() {
+        List<RrdDb> evicted;
+        synchronized (databases) {
+            evicted = new ArrayList<RrdDb>(databases.values());
+            databases.clear();
+        }
+        close(evicted);
+    }
+
+    private List<RrdDb> evict() {
+        List<RrdDb> evicted = new ArrayList<RrdDb>();
+        Iterator<RrdDb> iterator = databases.values().iterator();
+        while (databases.size() > capacity && iterator.hasNext()) {
+            evicted.add(iterator.next());
+            iterator.remove();
+        }
+        return evicted;
+    }
+
+    private void close(List<RrdDb> evicted) {
+        for (RrdDb db : evicted) {
+            synchronized (db) {
+                try {
+                    if (!db.isClosed()) {
+                        db.close();
+                    }
+                } catch (IOException e) {
+                    logger.debug("Error closing rrd4j database: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
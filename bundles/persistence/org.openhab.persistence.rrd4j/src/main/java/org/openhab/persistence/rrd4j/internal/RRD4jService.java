@@ -17,15 +17,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -53,6 +52,7 @@ import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
 import org.rrd4j.core.Sample;
@@ -71,17 +71,39 @@ import org.slf4j.LoggerFactory;
  */
 public class RRD4jService implements QueryablePersistenceService {
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(3, new NamedThreadFactory());
+    private static final String DATASOURCE_STATE = "state";
 
-    private ConcurrentHashMap<String, RrdDefConfig> rrdDefs = new ConcurrentHashMap<String, RrdDefConfig>();
+    private static final String CONFIG_CACHE_SIZE = "cacheSize";
 
-    private static final String DATASOURCE_STATE = "state";
+    /** the default maximum number of databases kept open */
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+
+    /** the rrd4j backend which keeps the open databases memory-mapped */
+    private static final String BACKEND_FACTORY = "NIO";
 
     public final static String DB_FOLDER = getUserPersistenceDataFolder() + File.separator + "rrd4j";
 
     private static final Logger logger = LoggerFactory.getLogger(RRD4jService.class);
 
-    private Map<String, ScheduledFuture<?>> scheduledJobs = new HashMap<String, ScheduledFuture<?>>();
+    private ConcurrentHashMap<String, RrdDefConfig> rrdDefs = new ConcurrentHashMap<String, RrdDefConfig>();
+
+    private final RRD4jDbCache dbCache = new RRD4jDbCache(new RRD4jDbCache.Opener() {
+        @Override
+        public RrdDb open(String name) {
+            return openDB(name);
+        }
+    }, DEFAULT_CACHE_SIZE);
+
+    /**
+     * the samples which have not been written yet per database, samples of the
+     * same second are coalesced
+     */
+    private final Map<String, List<PendingSample>> pendingSamples = new LinkedHashMap<String, List<PendingSample>>();
+
+    /** serializes the writes of the writer thread and of queries flushing their database */
+    private final Object writeLock = new Object();
+
+    private ScheduledExecutorService writer;
 
     protected ItemRegistry itemRegistry;
 
@@ -105,82 +127,33 @@ public class RRD4jService implements QueryablePersistenceService {
      * @{inheritDoc}
      */
     @Override
-    public synchronized void store(final Item item, final String alias) {
+    public void store(final Item item, final String alias) {
         final String name = alias == null ? item.getName() : alias;
-        RrdDb db = getDB(name);
-        if (db != null) {
-            ConsolFun function = getConsolidationFunction(db);
-            long now = System.currentTimeMillis() / 1000;
-            if (function != ConsolFun.AVERAGE) {
-                try {
-                    // we store the last value again, so that the value change
-                    // in the database is not interpolated, but
-                    // happens right at this spot
-                    if (now - 1 > db.getLastUpdateTime()) {
-                        // only do it if there is not already a value
-                        double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
-                        if (!Double.isNaN(lastValue)) {
-                            Sample sample = db.createSample();
-                            sample.setTime(now - 1);
-                            sample.setValue(DATASOURCE_STATE, lastValue);
-                            sample.update();
-                            logger.debug("Stored '{}' with state '{}' in rrd4j database (again)", name,
-                                    mapToState(lastValue, item.getName()));
-                        }
-                    }
-                } catch (IOException e) {
-                    logger.debug("Error storing last value (again): {}", e.getMessage());
-                }
-            }
-            try {
-                Sample sample = db.createSample();
-                sample.setTime(now);
-
-                DecimalType state = (DecimalType) item.getStateAs(DecimalType.class);
-                if (state != null) {
-                    double value = state.toBigDecimal().doubleValue();
-                    if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) { // counter
-                        // values
-                        // must
-                        // be
-                        // adjusted
-                        // by
-                        // stepsize
-                        value = value * db.getRrdDef().getStep();
-                    }
-                    sample.setValue(DATASOURCE_STATE, value);
-                    sample.update();
-                    logger.debug("Stored '{}' with state '{}' in rrd4j database", name, state);
-                }
-            } catch (IllegalArgumentException e) {
-                if (e.getMessage().contains("at least one second step is required")) {
-
-                    // we try to store the value one second later
-                    Runnable task = new Runnable() {
-                        @Override
-                        public void run() {
-                            store(item, name);
-                        }
-                    };
-                    ScheduledFuture<?> job = scheduledJobs.get(name);
-                    if (job != null) {
-                        job.cancel(true);
-                        scheduledJobs.remove(name);
-                    }
-                    job = scheduler.schedule(task, 1, TimeUnit.SECONDS);
-                    scheduledJobs.put(name, job);
-                } else {
-                    logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
-                }
-            } catch (Exception e) {
-                logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+
+        DecimalType state = (DecimalType) item.getStateAs(DecimalType.class);
+        if (state == null) {
+            return;
+        }
+
+        // the sample is only queued here, it is written by the writer thread
+        PendingSample sample = new PendingSample(System.currentTimeMillis() / 1000,
+                state.toBigDecimal().doubleValue());
+        synchronized (pendingSamples) {
+            List<PendingSample> samples = pendingSamples.get(name);
+            if (samples == null) {
+                samples = new ArrayList<PendingSample>(1);
+                pendingSamples.put(name, samples);
             }
-            try {
-                db.close();
-            } catch (IOException e) {
-                logger.debug("Error closing rrd4j database: {}", e.getMessage());
+            PendingSample last = samples.isEmpty() ? null : samples.get(samples.size() - 1);
+            if (last != null && last.time >= sample.time) {
+                // rrd4j requires at least one second between two samples, so only
+                // the latest value of a second is kept
+                last.value = sample.value;
+            } else {
+                samples.add(sample);
             }
         }
+        logger.trace("Queued '{}' with state '{}' for rrd4j database", name, state);
     }
 
     /**
@@ -191,83 +164,199 @@ public class RRD4jService implements QueryablePersistenceService {
         store(item, null);
     }
 
+    /**
+     * Writes all queued samples. Called once per second by the writer thread.
+     */
+    private void flush() {
+        Map<String, List<PendingSample>> samples;
+        synchronized (pendingSamples) {
+            if (pendingSamples.isEmpty()) {
+                return;
+            }
+            samples = new LinkedHashMap<String, List<PendingSample>>(pendingSamples);
+            pendingSamples.clear();
+        }
+
+        synchronized (writeLock) {
+            for (Map.Entry<String, List<PendingSample>> entry : samples.entrySet()) {
+                write(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes the queued samples of a single database, so that a following query
+     * returns the latest state.
+     *
+     * @param name the name of the database
+     */
+    private void flush(String name) {
+        synchronized (writeLock) {
+            List<PendingSample> samples;
+            synchronized (pendingSamples) {
+                samples = pendingSamples.remove(name);
+            }
+            if (samples != null) {
+                write(name, samples);
+            }
+        }
+    }
+
+    private void write(String name, List<PendingSample> samples) {
+        while (true) {
+            RrdDb db = getDB(name);
+            if (db == null) {
+                return;
+            }
+            synchronized (db) {
+                if (!db.isClosed()) {
+                    for (PendingSample sample : samples) {
+                        write(name, db, sample);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void write(String name, RrdDb db, PendingSample pendingSample) {
+        try {
+            long lastUpdate = db.getLastUpdateTime();
+            long time = Math.max(pendingSample.time, lastUpdate + 1);
+
+            ConsolFun function = getConsolidationFunction(db);
+            if (function != ConsolFun.AVERAGE && time - 1 > lastUpdate) {
+                // we store the last value again, so that the value change
+                // in the database is not interpolated, but
+                // happens right at this spot
+                double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                if (!Double.isNaN(lastValue)) {
+                    Sample sample = db.createSample();
+                    sample.setTime(time - 1);
+                    sample.setValue(DATASOURCE_STATE, lastValue);
+                    sample.update();
+                    logger.debug("Stored '{}' with state '{}' in rrd4j database (again)", name,
+                            mapToState(lastValue, name));
+                }
+            }
+
+            double value = pendingSample.value;
+            if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) {
+                // counter values must be adjusted by stepsize
+                value = value * db.getRrdDef().getStep();
+            }
+            Sample sample = db.createSample();
+            sample.setTime(time);
+            sample.setValue(DATASOURCE_STATE, value);
+            sample.update();
+            logger.debug("Stored '{}' with state '{}' in rrd4j database", name, pendingSample.value);
+        } catch (Exception e) {
+            logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+        }
+    }
+
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         String itemName = filter.getItemName();
-        RrdDb db = getDB(itemName);
-        if (db != null) {
-            ConsolFun consolidationFunction = getConsolidationFunction(db);
-            long start = 0L;
-            long end = filter.getEndDate() == null ? System.currentTimeMillis() / 1000
-                    : filter.getEndDate().getTime() / 1000;
+        flush(itemName);
 
-            try {
-                if (filter.getBeginDate() == null) {
-                    // as rrd goes back for years and gets more and more
-                    // inaccurate, we only support descending order
-                    // and a single return value
-                    // if there is no begin date is given - this case is
-                    // required specifically for the historicState()
-                    // query, which we
-                    // want to support
-                    if (filter.getOrdering() == Ordering.DESCENDING && filter.getPageSize() == 1
-                            && filter.getPageNumber() == 0) {
-                        if (filter.getEndDate() == null) {
-                            // we are asked only for the most recent value!
-                            double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
-                            if (!Double.isNaN(lastValue)) {
-                                HistoricItem rrd4jItem = new RRD4jItem(itemName, mapToState(lastValue, itemName),
-                                        new Date(db.getLastArchiveUpdateTime() * 1000));
-                                return Collections.singletonList(rrd4jItem);
-                            } else {
-                                return Collections.emptyList();
-                            }
+        while (true) {
+            RrdDb db = getDB(itemName);
+            if (db == null) {
+                return Collections.emptyList();
+            }
+            synchronized (db) {
+                if (!db.isClosed()) {
+                    return query(filter, db);
+                }
+            }
+        }
+    }
+
+    private Iterable<HistoricItem> query(FilterCriteria filter, RrdDb db) {
+        String itemName = filter.getItemName();
+        ConsolFun consolidationFunction = getConsolidationFunction(db);
+        long start = 0L;
+        long end = filter.getEndDate() == null ? System.currentTimeMillis() / 1000
+                : filter.getEndDate().getTime() / 1000;
+
+        try {
+            if (filter.getBeginDate() == null) {
+                // as rrd goes back for years and gets more and more
+                // inaccurate, we only support descending order
+                // and a single return value
+                // if there is no begin date is given - this case is
+                // required specifically for the historicState()
+                // query, which we
+                // want to support
+                if (filter.getOrdering() == Ordering.DESCENDING && filter.getPageSize() == 1
+                        && filter.getPageNumber() == 0) {
+                    if (filter.getEndDate() == null) {
+                        // we are asked only for the most recent value!
+                        double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                        if (!Double.isNaN(lastValue)) {
+                            HistoricItem rrd4jItem = new RRD4jItem(itemName, mapToState(lastValue, itemName),
+                                    new Date(db.getLastArchiveUpdateTime() * 1000));
+                            return Collections.singletonList(rrd4jItem);
                         } else {
-                            start = end;
+                            return Collections.emptyList();
                         }
                     } else {
-                        throw new UnsupportedOperationException("rrd4j does not allow querys without a begin date, "
-                                + "unless order is descending and a single value is requested");
+                        start = end;
                     }
                 } else {
-                    start = filter.getBeginDate().getTime() / 1000;
+                    throw new UnsupportedOperationException("rrd4j does not allow querys without a begin date, "
+                            + "unless order is descending and a single value is requested");
                 }
-                FetchRequest request = db.createFetchRequest(consolidationFunction, start, end, 1);
-
-                List<HistoricItem> items = new ArrayList<HistoricItem>();
-                FetchData result = request.fetchData();
-                long ts = result.getFirstTimestamp();
-                long step = result.getRowCount() > 1 ? result.getStep() : 0;
-                for (double value : result.getValues(DATASOURCE_STATE)) {
-                    if (!Double.isNaN(value) && (((ts >= start) && (ts <= end)) || (start == end))) {
-                        RRD4jItem rrd4jItem = new RRD4jItem(itemName, mapToState(value, itemName), new Date(ts * 1000));
-                        items.add(rrd4jItem);
-                    }
-                    ts += step;
+            } else {
+                start = filter.getBeginDate().getTime() / 1000;
+            }
+            FetchRequest request = db.createFetchRequest(consolidationFunction, start, end, 1);
+
+            List<HistoricItem> items = new ArrayList<HistoricItem>();
+            FetchData result = request.fetchData();
+            long ts = result.getFirstTimestamp();
+            long step = result.getRowCount() > 1 ? result.getStep() : 0;
+            for (double value : result.getValues(DATASOURCE_STATE)) {
+                if (!Double.isNaN(value) && (((ts >= start) && (ts <= end)) || (start == end))) {
+                    RRD4jItem rrd4jItem = new RRD4jItem(itemName, mapToState(value, itemName), new Date(ts * 1000));
+                    items.add(rrd4jItem);
                 }
-                return items;
-            } catch (IOException e) {
-                logger.warn("Could not query rrd4j database for item '{}': {}", itemName, e.getMessage());
+                ts += step;
             }
+            return items;
+        } catch (IOException e) {
+            logger.warn("Could not query rrd4j database for item '{}': {}", itemName, e.getMessage());
         }
         return Collections.emptyList();
     }
 
-    protected synchronized RrdDb getDB(String alias) {
+    /**
+     * Returns the open database of the given name from the cache. Callers have to
+     * synchronize on the database and check that it hasn't been closed in between.
+     *
+     * @param alias the name of the database
+     * @return the database or <code>null</code> if it could not be opened
+     */
+    protected RrdDb getDB(String alias) {
+        return dbCache.get(alias);
+    }
+
+    private RrdDb openDB(String alias) {
         RrdDb db = null;
         File file = new File(DB_FOLDER + File.separator + alias + ".rrd");
         try {
+            RrdBackendFactory factory = RrdBackendFactory.getFactory(BACKEND_FACTORY);
             if (file.exists()) {
                 // recreate the RrdDb instance from the file
-                db = new RrdDb(file.getAbsolutePath());
+                db = new RrdDb(file.getAbsolutePath(), factory);
             } else {
                 File folder = new File(DB_FOLDER);
                 if (!folder.exists()) {
                     folder.mkdirs();
                 }
                 // create a new database file
-                // db = new RrdDb(getRrdDef(function, file));
-                db = new RrdDb(getRrdDef(alias, file));
+                db = new RrdDb(getRrdDef(alias, file), factory);
             }
         } catch (IOException e) {
             logger.error("Could not create rrd4j database file '{}': {}", file.getAbsolutePath(), e.getMessage());
@@ -364,6 +453,20 @@ public class RRD4jService implements QueryablePersistenceService {
      */
     public void activate(final Map<String, Object> config) {
 
+        if (writer == null) {
+            writer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory());
+            writer.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        flush();
+                    } catch (RuntimeException e) {
+                        logger.warn("Error writing to rrd4j databases", e);
+                    }
+                }
+            }, 1, 1, TimeUnit.SECONDS);
+        }
+
         // add default configurations
         RrdDefConfig defaultNumeric = new RrdDefConfig("default_numeric");
         defaultNumeric.setDef("GAUGE,60,U,U,60");
@@ -392,6 +495,15 @@ public class RRD4jService implements QueryablePersistenceService {
                 continue;
             }
 
+            if (key.equals(CONFIG_CACHE_SIZE)) {
+                try {
+                    dbCache.setCapacity(Integer.parseInt(String.valueOf(config.get(key))));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring illegal configuration: {}", e.getMessage());
+                }
+                continue;
+            }
+
             String[] subkeys = key.split("\\.");
             if (subkeys.length != 2) {
                 logger.debug("config '{}' should have the format 'name.configkey'", key);
@@ -443,6 +555,36 @@ public class RRD4jService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * Writes the queued samples and closes all open databases.
+     */
+    public void deactivate() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        flush();
+        dbCache.clear();
+    }
+
+    /**
+     * A queued value of a database together with the second it has been stored at.
+     */
+    private static class PendingSample {
+        final long time;
+        double value;
+
+        PendingSample(long time, double value) {
+            this.time = time;
+            this.value = value;
+        }
+    }
+
     private class RrdArchiveDef {
         public ConsolFun fcn;
         public double xff;
@@ -600,7 +742,7 @@ public class RRD4jService implements QueryablePersistenceService {
         protected final String namePrefix;
 
         public NamedThreadFactory() {
-            this.namePrefix = "RRD4J Store Pool-";
+            this.namePrefix = "RRD4J Writer-";
             SecurityManager s = System.getSecurityManager();
             group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
         }